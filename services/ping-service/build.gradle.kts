@@ -15,6 +15,15 @@ repositories {
 val springCloudVersion = "2024.0.1"
 val mapStructVersion = "1.6.3"
 val lombokVersion = "1.18.36"
+val jmhVersion = "1.37"
+
+// JMH benchmarks of the hot paths, compiled against the main classes and the test dependencies
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output + sourceSets["test"].compileClasspath
+        runtimeClasspath += sourceSets["main"].output + sourceSets["test"].runtimeClasspath
+    }
+}
 
 dependencies {
     // Common module for standardized logging
@@ -30,6 +39,10 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
 
+    // Metrics
+    implementation("io.micrometer:micrometer-core")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+
     // Database
     implementation("org.postgresql:postgresql")
     implementation("com.zaxxer:HikariCP")
@@ -61,7 +74,12 @@ dependencies {
     testImplementation("org.testcontainers:postgresql")
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("io.rest-assured:rest-assured")
+    testImplementation("org.springframework.kafka:spring-kafka-test")
     testRuntimeOnly("com.h2database:h2")
+
+    // Benchmarks
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmhVersion}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion}")
 }
 
 dependencyManagement {
@@ -70,10 +88,53 @@ dependencyManagement {
     }
 }
 
+// The ICMP probe engine uses the FFM API, which is a preview feature in Java 21
+tasks.withType<JavaCompile> {
+    options.compilerArgs.add("--enable-preview")
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
+    jvmArgs("--enable-preview", "--enable-native-access=ALL-UNNAMED")
+}
+
+tasks.withType<JavaExec> {
+    jvmArgs("--enable-preview", "--enable-native-access=ALL-UNNAMED")
 }
 
 tasks.named("test").configure {
     enabled = true
+}
+
+tasks.register<JavaExec>("schedulingBenchmark") {
+    group = "verification"
+    description = "Compares heap per target and firing lag of the ping scheduling engines at 10k, 100k and 500k targets"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("io.thatworked.support.ping.infrastructure.executor.SchedulingEngineBenchmark")
+    maxHeapSize = "4g"
+}
+
+tasks.register<JavaExec>("loadHarness") {
+    group = "verification"
+    description = "Runs the ping pipeline against the simulated network with 100k virtual targets"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("io.thatworked.support.ping.PingLoadHarness")
+    maxHeapSize = "4g"
+}
+
+// Forked benchmark JVMs inherit the preview flags above. Pass -PjmhInclude=<regex> to run a subset;
+// keep results.json from a release and compare it with the next run to spot regressions
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with the GC profiler and writes JSON results to build/reports/jmh"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.path, "-foe", "true")
+    if (project.hasProperty("jmhInclude")) {
+        args(project.property("jmhInclude").toString())
+    }
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
 }
\ No newline at end of file
@@ -1,4 +1,4 @@
 #!/bin/sh
 set -e
 
-exec java -jar /app/app.jar "$@"
\ No newline at end of file
+exec java --enable-preview --enable-native-access=ALL-UNNAMED -jar /app/app.jar "$@"
\ No newline at end of file
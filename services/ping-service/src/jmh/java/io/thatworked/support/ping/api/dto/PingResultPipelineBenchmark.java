@@ -0,0 +1,86 @@
+package io.thatworked.support.ping.api.dto;
+
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.config.KafkaConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What every reachable probe costs between its reply and the bytes handed to the Kafka producer:
+ * building the {@link PingResult}, converting it to the published event and serializing that
+ * with the value serializer configured in {@code application-kafka.yml}. Each stage is measured
+ * on its own and together, so allocations per operation can be attributed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PingResultPipelineBenchmark {
+
+    private static final String DEVICE_NAME = "core-switch-01";
+    private static final String IP_ADDRESS = "10.0.0.1";
+
+    private final UUID deviceId = UUID.randomUUID();
+    private JsonSerializer<Object> serializer;
+    private PingResult result;
+    private PingResultEvent event;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        result = buildResult();
+        event = toEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public PingResult buildResult() {
+        return PingResult.builder()
+            .time(Instant.now())
+            .deviceId(deviceId)
+            .status(PingStatus.SUCCESS)
+            .roundTripTime(1.25)
+            .build();
+    }
+
+    @Benchmark
+    public PingResultEvent toEvent() {
+        PingResultDTO dto = PingResultDTO.fromDomain(result);
+        return PingResultEvent.fromPingResult(dto, DEVICE_NAME, IP_ADDRESS);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(KafkaConfig.PING_RESULTS_TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] pipeline() {
+        PingResultDTO dto = PingResultDTO.fromDomain(buildResult());
+        return serializer.serialize(KafkaConfig.PING_RESULTS_TOPIC,
+            PingResultEvent.fromPingResult(dto, DEVICE_NAME, IP_ADDRESS));
+    }
+}
\ No newline at end of file
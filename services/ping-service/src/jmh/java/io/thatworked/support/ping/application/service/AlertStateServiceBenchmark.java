@@ -0,0 +1,177 @@
+package io.thatworked.support.ping.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AlertingConfig;
+import io.thatworked.support.ping.config.DeviceCacheConfig;
+import io.thatworked.support.ping.config.ResultPublisherConfig;
+import io.thatworked.support.ping.domain.MonitoredDevice;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
+import io.thatworked.support.ping.infrastructure.event.PingResultEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.publisher.PingResultPublisher;
+import io.thatworked.support.ping.infrastructure.repository.jpa.MonitoredDeviceRepository;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Handling of every ping result through {@link AlertStateService#handlePingResult}: the cached
+ * device lookup, the result event handed to the publisher and the alert state update, with a Kafka
+ * producer that acknowledges every send at once.
+ *
+ * <p>{@link #healthy} is the common case, a success on a device that is already up. {@link #flapping}
+ * feeds every device failures until it goes down and successes until it recovers, so two results
+ * in each cycle cross a threshold and also send the alert events. Each thread owns its devices, as
+ * results of one device arrive in order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Thread)
+public class AlertStateServiceBenchmark {
+
+    private static final AlertingConfig ALERTING = new AlertingConfig();
+    // Failures until down, then successes until recovered
+    private static final boolean[] FLAP = flapPattern(ALERTING.getFailureThreshold(), ALERTING.getRecoveryThreshold());
+
+    @Param({"1000", "100000"})
+    private int devices;
+
+    private AlertStateService service;
+    private PingResultEvent[] successes;
+    private PingResultEvent[] failures;
+    private int next;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        StructuredLoggerFactory structuredLoggerFactory = new StructuredLoggerFactory();
+        ProducerFactory<String, Object> producerFactory = acknowledgingProducerFactory();
+
+        // Devices are loaded once below and then served from the device cache
+        MonitoredDeviceRepository repository = mock(MonitoredDeviceRepository.class);
+        when(repository.findById(any())).thenAnswer(invocation ->
+            Optional.of(new MonitoredDevice(invocation.getArgument(0), "core-switch-01", "10.0.0.1")));
+        MonitoredDeviceService monitoredDeviceService =
+            new MonitoredDeviceService(structuredLoggerFactory, repository, null, new DeviceCacheConfig());
+
+        // Updates never touch the repository, JDBC or the snapshot; only loads and flushes do, and none run here
+        AlertStateStore alertStateStore = new AlertStateStore(structuredLoggerFactory, null, null, ALERTING, null);
+        PingResultPublisher publisher = new PingResultPublisher(structuredLoggerFactory, producerFactory,
+            new ResultPublisherConfig(), new PingMeters(new SimpleMeterRegistry()));
+        service = new AlertStateService(structuredLoggerFactory, alertStateStore, null, monitoredDeviceService,
+            new KafkaTemplate<>(producerFactory), publisher, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "failureThreshold", ALERTING.getFailureThreshold());
+        ReflectionTestUtils.setField(service, "recoveryThreshold", ALERTING.getRecoveryThreshold());
+        ReflectionTestUtils.setField(service, "alertingEnabled", true);
+
+        successes = new PingResultEvent[devices];
+        failures = new PingResultEvent[devices];
+        for (int i = 0; i < devices; i++) {
+            UUID deviceId = UUID.randomUUID();
+            successes[i] = resultEvent(deviceId, PingStatus.SUCCESS, 1.25);
+            failures[i] = resultEvent(deviceId, PingStatus.TIMEOUT, null);
+            service.handlePingResult(successes[i]);
+        }
+    }
+
+    private static PingResultEvent resultEvent(UUID deviceId, PingStatus status, Double roundTripTime) {
+        return new PingResultEvent(PingResult.builder()
+            .time(Instant.now())
+            .deviceId(deviceId)
+            .status(status)
+            .roundTripTime(roundTripTime)
+            .build());
+    }
+
+    /**
+     * Producers that complete every send without serializing or buffering the record
+     */
+    private static ProducerFactory<String, Object> acknowledgingProducerFactory() {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("benchmark", 0), 0, 0, 0, 0, 0);
+        @SuppressWarnings("unchecked")
+        Producer<String, Object> producer = (Producer<String, Object>) Proxy.newProxyInstance(
+            Producer.class.getClassLoader(), new Class<?>[] {Producer.class}, (proxy, method, args) -> {
+                if (method.getName().equals("send")) {
+                    if (args.length == 2 && args[1] != null) {
+                        ((Callback) args[1]).onCompletion(metadata, null);
+                    }
+                    return CompletableFuture.completedFuture(metadata);
+                }
+                return null;
+            });
+        return new ProducerFactory<>() {
+            @Override
+            public Producer<String, Object> createProducer() {
+                return producer;
+            }
+
+            @Override
+            public ProducerFactory<String, Object> copyWithConfigurationOverride(Map<String, Object> overrides) {
+                return this;
+            }
+        };
+    }
+
+    private static boolean[] flapPattern(int failureThreshold, int recoveryThreshold) {
+        boolean[] pattern = new boolean[failureThreshold + recoveryThreshold];
+        for (int i = failureThreshold; i < pattern.length; i++) {
+            pattern[i] = true;
+        }
+        return pattern;
+    }
+
+    private int nextDevice() {
+        if (++next == successes.length) {
+            next = 0;
+            round = round + 1 < FLAP.length ? round + 1 : 0;
+        }
+        return next;
+    }
+
+    @Benchmark
+    public void healthy() {
+        service.handlePingResult(successes[nextDevice()]);
+    }
+
+    @Benchmark
+    public void flapping() {
+        int device = nextDevice();
+        service.handlePingResult(FLAP[round] ? successes[device] : failures[device]);
+    }
+}
\ No newline at end of file
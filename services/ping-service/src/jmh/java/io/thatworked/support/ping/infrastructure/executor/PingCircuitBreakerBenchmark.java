@@ -0,0 +1,120 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.PingExecutorConfig;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker checks and failure counting with several threads hitting the same devices.
+ *
+ * <p>Every {@value #OPEN_EVERY}th device starts with an open circuit, so checks take both the
+ * closed and the open branch. The failure threshold is never reached, so recorded failures only
+ * increment the shared counters and no circuit changes state during a run. With 64 devices the
+ * threads keep colliding on the same slots; with 100k they mostly miss each other and the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PingCircuitBreakerBenchmark {
+
+    private static final int OPEN_EVERY = 8;
+
+    @Param({"64", "100000"})
+    private int devices;
+
+    private PingCircuitBreaker circuitBreaker;
+    private UUID[] deviceIds;
+
+    @Setup
+    public void setUp() {
+        PingExecutorConfig config = new PingExecutorConfig();
+        config.setCircuitBreakerEnabled(true);
+        config.setCircuitBreakerFailureThreshold(Integer.MAX_VALUE);
+
+        DeviceSlotRegistry registry = new DeviceSlotRegistry();
+        circuitBreaker = new PingCircuitBreaker(new StructuredLoggerFactory(), config, registry,
+            new PingMeters(new SimpleMeterRegistry()));
+
+        deviceIds = new UUID[devices];
+        for (int i = 0; i < devices; i++) {
+            deviceIds[i] = UUID.randomUUID();
+            int slot = registry.acquire(deviceIds[i]);
+            if (i % OPEN_EVERY == 0) {
+                registry.compareAndSetCircuitState(slot, DeviceSlotRegistry.CIRCUIT_CLOSED,
+                    DeviceSlotRegistry.CIRCUIT_OPEN, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Walks the devices in order from a random starting point, one cursor per thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup
+        public void setUp() {
+            next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+
+        UUID next(UUID[] deviceIds) {
+            if (++next >= deviceIds.length) {
+                next %= deviceIds.length;
+            }
+            return deviceIds[next];
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean shouldAllowPing(Cursor cursor) {
+        return circuitBreaker.shouldAllowPing(cursor.next(deviceIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordFailure(Cursor cursor) {
+        circuitBreaker.recordFailure(cursor.next(deviceIds));
+    }
+
+    /**
+     * Ping threads checking circuits while result handling records failures on the same devices
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public boolean mixedShouldAllowPing(Cursor cursor) {
+        return circuitBreaker.shouldAllowPing(cursor.next(deviceIds));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedRecordFailure(Cursor cursor) {
+        circuitBreaker.recordFailure(cursor.next(deviceIds));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule, cancel and dispatch cost of both scheduling engines with a fleet already scheduled.
+ *
+ * <p>The fleet's firings are an hour out, so only the measured calls touch the engine during
+ * schedule and cancel. {@link #dispatch} schedules a batch due immediately and waits until the
+ * dispatcher has received all of it, so it includes up to one tick of the wheel; for the heap
+ * retained per target and the firing lag of a live fleet at the same sizes use
+ * {@link SchedulingEngineBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PingSchedulingEngineBenchmark {
+
+    private static final Duration FLEET_INTERVAL = Duration.ofHours(1);
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final int DISPATCH_BATCH = 1_000;
+    private static final int SCHEDULER_POOL_SIZE = 2;
+
+    @Param({TimingWheelSchedulingEngine.NAME, ScheduledExecutorSchedulingEngine.NAME})
+    private String engine;
+
+    @Param({"10000", "100000", "500000"})
+    private int targets;
+
+    private PingSchedulingEngine schedulingEngine;
+    private ScheduledExecutorService scheduler;
+    private final Semaphore dispatched = new Semaphore(0);
+    private PingTask[] fleet;
+    private PingTask[] batch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if (TimingWheelSchedulingEngine.NAME.equals(engine)) {
+            schedulingEngine = new TimingWheelSchedulingEngine(new StructuredLoggerFactory(), TICK);
+        } else {
+            // Replaced futures would otherwise stay queued for the whole hour-long interval and fill the heap
+            ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(SCHEDULER_POOL_SIZE);
+            pool.setRemoveOnCancelPolicy(true);
+            scheduler = pool;
+            schedulingEngine = new ScheduledExecutorSchedulingEngine(scheduler);
+        }
+        schedulingEngine.start(tasks -> dispatched.release(tasks.size()));
+
+        fleet = tasks(targets);
+        for (int i = 0; i < targets; i++) {
+            Duration initialDelay = FLEET_INTERVAL.plus(FLEET_INTERVAL.multipliedBy(i).dividedBy(targets));
+            schedulingEngine.schedule(fleet[i], initialDelay, FLEET_INTERVAL);
+        }
+        batch = tasks(DISPATCH_BATCH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        schedulingEngine.close();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static PingTask[] tasks(int count) {
+        PingTask[] tasks = new PingTask[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = PingTask.builder()
+                .deviceId(UUID.randomUUID())
+                .ipAddress("10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF))
+                .intervalMs(FLEET_INTERVAL.toMillis())
+                .recurring(true)
+                .build();
+        }
+        return tasks;
+    }
+
+    private PingTask nextTask() {
+        if (++next == fleet.length) {
+            next = 0;
+        }
+        return fleet[next];
+    }
+
+    /**
+     * Replace the schedule of a device, as an interval change does
+     */
+    @Benchmark
+    public void reschedule() {
+        schedulingEngine.schedule(nextTask(), FLEET_INTERVAL, FLEET_INTERVAL);
+    }
+
+    /**
+     * Stop monitoring a device and start it again
+     */
+    @Benchmark
+    public boolean cancelAndSchedule() {
+        PingTask task = nextTask();
+        boolean cancelled = schedulingEngine.cancel(task.getDeviceId());
+        schedulingEngine.schedule(task, FLEET_INTERVAL, FLEET_INTERVAL);
+        return cancelled;
+    }
+
+    /**
+     * Schedule a batch of devices due now and wait until all of it reached the dispatcher
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void dispatch() throws InterruptedException {
+        for (PingTask task : batch) {
+            schedulingEngine.schedule(task, Duration.ZERO, FLEET_INTERVAL);
+        }
+        dispatched.acquire(DISPATCH_BATCH);
+    }
+}
\ No newline at end of file
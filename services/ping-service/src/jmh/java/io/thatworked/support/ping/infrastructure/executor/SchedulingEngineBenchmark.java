@@ -0,0 +1,142 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Compares the scheduling engines with a live fleet at increasing target counts.
+ *
+ * <p>For each engine and target count it measures the heap retained per scheduled target and how
+ * late firings are relative to their fixed-rate deadline, which a JMH operation cannot show. The
+ * per-operation schedule, cancel and dispatch cost at the same sizes comes from
+ * {@link PingSchedulingEngineBenchmark}. Run with {@code ./gradlew schedulingBenchmark}, optionally
+ * passing target counts as arguments.
+ */
+public class SchedulingEngineBenchmark {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(2);
+    private static final Duration MEASURE_WINDOW = Duration.ofSeconds(6);
+    private static final Duration TICK = Duration.ofMillis(100);
+    private static final int SCHEDULER_POOL_SIZE = 2;
+    private static final int MAX_LAG_MS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int[] targetCounts = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[] {10_000, 100_000, 500_000};
+
+        System.out.printf("%-20s %8s %10s %10s %10s %10s %10s%n",
+            "engine", "targets", "heap/tgt", "fired", "lag p50", "lag p99", "lag max");
+
+        for (int targets : targetCounts) {
+            run(ScheduledExecutorSchedulingEngine.NAME, targets, () -> {
+                ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(SCHEDULER_POOL_SIZE, r -> {
+                    Thread t = new Thread(r);
+                    t.setName("ping-scheduler");
+                    t.setDaemon(true);
+                    return t;
+                });
+                return new ScheduledExecutorSchedulingEngine(scheduler) {
+                    @Override
+                    public void close() {
+                        super.close();
+                        scheduler.shutdownNow();
+                    }
+                };
+            });
+            run(TimingWheelSchedulingEngine.NAME, targets, () -> new TimingWheelSchedulingEngine(new StructuredLoggerFactory(), TICK));
+        }
+    }
+
+    private static void run(String name, int targets, Supplier<PingSchedulingEngine> factory) throws Exception {
+        List<PingTask> tasks = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            tasks.add(PingTask.builder()
+                .deviceId(UUID.randomUUID())
+                .ipAddress("10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF))
+                .intervalMs(INTERVAL.toMillis())
+                .recurring(true)
+                .build());
+        }
+
+        // Spread first firings evenly over one interval, as a steady-state fleet would be
+        long intervalNanos = INTERVAL.toNanos();
+        Map<UUID, Long> firstDueOffsets = new ConcurrentHashMap<>(targets * 2);
+        for (int i = 0; i < targets; i++) {
+            firstDueOffsets.put(tasks.get(i).getDeviceId(), intervalNanos * i / targets);
+        }
+        AtomicLongArray lagHistogram = new AtomicLongArray(MAX_LAG_MS + 1);
+        long[] origin = new long[1];
+
+        long heapBefore = usedHeap();
+        PingSchedulingEngine engine = factory.get();
+        engine.start(due -> {
+            long now = System.nanoTime();
+            for (PingTask task : due) {
+                long first = origin[0] + firstDueOffsets.get(task.getDeviceId());
+                long sinceFirst = now - first;
+                long expected = first + Math.max(0, Math.round((double) sinceFirst / intervalNanos)) * intervalNanos;
+                long lagMs = Math.max(0, TimeUnit.NANOSECONDS.toMillis(now - expected));
+                lagHistogram.incrementAndGet((int) Math.min(lagMs, MAX_LAG_MS));
+            }
+        });
+
+        // Start the fleet one interval out so the schedule loop itself does not show up as lag
+        origin[0] = System.nanoTime() + intervalNanos;
+        for (PingTask task : tasks) {
+            long deadline = origin[0] + firstDueOffsets.get(task.getDeviceId());
+            engine.schedule(task, Duration.ofNanos(deadline - System.nanoTime()), INTERVAL);
+        }
+
+        Thread.sleep(TICK.toMillis() * 3);
+        long heapPerTarget = (usedHeap() - heapBefore) / targets;
+
+        Thread.sleep(MEASURE_WINDOW.toMillis());
+        engine.close();
+
+        long fired = 0;
+        for (int i = 0; i <= MAX_LAG_MS; i++) {
+            fired += lagHistogram.get(i);
+        }
+
+        System.out.printf("%-20s %8d %9dB %10d %8dms %8dms %8dms%n",
+            name, targets, heapPerTarget, fired,
+            percentile(lagHistogram, fired, 0.50),
+            percentile(lagHistogram, fired, 0.99),
+            percentile(lagHistogram, fired, 1.0));
+    }
+
+    private static long percentile(AtomicLongArray histogram, long count, double quantile) {
+        long rank = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
\ No newline at end of file
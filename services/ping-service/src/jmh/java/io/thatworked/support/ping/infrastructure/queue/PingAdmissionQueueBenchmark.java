@@ -0,0 +1,77 @@
+package io.thatworked.support.ping.infrastructure.queue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admitting one ping through the deadline-ordered admission queue while a backlog waits in it.
+ *
+ * <p>The backlog's deadlines are an hour out, so the ping offered in each operation is the most
+ * urgent one and is the one taken back out; the heap keeps the backlog's size throughout. This is
+ * the path a due batch takes when it finds all concurrency permits in use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PingAdmissionQueueBenchmark {
+
+    private static final long BACKLOG_DEADLINE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final long DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int DEVICES = 1_024;
+
+    @Param({"0", "1000", "50000"})
+    private int backlog;
+
+    private PingAdmissionQueue queue;
+    private final Semaphore permits = new Semaphore(1);
+    private PingTask[] tasks;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        queue = new PingAdmissionQueue(backlog + DEVICES);
+        long backlogDeadline = System.nanoTime() + BACKLOG_DEADLINE_NANOS;
+        for (int i = 0; i < backlog; i++) {
+            queue.offer(task(), backlogDeadline);
+        }
+        tasks = new PingTask[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            tasks[i] = task();
+        }
+    }
+
+    private static PingTask task() {
+        return PingTask.builder()
+            .deviceId(UUID.randomUUID())
+            .ipAddress("10.0.0.1")
+            .intervalMs(1000)
+            .recurring(true)
+            .build();
+    }
+
+    @Benchmark
+    public PingTask offerAndTake() throws InterruptedException {
+        PingTask task = tasks[next];
+        next = (next + 1) & (DEVICES - 1);
+        queue.offer(task, System.nanoTime() + DEADLINE_NANOS);
+        PingTask admitted = queue.take(permits);
+        permits.release();
+        return admitted;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package io.thatworked.support.ping.api.controller;
 
 import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.api.dto.LatencyPercentilesDTO;
 import io.thatworked.support.ping.api.dto.PingResultDTO;
 import io.thatworked.support.ping.api.dto.PingStatisticsDTO;
 import io.thatworked.support.ping.api.dto.PingReportStatisticsDTO;
@@ -36,11 +37,7 @@ public class PingController {
     public ResponseEntity<List<PingResultDTO>> getPingResults(
             @PathVariable UUID deviceId,
             @RequestParam(defaultValue = "50") int limit) {
-        List<PingResult> results = pingStatisticsService.getRecentPingResults(deviceId, limit);
-        List<PingResultDTO> dtos = results.stream()
-                .map(PingResultDTO::fromDomain)
-                .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(pingStatisticsService.getRecentPingResultDtos(deviceId, limit));
     }
 
     @GetMapping("/results/{deviceId}/since")
@@ -65,6 +62,17 @@ public class PingController {
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping("/latency/{deviceId}")
+    public ResponseEntity<LatencyPercentilesDTO> getLatencyPercentiles(
+            @PathVariable UUID deviceId,
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(value = "startTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+            @RequestParam(value = "endTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime) {
+        Instant end = endTime != null ? endTime : Instant.now();
+        Instant start = startTime != null ? startTime : end.minus(Duration.ofMinutes(minutes));
+        return ResponseEntity.ok(pingStatisticsService.getLatencyPercentiles(deviceId, start, end));
+    }
+
     @GetMapping("/report-statistics/all")
     public ResponseEntity<List<PingReportStatisticsDTO>> getAllDeviceReportStatistics(
             @RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
@@ -1,10 +1,27 @@
 package io.thatworked.support.ping.api.controller;
 
+import io.thatworked.support.ping.config.TimescaleConfig;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
+import io.thatworked.support.ping.infrastructure.cache.DeviceLatencyHistograms;
+import io.thatworked.support.ping.infrastructure.cache.HostnameResolver;
+import io.thatworked.support.ping.infrastructure.cache.RecentPingResultsCache;
+import io.thatworked.support.ping.infrastructure.config.TimescaleSchemaInitializer;
+import io.thatworked.support.ping.infrastructure.consumer.DeviceEventConsumer;
 import io.thatworked.support.ping.infrastructure.executor.PingCircuitBreaker;
 import io.thatworked.support.ping.infrastructure.executor.VirtualThreadPingExecutor;
+import io.thatworked.support.ping.infrastructure.jfr.FlightRecordings;
+import io.thatworked.support.ping.infrastructure.publisher.PingResultPublisher;
+import io.thatworked.support.ping.infrastructure.repository.ChunkStorage;
+import io.thatworked.support.ping.infrastructure.repository.PingStorageRepository;
+import io.thatworked.support.ping.infrastructure.shard.ProbeOwnership;
+import io.thatworked.support.ping.infrastructure.shard.ShardRebalancer;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore;
+import io.thatworked.support.ping.infrastructure.writer.PingResultWriteBehind;
+import io.thatworked.support.ping.application.service.MonitoredDeviceService;
 import io.thatworked.support.ping.application.service.VirtualThreadPingService;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +29,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,15 +46,60 @@ public class PingMetricsController {
     private final VirtualThreadPingService pingService;
     private final VirtualThreadPingExecutor executor;
     private final PingCircuitBreaker circuitBreaker;
+    private final PingResultWriteBehind resultWriteBehind;
+    private final RecentPingResultsCache recentResultsCache;
+    private final DeviceLatencyHistograms latencyHistograms;
+    private final PingStorageRepository storageRepository;
+    private final TimescaleSchemaInitializer timescaleSchema;
+    private final TimescaleConfig timescaleConfig;
+    private final AlertStateStore alertStateStore;
+    private final MonitoredDeviceService monitoredDeviceService;
+    private final PingResultPublisher pingResultPublisher;
+    private final HostnameResolver hostnameResolver;
+    private final FlightRecordings flightRecordings;
+    private final ProbeOwnership probeOwnership;
+    private final ShardRebalancer shardRebalancer;
+    private final StateSnapshotStore stateSnapshotStore;
+    private final DeviceEventConsumer deviceEventConsumer;
     
     public PingMetricsController(StructuredLoggerFactory structuredLoggerFactory,
                                VirtualThreadPingService pingService,
                                VirtualThreadPingExecutor executor,
-                               PingCircuitBreaker circuitBreaker) {
+                               PingCircuitBreaker circuitBreaker,
+                               PingResultWriteBehind resultWriteBehind,
+                               RecentPingResultsCache recentResultsCache,
+                               DeviceLatencyHistograms latencyHistograms,
+                               PingStorageRepository storageRepository,
+                               TimescaleSchemaInitializer timescaleSchema,
+                               TimescaleConfig timescaleConfig,
+                               AlertStateStore alertStateStore,
+                               MonitoredDeviceService monitoredDeviceService,
+                               PingResultPublisher pingResultPublisher,
+                               HostnameResolver hostnameResolver,
+                               FlightRecordings flightRecordings,
+                               ProbeOwnership probeOwnership,
+                               ShardRebalancer shardRebalancer,
+                               StateSnapshotStore stateSnapshotStore,
+                               DeviceEventConsumer deviceEventConsumer) {
         this.logger = structuredLoggerFactory.getLogger(PingMetricsController.class);
         this.pingService = pingService;
         this.executor = executor;
         this.circuitBreaker = circuitBreaker;
+        this.resultWriteBehind = resultWriteBehind;
+        this.recentResultsCache = recentResultsCache;
+        this.latencyHistograms = latencyHistograms;
+        this.storageRepository = storageRepository;
+        this.timescaleSchema = timescaleSchema;
+        this.timescaleConfig = timescaleConfig;
+        this.alertStateStore = alertStateStore;
+        this.monitoredDeviceService = monitoredDeviceService;
+        this.pingResultPublisher = pingResultPublisher;
+        this.hostnameResolver = hostnameResolver;
+        this.flightRecordings = flightRecordings;
+        this.probeOwnership = probeOwnership;
+        this.shardRebalancer = shardRebalancer;
+        this.stateSnapshotStore = stateSnapshotStore;
+        this.deviceEventConsumer = deviceEventConsumer;
     }
     
     /**
@@ -65,6 +130,187 @@ public class PingMetricsController {
         }
     }
     
+    /**
+     * Get write-behind result pipeline metrics
+     */
+    @GetMapping("/result-writer")
+    public ResponseEntity<Map<String, Object>> getResultWriterMetrics() {
+        try {
+            return ResponseEntity.ok(resultWriteBehind.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getResultWriterMetrics").with("error", e.getMessage()).error("Error retrieving result writer metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve result writer metrics"));
+        }
+    }
+    
+    /**
+     * Get ping-results Kafka producer metrics
+     */
+    @GetMapping("/result-publisher")
+    public ResponseEntity<Map<String, Object>> getResultPublisherMetrics() {
+        try {
+            return ResponseEntity.ok(pingResultPublisher.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getResultPublisherMetrics").with("error", e.getMessage()).error("Error retrieving result publisher metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve result publisher metrics"));
+        }
+    }
+    
+    /**
+     * Get recent results cache metrics
+     */
+    @GetMapping("/result-cache")
+    public ResponseEntity<Map<String, Object>> getResultCacheMetrics() {
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>(recentResultsCache.getMetrics());
+            metrics.put("latencyHistograms", latencyHistograms.getMetrics());
+            return ResponseEntity.ok(metrics);
+        } catch (Exception e) {
+            logger.with("endpoint", "getResultCacheMetrics").with("error", e.getMessage()).error("Error retrieving result cache metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve result cache metrics"));
+        }
+    }
+    
+    /**
+     * Get in-memory alert state and flush metrics
+     */
+    @GetMapping("/alert-state")
+    public ResponseEntity<Map<String, Object>> getAlertStateMetrics() {
+        try {
+            return ResponseEntity.ok(alertStateStore.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getAlertStateMetrics").with("error", e.getMessage()).error("Error retrieving alert state metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve alert state metrics"));
+        }
+    }
+    
+    /**
+     * Get monitored device cache metrics
+     */
+    @GetMapping("/device-cache")
+    public ResponseEntity<Map<String, Object>> getDeviceCacheMetrics() {
+        try {
+            return ResponseEntity.ok(monitoredDeviceService.getCacheMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getDeviceCacheMetrics").with("error", e.getMessage()).error("Error retrieving device cache metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve device cache metrics"));
+        }
+    }
+    
+    /**
+     * Get device-events batch sizes and how many events were collapsed, saved and deleted
+     */
+    @GetMapping("/device-events")
+    public ResponseEntity<Map<String, Object>> getDeviceEventMetrics() {
+        try {
+            return ResponseEntity.ok(deviceEventConsumer.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getDeviceEventMetrics").with("error", e.getMessage()).error("Error retrieving device event metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve device event metrics"));
+        }
+    }
+    
+    /**
+     * Get hostname resolver cache and resolution latency metrics
+     */
+    @GetMapping("/dns-cache")
+    public ResponseEntity<Map<String, Object>> getDnsCacheMetrics() {
+        try {
+            return ResponseEntity.ok(hostnameResolver.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getDnsCacheMetrics").with("error", e.getMessage()).error("Error retrieving DNS cache metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve DNS cache metrics"));
+        }
+    }
+    
+    /**
+     * Get the instances sharing the devices, the share each owns and this instance's hand-offs
+     */
+    @GetMapping("/sharding")
+    public ResponseEntity<Map<String, Object>> getShardingMetrics() {
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>(probeOwnership.getAssignment());
+            metrics.put("rebalancer", shardRebalancer.getMetrics());
+            return ResponseEntity.ok(metrics);
+        } catch (Exception e) {
+            logger.with("endpoint", "getShardingMetrics").with("error", e.getMessage()).error("Error retrieving sharding metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve sharding metrics"));
+        }
+    }
+    
+    /**
+     * Get what was restored from the state snapshot at startup and how the latest write went
+     */
+    @GetMapping("/state-snapshot")
+    public ResponseEntity<Map<String, Object>> getStateSnapshotMetrics() {
+        try {
+            return ResponseEntity.ok(stateSnapshotStore.getMetrics());
+        } catch (Exception e) {
+            logger.with("endpoint", "getStateSnapshotMetrics").with("error", e.getMessage()).error("Error retrieving state snapshot metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve state snapshot metrics"));
+        }
+    }
+    
+    /**
+     * Get ping_results disk usage and compression ratio per chunk
+     */
+    @GetMapping("/storage")
+    public ResponseEntity<Map<String, Object>> getStorageMetrics() {
+        try {
+            List<ChunkStorage> chunks = storageRepository.findChunks();
+            long totalBytes = 0;
+            long compressedBytes = 0;
+            long uncompressedBytes = 0;
+            int compressedChunks = 0;
+            List<Map<String, Object>> chunkMetrics = new ArrayList<>(chunks.size());
+            for (ChunkStorage chunk : chunks) {
+                totalBytes += chunk.totalBytes();
+                if (chunk.compressionRatio() != null) {
+                    compressedChunks++;
+                    compressedBytes += chunk.totalBytes();
+                    uncompressedBytes += chunk.uncompressedBytes();
+                }
+                
+                Map<String, Object> chunkMetric = new LinkedHashMap<>();
+                chunkMetric.put("chunk", chunk.chunkName());
+                chunkMetric.put("rangeStart", chunk.rangeStart());
+                chunkMetric.put("rangeEnd", chunk.rangeEnd());
+                chunkMetric.put("compressed", chunk.compressed());
+                chunkMetric.put("totalBytes", chunk.totalBytes());
+                chunkMetric.put("uncompressedBytes", chunk.uncompressedBytes());
+                chunkMetric.put("compressionRatio", chunk.compressionRatio());
+                chunkMetrics.add(chunkMetric);
+            }
+            
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("timescaleAvailable", timescaleSchema.isTimescaleAvailable());
+            metrics.put("chunkTimeInterval", timescaleConfig.getChunkTimeInterval());
+            metrics.put("compressionPolicyActive", timescaleSchema.isCompressionPolicyActive());
+            metrics.put("compressAfter", timescaleConfig.getCompressAfter());
+            metrics.put("retentionPolicyActive", timescaleSchema.isRetentionPolicyActive());
+            metrics.put("retentionDays", timescaleSchema.getRetentionDays());
+            metrics.put("chunkCount", chunks.size());
+            metrics.put("compressedChunks", compressedChunks);
+            metrics.put("totalBytes", totalBytes);
+            metrics.put("compressionRatio", compressedBytes > 0 ? (double) uncompressedBytes / compressedBytes : null);
+            metrics.put("chunks", chunkMetrics);
+            return ResponseEntity.ok(metrics);
+        } catch (Exception e) {
+            logger.with("endpoint", "getStorageMetrics").with("error", e.getMessage()).error("Error retrieving storage metrics", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve storage metrics"));
+        }
+    }
+    
     /**
      * Get circuit breaker metrics
      */
@@ -120,4 +366,70 @@ public class PingMetricsController {
                 ));
         }
     }
+    
+    /**
+     * Get flight recording status
+     */
+    @GetMapping("/flight-recording")
+    public ResponseEntity<Map<String, Object>> getFlightRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordings.getStatus());
+        } catch (Exception e) {
+            logger.with("endpoint", "getFlightRecording").with("error", e.getMessage()).error("Error retrieving flight recording status", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to retrieve flight recording status"));
+        }
+    }
+    
+    /**
+     * Start a flight recording with the ping service events enabled
+     */
+    @PostMapping("/flight-recording/start")
+    public ResponseEntity<Map<String, Object>> startFlightRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordings.start());
+        } catch (Exception e) {
+            logger.with("endpoint", "startFlightRecording").with("error", e.getMessage()).error("Error starting flight recording", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to start flight recording"));
+        }
+    }
+    
+    /**
+     * Dump the running flight recording to a file in the recording directory
+     */
+    @PostMapping("/flight-recording/dump")
+    public ResponseEntity<Map<String, Object>> dumpFlightRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordings.dump());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.with("endpoint", "dumpFlightRecording").with("error", e.getMessage()).error("Error dumping flight recording", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to dump flight recording"));
+        }
+    }
+    
+    /**
+     * Stop and discard the flight recording
+     */
+    @PostMapping("/flight-recording/stop")
+    public ResponseEntity<Map<String, String>> stopFlightRecording() {
+        try {
+            flightRecordings.stop();
+            return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "message", "Flight recording stopped"
+            ));
+        } catch (Exception e) {
+            logger.with("endpoint", "stopFlightRecording").with("error", e.getMessage()).error("Error stopping flight recording", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of(
+                    "status", "error",
+                    "message", "Failed to stop flight recording"
+                ));
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package io.thatworked.support.ping.api.controller;
 
 import io.thatworked.support.ping.api.mapper.PingTargetDomainMapper;
 import io.thatworked.support.ping.application.PingApplicationService;
+import io.thatworked.support.ping.domain.ProbeType;
 import io.thatworked.support.ping.domain.model.PingTargetDomain;
 import io.thatworked.support.ping.api.dto.CreatePingTargetDTO;
 import io.thatworked.support.ping.api.dto.PingTargetDTO;
@@ -145,4 +146,28 @@ public class PingTargetController {
         PingTargetDTO result = pingTargetDomainMapper.toDTO(target);
         return ResponseEntity.ok(result);
     }
+    
+    @PatchMapping("/{id}/probe")
+    public ResponseEntity<PingTargetDTO> updateProbe(
+            @PathVariable UUID id,
+            @RequestBody Map<String, Object> request) {
+        Object probeType = request.get("probeType");
+        Object probePort = request.get("probePort");
+        if (probeType == null || (probePort != null && !(probePort instanceof Integer))) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (pingApplicationService.getPingTarget(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            PingTargetDomain target = pingApplicationService.updatePingTargetProbe(
+                id, ProbeType.valueOf(probeType.toString().toUpperCase()), (Integer) probePort);
+            return ResponseEntity.ok(pingTargetDomainMapper.toDTO(target));
+        } catch (IllegalArgumentException e) {
+            logger.with("deviceId", id).with("error", e.getMessage()).warn("Invalid probe update");
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package io.thatworked.support.ping.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+public class LatencyPercentilesDTO {
+    private UUID deviceId;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant windowStart;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant windowEnd;
+    
+    private String source;           // "memory" for in-process histograms, else "aggregates", "aggregates+raw" or "raw"
+    private Double bucketWidth;      // Histogram bucket width relative to its lower bound, null without percentiles
+    private long samples;            // Successful pings with a round trip time
+    private Double minRtt;
+    private Double maxRtt;
+    private Double p50Rtt;
+    private Double p90Rtt;
+    private Double p99Rtt;
+    private Double p999Rtt;
+}
\ No newline at end of file
@@ -26,6 +26,9 @@ public class PingReportStatisticsDTO {
     private Double averageResponseTime;
     private Double minResponseTime;
     private Double maxResponseTime;
+    private Double medianResponseTime;
+    private Double p95ResponseTime;
+    private Double p99ResponseTime;
     private long uptimeSeconds;
     private long downtimeSeconds;
     private double uptimePercentage;
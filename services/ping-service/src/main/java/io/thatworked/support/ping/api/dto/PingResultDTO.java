@@ -2,11 +2,13 @@ package io.thatworked.support.ping.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
@@ -32,13 +34,31 @@ public class PingResultDTO {
             dto.setResponseTimeMs(Math.round(pingResult.getRoundTripTime()));
         }
         
+        setStatus(dto, pingResult.getStatus());
+        return dto;
+    }
+    
+    /**
+     * Build from the primitive fields held by the recent results cache
+     * @param roundTripTime NaN when there is no round trip time
+     */
+    public static PingResultDTO fromCached(UUID deviceId, long epochMillis, float roundTripTime, PingStatus status) {
+        PingResultDTO dto = new PingResultDTO();
+        dto.setDeviceId(deviceId.toString());
+        dto.setTimestamp(Instant.ofEpochMilli(epochMillis));
+        if (!Float.isNaN(roundTripTime)) {
+            dto.setResponseTimeMs((long) Math.round(roundTripTime));
+        }
+        setStatus(dto, status);
+        return dto;
+    }
+    
+    private static void setStatus(PingResultDTO dto, PingStatus status) {
         // Convert status enum to boolean success
-        dto.setSuccess(pingResult.getStatus().isSuccess());
+        dto.setSuccess(status.isSuccess());
         
-        if (!pingResult.getStatus().isSuccess()) {
-            dto.setErrorMessage(pingResult.getStatus().getDisplayName());
+        if (!status.isSuccess()) {
+            dto.setErrorMessage(status.getDisplayName());
         }
-        
-        return dto;
     }
 }
\ No newline at end of file
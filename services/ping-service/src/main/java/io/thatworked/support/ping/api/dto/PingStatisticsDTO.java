@@ -12,6 +12,9 @@ public class PingStatisticsDTO {
     private UUID deviceId;
     private double successRate;
     private double averageRtt;
+    private Double p50Rtt;
+    private Double p95Rtt;
+    private Double p99Rtt;
     private long recentFailures;
     private int totalSamples;
     private String lastStatus;
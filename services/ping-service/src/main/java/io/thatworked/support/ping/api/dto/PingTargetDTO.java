@@ -14,6 +14,8 @@ public class PingTargetDTO {
     private String hostname;
     private boolean monitored;
     private Integer pingIntervalSeconds;
+    private String probeType;
+    private Integer probePort;
     private Instant createdAt;
     private Instant updatedAt;
 }
\ No newline at end of file
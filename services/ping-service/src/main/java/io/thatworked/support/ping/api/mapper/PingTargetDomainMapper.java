@@ -21,6 +21,8 @@ public class PingTargetDomainMapper {
             .hostname(domain.getHostname())
             .monitored(domain.isMonitored())
             .pingIntervalSeconds(domain.getPingIntervalSeconds())
+            .probeType(domain.getProbeType().name())
+            .probePort(domain.getProbePort())
             .createdAt(domain.getCreatedAt())
             .updatedAt(domain.getUpdatedAt())
             .build();
@@ -1,6 +1,7 @@
 package io.thatworked.support.ping.application;
 
 import io.thatworked.support.ping.application.usecase.*;
+import io.thatworked.support.ping.domain.ProbeType;
 import io.thatworked.support.ping.domain.model.PingTargetDomain;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +27,7 @@ public class PingApplicationService {
     private final CleanupDeviceDataUseCase cleanupDeviceDataUseCase;
     private final UpdatePingTargetIpAddressUseCase updatePingTargetIpAddressUseCase;
     private final UpdatePingTargetAddressUseCase updatePingTargetAddressUseCase;
+    private final UpdatePingTargetProbeUseCase updatePingTargetProbeUseCase;
     
     public PingApplicationService(CreatePingTargetUseCase createPingTargetUseCase,
                                  StartPingMonitoringUseCase startPingMonitoringUseCase,
@@ -34,7 +36,8 @@ public class PingApplicationService {
                                  ProcessPingResultUseCase processPingResultUseCase,
                                  CleanupDeviceDataUseCase cleanupDeviceDataUseCase,
                                  UpdatePingTargetIpAddressUseCase updatePingTargetIpAddressUseCase,
-                                 UpdatePingTargetAddressUseCase updatePingTargetAddressUseCase) {
+                                 UpdatePingTargetAddressUseCase updatePingTargetAddressUseCase,
+                                 UpdatePingTargetProbeUseCase updatePingTargetProbeUseCase) {
         this.createPingTargetUseCase = createPingTargetUseCase;
         this.startPingMonitoringUseCase = startPingMonitoringUseCase;
         this.stopPingMonitoringUseCase = stopPingMonitoringUseCase;
@@ -43,6 +46,7 @@ public class PingApplicationService {
         this.cleanupDeviceDataUseCase = cleanupDeviceDataUseCase;
         this.updatePingTargetIpAddressUseCase = updatePingTargetIpAddressUseCase;
         this.updatePingTargetAddressUseCase = updatePingTargetAddressUseCase;
+        this.updatePingTargetProbeUseCase = updatePingTargetProbeUseCase;
     }
     
     public PingTargetDomain createPingTarget(UUID deviceId, String ipAddress, Integer pingIntervalSeconds) {
@@ -106,4 +110,13 @@ public class PingApplicationService {
         var command = new UpdatePingTargetAddressUseCase.UpdatePingTargetAddressCommand(deviceId, ipAddress, hostname);
         return updatePingTargetAddressUseCase.execute(command);
     }
+    
+    public List<PingTargetDomain> updatePingTargetAddresses(List<UpdatePingTargetAddressUseCase.UpdatePingTargetAddressCommand> commands) {
+        return updatePingTargetAddressUseCase.executeAll(commands);
+    }
+    
+    public PingTargetDomain updatePingTargetProbe(UUID deviceId, ProbeType probeType, Integer probePort) {
+        var command = new UpdatePingTargetProbeUseCase.UpdatePingTargetProbeCommand(deviceId, probeType, probePort);
+        return updatePingTargetProbeUseCase.execute(command);
+    }
 }
\ No newline at end of file
@@ -10,7 +10,8 @@ import io.thatworked.support.ping.api.dto.PingResultDTO;
 import io.thatworked.support.ping.infrastructure.event.PingResultEvent;
 import io.thatworked.support.ping.infrastructure.event.alert.DeviceDownEvent;
 import io.thatworked.support.ping.infrastructure.event.alert.DeviceRecoveredEvent;
-import io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository;
+import io.thatworked.support.ping.infrastructure.publisher.PingResultPublisher;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
@@ -28,23 +29,26 @@ import java.util.UUID;
 public class AlertStateService {
 
     private final StructuredLogger logger;
-    private final AlertStateRepository alertStateRepository;
+    private final AlertStateStore alertStateStore;
     private final PingTargetRepository pingTargetRepository;
     private final MonitoredDeviceService monitoredDeviceService;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PingResultPublisher pingResultPublisher;
     private final ObjectMapper objectMapper;
     
     public AlertStateService(StructuredLoggerFactory structuredLoggerFactory,
-                           AlertStateRepository alertStateRepository,
+                           AlertStateStore alertStateStore,
                            PingTargetRepository pingTargetRepository,
                            MonitoredDeviceService monitoredDeviceService,
                            KafkaTemplate<String, Object> kafkaTemplate,
+                           PingResultPublisher pingResultPublisher,
                            ObjectMapper objectMapper) {
         this.logger = structuredLoggerFactory.getLogger(AlertStateService.class);
-        this.alertStateRepository = alertStateRepository;
+        this.alertStateStore = alertStateStore;
         this.pingTargetRepository = pingTargetRepository;
         this.monitoredDeviceService = monitoredDeviceService;
         this.kafkaTemplate = kafkaTemplate;
+        this.pingResultPublisher = pingResultPublisher;
         this.objectMapper = objectMapper;
     }
 
@@ -57,8 +61,16 @@ public class AlertStateService {
     @Value("${ping.alerting.enabled:true}")
     private boolean alertingEnabled;
 
+    /**
+     * Threshold crossing decided under the alert state lock and published after it is released
+     */
+    private record AlertTransition(Type type, Instant since, int consecutive) {
+        private enum Type { NONE, DOWN, RECOVERED, HEALTHY }
+
+        static final AlertTransition NONE = new AlertTransition(Type.NONE, null, 0);
+    }
+
     @EventListener
-    @Transactional
     public void handlePingResult(PingResultEvent event) {
         UUID deviceId = event.getPingResult().getDeviceId();
         boolean success = event.getPingResult().getStatus().isSuccess();
@@ -75,8 +87,11 @@ public class AlertStateService {
             io.thatworked.support.ping.api.dto.PingResultEvent pingEvent = 
                 io.thatworked.support.ping.api.dto.PingResultEvent.fromPingResult(dto, deviceName, ipAddress);
             
-            kafkaTemplate.send(KafkaConfig.PING_RESULTS_TOPIC, deviceId.toString(), pingEvent);
-            logger.with("deviceId", deviceId).with("status", event.getPingResult().getStatus()).debug("Published ping result event to Kafka");
+            if (pingResultPublisher.publish(deviceId, pingEvent)) {
+                logger.with("deviceId", deviceId).with("status", event.getPingResult().getStatus()).debug("Published ping result event to Kafka");
+            } else {
+                logger.with("deviceId", deviceId).debug("Dropped ping result event, publisher metrics count the cause");
+            }
         } catch (Exception e) {
             logger.with("deviceId", deviceId).with("error", e.getMessage()).error("Failed to publish ping result event to Kafka", e);
         }
@@ -86,51 +101,57 @@ public class AlertStateService {
             return;
         }
 
-        AlertState alertState = alertStateRepository.findById(deviceId)
-                .orElseGet(() -> {
-                    AlertState newState = new AlertState();
-                    newState.setDeviceId(deviceId);
-                    return newState;
-                });
+        // The state lives in memory and is flushed in batches; events go out as soon as a threshold is crossed
+        AlertTransition transition = alertStateStore.update(deviceId,
+            alertState -> success ? recordSuccess(alertState) : recordFailure(alertState));
+        double responseTime = rtt != null ? rtt : 0.0;
 
-        if (success) {
-            handleSuccessfulPing(alertState, rtt != null ? rtt : 0.0);
-        } else {
-            handleFailedPing(alertState);
+        switch (transition.type()) {
+            case RECOVERED -> {
+                publishRecoveryMonitoringEvent(deviceId, transition.since(), responseTime, transition.consecutive());
+                // Keep legacy events for backward compatibility during transition
+                publishRecoveryEvent(deviceId, transition.since(), responseTime, transition.consecutive());
+                logger.with("deviceId", deviceId).with("consecutiveSuccesses", transition.consecutive()).info("Device has recovered after consecutive successes");
+            }
+            case HEALTHY -> {
+                publishHealthyDeviceEvent(deviceId, responseTime);
+                logger.with("deviceId", deviceId).debug("Published baseline healthy event for device");
+            }
+            case DOWN -> {
+                publishDownMonitoringEvent(deviceId, transition.since(), transition.consecutive());
+                // Keep legacy events for backward compatibility during transition
+                publishDownEvent(deviceId, transition.since(), transition.consecutive());
+                logger.with("deviceId", deviceId).with("consecutiveFailures", transition.consecutive()).warn("Device is down after consecutive failures");
+            }
+            case NONE -> {
+            }
         }
-
-        alertStateRepository.save(alertState);
     }
 
-    private void handleSuccessfulPing(AlertState alertState, double responseTime) {
+    private AlertTransition recordSuccess(AlertState alertState) {
         alertState.recordSuccess();
 
         // Check if device has recovered
         if (alertState.isAlerting() && alertState.getConsecutiveSuccesses() >= recoveryThreshold) {
             alertState.markRecovered();
-            publishRecoveryMonitoringEvent(alertState.getDeviceId(), alertState.getLastFailureTime(), responseTime, alertState.getConsecutiveSuccesses());
-            // Keep legacy events for backward compatibility during transition
-            publishRecoveryEvent(alertState.getDeviceId(), alertState.getLastFailureTime(), responseTime, alertState.getConsecutiveSuccesses());
-            logger.with("deviceId", alertState.getDeviceId()).with("consecutiveSuccesses", alertState.getConsecutiveSuccesses()).info("Device has recovered after consecutive successes");
+            return new AlertTransition(AlertTransition.Type.RECOVERED, alertState.getLastFailureTime(), alertState.getConsecutiveSuccesses());
         }
         // Publish baseline event for healthy devices to populate cache
-        else if (!alertState.isAlerting() && alertState.getConsecutiveSuccesses() == 1) {
-            publishHealthyDeviceEvent(alertState.getDeviceId(), responseTime);
-            logger.with("deviceId", alertState.getDeviceId()).debug("Published baseline healthy event for device");
+        if (!alertState.isAlerting() && alertState.getConsecutiveSuccesses() == 1) {
+            return new AlertTransition(AlertTransition.Type.HEALTHY, null, 1);
         }
+        return AlertTransition.NONE;
     }
 
-    private void handleFailedPing(AlertState alertState) {
+    private AlertTransition recordFailure(AlertState alertState) {
         alertState.recordFailure();
 
         // Check if we need to send an alert
         if (!alertState.isAlerting() && alertState.getConsecutiveFailures() >= failureThreshold) {
             alertState.markAlerting();
-            publishDownMonitoringEvent(alertState.getDeviceId(), alertState.getLastSuccessTime(), alertState.getConsecutiveFailures());
-            // Keep legacy events for backward compatibility during transition
-            publishDownEvent(alertState.getDeviceId(), alertState.getLastSuccessTime(), alertState.getConsecutiveFailures());
-            logger.with("deviceId", alertState.getDeviceId()).with("consecutiveFailures", alertState.getConsecutiveFailures()).warn("Device is down after consecutive failures");
+            return new AlertTransition(AlertTransition.Type.DOWN, alertState.getLastSuccessTime(), alertState.getConsecutiveFailures());
         }
+        return AlertTransition.NONE;
     }
 
     private void publishDownEvent(UUID deviceId, Instant lastSuccessTime, int consecutiveFailures) {
@@ -217,7 +238,6 @@ public class AlertStateService {
     }
 
     @Scheduled(fixedDelayString = "${ping.alerting.check-interval-seconds:60}000")
-    @Transactional
     public void checkStaleAlerts() {
         if (!alertingEnabled) {
             return;
@@ -226,7 +246,7 @@ public class AlertStateService {
         // Check for devices that haven't been pinged recently
         Instant staleThreshold = Instant.now().minusSeconds(300); // 5 minutes
         
-        alertStateRepository.findByIsAlertingTrue().forEach(alertState -> {
+        alertStateStore.findAlerting().forEach(alertState -> {
             if (alertState.getUpdatedAt().isBefore(staleThreshold)) {
                 logger.with("deviceId", alertState.getDeviceId()).with("lastUpdated", alertState.getUpdatedAt()).warn("Alert state for device is stale");
             }
@@ -251,7 +271,7 @@ public class AlertStateService {
             UUID deviceId = target.getDeviceId();
             
             // Only sync if device has an AlertState and is healthy
-            alertStateRepository.findById(deviceId).ifPresent(alertState -> {
+            alertStateStore.find(deviceId).ifPresent(alertState -> {
                 if (!alertState.isAlerting() && alertState.getConsecutiveSuccesses() > 0) {
                     double responseTime = 2.0; // Default response time for sync
                     publishHealthyDeviceEvent(deviceId, responseTime);
@@ -1,50 +1,204 @@
 package io.thatworked.support.ping.application.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.thatworked.support.ping.config.DeviceCacheConfig;
 import io.thatworked.support.ping.domain.MonitoredDevice;
 import io.thatworked.support.ping.infrastructure.repository.jpa.MonitoredDeviceRepository;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Local copy of the devices published by device-service.
+ *
+ * <p>Lookups are served from a bounded Caffeine cache that also remembers devices that do not
+ * exist, so the ping result path does not query monitored_devices for every event. Saves and
+ * deletes write through to the cache once their transaction commits, so a rolled back write never
+ * reaches it. Cached devices are detached entities and must not be modified.
+ *
+ * <p>Batches of devices are upserted with a single statement that unnests one array per column,
+ * so a bulk import costs one round trip per batch rather than a transaction per device.
+ */
 @Service
 public class MonitoredDeviceService {
     
+    private static final String UPSERT_ALL_SQL =
+        "INSERT INTO monitored_devices (device_id, device_name, ip_address, os, os_type, site, created_at, updated_at) " +
+        "SELECT d.device_id, d.device_name, d.ip_address, d.os, d.os_type, d.site, now(), now() " +
+        "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::uuid[]) " +
+        "AS d(device_id, device_name, ip_address, os, os_type, site) " +
+        "ON CONFLICT (device_id) DO UPDATE SET device_name = EXCLUDED.device_name, " +
+        "ip_address = EXCLUDED.ip_address, os = EXCLUDED.os, os_type = EXCLUDED.os_type, " +
+        "site = EXCLUDED.site, updated_at = EXCLUDED.updated_at " +
+        "RETURNING device_id, device_name, ip_address, os, os_type, site, created_at, updated_at";
+    
+    private static final String DELETE_ALL_SQL = "DELETE FROM monitored_devices WHERE device_id = ANY (?::uuid[])";
+    
+    private static final RowMapper<MonitoredDevice> DEVICE_ROW_MAPPER = (rs, rowNum) -> {
+        MonitoredDevice device = new MonitoredDevice(
+            rs.getObject("device_id", UUID.class), rs.getString("device_name"), rs.getString("ip_address"));
+        device.setOs(rs.getString("os"));
+        device.setOsType(rs.getString("os_type"));
+        device.setSite(rs.getObject("site", UUID.class));
+        device.setCreatedAt(toInstant(rs.getTimestamp("created_at")));
+        device.setUpdatedAt(toInstant(rs.getTimestamp("updated_at")));
+        return device;
+    };
+    
     private final StructuredLogger logger;
     private final MonitoredDeviceRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadingCache<UUID, Optional<MonitoredDevice>> cache;
     
     public MonitoredDeviceService(StructuredLoggerFactory loggerFactory,
-                                  MonitoredDeviceRepository repository) {
+                                  MonitoredDeviceRepository repository,
+                                  JdbcTemplate jdbcTemplate,
+                                  DeviceCacheConfig cacheConfig) {
         this.logger = loggerFactory.getLogger(MonitoredDeviceService.class);
         this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheConfig.getMaximumSize())
+            .expireAfterWrite(Duration.ofSeconds(cacheConfig.getExpireAfterWriteSeconds()))
+            .recordStats()
+            .build(this::load);
     }
     
-    @Transactional(readOnly = true)
-    public Optional<MonitoredDevice> findById(UUID deviceId) {
+    private Optional<MonitoredDevice> load(UUID deviceId) {
         logger.with("deviceId", deviceId).debug("Finding monitored device by ID");
         return repository.findById(deviceId);
     }
     
+    public Optional<MonitoredDevice> findById(UUID deviceId) {
+        return cache.get(deviceId);
+    }
+    
     @Transactional
     public MonitoredDevice save(MonitoredDevice device) {
         logger.with("deviceId", device.getDeviceId())
               .with("deviceName", device.getDeviceName())
               .with("ipAddress", device.getIpAddress())
               .debug("Saving monitored device");
-        return repository.save(device);
+        MonitoredDevice saved = repository.save(device);
+        afterCommit(() -> cache.put(saved.getDeviceId(), Optional.of(saved)));
+        return saved;
     }
     
     @Transactional
     public void deleteById(UUID deviceId) {
         logger.with("deviceId", deviceId).debug("Deleting monitored device");
         repository.deleteById(deviceId);
+        afterCommit(() -> cache.put(deviceId, Optional.empty()));
+    }
+    
+    /**
+     * Insert or update the devices in one statement.
+     * Each device ID may appear only once, as a statement cannot update the same row twice.
+     */
+    public List<MonitoredDevice> saveAll(Collection<MonitoredDevice> devices) {
+        if (devices.isEmpty()) {
+            return List.of();
+        }
+        
+        long startTime = System.currentTimeMillis();
+        List<MonitoredDevice> saved = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_ALL_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", devices.stream().map(MonitoredDevice::getDeviceId).toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", devices.stream().map(MonitoredDevice::getDeviceName).toArray()));
+            statement.setArray(3, connection.createArrayOf("varchar", devices.stream().map(MonitoredDevice::getIpAddress).toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar", devices.stream().map(MonitoredDevice::getOs).toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar", devices.stream().map(MonitoredDevice::getOsType).toArray()));
+            statement.setArray(6, connection.createArrayOf("uuid", devices.stream().map(MonitoredDevice::getSite).toArray()));
+            return statement;
+        }, DEVICE_ROW_MAPPER);
+        
+        afterCommit(() -> {
+            for (MonitoredDevice device : saved) {
+                cache.put(device.getDeviceId(), Optional.of(device));
+            }
+        });
+        logger.with("devices", saved.size())
+              .with("durationMs", System.currentTimeMillis() - startTime)
+              .debug("Saved monitored devices");
+        return saved;
+    }
+    
+    /**
+     * Delete the devices in one statement
+     */
+    public void deleteAll(Collection<UUID> deviceIds) {
+        if (deviceIds.isEmpty()) {
+            return;
+        }
+        
+        logger.with("devices", deviceIds.size()).debug("Deleting monitored devices");
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_ALL_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", deviceIds.toArray()));
+            return statement;
+        });
+        afterCommit(() -> {
+            for (UUID deviceId : deviceIds) {
+                cache.put(deviceId, Optional.empty());
+            }
+        });
     }
     
-    @Transactional(readOnly = true)
     public boolean existsById(UUID deviceId) {
-        return repository.existsById(deviceId);
+        return findById(deviceId).isPresent();
+    }
+    
+    /**
+     * Run a cache update once the surrounding transaction commits, or right away outside one
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+    
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+    
+    /**
+     * Get device cache metrics
+     */
+    public Map<String, Object> getCacheMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("loadFailures", stats.loadFailureCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return metrics;
     }
 }
\ No newline at end of file
@@ -1,60 +1,64 @@
 package io.thatworked.support.ping.application.service;
 
-import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.config.PingExecutorConfig;
 import io.thatworked.support.ping.domain.PingTarget;
-import io.thatworked.support.ping.domain.MonitoredDevice;
 import io.thatworked.support.ping.api.dto.PingReportStatisticsDTO;
-import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.MonitoredDeviceRepository;
+import io.thatworked.support.ping.infrastructure.repository.MonitoredDeviceStatistics;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryRepository;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsSummary;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class PingReportService {
     private final StructuredLogger logger;
-    private final PingResultRepository pingResultRepository;
     private final PingTargetRepository pingTargetRepository;
     private final MonitoredDeviceRepository monitoredDeviceRepository;
+    private final PingStatisticsQueryRepository pingStatisticsQueryRepository;
+    private final PingExecutorConfig pingExecutorConfig;
     
     public PingReportService(StructuredLoggerFactory structuredLoggerFactory,
-                           PingResultRepository pingResultRepository,
                            PingTargetRepository pingTargetRepository,
-                           MonitoredDeviceRepository monitoredDeviceRepository) {
+                           MonitoredDeviceRepository monitoredDeviceRepository,
+                           PingStatisticsQueryRepository pingStatisticsQueryRepository,
+                           PingExecutorConfig pingExecutorConfig) {
         this.logger = structuredLoggerFactory.getLogger(PingReportService.class);
-        this.pingResultRepository = pingResultRepository;
         this.pingTargetRepository = pingTargetRepository;
         this.monitoredDeviceRepository = monitoredDeviceRepository;
+        this.pingStatisticsQueryRepository = pingStatisticsQueryRepository;
+        this.pingExecutorConfig = pingExecutorConfig;
     }
 
+    /**
+     * Statistics for every monitored target, aggregated per device by the database in one query
+     */
     @Transactional(readOnly = true)
     public List<PingReportStatisticsDTO> getAllDeviceStatistics(Instant startTime, Instant endTime) {
-        List<PingTarget> allTargets = pingTargetRepository.findAll();
-        List<PingReportStatisticsDTO> statistics = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        List<MonitoredDeviceStatistics> rows = pingStatisticsQueryRepository.summarizeMonitored(startTime, endTime);
+        List<PingReportStatisticsDTO> statistics = new ArrayList<>(rows.size());
         
-        for (PingTarget target : allTargets) {
-            if (target.isMonitored()) {
-                PingReportStatisticsDTO stat = getDeviceStatisticsInternal(target.getDeviceId(), startTime, endTime);
-                
-                // Fetch device name from MonitoredDevice
-                monitoredDeviceRepository.findById(target.getDeviceId())
-                    .ifPresent(device -> stat.setDeviceName(device.getDeviceName()));
-                
-                stat.setTargetIp(target.getIpAddress());
-                stat.setTargetHostname(target.getHostname());
-                statistics.add(stat);
-            }
+        for (MonitoredDeviceStatistics row : rows) {
+            PingReportStatisticsDTO stat = toReportStatistics(row.deviceId(), startTime, endTime,
+                row.summary(), row.pingIntervalSeconds());
+            stat.setDeviceName(row.deviceName());
+            stat.setTargetIp(row.ipAddress());
+            stat.setTargetHostname(row.hostname());
+            statistics.add(stat);
         }
         
+        logger.with("devices", statistics.size())
+              .with("durationMs", (System.nanoTime() - startNanos) / 1_000_000)
+              .debug("Generated ping statistics for all monitored devices");
         return statistics;
     }
     
@@ -63,7 +67,9 @@ public class PingReportService {
         PingTarget target = pingTargetRepository.findById(deviceId)
                 .orElseThrow(() -> new RuntimeException("Device not found: " + deviceId));
         
-        PingReportStatisticsDTO stat = getDeviceStatisticsInternal(deviceId, startTime, endTime);
+        PingStatisticsSummary summary = pingStatisticsQueryRepository.summarize(deviceId, startTime, endTime);
+        PingReportStatisticsDTO stat = toReportStatistics(deviceId, startTime, endTime,
+            summary, target.getPingIntervalSeconds());
         
         // Fetch device name from MonitoredDevice
         monitoredDeviceRepository.findById(deviceId)
@@ -75,15 +81,14 @@ public class PingReportService {
         return stat;
     }
     
-    private PingReportStatisticsDTO getDeviceStatisticsInternal(UUID deviceId, Instant startInstant, Instant endInstant) {
-        List<PingResult> results = pingResultRepository.findByDeviceIdAndTimeBetween(deviceId, startInstant, endInstant);
-        
+    private PingReportStatisticsDTO toReportStatistics(UUID deviceId, Instant startInstant, Instant endInstant,
+                                                       PingStatisticsSummary summary, Integer targetIntervalSeconds) {
         PingReportStatisticsDTO stat = new PingReportStatisticsDTO();
         stat.setDeviceId(deviceId.toString());
         stat.setPeriodStart(startInstant);
         stat.setPeriodEnd(endInstant);
         
-        if (results.isEmpty()) {
+        if (summary.totalCount() == 0) {
             stat.setTotalPings(0);
             stat.setSuccessfulPings(0);
             stat.setFailedPings(0);
@@ -95,43 +100,33 @@ public class PingReportService {
         }
         
         // Calculate statistics
-        long totalPings = results.size();
-        long successfulPings = results.stream()
-                .filter(r -> r.getStatus().isSuccess())
-                .count();
-        long failedPings = totalPings - successfulPings;
+        long totalPings = summary.totalCount();
+        long successfulPings = summary.successCount();
+        long failedPings = summary.failureCount();
         
         stat.setTotalPings(totalPings);
         stat.setSuccessfulPings(successfulPings);
         stat.setFailedPings(failedPings);
-        stat.setSuccessRate(totalPings > 0 ? (double) successfulPings / totalPings * 100 : 0.0);
-        
-        // Calculate response time statistics for successful pings
-        List<Double> responseTimes = results.stream()
-                .filter(r -> r.getStatus().isSuccess() && r.getRoundTripTime() != null)
-                .map(PingResult::getRoundTripTime)
-                .collect(Collectors.toList());
+        stat.setSuccessRate(summary.successRate() * 100);
         
-        if (!responseTimes.isEmpty()) {
-            stat.setAverageResponseTime(responseTimes.stream()
-                    .mapToDouble(Double::doubleValue)
-                    .average()
-                    .orElse(0.0));
-            stat.setMinResponseTime(responseTimes.stream()
-                    .mapToDouble(Double::doubleValue)
-                    .min()
-                    .orElse(0.0));
-            stat.setMaxResponseTime(responseTimes.stream()
-                    .mapToDouble(Double::doubleValue)
-                    .max()
-                    .orElse(0.0));
+        // Response time statistics cover successful pings only
+        if (summary.rttCount() > 0) {
+            stat.setAverageResponseTime(summary.averageRtt());
+            stat.setMinResponseTime(summary.rttMin());
+            stat.setMaxResponseTime(summary.rttMax());
+            stat.setMedianResponseTime(summary.rttPercentile(0.50));
+            stat.setP95ResponseTime(summary.rttPercentile(0.95));
+            stat.setP99ResponseTime(summary.rttPercentile(0.99));
         }
         
-        // Calculate uptime/downtime
-        // Assuming pings are at regular intervals (e.g., every 5 seconds)
-        long pingIntervalSeconds = 5; // This should match your actual ping interval
-        long uptimeSeconds = successfulPings * pingIntervalSeconds;
-        long downtimeSeconds = failedPings * pingIntervalSeconds;
+        // Each sample stands for the observed spacing between samples; the configured
+        // interval is only used when too few samples were taken to measure it
+        Double spacingSeconds = summary.averageSampleSpacingSeconds();
+        if (spacingSeconds == null) {
+            spacingSeconds = (double) (targetIntervalSeconds != null ? targetIntervalSeconds : pingExecutorConfig.getPingInterval());
+        }
+        long uptimeSeconds = Math.round(successfulPings * spacingSeconds);
+        long downtimeSeconds = Math.round(failedPings * spacingSeconds);
         
         stat.setUptimeSeconds(uptimeSeconds);
         stat.setDowntimeSeconds(downtimeSeconds);
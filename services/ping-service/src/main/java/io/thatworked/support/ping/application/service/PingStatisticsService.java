@@ -1,10 +1,17 @@
 package io.thatworked.support.ping.application.service;
 
 import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.api.dto.LatencyPercentilesDTO;
+import io.thatworked.support.ping.api.dto.PingResultDTO;
 import io.thatworked.support.ping.api.dto.PingStatisticsDTO;
 import io.thatworked.support.common.exception.EntityNotFoundException;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
+import io.thatworked.support.ping.infrastructure.cache.DeviceLatencyHistograms;
+import io.thatworked.support.ping.infrastructure.cache.LatencyHistogram;
+import io.thatworked.support.ping.infrastructure.cache.RecentPingResultsCache;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryRepository;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsSummary;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import org.springframework.stereotype.Service;
@@ -20,13 +27,38 @@ public class PingStatisticsService {
     private final StructuredLogger logger;
     private final PingResultRepository pingResultRepository;
     private final PingTargetRepository pingTargetRepository;
+    private final PingStatisticsQueryRepository pingStatisticsQueryRepository;
+    private final RecentPingResultsCache recentResultsCache;
+    private final DeviceLatencyHistograms latencyHistograms;
     
     public PingStatisticsService(StructuredLoggerFactory structuredLoggerFactory,
                                PingResultRepository pingResultRepository,
-                               PingTargetRepository pingTargetRepository) {
+                               PingTargetRepository pingTargetRepository,
+                               PingStatisticsQueryRepository pingStatisticsQueryRepository,
+                               RecentPingResultsCache recentResultsCache,
+                               DeviceLatencyHistograms latencyHistograms) {
         this.logger = structuredLoggerFactory.getLogger(PingStatisticsService.class);
         this.pingResultRepository = pingResultRepository;
         this.pingTargetRepository = pingTargetRepository;
+        this.pingStatisticsQueryRepository = pingStatisticsQueryRepository;
+        this.recentResultsCache = recentResultsCache;
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    /**
+     * Latest results as response DTOs, served from memory once the device has enough recent results.
+     * Not transactional, so a cache hit does not check out a database connection.
+     */
+    public List<PingResultDTO> getRecentPingResultDtos(UUID deviceId, int limit) {
+        // Only monitored devices have cached results, so a hit also skips the existence check
+        List<PingResultDTO> cached = recentResultsCache.latest(deviceId, limit, PingResultDTO::fromCached);
+        if (cached != null) {
+            return cached;
+        }
+
+        return getRecentPingResults(deviceId, limit).stream()
+                .map(PingResultDTO::fromDomain)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -53,28 +85,27 @@ public class PingStatisticsService {
             throw new EntityNotFoundException("PingTarget", deviceId.toString());
         }
 
-        Instant since = Instant.now().minus(timeframe);
-
-        Double successRate = pingResultRepository.getSuccessRate(deviceId, since);
-        Double averageRtt = pingResultRepository.getAverageRtt(deviceId, since);
-        List<PingResult> recentResults = pingResultRepository.findByDeviceIdSince(deviceId, since);
+        Instant now = Instant.now();
+        Instant since = now.minus(timeframe);
 
-        // Get last result
-        PingResult lastResult = recentResults.isEmpty() ? null : recentResults.get(0);
+        // Counts and RTT figures come from the continuous aggregates; only the latest row is read directly
+        PingStatisticsSummary summary = pingStatisticsQueryRepository.summarize(deviceId, since, now);
+        List<PingResult> latest = pingResultRepository.findLatestByDeviceId(deviceId, 1);
+        PingResult lastResult = latest.isEmpty() || latest.get(0).getTime().isBefore(since) ? null : latest.get(0);
 
-        // Count failures
-        long failureCount = recentResults.stream()
-                .filter(r -> !r.getStatus().isSuccess())
-                .count();
-
-        double successRateValue = successRate != null ? successRate : 0.0;
-        long totalSamples = recentResults.size();
-        long successfulPings = Math.round(totalSamples * successRateValue);
+        double successRateValue = summary.successRate();
+        Double averageRtt = summary.averageRtt();
+        long failureCount = summary.failureCount();
+        long totalSamples = summary.totalCount();
+        long successfulPings = summary.successCount();
         
         return PingStatisticsDTO.builder()
                 .deviceId(deviceId)
                 .successRate(successRateValue)
                 .averageRtt(averageRtt != null ? averageRtt : 0.0)
+                .p50Rtt(summary.rttPercentile(0.50))
+                .p95Rtt(summary.rttPercentile(0.95))
+                .p99Rtt(summary.rttPercentile(0.99))
                 .recentFailures(failureCount)
                 .totalSamples((int) totalSamples)
                 .lastStatus(lastResult != null ? lastResult.getStatus().getDisplayName() : "Unknown")
@@ -86,4 +117,50 @@ public class PingStatisticsService {
                 .failedPings(failureCount)
                 .build();
     }
+
+    /**
+     * Round trip time percentiles over [start, end), merged from the in-memory histograms when they
+     * cover the window. Otherwise, such as for a device with no recent results in memory, they are
+     * read through the statistics query: from the continuous aggregates, with ping_results rows
+     * scanned for the edges of the window the aggregates do not cover, or for all of it until the
+     * aggregates exist. The response names the sources that were read and the relative bucket width
+     * of the histogram the percentiles were estimated from.
+     */
+    @Transactional(readOnly = true)
+    public LatencyPercentilesDTO getLatencyPercentiles(UUID deviceId, Instant start, Instant end) {
+        if (!pingTargetRepository.existsById(deviceId)) {
+            throw new EntityNotFoundException("PingTarget", deviceId.toString());
+        }
+
+        LatencyPercentilesDTO.LatencyPercentilesDTOBuilder builder = LatencyPercentilesDTO.builder()
+                .deviceId(deviceId)
+                .windowStart(start)
+                .windowEnd(end);
+
+        LatencyHistogram histogram = latencyHistograms.merge(deviceId, start, end);
+        if (histogram != null) {
+            return builder.source("memory")
+                    .bucketWidth(LatencyHistogram.RELATIVE_BUCKET_WIDTH)
+                    .samples(histogram.getTotalCount())
+                    .minRtt(histogram.getMinMillis())
+                    .maxRtt(histogram.getMaxMillis())
+                    .p50Rtt(histogram.percentileMillis(0.50))
+                    .p90Rtt(histogram.percentileMillis(0.90))
+                    .p99Rtt(histogram.percentileMillis(0.99))
+                    .p999Rtt(histogram.percentileMillis(0.999))
+                    .build();
+        }
+
+        PingStatisticsSummary summary = pingStatisticsQueryRepository.summarize(deviceId, start, end);
+        return builder.source(summary.source())
+                .bucketWidth(summary.rttPercentileBucketWidth())
+                .samples(summary.rttCount())
+                .minRtt(summary.rttMin())
+                .maxRtt(summary.rttMax())
+                .p50Rtt(summary.rttPercentile(0.50))
+                .p90Rtt(summary.rttPercentile(0.90))
+                .p99Rtt(summary.rttPercentile(0.99))
+                .p999Rtt(summary.rttPercentile(0.999))
+                .build();
+    }
 }
\ No newline at end of file
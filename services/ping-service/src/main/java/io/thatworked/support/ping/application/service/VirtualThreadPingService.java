@@ -4,13 +4,28 @@ import io.thatworked.support.ping.config.PingExecutorConfig;
 import io.thatworked.support.ping.domain.PingResult;
 import io.thatworked.support.ping.domain.PingStatus;
 import io.thatworked.support.ping.domain.PingTarget;
+import io.thatworked.support.ping.domain.ProbeType;
+import io.thatworked.support.ping.infrastructure.cache.HostnameResolver;
 import io.thatworked.support.ping.infrastructure.event.PingResultEvent;
+import io.thatworked.support.ping.infrastructure.executor.AdaptiveIntervalController;
 import io.thatworked.support.ping.infrastructure.executor.PingCircuitBreaker;
 import io.thatworked.support.ping.infrastructure.executor.PingExecutionDelegate;
 import io.thatworked.support.ping.infrastructure.executor.VirtualThreadPingExecutor;
+import io.thatworked.support.ping.infrastructure.jfr.ProbeScheduledEvent;
+import io.thatworked.support.ping.infrastructure.jfr.ProbeSentEvent;
+import io.thatworked.support.ping.infrastructure.jfr.ReplyReceivedEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.probe.ProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.ProbeOutcome;
+import io.thatworked.support.ping.infrastructure.probe.TcpConnectProbeEngine;
 import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import io.thatworked.support.ping.infrastructure.shard.ProbeOwnership;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshot;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotWriter;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
@@ -21,12 +36,20 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * New ping service using virtual threads for scalability.
@@ -43,6 +66,15 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
     private final VirtualThreadPingExecutor executor;
     private final PingCircuitBreaker circuitBreaker;
     private final PingExecutorConfig config;
+    private final ProbeEngine probeEngine;
+    private final TcpConnectProbeEngine tcpProbeEngine;
+    private final AdaptiveIntervalController adaptiveIntervals;
+    private final HostnameResolver hostnameResolver;
+    private final DeviceSlotRegistry registry;
+    private final PingMeters meters;
+    private final ProbeOwnership ownership;
+    private final StateSnapshotStore snapshotStore;
+    private final StateSnapshotWriter snapshotWriter;
     
     public VirtualThreadPingService(StructuredLoggerFactory structuredLoggerFactory,
                                   PingTargetRepository pingTargetRepository,
@@ -50,7 +82,16 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
                                   ApplicationEventPublisher eventPublisher,
                                   VirtualThreadPingExecutor executor,
                                   PingCircuitBreaker circuitBreaker,
-                                  PingExecutorConfig config) {
+                                  PingExecutorConfig config,
+                                  ProbeEngine probeEngine,
+                                  TcpConnectProbeEngine tcpProbeEngine,
+                                  AdaptiveIntervalController adaptiveIntervals,
+                                  HostnameResolver hostnameResolver,
+                                  DeviceSlotRegistry registry,
+                                  PingMeters meters,
+                                  ProbeOwnership ownership,
+                                  StateSnapshotStore snapshotStore,
+                                  StateSnapshotWriter snapshotWriter) {
         this.logger = structuredLoggerFactory.getLogger(VirtualThreadPingService.class);
         this.pingTargetRepository = pingTargetRepository;
         this.pingResultRepository = pingResultRepository;
@@ -58,30 +99,50 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
         this.executor = executor;
         this.circuitBreaker = circuitBreaker;
         this.config = config;
+        this.probeEngine = probeEngine;
+        this.tcpProbeEngine = tcpProbeEngine;
+        this.adaptiveIntervals = adaptiveIntervals;
+        this.hostnameResolver = hostnameResolver;
+        this.registry = registry;
+        this.meters = meters;
+        this.ownership = ownership;
+        this.snapshotStore = snapshotStore;
+        this.snapshotWriter = snapshotWriter;
     }
     
-    private final Map<UUID, PingTask> activeTasks = new ConcurrentHashMap<>();
-    
+    /**
+     * Resume the devices of the state snapshot at their schedule phase, with their circuit states,
+     * and catch up with the database in the background. Without a snapshot, load the active targets
+     * and spread their first pings over their interval instead of pinging them all at once.
+     */
     @PostConstruct
     public void initialize() {
         try {
             logger.with("method", "initialize")
                   .info("Initializing Virtual Thread Ping Service");
             
-            // Load all active ping targets
-            List<PingTarget> activeTargets = pingTargetRepository.findAllActiveTargets();
-            logger.with("activeTargets", activeTargets.size()).info("Found active ping targets to monitor");
-            
-            // Schedule each target
-            for (PingTarget target : activeTargets) {
-                try {
-                    startMonitoring(target);
-                } catch (Exception e) {
-                    logger.with("deviceId", target.getDeviceId()).error("Failed to start monitoring for device", e);
+            // The snapshot writer depends on the alert state store, so alert states were restored before this
+            Optional<StateSnapshot> snapshot = snapshotStore.restored();
+            if (snapshot.isPresent()) {
+                Set<UUID> restored = restore(snapshot.get());
+                snapshotStore.release();
+                Thread.ofVirtual().name("ping-target-reconcile").start(() -> reconcileRestored(restored));
+            } else {
+                // Load all active ping targets
+                List<PingTarget> activeTargets = pingTargetRepository.findAllActiveTargets();
+                logger.with("activeTargets", activeTargets.size()).info("Found active ping targets to monitor");
+                
+                // Schedule each target
+                for (PingTarget target : activeTargets) {
+                    try {
+                        startMonitoring(target, spreadDelay(target));
+                    } catch (Exception e) {
+                        logger.with("deviceId", target.getDeviceId()).error("Failed to start monitoring for device", e);
+                    }
                 }
             }
             
-            logger.with("activeMonitors", activeTasks.size()).info("Virtual Thread Ping Service initialized with active monitors");
+            logger.with("activeMonitors", registry.size()).info("Virtual Thread Ping Service initialized with active monitors");
         } catch (Exception e) {
             logger.with("method", "initialize")
                   .error("Failed to initialize Virtual Thread Ping Service", e);
@@ -89,14 +150,101 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
         }
     }
     
+    /**
+     * Start the snapshot's devices where their schedules left off
+     * @return The devices started
+     */
+    private Set<UUID> restore(StateSnapshot snapshot) {
+        long startTime = System.currentTimeMillis();
+        long nowNanos = System.nanoTime();
+        Set<UUID> restored = new HashSet<>(snapshot.targets().size() * 2);
+        for (StateSnapshot.TargetState state : snapshot.targets()) {
+            PingTarget target = PingTarget.builder()
+                .deviceId(state.deviceId())
+                .ipAddress(state.ipAddress())
+                .hostname(state.hostname())
+                .isMonitored(true)
+                .pingIntervalSeconds((int) (state.intervalMs() / 1000))
+                .probeType(state.probeType())
+                .probePort(state.probePort())
+                .build();
+            // The same phase within the interval as before the restart, however long the restart took
+            Duration initialDelay = state.nextDueMs() != StateSnapshot.NONE && state.intervalMs() > 0
+                ? Duration.ofMillis(Math.floorMod(state.nextDueMs() - startTime, state.intervalMs()))
+                : spreadDelay(target);
+            if (!startMonitoring(target, initialDelay)) {
+                continue;
+            }
+            int slot = registry.slotOf(state.deviceId());
+            if (slot != DeviceSlotRegistry.NO_SLOT) {
+                registry.restoreCircuit(slot, state.circuitState(), state.failures(),
+                    nowNanos - TimeUnit.MILLISECONDS.toNanos(state.circuitAgeMs()));
+            }
+            restored.add(state.deviceId());
+        }
+        logger.with("snapshotTargets", snapshot.targets().size())
+              .with("restored", restored.size())
+              .with("snapshotAgeMs", startTime - snapshot.writtenAtMs())
+              .with("durationMs", System.currentTimeMillis() - startTime)
+              .info("Restored monitoring from state snapshot");
+        return restored;
+    }
+    
+    /**
+     * Bring the restored devices in line with the active targets in the database: start the targets
+     * added since the snapshot, restart the ones that changed and stop the ones no longer active
+     */
+    private void reconcileRestored(Set<UUID> restored) {
+        try {
+            long startTime = System.currentTimeMillis();
+            List<PingTarget> activeTargets = pingTargetRepository.findAllActiveTargets();
+            Set<UUID> active = new HashSet<>(activeTargets.size() * 2);
+            int started = 0;
+            int updated = 0;
+            for (PingTarget target : activeTargets) {
+                UUID deviceId = target.getDeviceId();
+                active.add(deviceId);
+                if (registry.slotOf(deviceId) == DeviceSlotRegistry.NO_SLOT) {
+                    if (startMonitoring(target, spreadDelay(target))) {
+                        started++;
+                    }
+                } else if (restored.contains(deviceId) && !monitorsAsConfigured(target)) {
+                    updateMonitoring(target);
+                    updated++;
+                }
+            }
+            
+            int stopped = 0;
+            for (UUID deviceId : restored) {
+                if (!active.contains(deviceId)) {
+                    stopMonitoring(deviceId);
+                    stopped++;
+                }
+            }
+            
+            logger.with("activeTargets", activeTargets.size())
+                  .with("started", started)
+                  .with("updated", updated)
+                  .with("stopped", stopped)
+                  .with("durationMs", System.currentTimeMillis() - startTime)
+                  .info("Reconciled restored monitoring with active targets");
+        } catch (Exception e) {
+            logger.with("method", "reconcileRestored")
+                  .error("Failed to reconcile restored monitoring with active targets", e);
+        }
+    }
+    
     @PreDestroy
     public void shutdown() {
         try {
             logger.with("method", "shutdown")
                   .info("Shutting down Virtual Thread Ping Service");
             
+            // Capture schedules and circuits before stopping the devices clears them
+            snapshotWriter.writeFinal();
+            
             // Stop all monitoring
-            activeTasks.keySet().forEach(this::stopMonitoring);
+            registry.deviceIds().forEach(this::stopMonitoring);
             
             logger.with("method", "shutdown")
                   .info("Virtual Thread Ping Service shutdown complete");
@@ -107,46 +255,101 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
     }
     
     /**
-     * Start monitoring a device
+     * Start monitoring a device, pinging it right away
      */
     public void startMonitoring(PingTarget target) {
+        startMonitoring(target, Duration.ZERO);
+    }
+    
+    /**
+     * Start monitoring a device
+     * @param initialDelay Delay before the first ping
+     * @return true if the device is now monitored here
+     */
+    private boolean startMonitoring(PingTarget target, Duration initialDelay) {
         try {
             if (target == null || !target.isMonitored()) {
                 logger.with("method", "startMonitoring")
                       .debug("Skipping monitoring for null or unmonitored target");
-                return;
+                return false;
             }
             
             UUID deviceId = target.getDeviceId();
             
+            // Another instance probes this device when sharding is enabled
+            if (!ownership.owns(deviceId)) {
+                logger.with("deviceId", deviceId)
+                      .with("owner", ownership.owner(deviceId))
+                      .debug("Skipping monitoring for device owned by another instance");
+                return false;
+            }
+            
             // Create ping task with circuit breaker check
-            int intervalSeconds = target.getPingIntervalSeconds() != null ? 
-                target.getPingIntervalSeconds() : config.getPingInterval();
+            int intervalSeconds = intervalSeconds(target);
             
             PingTask task = PingTask.builder()
                 .deviceId(deviceId)
                 .ipAddress(target.getIpAddress())
                 .hostname(target.getHostname())
+                .probeType(target.getProbeType())
+                .probePort(target.getProbePort())
                 .intervalMs(intervalSeconds * 1000L)
                 .recurring(true)
-                .nextExecutionTime(Instant.now())
+                .nextExecutionTime(Instant.now().plus(initialDelay))
                 .build();
             
-            // Schedule with executor
+            // Resolve the hostname ahead of the first ping
+            hostnameResolver.prefetch(task.getHostname());
+            
+            // Schedule with executor; in adaptive mode the configured interval is only the starting point
             Duration interval = Duration.ofSeconds(intervalSeconds);
+            if (adaptiveIntervals.isEnabled()) {
+                interval = adaptiveIntervals.register(deviceId, interval);
+            }
             
             // Use the task directly - circuit breaker check happens in executePing
             PingTask wrappedTask = task;
             
-            executor.schedulePing(wrappedTask, interval);
-            activeTasks.put(deviceId, wrappedTask);
+            int slot = registry.acquire(deviceId);
+            registry.setIntervalMs(slot, interval.toMillis());
+            registry.setNextDueNanos(slot, System.nanoTime() + initialDelay.toNanos());
+            executor.schedulePing(wrappedTask, initialDelay, interval);
+            registry.setTask(slot, wrappedTask);
             
-            logger.with("deviceId", deviceId).with("intervalSeconds", interval.getSeconds()).info("Started monitoring device with interval");
+            logger.with("deviceId", deviceId).with("intervalMs", interval.toMillis()).info("Started monitoring device with interval");
+            return true;
         } catch (Exception e) {
             logger.with("deviceId", target != null ? target.getDeviceId() : "null").error("Error starting monitoring for device", e);
+            return false;
         }
     }
     
+    /**
+     * Whether the device is monitored here with the target's current address, probe and interval
+     */
+    public boolean monitorsAsConfigured(PingTarget target) {
+        int slot = registry.slotOf(target.getDeviceId());
+        PingTask task = slot != DeviceSlotRegistry.NO_SLOT ? registry.task(slot) : null;
+        return task != null
+            && Objects.equals(task.getIpAddress(), target.getIpAddress())
+            && Objects.equals(task.getHostname(), target.getHostname())
+            && task.getProbeType() == target.getProbeType()
+            && Objects.equals(task.getProbePort(), target.getProbePort())
+            && task.getIntervalMs() == intervalSeconds(target) * 1000L;
+    }
+    
+    private int intervalSeconds(PingTarget target) {
+        return target.getPingIntervalSeconds() != null ? target.getPingIntervalSeconds() : config.getPingInterval();
+    }
+    
+    /**
+     * First ping at a fixed point of the interval derived from the device ID, so targets started
+     * together are spread over the interval and a device keeps the same phase across cold starts
+     */
+    private Duration spreadDelay(PingTarget target) {
+        return Duration.ofMillis(Math.floorMod(target.getDeviceId().hashCode(), intervalSeconds(target) * 1000L));
+    }
+    
     /**
      * Stop monitoring a device
      */
@@ -158,10 +361,16 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
                 return;
             }
             
-            PingTask task = activeTasks.remove(deviceId);
+            int slot = registry.slotOf(deviceId);
+            PingTask task = slot != DeviceSlotRegistry.NO_SLOT ? registry.task(slot) : null;
             if (task != null) {
-                executor.cancelPing(deviceId);
                 circuitBreaker.reset(deviceId);
+                // Same lock as adaptInterval, so a reschedule cannot revive the cancelled ping
+                synchronized (task) {
+                    registry.release(deviceId);
+                    executor.cancelPing(deviceId);
+                }
+                adaptiveIntervals.unregister(deviceId);
                 logger.with("deviceId", deviceId).info("Stopped monitoring device");
             }
         } catch (Exception e) {
@@ -173,7 +382,10 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
      * Execute a ping with circuit breaker and retry logic
      */
     public PingResult executePing(PingTask task) {
+        long startNanos = System.nanoTime();
         try {
+            markStarted(task, startNanos);
+            
             // Check circuit breaker
             if (config.isCircuitBreakerEnabled() && !circuitBreaker.shouldAllowPing(task.getDeviceId())) {
                 logger.with("deviceId", task.getDeviceId()).debug("Circuit breaker OPEN for device, skipping ping");
@@ -186,6 +398,8 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
             
             // Execute ping with retries
             PingResult result = executeWithRetry(task);
+            recordRtt(task, result);
+            meters.recordProbeDuration(probeType(task), result.getStatus(), System.nanoTime() - startNanos);
             
             // Update circuit breaker
             if (config.isCircuitBreakerEnabled()) {
@@ -196,9 +410,14 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
                 }
             }
             
+            if (adaptiveIntervals.isEnabled()) {
+                adaptInterval(task, result);
+            }
+            
             return result;
         } catch (Exception e) {
             logger.with("deviceId", task.getDeviceId()).error("Error executing ping for device", e);
+            meters.recordProbeDuration(probeType(task), PingStatus.ERROR, System.nanoTime() - startNanos);
             
             if (config.isCircuitBreakerEnabled()) {
                 circuitBreaker.recordFailure(task.getDeviceId());
@@ -213,18 +432,77 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
     }
     
     /**
-     * Execute ping with retry logic
+     * Move the device to the interval chosen from its latest result, counted from when the ping started
+     */
+    private void adaptInterval(PingTask task, PingResult result) {
+        Duration interval = adaptiveIntervals.onResult(task.getDeviceId(), result.getStatus(), result.getRoundTripTime());
+        if (interval == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(result.getTime(), Instant.now());
+        Duration initialDelay = interval.compareTo(elapsed) > 0 ? interval.minus(elapsed) : Duration.ZERO;
+        
+        // Reschedule under the task's lock so a concurrent stopMonitoring cannot be undone
+        int slot = registry.slotOf(task.getDeviceId());
+        synchronized (task) {
+            if (slot != DeviceSlotRegistry.NO_SLOT && registry.task(slot) == task) {
+                registry.setIntervalMs(slot, interval.toMillis());
+                registry.setNextDueNanos(slot, System.nanoTime() + initialDelay.toNanos());
+                executor.reschedulePing(task, initialDelay, interval);
+            }
+        }
+    }
+    
+    /**
+     * Advance the device's next due time in its registry slot and record how late this ping started
+     */
+    private void markStarted(PingTask task, long startNanos) {
+        int slot = registry.slotOf(task.getDeviceId());
+        if (slot != DeviceSlotRegistry.NO_SLOT) {
+            long lagNanos = registry.markStarted(slot, startNanos);
+            if (lagNanos >= 0) {
+                meters.recordScheduleLag(lagNanos);
+            }
+            
+            ProbeScheduledEvent scheduled = new ProbeScheduledEvent();
+            if (scheduled.shouldCommit()) {
+                scheduled.slot = slot;
+                scheduled.deviceId = task.getDeviceId().toString();
+                scheduled.lag = Math.max(0, lagNanos);
+                scheduled.commit();
+            }
+        }
+    }
+    
+    /**
+     * Keep the device's last round trip time in its registry slot
+     */
+    private void recordRtt(PingTask task, PingResult result) {
+        int slot = registry.slotOf(task.getDeviceId());
+        if (slot != DeviceSlotRegistry.NO_SLOT) {
+            Double rtt = result.getRoundTripTime();
+            registry.recordRtt(slot, rtt != null ? rtt.floatValue() : Float.NaN);
+        }
+    }
+    
+    private static ProbeType probeType(PingTask task) {
+        return task.getProbeType() != null ? task.getProbeType() : ProbeType.ICMP;
+    }
+    
+    /**
+     * Execute ping with retry logic. Hedged probes already send several echoes, so they are not retried.
      */
     private PingResult executeWithRetry(PingTask task) throws IOException {
         IOException lastException = null;
+        int attempts = config.isHedgingEnabled() && task.getProbeType() != ProbeType.TCP ? 1 : config.getRetryAttempts();
         
-        for (int attempt = 0; attempt < config.getRetryAttempts(); attempt++) {
+        for (int attempt = 0; attempt < attempts; attempt++) {
             try {
                 return doExecutePing(task);
             } catch (IOException e) {
                 lastException = e;
                 
-                if (attempt < config.getRetryAttempts() - 1) {
+                if (attempt < attempts - 1) {
                     try {
                         Thread.sleep(config.getRetryDelayMs() * (attempt + 1));
                     } catch (InterruptedException ie) {
@@ -249,23 +527,29 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
             String target = (task.getHostname() != null && !task.getHostname().isEmpty()) 
                 ? task.getHostname() 
                 : task.getIpAddress();
-                
+            
             if (target == null || target.isEmpty()) {
                 throw new IOException("No target address (IP or hostname) available for device: " + task.getDeviceId());
             }
             
-            InetAddress address = InetAddress.getByName(target);
-            long start = System.nanoTime();
-            boolean reachable = address.isReachable(config.getTimeoutMs());
-            long pingTimeNanos = System.nanoTime() - start;
+            InetAddress address = hostnameResolver.resolve(target);
+            boolean tcp = task.getProbeType() == ProbeType.TCP;
+            int timeoutMs = !tcp && config.isHedgingEnabled() ? config.getHedgeTimeoutMs() : config.getTimeoutMs();
             
-            double rttMs = pingTimeNanos / 1_000_000.0;
+            ReplyReceivedEvent reply = probeSent(task, timeoutMs);
+            ProbeOutcome outcome = tcp
+                ? await(tcpProbeEngine.probe(tcpEndpoint(address, task), timeoutMs))
+                : await(probeEngine.probe(address, timeoutMs));
+            replyReceived(reply, outcome);
+            if (outcome.reachable()) {
+                meters.recordProbeRtt(probeType(task), outcome.rttNanos());
+            }
             
             return PingResult.builder()
                 .time(startTime)
                 .deviceId(task.getDeviceId())
-                .status(reachable ? PingStatus.SUCCESS : PingStatus.FAILURE)
-                .roundTripTime(reachable ? rttMs : null)
+                .status(outcome.reachable() ? PingStatus.SUCCESS : PingStatus.FAILURE)
+                .roundTripTime(outcome.reachable() ? outcome.rttMillis() : null)
                 .build();
         } catch (IOException e) {
             logger.with("ipAddress", task.getIpAddress()).with("error", e.getMessage()).debug("Ping failed");
@@ -273,6 +557,62 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
         }
     }
     
+    /**
+     * Emit the probe sent event and begin the reply event, which carries the slot and probe type
+     */
+    private ReplyReceivedEvent probeSent(PingTask task, int timeoutMs) {
+        ReplyReceivedEvent reply = new ReplyReceivedEvent();
+        if (!reply.isEnabled()) {
+            return reply;
+        }
+        reply.slot = registry.slotOf(task.getDeviceId());
+        reply.probeType = probeType(task).name();
+        
+        ProbeSentEvent sent = new ProbeSentEvent();
+        if (sent.shouldCommit()) {
+            sent.slot = reply.slot;
+            sent.probeType = reply.probeType;
+            sent.timeout = timeoutMs;
+            sent.commit();
+        }
+        reply.begin();
+        return reply;
+    }
+    
+    private void replyReceived(ReplyReceivedEvent reply, ProbeOutcome outcome) {
+        reply.end();
+        if (reply.shouldCommit()) {
+            reply.reachable = outcome.reachable();
+            reply.rtt = outcome.reachable() ? outcome.rttNanos() : 0;
+            reply.commit();
+        }
+    }
+    
+    /**
+     * Port the TCP probe connects to, the target's own or the configured default
+     */
+    private InetSocketAddress tcpEndpoint(InetAddress address, PingTask task) {
+        int port = task.getProbePort() != null ? task.getProbePort() : config.getTcpDefaultPort();
+        return new InetSocketAddress(address, port);
+    }
+    
+    /**
+     * Wait for a probe sent through one of the engines
+     */
+    private ProbeOutcome await(CompletableFuture<ProbeOutcome> probe) throws IOException {
+        try {
+            return probe.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for probe", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Probe failed", e.getCause());
+        }
+    }
+    
     /**
      * Get service metrics
      */
@@ -280,8 +620,13 @@ public class VirtualThreadPingService implements PingExecutionDelegate {
         try {
             Map<String, Object> metrics = new ConcurrentHashMap<>();
             
-            metrics.put("activeTasks", activeTasks.size());
+            metrics.put("activeTasks", registry.size());
             metrics.put("executorMetrics", executor.getMetrics());
+            metrics.put("probeEngineMetrics", probeEngine.getMetrics());
+            metrics.put("tcpProbeEngineMetrics", tcpProbeEngine.getMetrics());
+            metrics.put("adaptiveIntervalMetrics", adaptiveIntervals.getMetrics());
+            metrics.put("dnsCacheMetrics", hostnameResolver.getMetrics());
+            metrics.put("deviceRegistryMetrics", registry.getMetrics());
             
             if (config.isCircuitBreakerEnabled()) {
                 metrics.put("circuitBreakerMetrics", circuitBreaker.getMetrics());
@@ -8,7 +8,14 @@ import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Use case for updating a ping target's IP address and/or hostname when the device changes.
@@ -80,6 +87,51 @@ public class UpdatePingTargetAddressUseCase {
         return saved;
     }
     
+    /**
+     * Update the addresses of many ping targets with one lookup and one batched save.
+     * Devices without a ping target and targets whose addresses are unchanged are skipped.
+     * @return the targets whose address changed
+     */
+    public List<PingTargetDomain> executeAll(List<UpdatePingTargetAddressCommand> commands) {
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<UUID, PingTargetDomain> pingTargets = pingTargetRepository.findByDeviceIds(
+                commands.stream().map(UpdatePingTargetAddressCommand::deviceId).toList()).stream()
+            .collect(Collectors.toMap(PingTargetDomain::getDeviceId, Function.identity()));
+        
+        Map<UUID, PingTargetDomain> previous = new HashMap<>();
+        List<PingTargetDomain> updated = new ArrayList<>();
+        for (UpdatePingTargetAddressCommand command : commands) {
+            PingTargetDomain pingTarget = pingTargets.get(command.deviceId());
+            if (pingTarget == null
+                    || (Objects.equals(command.newIpAddress(), pingTarget.getIpAddress())
+                        && Objects.equals(command.newHostname(), pingTarget.getHostname()))) {
+                continue;
+            }
+            previous.put(pingTarget.getDeviceId(), pingTarget);
+            updated.add(pingTarget.withIpAddress(command.newIpAddress()).withHostname(command.newHostname()));
+        }
+        
+        List<PingTargetDomain> saved = updated.isEmpty() ? List.of() : pingTargetRepository.saveAll(updated);
+        
+        // Monitored targets are rescheduled against their new address
+        for (PingTargetDomain pingTarget : saved) {
+            if (pingTarget.isMonitored()) {
+                PingTargetDomain old = previous.get(pingTarget.getDeviceId());
+                eventPublisher.publishPingTargetAddressUpdated(pingTarget, old.getIpAddress(), old.getHostname());
+            }
+        }
+        
+        logger.with("commands", commands.size())
+              .with("pingTargets", pingTargets.size())
+              .with("updated", saved.size())
+              .info("Updated ping target addresses");
+        
+        return saved;
+    }
+    
     public record UpdatePingTargetAddressCommand(UUID deviceId, String newIpAddress, String newHostname) {
         public UpdatePingTargetAddressCommand {
             if (deviceId == null) throw new IllegalArgumentException("Device ID is required");
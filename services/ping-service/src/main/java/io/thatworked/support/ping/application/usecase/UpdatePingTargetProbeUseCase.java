@@ -0,0 +1,69 @@
+package io.thatworked.support.ping.application.usecase;
+
+import io.thatworked.support.ping.domain.ProbeType;
+import io.thatworked.support.ping.domain.model.PingTargetDomain;
+import io.thatworked.support.ping.domain.port.PingTargetRepository;
+import io.thatworked.support.ping.domain.port.EventPublisher;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Use case for choosing how a ping target is probed, by ICMP echo or by TCP connect to a port.
+ */
+@Service
+@Transactional
+public class UpdatePingTargetProbeUseCase {
+    
+    private final PingTargetRepository pingTargetRepository;
+    private final EventPublisher eventPublisher;
+    private final StructuredLogger logger;
+    
+    public UpdatePingTargetProbeUseCase(PingTargetRepository pingTargetRepository,
+                                       EventPublisher eventPublisher,
+                                       StructuredLoggerFactory loggerFactory) {
+        this.pingTargetRepository = pingTargetRepository;
+        this.eventPublisher = eventPublisher;
+        this.logger = loggerFactory.getLogger(UpdatePingTargetProbeUseCase.class);
+    }
+    
+    public PingTargetDomain execute(UpdatePingTargetProbeCommand command) {
+        UUID deviceId = command.deviceId();
+        
+        PingTargetDomain pingTarget = pingTargetRepository.findById(deviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Ping target not found for device: " + deviceId));
+        
+        if (pingTarget.getProbeType() == command.probeType() && Objects.equals(pingTarget.getProbePort(), command.probePort())) {
+            return pingTarget;
+        }
+        
+        PingTargetDomain saved = pingTargetRepository.save(pingTarget.withProbe(command.probeType(), command.probePort()));
+        
+        // Restart monitoring so the running task picks up the new probe
+        if (saved.isMonitored()) {
+            eventPublisher.publishPingTargetStopped(saved);
+            eventPublisher.publishPingTargetStarted(saved);
+        }
+        
+        logger.with("deviceId", deviceId)
+              .with("probeType", saved.getProbeType())
+              .with("probePort", saved.getProbePort())
+              .info("Updated ping target probe");
+        
+        return saved;
+    }
+    
+    public record UpdatePingTargetProbeCommand(UUID deviceId, ProbeType probeType, Integer probePort) {
+        public UpdatePingTargetProbeCommand {
+            if (deviceId == null) throw new IllegalArgumentException("Device ID is required");
+            if (probeType == null) throw new IllegalArgumentException("Probe type is required");
+            if (probePort != null && (probePort < 1 || probePort > 65535)) {
+                throw new IllegalArgumentException("Probe port must be between 1 and 65535");
+            }
+        }
+    }
+}
\ No newline at end of file
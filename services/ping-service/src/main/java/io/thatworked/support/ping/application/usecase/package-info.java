@@ -10,6 +10,7 @@
  *   <li>{@link io.thatworked.support.ping.application.usecase.ProcessPingResultUseCase} - Process ping execution results</li>
  *   <li>{@link io.thatworked.support.ping.application.usecase.GetPingTargetsUseCase} - Retrieve ping targets</li>
  *   <li>{@link io.thatworked.support.ping.application.usecase.CleanupDeviceDataUseCase} - Clean up deleted device data</li>
+ *   <li>{@link io.thatworked.support.ping.application.usecase.UpdatePingTargetProbeUseCase} - Choose ICMP or TCP connect probing</li>
  * </ul>
  */
 package io.thatworked.support.ping.application.usecase;
\ No newline at end of file
@@ -0,0 +1,116 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for adaptive per-device probe intervals
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.adaptive-interval")
+public class AdaptiveIntervalConfig {
+    
+    /**
+     * Adapt each target's interval to its recent behaviour instead of probing at the fixed interval
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Shortest interval as a fraction of the target's configured interval
+     */
+    private double minFactor = 0.2;
+    
+    /**
+     * Longest interval as a multiple of the target's configured interval
+     */
+    private double maxFactor = 12.0;
+    
+    /**
+     * Interval multiplier applied after a run of stable results
+     */
+    private double growthFactor = 1.5;
+    
+    /**
+     * Consecutive normal successes before the interval is stretched
+     */
+    private int stableSamples = 10;
+    
+    /**
+     * Round trip times this many deviations above the moving average count as anomalies and halve the interval
+     */
+    private double anomalyDeviations = 4.0;
+    
+    /**
+     * Smallest excess over the moving average treated as an anomaly, so sub-millisecond jitter is ignored
+     */
+    private double anomalyMinMs = 5.0;
+    
+    /**
+     * Probes per second shared by all targets; intervals are stretched in proportion when demand exceeds it
+     */
+    private double probeBudgetPps = 2000.0;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public double getMinFactor() {
+        return minFactor;
+    }
+    
+    public void setMinFactor(double minFactor) {
+        this.minFactor = minFactor;
+    }
+    
+    public double getMaxFactor() {
+        return maxFactor;
+    }
+    
+    public void setMaxFactor(double maxFactor) {
+        this.maxFactor = maxFactor;
+    }
+    
+    public double getGrowthFactor() {
+        return growthFactor;
+    }
+    
+    public void setGrowthFactor(double growthFactor) {
+        this.growthFactor = growthFactor;
+    }
+    
+    public int getStableSamples() {
+        return stableSamples;
+    }
+    
+    public void setStableSamples(int stableSamples) {
+        this.stableSamples = stableSamples;
+    }
+    
+    public double getAnomalyDeviations() {
+        return anomalyDeviations;
+    }
+    
+    public void setAnomalyDeviations(double anomalyDeviations) {
+        this.anomalyDeviations = anomalyDeviations;
+    }
+    
+    public double getAnomalyMinMs() {
+        return anomalyMinMs;
+    }
+    
+    public void setAnomalyMinMs(double anomalyMinMs) {
+        this.anomalyMinMs = anomalyMinMs;
+    }
+    
+    public double getProbeBudgetPps() {
+        return probeBudgetPps;
+    }
+    
+    public void setProbeBudgetPps(double probeBudgetPps) {
+        this.probeBudgetPps = probeBudgetPps;
+    }
+}
\ No newline at end of file
@@ -14,6 +14,11 @@ public class AlertingConfig {
     private int failureThreshold = 3;
     private int recoveryThreshold = 2;
     
+    /**
+     * How often changed alert states are written to the database
+     */
+    private long flushIntervalMs = 5000;
+    
     public boolean isEnabled() {
         return enabled;
     }
@@ -37,4 +42,12 @@ public class AlertingConfig {
     public void setRecoveryThreshold(int recoveryThreshold) {
         this.recoveryThreshold = recoveryThreshold;
     }
+    
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
 }
\ No newline at end of file
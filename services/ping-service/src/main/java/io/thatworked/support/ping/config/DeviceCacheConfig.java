@@ -0,0 +1,39 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the in-memory cache of monitored device details
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.device-cache")
+public class DeviceCacheConfig {
+    
+    /**
+     * Devices kept in memory; the least recently used are evicted beyond this.
+     * Keep it above the number of monitored devices, or result events go to the database again.
+     */
+    private long maximumSize = 100000;
+    
+    /**
+     * Reload an entry this long after it was written, covering changes made outside the device events
+     */
+    private long expireAfterWriteSeconds = 600;
+    
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+    
+    public long getExpireAfterWriteSeconds() {
+        return expireAfterWriteSeconds;
+    }
+    
+    public void setExpireAfterWriteSeconds(long expireAfterWriteSeconds) {
+        this.expireAfterWriteSeconds = expireAfterWriteSeconds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the cache of resolved target hostnames
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.dns-cache")
+public class DnsCacheConfig {
+    
+    /**
+     * Hostnames kept in memory; the least recently used are evicted beyond this
+     */
+    private long maximumSize = 100000;
+    
+    /**
+     * How long a resolved address may be used
+     */
+    private long ttlSeconds = 300;
+    
+    /**
+     * Age after which the next lookup refreshes an address in the background, before it expires
+     */
+    private long refreshAfterSeconds = 240;
+    
+    /**
+     * How long a failed lookup is remembered before the name is resolved again
+     */
+    private long negativeTtlSeconds = 30;
+    
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+    
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+    
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+    
+    public long getRefreshAfterSeconds() {
+        return refreshAfterSeconds;
+    }
+    
+    public void setRefreshAfterSeconds(long refreshAfterSeconds) {
+        this.refreshAfterSeconds = refreshAfterSeconds;
+    }
+    
+    public long getNegativeTtlSeconds() {
+        return negativeTtlSeconds;
+    }
+    
+    public void setNegativeTtlSeconds(long negativeTtlSeconds) {
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+}
\ No newline at end of file
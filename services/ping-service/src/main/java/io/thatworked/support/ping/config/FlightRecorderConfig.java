@@ -0,0 +1,64 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for Flight Recorder recordings started through the metrics API
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.flight-recorder")
+public class FlightRecorderConfig {
+    
+    /**
+     * Directory recordings are dumped to
+     */
+    private String directory = "/app/data/jfr";
+    
+    /**
+     * JDK settings the recording starts from, "default" for continuous use or "profile" for more detail
+     */
+    private String settings = "default";
+    
+    /**
+     * Oldest data kept in the recording's ring buffer on disk
+     */
+    private long maxAgeMinutes = 10;
+    
+    /**
+     * Largest size of the recording's ring buffer on disk
+     */
+    private long maxSizeMb = 256;
+    
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    
+    public String getSettings() {
+        return settings;
+    }
+    
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+    
+    public long getMaxAgeMinutes() {
+        return maxAgeMinutes;
+    }
+    
+    public void setMaxAgeMinutes(long maxAgeMinutes) {
+        this.maxAgeMinutes = maxAgeMinutes;
+    }
+    
+    public long getMaxSizeMb() {
+        return maxSizeMb;
+    }
+    
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+}
\ No newline at end of file
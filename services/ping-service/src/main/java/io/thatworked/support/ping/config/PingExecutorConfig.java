@@ -21,7 +21,7 @@ public class PingExecutorConfig {
     private int timeoutMs = 1000;
     
     /**
-     * Batch processing interval in milliseconds
+     * Batch processing interval in milliseconds, used as the timing wheel tick
      */
     private int batchIntervalMs = 100;
     
@@ -84,6 +84,67 @@ public class PingExecutorConfig {
      * Scheduler thread pool size
      */
     private int schedulerPoolSize = 2;
+    
+    /**
+     * Scheduling engine: "scheduled-executor" (one fixed-rate task per device) or "timing-wheel"
+     */
+    private String schedulingEngine = "scheduled-executor";
+    
+    /**
+     * Probe engine: "reachable" (InetAddress.isReachable), "icmp" (unprivileged ICMP datagram socket)
+     * or "simulated" (seeded network model for load tests, see ping.simulator)
+     */
+    private String probeEngine = "reachable";
+    
+    /**
+     * Maximum ICMP echoes waiting for the sender thread
+     */
+    private int icmpSendQueueCapacity = 65536;
+    
+    /**
+     * ICMP socket receive buffer size in bytes, capped by net.core.rmem_max
+     */
+    private int icmpReceiveBufferBytes = 4 * 1024 * 1024;
+    
+    /**
+     * Maximum pings waiting for a concurrency permit
+     */
+    private int admissionQueueCapacity = 10000;
+    
+    /**
+     * Longest a ping waits for a permit before it is shed, capped at the device's interval
+     */
+    private long admissionMaxWaitMs = 2000;
+    
+    /**
+     * Send hedged echoes instead of retrying failed probes one after another
+     */
+    private boolean hedgingEnabled = false;
+    
+    /**
+     * Delay before each additional echo of a hedged probe in milliseconds
+     */
+    private long hedgeDelayMs = 50;
+    
+    /**
+     * Additional echoes a hedged probe may send after the first
+     */
+    private int hedgeCount = 2;
+    
+    /**
+     * Timeout shared by all echoes of a hedged probe in milliseconds
+     */
+    private int hedgeTimeoutMs = 300;
+    
+    /**
+     * Port probed by TCP connect targets that do not name their own
+     */
+    private int tcpDefaultPort = 443;
+    
+    /**
+     * Maximum TCP connect probes outstanding at once, each holding a socket
+     */
+    private int tcpMaxInFlight = 10000;
 
     public int getMaxConcurrentPings() {
         return maxConcurrentPings;
@@ -204,4 +265,100 @@ public class PingExecutorConfig {
     public void setSchedulerPoolSize(int schedulerPoolSize) {
         this.schedulerPoolSize = schedulerPoolSize;
     }
+
+    public String getSchedulingEngine() {
+        return schedulingEngine;
+    }
+
+    public void setSchedulingEngine(String schedulingEngine) {
+        this.schedulingEngine = schedulingEngine;
+    }
+
+    public String getProbeEngine() {
+        return probeEngine;
+    }
+
+    public void setProbeEngine(String probeEngine) {
+        this.probeEngine = probeEngine;
+    }
+
+    public int getIcmpSendQueueCapacity() {
+        return icmpSendQueueCapacity;
+    }
+
+    public void setIcmpSendQueueCapacity(int icmpSendQueueCapacity) {
+        this.icmpSendQueueCapacity = icmpSendQueueCapacity;
+    }
+
+    public int getIcmpReceiveBufferBytes() {
+        return icmpReceiveBufferBytes;
+    }
+
+    public void setIcmpReceiveBufferBytes(int icmpReceiveBufferBytes) {
+        this.icmpReceiveBufferBytes = icmpReceiveBufferBytes;
+    }
+
+    public int getAdmissionQueueCapacity() {
+        return admissionQueueCapacity;
+    }
+
+    public void setAdmissionQueueCapacity(int admissionQueueCapacity) {
+        this.admissionQueueCapacity = admissionQueueCapacity;
+    }
+
+    public long getAdmissionMaxWaitMs() {
+        return admissionMaxWaitMs;
+    }
+
+    public void setAdmissionMaxWaitMs(long admissionMaxWaitMs) {
+        this.admissionMaxWaitMs = admissionMaxWaitMs;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public long getHedgeDelayMs() {
+        return hedgeDelayMs;
+    }
+
+    public void setHedgeDelayMs(long hedgeDelayMs) {
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+
+    public int getHedgeCount() {
+        return hedgeCount;
+    }
+
+    public void setHedgeCount(int hedgeCount) {
+        this.hedgeCount = hedgeCount;
+    }
+
+    public int getHedgeTimeoutMs() {
+        return hedgeTimeoutMs;
+    }
+
+    public void setHedgeTimeoutMs(int hedgeTimeoutMs) {
+        this.hedgeTimeoutMs = hedgeTimeoutMs;
+    }
+
+    public int getTcpDefaultPort() {
+        return tcpDefaultPort;
+    }
+
+    public void setTcpDefaultPort(int tcpDefaultPort) {
+        this.tcpDefaultPort = tcpDefaultPort;
+    }
+
+    public int getTcpMaxInFlight() {
+        return tcpMaxInFlight;
+    }
+
+    public void setTcpMaxInFlight(int tcpMaxInFlight) {
+        this.tcpMaxInFlight = tcpMaxInFlight;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the in-memory cache of recent ping results
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.result-cache")
+public class ResultCacheConfig {
+    
+    /**
+     * Serve recent result queries from memory when enough results are held for the device
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Results kept per device; requests for more than this are read from the database
+     */
+    private int capacityPerDevice = 64;
+    
+    /**
+     * Width of each per-device latency histogram bucket in seconds; percentile windows are rounded out to whole buckets
+     */
+    private int latencyBucketSeconds = 300;
+    
+    /**
+     * How long per-device latency histograms are kept in memory; older windows are answered from the continuous aggregates
+     */
+    private int latencyRetentionHours = 24;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getCapacityPerDevice() {
+        return capacityPerDevice;
+    }
+    
+    public void setCapacityPerDevice(int capacityPerDevice) {
+        this.capacityPerDevice = capacityPerDevice;
+    }
+    
+    public int getLatencyBucketSeconds() {
+        return latencyBucketSeconds;
+    }
+    
+    public void setLatencyBucketSeconds(int latencyBucketSeconds) {
+        this.latencyBucketSeconds = latencyBucketSeconds;
+    }
+    
+    public int getLatencyRetentionHours() {
+        return latencyRetentionHours;
+    }
+    
+    public void setLatencyRetentionHours(int latencyRetentionHours) {
+        this.latencyRetentionHours = latencyRetentionHours;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the producer that publishes every ping result to the ping-results topic
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.result-publisher")
+public class ResultPublisherConfig {
+    
+    /**
+     * How long the producer waits to fill a batch, in milliseconds
+     */
+    private int lingerMs = 20;
+    
+    /**
+     * Maximum bytes per partition batch
+     */
+    private int batchSize = 131072;
+    
+    /**
+     * Batch compression: none, gzip, snappy, lz4 or zstd
+     */
+    private String compressionType = "lz4";
+    
+    /**
+     * Idempotent producer, so retries neither duplicate nor reorder a device's results
+     */
+    private boolean idempotenceEnabled = true;
+    
+    /**
+     * Sends awaiting acknowledgement; beyond this, publishing threads wait for a slot
+     */
+    private int maxInFlight = 20000;
+    
+    /**
+     * How long a publishing thread waits for an in-flight slot before the event is dropped and counted
+     */
+    private long acquireTimeoutMs = 100;
+    
+    /**
+     * Upper bound on a send blocking for metadata or buffer space, in milliseconds
+     */
+    private int maxBlockMs = 1000;
+    
+    public int getLingerMs() {
+        return lingerMs;
+    }
+    
+    public void setLingerMs(int lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public String getCompressionType() {
+        return compressionType;
+    }
+    
+    public void setCompressionType(String compressionType) {
+        this.compressionType = compressionType;
+    }
+    
+    public boolean isIdempotenceEnabled() {
+        return idempotenceEnabled;
+    }
+    
+    public void setIdempotenceEnabled(boolean idempotenceEnabled) {
+        this.idempotenceEnabled = idempotenceEnabled;
+    }
+    
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+    
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+    
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+    
+    public int getMaxBlockMs() {
+        return maxBlockMs;
+    }
+    
+    public void setMaxBlockMs(int maxBlockMs) {
+        this.maxBlockMs = maxBlockMs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the write-behind ping result pipeline
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.result-writer")
+public class ResultWriterConfig {
+    
+    /**
+     * Queue results and write them in batches (false saves each result through JPA)
+     */
+    private boolean writeBehindEnabled = true;
+    
+    /**
+     * Maximum results waiting to be flushed; further results are dropped and counted
+     */
+    private int queueCapacity = 262144;
+    
+    /**
+     * Maximum time a result waits before being flushed, in milliseconds
+     */
+    private int flushIntervalMs = 250;
+    
+    /**
+     * Rows per flush; a full batch triggers a flush before the interval elapses
+     */
+    private int batchSize = 5000;
+    
+    /**
+     * Use PostgreSQL COPY (falls back to multi-row INSERT on other databases or on error)
+     */
+    private boolean copyEnabled = true;
+    
+    /**
+     * Attempts per batch before its rows are dropped
+     */
+    private int maxFlushAttempts = 5;
+    
+    /**
+     * Maximum time to spend draining the queue on shutdown, in milliseconds
+     */
+    private int shutdownDrainTimeoutMs = 10000;
+    
+    /**
+     * Append results to a local memory-mapped write-ahead log before they reach the database
+     */
+    private boolean walEnabled = false;
+    
+    /**
+     * Directory holding write-ahead log segments and the replay checkpoint
+     */
+    private String walDirectory = "/app/data/wal";
+    
+    /**
+     * Size of each write-ahead log segment file in bytes
+     */
+    private int walSegmentBytes = 64 * 1024 * 1024;
+    
+    /**
+     * Disk budget for all write-ahead log segments; results are rejected once it is used up
+     */
+    private long walMaxBytes = 2L * 1024 * 1024 * 1024;
+    
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+    
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    public void setFlushIntervalMs(int flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public boolean isCopyEnabled() {
+        return copyEnabled;
+    }
+    
+    public void setCopyEnabled(boolean copyEnabled) {
+        this.copyEnabled = copyEnabled;
+    }
+    
+    public int getMaxFlushAttempts() {
+        return maxFlushAttempts;
+    }
+    
+    public void setMaxFlushAttempts(int maxFlushAttempts) {
+        this.maxFlushAttempts = maxFlushAttempts;
+    }
+    
+    public int getShutdownDrainTimeoutMs() {
+        return shutdownDrainTimeoutMs;
+    }
+    
+    public void setShutdownDrainTimeoutMs(int shutdownDrainTimeoutMs) {
+        this.shutdownDrainTimeoutMs = shutdownDrainTimeoutMs;
+    }
+    
+    public boolean isWalEnabled() {
+        return walEnabled;
+    }
+    
+    public void setWalEnabled(boolean walEnabled) {
+        this.walEnabled = walEnabled;
+    }
+    
+    public String getWalDirectory() {
+        return walDirectory;
+    }
+    
+    public void setWalDirectory(String walDirectory) {
+        this.walDirectory = walDirectory;
+    }
+    
+    public int getWalSegmentBytes() {
+        return walSegmentBytes;
+    }
+    
+    public void setWalSegmentBytes(int walSegmentBytes) {
+        this.walSegmentBytes = walSegmentBytes;
+    }
+    
+    public long getWalMaxBytes() {
+        return walMaxBytes;
+    }
+    
+    public void setWalMaxBytes(long walMaxBytes) {
+        this.walMaxBytes = walMaxBytes;
+    }
+}
\ No newline at end of file
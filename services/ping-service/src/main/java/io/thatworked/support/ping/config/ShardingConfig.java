@@ -0,0 +1,134 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for splitting probe ownership across ping service instances
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.sharding")
+public class ShardingConfig {
+    
+    /**
+     * Probe only the devices this instance owns; when disabled every instance probes every device
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Where live instances come from: "discovery" (registered service instances) or "static" (the members list)
+     */
+    private String membership = "discovery";
+    
+    /**
+     * Name of this instance with static membership
+     */
+    private String memberId = "local";
+    
+    /**
+     * All instance names with static membership
+     */
+    private List<String> members = new ArrayList<>();
+    
+    /**
+     * Points each instance takes on the hash ring; more points spread devices more evenly
+     */
+    private int virtualNodes = 512;
+    
+    /**
+     * How often membership is checked
+     */
+    private long refreshIntervalMs = 10000;
+    
+    /**
+     * Consecutive checks that must see the same new membership before devices move
+     */
+    private int stableRefreshes = 2;
+    
+    /**
+     * How long a device keeps being probed here after it moved to another instance, so the
+     * new owner has started it before this instance stops
+     */
+    private long handoffGraceMs = 30000;
+    
+    /**
+     * How often active targets are compared with the devices probed here, to pick up starts
+     * and stops handled by other instances
+     */
+    private long reconcileIntervalMs = 60000;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getMembership() {
+        return membership;
+    }
+    
+    public void setMembership(String membership) {
+        this.membership = membership;
+    }
+    
+    public String getMemberId() {
+        return memberId;
+    }
+    
+    public void setMemberId(String memberId) {
+        this.memberId = memberId;
+    }
+    
+    public List<String> getMembers() {
+        return members;
+    }
+    
+    public void setMembers(List<String> members) {
+        this.members = members;
+    }
+    
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+    
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+    
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+    
+    public int getStableRefreshes() {
+        return stableRefreshes;
+    }
+    
+    public void setStableRefreshes(int stableRefreshes) {
+        this.stableRefreshes = stableRefreshes;
+    }
+    
+    public long getHandoffGraceMs() {
+        return handoffGraceMs;
+    }
+    
+    public void setHandoffGraceMs(long handoffGraceMs) {
+        this.handoffGraceMs = handoffGraceMs;
+    }
+    
+    public long getReconcileIntervalMs() {
+        return reconcileIntervalMs;
+    }
+    
+    public void setReconcileIntervalMs(long reconcileIntervalMs) {
+        this.reconcileIntervalMs = reconcileIntervalMs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the simulated network used when the probe engine is "simulated".
+ * Every target's behaviour is derived from the seed and its address, so the same seed and targets
+ * produce the same replies run after run.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.simulator")
+public class SimulatorConfig {
+    
+    /**
+     * Seed all simulated behaviour is derived from
+     */
+    private long seed = 42;
+    
+    /**
+     * Median round trip time across the fleet
+     */
+    private double rttMedianMs = 20.0;
+    
+    /**
+     * Spread of the per-target median round trip times, as the sigma of their log-normal distribution
+     */
+    private double rttTargetSpread = 0.8;
+    
+    /**
+     * Jitter of one target's round trip times around its median, as the sigma of their log-normal distribution
+     */
+    private double rttJitter = 0.25;
+    
+    /**
+     * Share of probes lost on targets that are up
+     */
+    private double lossRate = 0.01;
+    
+    /**
+     * Share of targets that alternate between up and down
+     */
+    private double flappingFraction = 0.02;
+    
+    /**
+     * Probes a flapping target spends up and then down, half each
+     */
+    private int flapPeriodProbes = 20;
+    
+    /**
+     * Share of targets that never answer
+     */
+    private double blackholeFraction = 0.05;
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    public double getRttMedianMs() {
+        return rttMedianMs;
+    }
+    
+    public void setRttMedianMs(double rttMedianMs) {
+        this.rttMedianMs = rttMedianMs;
+    }
+    
+    public double getRttTargetSpread() {
+        return rttTargetSpread;
+    }
+    
+    public void setRttTargetSpread(double rttTargetSpread) {
+        this.rttTargetSpread = rttTargetSpread;
+    }
+    
+    public double getRttJitter() {
+        return rttJitter;
+    }
+    
+    public void setRttJitter(double rttJitter) {
+        this.rttJitter = rttJitter;
+    }
+    
+    public double getLossRate() {
+        return lossRate;
+    }
+    
+    public void setLossRate(double lossRate) {
+        this.lossRate = lossRate;
+    }
+    
+    public double getFlappingFraction() {
+        return flappingFraction;
+    }
+    
+    public void setFlappingFraction(double flappingFraction) {
+        this.flappingFraction = flappingFraction;
+    }
+    
+    public int getFlapPeriodProbes() {
+        return flapPeriodProbes;
+    }
+    
+    public void setFlapPeriodProbes(int flapPeriodProbes) {
+        this.flapPeriodProbes = flapPeriodProbes;
+    }
+    
+    public double getBlackholeFraction() {
+        return blackholeFraction;
+    }
+    
+    public void setBlackholeFraction(double blackholeFraction) {
+        this.blackholeFraction = blackholeFraction;
+    }
+}
\ No newline at end of file
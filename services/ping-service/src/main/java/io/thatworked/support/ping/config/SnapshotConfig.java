@@ -0,0 +1,64 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the local state snapshot the service restarts from
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.snapshot")
+public class SnapshotConfig {
+    
+    /**
+     * Write snapshots and restore from them at startup
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Snapshot file; it is replaced atomically on every write
+     */
+    private String path = "/app/data/ping-state.snapshot";
+    
+    /**
+     * How often the snapshot is written; one is also written at shutdown
+     */
+    private long intervalMs = 30000;
+    
+    /**
+     * Oldest snapshot restored at startup; an older one is ignored and the service starts cold
+     */
+    private long maxAgeMs = 3600000;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+    
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+    
+    public long getMaxAgeMs() {
+        return maxAgeMs;
+    }
+    
+    public void setMaxAgeMs(long maxAgeMs) {
+        this.maxAgeMs = maxAgeMs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package io.thatworked.support.ping.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the TimescaleDB schema objects owned by the ping service
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ping.timescale")
+public class TimescaleConfig {
+    
+    /**
+     * Maintain 1-minute, 1-hour and 1-day continuous aggregates and answer statistics queries from them
+     */
+    private boolean continuousAggregatesEnabled = true;
+    
+    /**
+     * Materialize existing history when an aggregate is first created; refresh policies only cover recent data
+     */
+    private boolean backfillOnCreate = true;
+    
+    /**
+     * Time range covered by each ping_results chunk; changes apply to chunks created afterwards
+     */
+    private String chunkTimeInterval = "1 day";
+    
+    /**
+     * Compress ping_results chunks, segmented by device and ordered by time
+     */
+    private boolean compressionEnabled = true;
+    
+    /**
+     * Age after which a chunk is compressed
+     */
+    private String compressAfter = "7 days";
+    
+    /**
+     * Drop chunks older than ping.business-rules.cleanup-retention-days
+     */
+    private boolean retentionEnabled = true;
+    
+    public boolean isContinuousAggregatesEnabled() {
+        return continuousAggregatesEnabled;
+    }
+    
+    public void setContinuousAggregatesEnabled(boolean continuousAggregatesEnabled) {
+        this.continuousAggregatesEnabled = continuousAggregatesEnabled;
+    }
+    
+    public boolean isBackfillOnCreate() {
+        return backfillOnCreate;
+    }
+    
+    public void setBackfillOnCreate(boolean backfillOnCreate) {
+        this.backfillOnCreate = backfillOnCreate;
+    }
+    
+    public String getChunkTimeInterval() {
+        return chunkTimeInterval;
+    }
+    
+    public void setChunkTimeInterval(String chunkTimeInterval) {
+        this.chunkTimeInterval = chunkTimeInterval;
+    }
+    
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+    
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+    
+    public String getCompressAfter() {
+        return compressAfter;
+    }
+    
+    public void setCompressAfter(String compressAfter) {
+        this.compressAfter = compressAfter;
+    }
+    
+    public boolean isRetentionEnabled() {
+        return retentionEnabled;
+    }
+    
+    public void setRetentionEnabled(boolean retentionEnabled) {
+        this.retentionEnabled = retentionEnabled;
+    }
+}
\ No newline at end of file
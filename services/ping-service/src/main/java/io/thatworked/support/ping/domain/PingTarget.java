@@ -34,6 +34,14 @@ public class PingTarget {
     @Column(name = "ping_interval_seconds")
     private Integer pingIntervalSeconds;
 
+    // Null means ICMP, so rows created before probe types existed keep their behaviour
+    @Enumerated(EnumType.STRING)
+    @Column(name = "probe_type", length = 16)
+    private ProbeType probeType;
+
+    @Column(name = "probe_port")
+    private Integer probePort;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
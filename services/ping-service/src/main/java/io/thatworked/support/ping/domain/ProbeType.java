@@ -0,0 +1,30 @@
+package io.thatworked.support.ping.domain;
+
+/**
+ * How a ping target is probed.
+ */
+public enum ProbeType {
+    /**
+     * Echo through the configured probe engine
+     */
+    ICMP,
+
+    /**
+     * TCP connect to the target's probe port
+     */
+    TCP;
+
+    /**
+     * Converts a string to ProbeType, defaulting to ICMP.
+     */
+    public static ProbeType fromString(String type) {
+        if (type == null) {
+            return ICMP;
+        }
+        
+        return switch (type.trim().toUpperCase()) {
+            case "TCP", "TCP-CONNECT" -> TCP;
+            default -> ICMP;
+        };
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package io.thatworked.support.ping.domain.model;
 
+import io.thatworked.support.ping.domain.ProbeType;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -16,9 +18,17 @@ public class PingTargetDomain {
     private final Instant createdAt;
     private final Instant updatedAt;
     private final Long version;
+    private final ProbeType probeType;
+    private final Integer probePort;
 
     public PingTargetDomain(UUID deviceId, String ipAddress, String hostname, boolean monitored, 
                            Integer pingIntervalSeconds, Instant createdAt, Instant updatedAt, Long version) {
+        this(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, updatedAt, version, null, null);
+    }
+
+    public PingTargetDomain(UUID deviceId, String ipAddress, String hostname, boolean monitored, 
+                           Integer pingIntervalSeconds, Instant createdAt, Instant updatedAt, Long version,
+                           ProbeType probeType, Integer probePort) {
         this.deviceId = deviceId;
         this.ipAddress = ipAddress;
         this.hostname = hostname;
@@ -27,6 +37,8 @@ public class PingTargetDomain {
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.version = version;
+        this.probeType = probeType;
+        this.probePort = probePort;
     }
 
     // Getters
@@ -38,22 +50,28 @@ public class PingTargetDomain {
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public Long getVersion() { return version; }
+    public ProbeType getProbeType() { return probeType != null ? probeType : ProbeType.ICMP; }
+    public Integer getProbePort() { return probePort; }
 
     // Domain methods
     public PingTargetDomain withMonitored(boolean monitored) {
-        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version);
+        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version, probeType, probePort);
     }
 
     public PingTargetDomain withIpAddress(String ipAddress) {
-        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version);
+        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version, probeType, probePort);
     }
 
     public PingTargetDomain withHostname(String hostname) {
-        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version);
+        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version, probeType, probePort);
     }
 
     public PingTargetDomain withPingInterval(Integer pingIntervalSeconds) {
-        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version);
+        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version, probeType, probePort);
+    }
+
+    public PingTargetDomain withProbe(ProbeType probeType, Integer probePort) {
+        return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, Instant.now(), version, probeType, probePort);
     }
 
     // Static factory methods
@@ -90,6 +108,8 @@ public class PingTargetDomain {
         private Instant createdAt;
         private Instant updatedAt;
         private Long version;
+        private ProbeType probeType;
+        private Integer probePort;
         
         public Builder deviceId(UUID deviceId) {
             this.deviceId = deviceId;
@@ -131,8 +151,18 @@ public class PingTargetDomain {
             return this;
         }
         
+        public Builder probeType(ProbeType probeType) {
+            this.probeType = probeType;
+            return this;
+        }
+        
+        public Builder probePort(Integer probePort) {
+            this.probePort = probePort;
+            return this;
+        }
+        
         public PingTargetDomain build() {
-            return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, updatedAt, version);
+            return new PingTargetDomain(deviceId, ipAddress, hostname, monitored, pingIntervalSeconds, createdAt, updatedAt, version, probeType, probePort);
         }
     }
 }
\ No newline at end of file
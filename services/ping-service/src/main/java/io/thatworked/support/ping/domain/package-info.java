@@ -15,6 +15,7 @@
  *   <li>{@link io.thatworked.support.ping.domain.PingTarget} - Device monitoring configuration</li>
  *   <li>{@link io.thatworked.support.ping.domain.PingResult} - Ping execution results</li>
  *   <li>{@link io.thatworked.support.ping.domain.AlertState} - Device alert state tracking</li>
+ *   <li>{@link io.thatworked.support.ping.domain.ProbeType} - ICMP echo or TCP connect probing per target</li>
  * </ul>
  */
 package io.thatworked.support.ping.domain;
\ No newline at end of file
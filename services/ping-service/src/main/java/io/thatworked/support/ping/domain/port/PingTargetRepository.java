@@ -19,6 +19,8 @@ public interface PingTargetRepository {
     
     PingTargetDomain save(PingTargetDomain pingTarget);
     
+    List<PingTargetDomain> saveAll(List<PingTargetDomain> pingTargets);
+    
     void deleteById(UUID deviceId);
     
     boolean existsById(UUID deviceId);
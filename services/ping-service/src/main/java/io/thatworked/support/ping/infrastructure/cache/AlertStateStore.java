@@ -0,0 +1,329 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AlertingConfig;
+import io.thatworked.support.ping.domain.AlertState;
+import io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshot;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Alert state of every device, kept in memory and written back to alert_states in batches.
+ *
+ * <p>All states are loaded once at startup, from the local state snapshot when there is one, with
+ * alert_states read in the background and taking over each state that was written there later.
+ * Otherwise alert_states is read before the service starts. Updates run under the per-device lock of the map and
+ * mark the device dirty; a scheduled flush upserts the dirty states in one batch every flush
+ * interval and once more at shutdown. A state changed while it is being flushed stays dirty for
+ * the next flush, and a failed flush marks its states dirty again. A crash loses at most one
+ * interval of counter updates; threshold crossings are published as soon as they happen.
+ * Flushes upsert with ON CONFLICT on PostgreSQL and with MERGE otherwise, such as on H2.
+ */
+@Component
+public class AlertStateStore {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO alert_states (device_id, consecutive_failures, consecutive_successes, is_alerting, " +
+        "last_alert_sent, last_recovery_sent, last_failure_time, last_success_time, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (device_id) DO UPDATE SET consecutive_failures = EXCLUDED.consecutive_failures, " +
+        "consecutive_successes = EXCLUDED.consecutive_successes, is_alerting = EXCLUDED.is_alerting, " +
+        "last_alert_sent = EXCLUDED.last_alert_sent, last_recovery_sent = EXCLUDED.last_recovery_sent, " +
+        "last_failure_time = EXCLUDED.last_failure_time, last_success_time = EXCLUDED.last_success_time, " +
+        "updated_at = EXCLUDED.updated_at";
+    
+    // Rows carry the state's original created_at, so replacing it keeps its value
+    private static final String MERGE_SQL =
+        "MERGE INTO alert_states (device_id, consecutive_failures, consecutive_successes, is_alerting, " +
+        "last_alert_sent, last_recovery_sent, last_failure_time, last_success_time, created_at, updated_at) " +
+        "KEY (device_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final StructuredLogger logger;
+    private final AlertStateRepository alertStateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AlertingConfig config;
+    private final StateSnapshotStore snapshotStore;
+    
+    private final Map<UUID, AlertState> states = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    // Serializes flushes with removals so a flush cannot write back a state that was just deleted
+    private final Object flushLock = new Object();
+    // Whether alert_states lives in PostgreSQL, checked on the first flush under the flush lock
+    private Boolean postgres;
+    
+    // Metrics
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsFlushed = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMs;
+    
+    public AlertStateStore(StructuredLoggerFactory structuredLoggerFactory,
+                           AlertStateRepository alertStateRepository,
+                           JdbcTemplate jdbcTemplate,
+                           AlertingConfig config,
+                           StateSnapshotStore snapshotStore) {
+        this.logger = structuredLoggerFactory.getLogger(AlertStateStore.class);
+        this.alertStateRepository = alertStateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.snapshotStore = snapshotStore;
+    }
+    
+    @PostConstruct
+    public void load() {
+        Optional<StateSnapshot> snapshot = snapshotStore.restored();
+        if (snapshot.isPresent()) {
+            for (AlertState state : snapshot.get().alertStates()) {
+                states.put(state.getDeviceId(), state);
+            }
+            logger.with("states", states.size())
+                  .info("Alert states restored from snapshot");
+            Thread.ofVirtual().name("alert-state-load").start(this::mergeStored);
+            return;
+        }
+        
+        try {
+            long startTime = System.currentTimeMillis();
+            for (AlertState state : alertStateRepository.findAll()) {
+                states.put(state.getDeviceId(), copy(state));
+            }
+            logger.with("states", states.size())
+                  .with("durationMs", System.currentTimeMillis() - startTime)
+                  .with("flushIntervalMs", config.getFlushIntervalMs())
+                  .info("Alert states loaded");
+        } catch (Exception e) {
+            logger.with("error", e.getMessage())
+                  .error("Failed to load alert states, starting with empty states", e);
+        }
+    }
+    
+    /**
+     * Take the stored state of each device that was updated in alert_states after the snapshot,
+     * such as by a crash between the last snapshot and the last flush
+     */
+    private void mergeStored() {
+        try {
+            long startTime = System.currentTimeMillis();
+            int merged = 0;
+            for (AlertState stored : alertStateRepository.findAll()) {
+                AlertState candidate = copy(stored);
+                if (states.merge(stored.getDeviceId(), candidate, AlertStateStore::later) == candidate) {
+                    merged++;
+                }
+            }
+            logger.with("merged", merged)
+                  .with("durationMs", System.currentTimeMillis() - startTime)
+                  .info("Alert states merged with stored states");
+        } catch (Exception e) {
+            logger.with("error", e.getMessage())
+                  .error("Failed to merge stored alert states, keeping snapshot states", e);
+        }
+    }
+    
+    private static AlertState later(AlertState current, AlertState stored) {
+        if (stored.getUpdatedAt() == null) {
+            return current;
+        }
+        return current.getUpdatedAt() == null || stored.getUpdatedAt().isAfter(current.getUpdatedAt()) ? stored : current;
+    }
+    
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+    
+    /**
+     * Apply a change to the state of a device, creating it if the device has none
+     * @param transition Runs under the device's lock; must not block or publish events
+     * @return What the transition returned
+     */
+    public <T> T update(UUID deviceId, Function<AlertState, T> transition) {
+        List<T> result = new ArrayList<>(1);
+        states.compute(deviceId, (id, state) -> {
+            AlertState current = state != null ? state : newState(id);
+            result.add(transition.apply(current));
+            current.setUpdatedAt(Instant.now());
+            return current;
+        });
+        dirty.add(deviceId);
+        updates.incrementAndGet();
+        return result.get(0);
+    }
+    
+    /**
+     * Copy of the state of a device
+     */
+    public Optional<AlertState> find(UUID deviceId) {
+        AlertState[] found = new AlertState[1];
+        states.computeIfPresent(deviceId, (id, state) -> {
+            found[0] = copy(state);
+            return state;
+        });
+        return Optional.ofNullable(found[0]);
+    }
+    
+    /**
+     * Copies of the states currently alerting
+     */
+    public List<AlertState> findAlerting() {
+        List<AlertState> alerting = new ArrayList<>();
+        for (UUID deviceId : states.keySet()) {
+            find(deviceId).filter(AlertState::isAlerting).ifPresent(alerting::add);
+        }
+        return alerting;
+    }
+    
+    /**
+     * Copies of every state, for the state snapshot
+     */
+    public List<AlertState> snapshot() {
+        List<AlertState> snapshot = new ArrayList<>(states.size());
+        for (UUID deviceId : states.keySet()) {
+            find(deviceId).ifPresent(snapshot::add);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Replace the state of a device
+     */
+    public void save(AlertState state) {
+        AlertState saved = copy(state);
+        if (saved.getCreatedAt() == null) {
+            saved.setCreatedAt(Instant.now());
+        }
+        saved.setUpdatedAt(Instant.now());
+        states.put(saved.getDeviceId(), saved);
+        dirty.add(saved.getDeviceId());
+        updates.incrementAndGet();
+    }
+    
+    /**
+     * Forget the state of a device; the caller deletes the stored row
+     */
+    public void remove(UUID deviceId) {
+        synchronized (flushLock) {
+            states.remove(deviceId);
+            dirty.remove(deviceId);
+        }
+    }
+    
+    /**
+     * Write every dirty state to alert_states in one batch
+     */
+    @Scheduled(fixedDelayString = "${ping.alerting.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            
+            List<UUID> deviceIds = new ArrayList<>(dirty.size());
+            List<Object[]> rows = new ArrayList<>(dirty.size());
+            for (UUID deviceId : dirty) {
+                // Clear the flag before copying, so a concurrent update marks the device dirty again
+                dirty.remove(deviceId);
+                find(deviceId).ifPresent(state -> {
+                    deviceIds.add(deviceId);
+                    rows.add(toRow(state));
+                });
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+            
+            long startTime = System.currentTimeMillis();
+            try {
+                jdbcTemplate.batchUpdate(upsertSql(), rows);
+                lastFlushMs = System.currentTimeMillis() - startTime;
+                flushes.incrementAndGet();
+                rowsFlushed.addAndGet(rows.size());
+            } catch (Exception e) {
+                failedFlushes.incrementAndGet();
+                dirty.addAll(deviceIds);
+                logger.with("rows", rows.size())
+                      .with("error", e.getMessage())
+                      .warn("Alert state flush failed, will retry");
+            }
+        }
+    }
+    
+    private String upsertSql() {
+        if (postgres == null) {
+            postgres = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        }
+        return postgres ? UPSERT_SQL : MERGE_SQL;
+    }
+    
+    /**
+     * Get alert state store metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("states", states.size());
+        metrics.put("dirty", dirty.size());
+        metrics.put("updates", updates.get());
+        metrics.put("flushes", flushes.get());
+        metrics.put("rowsFlushed", rowsFlushed.get());
+        metrics.put("failedFlushes", failedFlushes.get());
+        metrics.put("lastFlushMs", lastFlushMs);
+        metrics.put("flushIntervalMs", config.getFlushIntervalMs());
+        return metrics;
+    }
+    
+    private static AlertState newState(UUID deviceId) {
+        AlertState state = new AlertState();
+        state.setDeviceId(deviceId);
+        state.setCreatedAt(Instant.now());
+        return state;
+    }
+    
+    private static AlertState copy(AlertState state) {
+        return new AlertState(state.getDeviceId(), state.getConsecutiveFailures(), state.getConsecutiveSuccesses(),
+            state.isAlerting(), state.getLastAlertSent(), state.getLastRecoverySent(), state.getLastFailureTime(),
+            state.getLastSuccessTime(), state.getCreatedAt(), state.getUpdatedAt());
+    }
+    
+    private static Object[] toRow(AlertState state) {
+        return new Object[]{
+            state.getDeviceId(),
+            state.getConsecutiveFailures(),
+            state.getConsecutiveSuccesses(),
+            state.isAlerting(),
+            toTimestamp(state.getLastAlertSent()),
+            toTimestamp(state.getLastRecoverySent()),
+            toTimestamp(state.getLastFailureTime()),
+            toTimestamp(state.getLastSuccessTime()),
+            toTimestamp(state.getCreatedAt()),
+            toTimestamp(state.getUpdatedAt())
+        };
+    }
+    
+    private static OffsetDateTime toTimestamp(Instant time) {
+        return time != null ? OffsetDateTime.ofInstant(time, ZoneOffset.UTC) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.ping.config.ResultCacheConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-device latency histograms over fixed time buckets, updated in place by the executor.
+ *
+ * <p>Each device records successful round trip times into one dense {@link LatencyHistogram} for
+ * the current bucket. When a result falls into the next bucket the current one is sealed into
+ * compact arrays of its non-empty buckets, typically a few dozen entries, and buckets older than
+ * the retention are dropped. Percentiles for a window are answered by merging the buckets that
+ * overlap it, so the window is effectively widened to whole buckets.
+ */
+@Component
+public class DeviceLatencyHistograms {
+    
+    private final ResultCacheConfig config;
+    private final Map<UUID, DeviceHistory> devices = new ConcurrentHashMap<>();
+    
+    public DeviceLatencyHistograms(ResultCacheConfig config) {
+        this.config = config;
+    }
+    
+    /**
+     * Record the round trip time of a successful ping
+     */
+    public void record(PingResult result) {
+        if (!config.isEnabled() || !result.getStatus().isSuccess() || result.getRoundTripTime() == null) {
+            return;
+        }
+        UUID deviceId = result.getDeviceId();
+        DeviceHistory history = devices.get(deviceId);
+        if (history == null) {
+            history = devices.computeIfAbsent(deviceId, id -> new DeviceHistory());
+        }
+        history.record(result.getTime().toEpochMilli(), result.getRoundTripTime(), bucketMillis(), retentionMillis());
+    }
+    
+    /**
+     * Merge the buckets overlapping [start, end)
+     * @return null if the window starts before the history held in memory
+     */
+    public LatencyHistogram merge(UUID deviceId, Instant start, Instant end) {
+        DeviceHistory history = config.isEnabled() ? devices.get(deviceId) : null;
+        if (history == null) {
+            return null;
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        return history.mergeInto(merged, start.toEpochMilli(), end.toEpochMilli(), bucketMillis()) ? merged : null;
+    }
+    
+    /**
+     * Drop a device that is no longer monitored
+     */
+    public void evict(UUID deviceId) {
+        devices.remove(deviceId);
+    }
+    
+    public Map<String, Object> getMetrics() {
+        int sealedBuckets = 0;
+        for (DeviceHistory history : devices.values()) {
+            sealedBuckets += history.sealedCount();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("devices", devices.size());
+        metrics.put("sealedBuckets", sealedBuckets);
+        metrics.put("bucketSeconds", config.getLatencyBucketSeconds());
+        metrics.put("retentionHours", config.getLatencyRetentionHours());
+        return metrics;
+    }
+    
+    private long bucketMillis() {
+        return config.getLatencyBucketSeconds() * 1000L;
+    }
+    
+    private long retentionMillis() {
+        return config.getLatencyRetentionHours() * 3_600_000L;
+    }
+    
+    /**
+     * A finished bucket holding only its non-empty histogram buckets
+     */
+    private record SealedBucket(long start, short[] indexes, int[] counts, long minMicros, long maxMicros) {
+    }
+    
+    private static final class DeviceHistory {
+        private final LatencyHistogram active = new LatencyHistogram();
+        private final Deque<SealedBucket> sealed = new ArrayDeque<>();
+        private long activeStart = Long.MIN_VALUE;
+        private long coverageStart = Long.MAX_VALUE;
+        
+        synchronized void record(long epochMillis, double roundTripTime, long bucketMillis, long retentionMillis) {
+            if (activeStart == Long.MIN_VALUE || epochMillis >= activeStart + bucketMillis) {
+                seal();
+                activeStart = Math.floorDiv(epochMillis, bucketMillis) * bucketMillis;
+                coverageStart = Math.min(coverageStart, activeStart);
+                prune(epochMillis - retentionMillis, bucketMillis);
+            }
+            active.recordMillis(roundTripTime);
+        }
+        
+        private void seal() {
+            if (active.getTotalCount() == 0) {
+                return;
+            }
+            int length = active.nonEmptyBuckets();
+            short[] indexes = new short[length];
+            int[] counts = new int[length];
+            active.compact(indexes, counts);
+            sealed.addLast(new SealedBucket(activeStart, indexes, counts, active.minMicros(), active.maxMicros()));
+            active.reset();
+        }
+        
+        private void prune(long cutoff, long bucketMillis) {
+            while (!sealed.isEmpty() && sealed.peekFirst().start() + bucketMillis <= cutoff) {
+                SealedBucket expired = sealed.removeFirst();
+                coverageStart = Math.max(coverageStart, expired.start() + bucketMillis);
+            }
+        }
+        
+        synchronized boolean mergeInto(LatencyHistogram target, long from, long to, long bucketMillis) {
+            if (from < coverageStart) {
+                return false;
+            }
+            for (SealedBucket bucket : sealed) {
+                if (bucket.start() < to && bucket.start() + bucketMillis > from) {
+                    target.add(bucket.indexes(), bucket.counts(), bucket.indexes().length, bucket.minMicros(), bucket.maxMicros());
+                }
+            }
+            if (activeStart < to && activeStart + bucketMillis > from) {
+                target.add(active);
+            }
+            return true;
+        }
+        
+        synchronized int sealedCount() {
+            return sealed.size();
+        }
+    }
+}
\ No newline at end of file
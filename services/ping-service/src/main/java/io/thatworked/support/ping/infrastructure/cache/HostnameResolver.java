@@ -0,0 +1,206 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.DnsCacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of resolved target hostnames, so probes do not wait on the system resolver.
+ *
+ * <p>Addresses are kept for the TTL and failed lookups for the shorter negative TTL. A lookup of
+ * an address older than the refresh age returns the cached address at once and resolves the name
+ * again on a virtual thread; if that refresh fails, the old address is kept until it expires.
+ * Concurrent lookups of a name that is not cached share one resolution. Monitored hostnames are
+ * prefetched when monitoring starts, so the probe path only resolves on a cold miss.
+ */
+@Component
+public class HostnameResolver {
+    
+    private final StructuredLogger logger;
+    private final DnsCacheConfig config;
+    private final LoadingCache<String, Resolution> cache;
+    private final NameLookup nameLookup;
+    private final Ticker ticker;
+    private final Executor resolverExecutor;
+    
+    // Resolution latency, guarded by its own monitor
+    private final LatencyHistogram resolveLatency = new LatencyHistogram();
+    private final AtomicLong resolutions = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong staleKept = new AtomicLong();
+    
+    @Autowired
+    public HostnameResolver(StructuredLoggerFactory structuredLoggerFactory, DnsCacheConfig config) {
+        this(structuredLoggerFactory, config, InetAddress::getByName, Ticker.systemTicker(),
+            Executors.newVirtualThreadPerTaskExecutor());
+    }
+    
+    /**
+     * @param nameLookup Resolves a name that is not cached or is due for refresh
+     * @param ticker Time source for the TTLs and the refresh age
+     * @param resolverExecutor Runs refreshes and prefetches
+     */
+    HostnameResolver(StructuredLoggerFactory structuredLoggerFactory, DnsCacheConfig config,
+                     NameLookup nameLookup, Ticker ticker, Executor resolverExecutor) {
+        this.logger = structuredLoggerFactory.getLogger(HostnameResolver.class);
+        this.config = config;
+        this.nameLookup = nameLookup;
+        this.ticker = ticker;
+        this.resolverExecutor = resolverExecutor;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(config.getMaximumSize())
+            .expireAfter(new ResolutionExpiry())
+            .refreshAfterWrite(Duration.ofSeconds(config.getRefreshAfterSeconds()))
+            .executor(resolverExecutor)
+            .ticker(ticker)
+            .recordStats()
+            .build(new ResolutionLoader());
+    }
+    
+    /**
+     * Address of a hostname or IP literal, from the cache when possible
+     * @throws UnknownHostException if the name does not resolve, including a cached failure
+     */
+    public InetAddress resolve(String host) throws UnknownHostException {
+        Resolution resolution = cache.get(host);
+        if (!resolution.resolved()) {
+            throw new UnknownHostException(host + ": " + resolution.error());
+        }
+        return resolution.address();
+    }
+    
+    /**
+     * Resolve a hostname in the background if it is not cached yet
+     */
+    public void prefetch(String host) {
+        if (host == null || host.isEmpty() || cache.getIfPresent(host) != null) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> cache.get(host), resolverExecutor);
+    }
+    
+    private Resolution lookup(String host) {
+        long start = System.nanoTime();
+        Resolution resolution;
+        try {
+            resolution = new Resolution(nameLookup.lookup(host), null, ticker.read());
+        } catch (UnknownHostException | SecurityException e) {
+            failures.incrementAndGet();
+            logger.with("host", host).with("error", e.getMessage()).debug("Hostname did not resolve");
+            resolution = new Resolution(null, e.getMessage(), ticker.read());
+        }
+        resolutions.incrementAndGet();
+        double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+        synchronized (resolveLatency) {
+            resolveLatency.recordMillis(elapsedMs);
+        }
+        return resolution;
+    }
+    
+    /**
+     * Get resolver cache and latency metrics
+     */
+    public Map<String, Object> getMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("resolutions", resolutions.get());
+        metrics.put("failures", failures.get());
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("staleKept", staleKept.get());
+        metrics.put("evictions", stats.evictionCount());
+        synchronized (resolveLatency) {
+            metrics.put("resolveP50Ms", resolveLatency.percentileMillis(0.50));
+            metrics.put("resolveP99Ms", resolveLatency.percentileMillis(0.99));
+            metrics.put("resolveMaxMs", resolveLatency.getMaxMillis());
+        }
+        return metrics;
+    }
+    
+    /**
+     * Resolves one name, the system resolver outside of tests
+     */
+    @FunctionalInterface
+    interface NameLookup {
+        InetAddress lookup(String host) throws UnknownHostException;
+    }
+    
+    /**
+     * Resolved address, or the reason the name did not resolve
+     */
+    private record Resolution(InetAddress address, String error, long resolvedAtNanos) {
+        boolean resolved() {
+            return address != null;
+        }
+    }
+    
+    private final class ResolutionLoader implements CacheLoader<String, Resolution> {
+        
+        @Override
+        public Resolution load(String host) {
+            return lookup(host);
+        }
+        
+        @Override
+        public Resolution reload(String host, Resolution oldValue) {
+            refreshes.incrementAndGet();
+            Resolution refreshed = lookup(host);
+            if (!refreshed.resolved() && oldValue.resolved()) {
+                // Keep serving the last good address; it still expires at its original time
+                staleKept.incrementAndGet();
+                return oldValue;
+            }
+            return refreshed;
+        }
+    }
+    
+    private final class ResolutionExpiry implements Expiry<String, Resolution> {
+        
+        @Override
+        public long expireAfterCreate(String host, Resolution resolution, long currentTime) {
+            return remainingNanos(resolution, currentTime);
+        }
+        
+        @Override
+        public long expireAfterUpdate(String host, Resolution resolution, long currentTime, long currentDuration) {
+            return remainingNanos(resolution, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String host, Resolution resolution, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        /**
+         * TTL counted from the lookup, so a kept address is not extended by a failed refresh
+         */
+        private long remainingNanos(Resolution resolution, long currentTime) {
+            long seconds = resolution.resolved() ? config.getTtlSeconds() : config.getNegativeTtlSeconds();
+            long ttl = TimeUnit.SECONDS.toNanos(seconds);
+            return Math.max(0, ttl - (currentTime - resolution.resolvedAtNanos()));
+        }
+    }
+}
\ No newline at end of file
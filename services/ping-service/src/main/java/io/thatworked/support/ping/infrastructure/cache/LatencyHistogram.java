@@ -0,0 +1,162 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable latency histogram with log-linear buckets, in the style of HdrHistogram.
+ *
+ * <p>Values are recorded in microseconds. Below {@link #SUB_BUCKETS} microseconds every value has
+ * its own bucket; above that each power of two is split into {@link #SUB_BUCKETS} equal buckets,
+ * so a bucket is at most 1/16 of its lower bound wide and a reported percentile, the bucket
+ * midpoint, is within about 3% of the recorded value. Values above about 67 seconds are clamped
+ * into the last bucket. Histograms merge by adding counts.
+ */
+public final class LatencyHistogram {
+    
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 26;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    
+    /**
+     * Widest bucket relative to its lower bound
+     */
+    public static final double RELATIVE_BUCKET_WIDTH = 1.0 / SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros;
+    
+    static int indexOf(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long lowerBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+    
+    public void recordMillis(double millis) {
+        record(Math.round(millis * 1000), 1);
+    }
+    
+    void record(long micros, long count) {
+        counts[indexOf(micros)] += count;
+        totalCount += count;
+        minMicros = Math.min(minMicros, micros);
+        maxMicros = Math.max(maxMicros, micros);
+    }
+    
+    /**
+     * Add the counts at the given bucket indexes
+     */
+    void add(short[] indexes, int[] indexCounts, int length, long min, long max) {
+        for (int i = 0; i < length; i++) {
+            counts[indexes[i]] += indexCounts[i];
+            totalCount += indexCounts[i];
+        }
+        if (length > 0) {
+            minMicros = Math.min(minMicros, min);
+            maxMicros = Math.max(maxMicros, max);
+        }
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        if (other.totalCount > 0) {
+            minMicros = Math.min(minMicros, other.minMicros);
+            maxMicros = Math.max(maxMicros, other.maxMicros);
+        }
+    }
+    
+    void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        minMicros = Long.MAX_VALUE;
+        maxMicros = 0;
+    }
+    
+    public long getTotalCount() {
+        return totalCount;
+    }
+    
+    public Double getMinMillis() {
+        return totalCount > 0 ? minMicros / 1000.0 : null;
+    }
+    
+    public Double getMaxMillis() {
+        return totalCount > 0 ? maxMicros / 1000.0 : null;
+    }
+    
+    /**
+     * Value at a quantile in milliseconds
+     * @param quantile Between 0 and 1, e.g. 0.999
+     * @return null if nothing was recorded
+     */
+    public Double percentileMillis(double quantile) {
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                long lower = lowerBoundMicros(i);
+                long upper = i + 1 < BUCKET_COUNT ? lowerBoundMicros(i + 1) : lower;
+                long midpoint = lower + (upper - lower) / 2;
+                return Math.min(Math.max(midpoint, minMicros), maxMicros) / 1000.0;
+            }
+        }
+        return maxMicros / 1000.0;
+    }
+    
+    /**
+     * Copy the non-empty buckets into compact arrays
+     * @return the number of non-empty buckets
+     */
+    int compact(short[] indexes, int[] indexCounts) {
+        int length = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                indexes[length] = (short) i;
+                indexCounts[length] = (int) counts[i];
+                length++;
+            }
+        }
+        return length;
+    }
+    
+    int nonEmptyBuckets() {
+        int nonEmpty = 0;
+        for (long count : counts) {
+            if (count != 0) {
+                nonEmpty++;
+            }
+        }
+        return nonEmpty;
+    }
+    
+    long minMicros() {
+        return minMicros;
+    }
+    
+    long maxMicros() {
+        return maxMicros;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.ping.config.ResultCacheConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The last results of every monitored device, filled by the executor as pings complete.
+ *
+ * <p>Each device has a {@link RecentResultsRing} of primitive arrays, about 13 bytes per result.
+ * A request is answered from memory when the ring already holds as many results as were asked
+ * for; otherwise the caller reads the database, which only happens until a device has been
+ * pinged {@code limit} times since startup.
+ */
+@Component
+public class RecentPingResultsCache {
+    
+    /**
+     * Builds the response element for one cached result
+     */
+    @FunctionalInterface
+    public interface ResultMapper<T> {
+        /**
+         * @param roundTripTime NaN when the ping produced no round trip time
+         */
+        T map(UUID deviceId, long epochMillis, float roundTripTime, PingStatus status);
+    }
+    
+    private final ResultCacheConfig config;
+    private final Map<UUID, RecentResultsRing> rings = new ConcurrentHashMap<>();
+    
+    // Metrics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public RecentPingResultsCache(ResultCacheConfig config) {
+        this.config = config;
+    }
+    
+    /**
+     * Record a completed ping
+     */
+    public void record(PingResult result) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        UUID deviceId = result.getDeviceId();
+        RecentResultsRing ring = rings.get(deviceId);
+        if (ring == null) {
+            ring = rings.computeIfAbsent(deviceId, id -> new RecentResultsRing(config.getCapacityPerDevice()));
+        }
+        Double roundTripTime = result.getRoundTripTime();
+        ring.add(result.getTime().toEpochMilli(),
+            roundTripTime != null ? roundTripTime.floatValue() : Float.NaN,
+            result.getStatus());
+    }
+    
+    /**
+     * The newest results of a device, newest first
+     * @return null if the cache cannot answer, in which case the caller should read the database
+     */
+    public <T> List<T> latest(UUID deviceId, int limit, ResultMapper<T> mapper) {
+        RecentResultsRing ring = config.isEnabled() && limit > 0 ? rings.get(deviceId) : null;
+        List<T> results = ring != null ? ring.latest(deviceId, limit, mapper) : null;
+        if (results != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return results;
+    }
+    
+    /**
+     * Drop a device that is no longer monitored
+     */
+    public void evict(UUID deviceId) {
+        rings.remove(deviceId);
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", config.isEnabled());
+        metrics.put("devices", rings.size());
+        metrics.put("capacityPerDevice", config.getCapacityPerDevice());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+}
\ No newline at end of file
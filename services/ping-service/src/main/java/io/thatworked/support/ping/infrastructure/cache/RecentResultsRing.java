@@ -0,0 +1,99 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.ping.domain.PingStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-capacity ring of one device's most recent results, stored as parallel primitive arrays.
+ *
+ * <p>Writers take the write lock of a {@link StampedLock}; readers copy under an optimistic read
+ * stamp and only fall back to the read lock if a write raced with them, so reads never block the
+ * probe path. Indexes stay in bounds even for a torn optimistic read, whose output is discarded.
+ */
+final class RecentResultsRing {
+    
+    private static final PingStatus[] STATUSES = PingStatus.values();
+    
+    private final long[] times;
+    private final float[] roundTripTimes;
+    private final byte[] statuses;
+    private final StampedLock lock = new StampedLock();
+    private int next;
+    private int size;
+    
+    RecentResultsRing(int capacity) {
+        this.times = new long[capacity];
+        this.roundTripTimes = new float[capacity];
+        this.statuses = new byte[capacity];
+    }
+    
+    /**
+     * @param roundTripTime NaN when the ping produced no round trip time
+     */
+    void add(long epochMillis, float roundTripTime, PingStatus status) {
+        long stamp = lock.writeLock();
+        try {
+            times[next] = epochMillis;
+            roundTripTimes[next] = roundTripTime;
+            statuses[next] = (byte) status.ordinal();
+            next = next + 1 == times.length ? 0 : next + 1;
+            if (size < times.length) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Map the newest results, newest first
+     * @return null if fewer than {@code limit} results are held
+     */
+    <T> List<T> latest(UUID deviceId, int limit, RecentPingResultsCache.ResultMapper<T> mapper) {
+        long stamp = lock.tryOptimisticRead();
+        List<T> results = copy(deviceId, limit, mapper);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                results = copy(deviceId, limit, mapper);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return results;
+    }
+    
+    private <T> List<T> copy(UUID deviceId, int limit, RecentPingResultsCache.ResultMapper<T> mapper) {
+        int count = size;
+        int capacity = times.length;
+        if (count < limit) {
+            return null;
+        }
+        
+        List<T> results = new ArrayList<>(limit);
+        int index = next;
+        for (int i = 0; i < limit; i++) {
+            index = index == 0 ? capacity - 1 : index - 1;
+            results.add(mapper.map(deviceId, times[index], roundTripTimes[index], STATUSES[statuses[index]]));
+        }
+        return results;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+/**
+ * In-memory caches filled from the ping execution path.
+ * 
+ * <p>Cache components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.cache.RecentPingResultsCache} - Last results per device in primitive ring buffers</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.cache.DeviceLatencyHistograms} - Mergeable per-device latency histograms in time buckets</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.cache.AlertStateStore} - Alert states in memory with batched write-back</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.cache.HostnameResolver} - Target hostname lookups with TTL, negative caching and refresh-ahead</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.cache;
\ No newline at end of file
@@ -3,6 +3,7 @@ package io.thatworked.support.ping.infrastructure.config;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -13,11 +14,22 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.List;
 
 @Configuration
+@ConditionalOnProperty(prefix = "ping-service.database.initialization", name = "enabled", matchIfMissing = true)
 @EnableConfigurationProperties(DataSourceProperties.class)
 public class DatabaseInitializer {
 
+    /**
+     * Columns added to existing tables after they were first created, applied before Hibernate
+     * validates the schema. Tables that do not exist yet are left to JPA.
+     */
+    private static final List<String> SCHEMA_UPGRADES = List.of(
+        "ALTER TABLE IF EXISTS ping_target ADD COLUMN IF NOT EXISTS probe_type varchar(16)",
+        "ALTER TABLE IF EXISTS ping_target ADD COLUMN IF NOT EXISTS probe_port integer"
+    );
+
     private final StructuredLogger logger;
     
     @Value("${db.name:support_ping_db}")
@@ -127,6 +139,8 @@ public class DatabaseInitializer {
             // Don't throw - let Spring handle connection errors gracefully
         }
 
+        upgradeSchema(baseUrl + "/" + databaseName);
+
         // Now create the actual datasource with the service-specific user
         properties.setUrl(datasourceUrl);
         properties.setUsername(dbUser);
@@ -134,4 +148,32 @@ public class DatabaseInitializer {
         
         return properties.initializeDataSourceBuilder().build();
     }
+
+    private void upgradeSchema(String targetUrl) {
+        org.postgresql.ds.PGSimpleDataSource targetDataSource = new org.postgresql.ds.PGSimpleDataSource();
+        targetDataSource.setUrl(targetUrl);
+        targetDataSource.setUser(adminUsername);
+        targetDataSource.setPassword(adminPassword);
+        upgradeSchema(targetDataSource);
+    }
+
+    /**
+     * Apply {@link #SCHEMA_UPGRADES} as the given user, logging rather than failing start-up on an error
+     */
+    void upgradeSchema(DataSource targetDataSource) {
+        try (Connection conn = targetDataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String upgrade : SCHEMA_UPGRADES) {
+                stmt.execute(upgrade);
+            }
+            logger.with("databaseName", databaseName)
+                  .with("method", "upgradeSchema")
+                  .with("statements", SCHEMA_UPGRADES.size())
+                  .info("Database schema upgraded");
+        } catch (Exception e) {
+            logger.with("databaseName", databaseName)
+                  .with("method", "upgradeSchema")
+                  .error("Error upgrading database schema", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package io.thatworked.support.ping.infrastructure.config;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.PingExecutorConfig;
+import io.thatworked.support.ping.config.SimulatorConfig;
+import io.thatworked.support.ping.infrastructure.probe.HedgedProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.IcmpEchoProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.ProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.ReachabilityProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.SimulatedProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.TcpConnectProbeEngine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+
+/**
+ * Selects the probe engine used by the ping service.
+ * Falls back to InetAddress.isReachable when the ICMP engine cannot open its socket,
+ * and wraps the selected engine in a hedging engine when hedging is enabled.
+ * The simulated engine answers from a seeded model instead of the network, for load tests.
+ * Targets probed by TCP connect use their own engine regardless of this choice.
+ */
+@Configuration
+public class ProbeEngineConfiguration {
+    
+    private final StructuredLogger logger;
+    
+    public ProbeEngineConfiguration(StructuredLoggerFactory structuredLoggerFactory) {
+        this.logger = structuredLoggerFactory.getLogger(ProbeEngineConfiguration.class);
+    }
+    
+    @Bean
+    @Primary
+    public ProbeEngine probeEngine(PingExecutorConfig config, SimulatorConfig simulatorConfig) {
+        ProbeEngine engine = transportEngine(config, simulatorConfig);
+        if (!config.isHedgingEnabled()) {
+            return engine;
+        }
+        
+        HedgedProbeEngine hedged = new HedgedProbeEngine(engine, config.getHedgeDelayMs(), config.getHedgeCount());
+        logger.with("probeEngine", hedged.name())
+              .with("hedgeDelayMs", config.getHedgeDelayMs())
+              .with("hedgeCount", config.getHedgeCount())
+              .with("hedgeTimeoutMs", config.getHedgeTimeoutMs())
+              .info("Hedged probing enabled");
+        return hedged;
+    }
+    
+    @Bean
+    public TcpConnectProbeEngine tcpConnectProbeEngine(PingExecutorConfig config) throws IOException {
+        TcpConnectProbeEngine engine = TcpConnectProbeEngine.open(config.getTcpDefaultPort(), config.getTcpMaxInFlight());
+        logger.with("probeEngine", engine.name())
+              .with("defaultPort", config.getTcpDefaultPort())
+              .with("maxInFlight", config.getTcpMaxInFlight())
+              .info("TCP connect probe engine started");
+        return engine;
+    }
+    
+    private ProbeEngine transportEngine(PingExecutorConfig config, SimulatorConfig simulatorConfig) {
+        if (SimulatedProbeEngine.NAME.equalsIgnoreCase(config.getProbeEngine())) {
+            logger.with("probeEngine", SimulatedProbeEngine.NAME)
+                  .with("seed", simulatorConfig.getSeed())
+                  .warn("Using simulated probe engine, no probes reach the network");
+            return new SimulatedProbeEngine(simulatorConfig);
+        }
+        
+        ReachabilityProbeEngine reachability = new ReachabilityProbeEngine();
+        
+        if (IcmpEchoProbeEngine.NAME.equalsIgnoreCase(config.getProbeEngine())) {
+            try {
+                IcmpEchoProbeEngine engine = IcmpEchoProbeEngine.open(
+                    config.getIcmpSendQueueCapacity(),
+                    config.getIcmpReceiveBufferBytes(),
+                    reachability);
+                logger.with("probeEngine", engine.name())
+                      .with("identifier", engine.identifier())
+                      .info("ICMP echo probe engine started");
+                return engine;
+            } catch (IOException | LinkageError e) {
+                logger.with("probeEngine", config.getProbeEngine())
+                      .with("error", e.getMessage())
+                      .warn("ICMP echo probe engine unavailable, falling back to InetAddress.isReachable");
+            }
+        }
+        
+        logger.with("probeEngine", reachability.name()).info("Using reachability probe engine");
+        return reachability;
+    }
+}
\ No newline at end of file
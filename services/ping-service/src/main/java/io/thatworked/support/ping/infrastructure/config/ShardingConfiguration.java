@@ -0,0 +1,46 @@
+package io.thatworked.support.ping.infrastructure.config;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.ShardingConfig;
+import io.thatworked.support.ping.infrastructure.shard.DiscoveryShardMembership;
+import io.thatworked.support.ping.infrastructure.shard.ShardMembership;
+import io.thatworked.support.ping.infrastructure.shard.StaticShardMembership;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects where the live ping service instances sharing the devices come from.
+ * Uses the instances registered in service discovery, under this instance's own registration ID,
+ * and falls back to the static member list when discovery is not available or static is chosen.
+ */
+@Configuration
+public class ShardingConfiguration {
+    
+    private final StructuredLogger logger;
+    
+    public ShardingConfiguration(StructuredLoggerFactory structuredLoggerFactory) {
+        this.logger = structuredLoggerFactory.getLogger(ShardingConfiguration.class);
+    }
+    
+    @Bean
+    public ShardMembership shardMembership(ShardingConfig config,
+                                           ObjectProvider<DiscoveryClient> discoveryClient,
+                                           ObjectProvider<Registration> registration,
+                                           @Value("${spring.application.name}") String serviceName) {
+        if (config.isEnabled() && DiscoveryShardMembership.NAME.equalsIgnoreCase(config.getMembership())) {
+            DiscoveryClient client = discoveryClient.getIfAvailable();
+            Registration self = registration.getIfAvailable();
+            if (client != null && self != null) {
+                return new DiscoveryShardMembership(client, serviceName, self.getInstanceId());
+            }
+            logger.with("membership", config.getMembership())
+                  .warn("Service discovery unavailable, using static shard membership");
+        }
+        return new StaticShardMembership(config.getMemberId(), config.getMembers());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package io.thatworked.support.ping.infrastructure.config;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.BusinessRulesConfig;
+import io.thatworked.support.ping.config.TimescaleConfig;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner.Source;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryRepository;
+import io.thatworked.support.ping.infrastructure.repository.RttHistogram;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the TimescaleDB objects behind ping_results once the JPA schema exists.
+ *
+ * <p>ping_results is converted to a hypertable, and a continuous aggregate is created per
+ * statistics resolution with a refresh policy for recent buckets. The aggregates use real-time
+ * aggregation, so buckets the policy has not refreshed yet are still answered from raw rows.
+ * Every step is idempotent and failures are logged rather than thrown; statistics queries read
+ * raw rows until the aggregates are ready.
+ *
+ * <p>Chunks older than the configured age are compressed, segmented by device and ordered by time
+ * descending to match the per-device range scans, and chunks older than the business rules
+ * retention are dropped. Both policies are recreated on every start so configuration changes take
+ * effect. Dropping raw chunks keeps the aggregate buckets already materialized for them.
+ */
+@Component
+public class TimescaleSchemaInitializer {
+    
+    /**
+     * Bucket width and refresh policy per aggregate; the refreshed window must span at least two buckets
+     */
+    private record AggregateDefinition(Source source, String bucketWidth, String startOffset, String endOffset,
+                                       String scheduleInterval) {
+    }
+    
+    private static final List<AggregateDefinition> AGGREGATES = List.of(
+        new AggregateDefinition(Source.MINUTE, "1 minute", "3 hours", "1 minute", "1 minute"),
+        new AggregateDefinition(Source.HOUR, "1 hour", "2 days", "1 hour", "30 minutes"),
+        new AggregateDefinition(Source.DAY, "1 day", "7 days", "1 day", "1 hour")
+    );
+    
+    /**
+     * Raw data must outlive the widest refresh window, or a refresh would empty the aggregate buckets of dropped chunks
+     */
+    private static final int MIN_RETENTION_DAYS = 8;
+    
+    private static final String HYPERTABLE = "ping_results";
+    
+    private final StructuredLogger logger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TimescaleConfig config;
+    private final BusinessRulesConfig businessRulesConfig;
+    
+    private volatile boolean timescaleAvailable;
+    private volatile boolean continuousAggregatesReady;
+    private volatile boolean compressionPolicyActive;
+    private volatile boolean retentionPolicyActive;
+    
+    public TimescaleSchemaInitializer(StructuredLoggerFactory structuredLoggerFactory,
+                                      JdbcTemplate jdbcTemplate,
+                                      TimescaleConfig config,
+                                      BusinessRulesConfig businessRulesConfig) {
+        this.logger = structuredLoggerFactory.getLogger(TimescaleSchemaInitializer.class);
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.businessRulesConfig = businessRulesConfig;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            Integer extensions = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_extension WHERE extname = 'timescaledb'", Integer.class);
+            timescaleAvailable = extensions != null && extensions > 0;
+        } catch (Exception e) {
+            logger.with("method", "initialize")
+                  .with("error", e.getMessage())
+                  .warn("Could not check for the TimescaleDB extension");
+        }
+        if (!timescaleAvailable) {
+            logger.info("TimescaleDB not available, ping statistics will be computed from raw rows");
+            return;
+        }
+        
+        try {
+            jdbcTemplate.execute(String.format(
+                "SELECT create_hypertable('%s', 'time', chunk_time_interval => INTERVAL '%s', " +
+                "if_not_exists => TRUE, migrate_data => TRUE)", HYPERTABLE, config.getChunkTimeInterval()));
+            // create_hypertable leaves an existing hypertable untouched, so apply the interval to new chunks
+            jdbcTemplate.execute(String.format(
+                "SELECT set_chunk_time_interval('%s', INTERVAL '%s')", HYPERTABLE, config.getChunkTimeInterval()));
+            logger.with("table", HYPERTABLE)
+                  .with("chunkTimeInterval", config.getChunkTimeInterval())
+                  .info("Ping results hypertable ready");
+        } catch (Exception e) {
+            logger.with("table", "ping_results")
+                  .error("Failed to convert ping_results to a hypertable", e);
+            return;
+        }
+        
+        if (config.isContinuousAggregatesEnabled()) {
+            createContinuousAggregates();
+        }
+        configureCompression();
+        configureRetention();
+    }
+    
+    private void configureCompression() {
+        try {
+            jdbcTemplate.execute(String.format("SELECT remove_compression_policy('%s', if_exists => TRUE)", HYPERTABLE));
+            if (!config.isCompressionEnabled()) {
+                logger.with("table", HYPERTABLE).info("Ping results compression disabled, existing compressed chunks are kept");
+                return;
+            }
+            
+            Boolean enabled = jdbcTemplate.queryForObject(
+                "SELECT compression_enabled FROM timescaledb_information.hypertables WHERE hypertable_name = ?",
+                Boolean.class, HYPERTABLE);
+            // Compression settings cannot be changed while compressed chunks exist, so only set them once
+            if (!Boolean.TRUE.equals(enabled)) {
+                jdbcTemplate.execute("ALTER TABLE " + HYPERTABLE + " SET (timescaledb.compress, " +
+                    "timescaledb.compress_segmentby = 'device_id', timescaledb.compress_orderby = 'time DESC')");
+            }
+            jdbcTemplate.execute(String.format(
+                "SELECT add_compression_policy('%s', compress_after => INTERVAL '%s')", HYPERTABLE, config.getCompressAfter()));
+            compressionPolicyActive = true;
+            
+            logger.with("table", HYPERTABLE)
+                  .with("compressAfter", config.getCompressAfter())
+                  .info("Ping results compression policy ready");
+        } catch (Exception e) {
+            logger.with("table", HYPERTABLE)
+                  .error("Failed to configure ping_results compression", e);
+        }
+    }
+    
+    private void configureRetention() {
+        try {
+            jdbcTemplate.execute(String.format("SELECT remove_retention_policy('%s', if_exists => TRUE)", HYPERTABLE));
+            if (!config.isRetentionEnabled()) {
+                logger.with("table", HYPERTABLE).info("Ping results retention policy disabled");
+                return;
+            }
+            
+            int retentionDays = getRetentionDays();
+            jdbcTemplate.execute(String.format(
+                "SELECT add_retention_policy('%s', drop_after => INTERVAL '%d days')", HYPERTABLE, retentionDays));
+            retentionPolicyActive = true;
+            
+            logger.with("table", HYPERTABLE)
+                  .with("retentionDays", retentionDays)
+                  .info("Ping results retention policy ready");
+        } catch (Exception e) {
+            logger.with("table", HYPERTABLE)
+                  .error("Failed to configure ping_results retention", e);
+        }
+    }
+    
+    /**
+     * Days of raw ping results to keep, the business rules retention raised to what the aggregates need
+     */
+    public int getRetentionDays() {
+        int retentionDays = businessRulesConfig.getCleanupRetentionDays();
+        if (config.isContinuousAggregatesEnabled() && retentionDays < MIN_RETENTION_DAYS) {
+            logger.with("configuredDays", retentionDays)
+                  .with("retentionDays", MIN_RETENTION_DAYS)
+                  .warn("Retention shorter than the continuous aggregate refresh window, raising it");
+            return MIN_RETENTION_DAYS;
+        }
+        return retentionDays;
+    }
+    
+    private void createContinuousAggregates() {
+        for (AggregateDefinition aggregate : AGGREGATES) {
+            String view = aggregate.source().getRelation();
+            try {
+                Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM timescaledb_information.continuous_aggregates WHERE view_name = ?",
+                    Integer.class, view);
+                boolean created = existing == null || existing == 0;
+                
+                if (created) {
+                    jdbcTemplate.execute(
+                        "CREATE MATERIALIZED VIEW IF NOT EXISTS " + view + " " +
+                        "WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS " +
+                        "SELECT time_bucket(INTERVAL '" + aggregate.bucketWidth() + "', time) AS bucket, " +
+                        "device_id, " + PingStatisticsQueryRepository.AGGREGATE_COLUMNS + ", " +
+                        RttHistogram.SQL_EXPRESSION + " AS rtt_histogram " +
+                        "FROM ping_results GROUP BY bucket, device_id WITH NO DATA");
+                }
+                
+                jdbcTemplate.execute(String.format(
+                    "SELECT add_continuous_aggregate_policy('%s', start_offset => INTERVAL '%s', " +
+                    "end_offset => INTERVAL '%s', schedule_interval => INTERVAL '%s', if_not_exists => TRUE)",
+                    view, aggregate.startOffset(), aggregate.endOffset(), aggregate.scheduleInterval()));
+                
+                if (created && config.isBackfillOnCreate()) {
+                    long startTime = System.currentTimeMillis();
+                    jdbcTemplate.execute("CALL refresh_continuous_aggregate('" + view + "', NULL, NULL)");
+                    logger.with("view", view)
+                          .with("durationMs", System.currentTimeMillis() - startTime)
+                          .info("Continuous aggregate backfilled");
+                }
+                
+                logger.with("view", view)
+                      .with("created", created)
+                      .info("Continuous aggregate ready");
+            } catch (Exception e) {
+                logger.with("view", view)
+                      .error("Failed to create continuous aggregate, statistics will be read from raw rows", e);
+                return;
+            }
+        }
+        continuousAggregatesReady = true;
+    }
+    
+    /**
+     * Whether the TimescaleDB extension, and with it the histogram function, is installed
+     */
+    public boolean isTimescaleAvailable() {
+        return timescaleAvailable;
+    }
+    
+    /**
+     * Whether every continuous aggregate exists and can be queried
+     */
+    public boolean isContinuousAggregatesReady() {
+        return continuousAggregatesReady;
+    }
+    
+    /**
+     * Whether a compression policy is scheduled for ping_results
+     */
+    public boolean isCompressionPolicyActive() {
+        return compressionPolicyActive;
+    }
+    
+    /**
+     * Whether TimescaleDB drops expired ping_results chunks
+     */
+    public boolean isRetentionPolicyActive() {
+        return retentionPolicyActive;
+    }
+}
\ No newline at end of file
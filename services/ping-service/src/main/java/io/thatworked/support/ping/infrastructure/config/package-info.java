@@ -7,6 +7,7 @@
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.ServiceConfig} - General service configuration</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.KafkaConfig} - Kafka messaging configuration</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.DatabaseInitializer} - Database initialization</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.config.TimescaleSchemaInitializer} - Hypertable and continuous aggregate setup</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.PingExecutorConfig} - Ping executor settings</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.AlertingConfig} - Alert threshold configuration</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config.BusinessRulesConfig} - Business rule settings</li>
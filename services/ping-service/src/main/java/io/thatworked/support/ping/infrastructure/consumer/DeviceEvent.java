@@ -0,0 +1,80 @@
+package io.thatworked.support.ping.infrastructure.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.ping.domain.MonitoredDevice;
+
+import java.util.UUID;
+
+/**
+ * A device lifecycle event published by device-service on the device-events topic.
+ * Optional values that device-service publishes as empty strings are decoded as null.
+ */
+public record DeviceEvent(String eventType, UUID deviceId, String deviceName, String ipAddress,
+                          String hostname, String os, String osType, UUID site) {
+    
+    public static final String CREATED = "device.created";
+    public static final String UPDATED = "device.updated";
+    public static final String DELETED = "device.deleted";
+    
+    /**
+     * Decode an event message
+     * @return the event, or null when the message carries no device ID
+     */
+    public static DeviceEvent parse(ObjectMapper objectMapper, String message) throws JsonProcessingException {
+        JsonNode event = objectMapper.readTree(message);
+        JsonNode payload = event.path("payload");
+        String deviceId = text(payload.get("deviceId"));
+        if (deviceId == null) {
+            return null;
+        }
+        
+        String site = optional(payload.has("siteId") ? payload.get("siteId") : payload.get("site"));
+        return new DeviceEvent(
+            text(event.get("eventType")),
+            UUID.fromString(deviceId),
+            text(payload.get("deviceName")),
+            optional(payload.get("ipAddress")),
+            optional(payload.get("hostname")),
+            optional(payload.get("os")),
+            optional(payload.get("osType")),
+            site != null ? UUID.fromString(site) : null);
+    }
+    
+    public boolean isUpsert() {
+        return CREATED.equals(eventType) || UPDATED.equals(eventType);
+    }
+    
+    public boolean isDeletion() {
+        return DELETED.equals(eventType);
+    }
+    
+    /**
+     * Whether the event carries an address a ping target can be pointed at
+     */
+    public boolean hasAddress() {
+        return ipAddress != null || hostname != null;
+    }
+    
+    public MonitoredDevice toMonitoredDevice() {
+        MonitoredDevice device = new MonitoredDevice(deviceId, deviceName, ipAddress);
+        device.setOs(os);
+        device.setOsType(osType);
+        device.setSite(site);
+        return device;
+    }
+    
+    // Update events may carry a changed field as {"old": ..., "new": ...}
+    private static String text(JsonNode node) {
+        if (node != null && node.isObject()) {
+            node = node.get("new");
+        }
+        return node == null || node.isNull() ? null : node.asText();
+    }
+    
+    private static String optional(JsonNode node) {
+        String value = text(node);
+        return value == null || value.isBlank() ? null : value;
+    }
+}
\ No newline at end of file
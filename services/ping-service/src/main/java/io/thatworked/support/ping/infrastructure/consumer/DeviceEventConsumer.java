@@ -3,24 +3,52 @@ package io.thatworked.support.ping.infrastructure.consumer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.thatworked.support.ping.application.PingApplicationService;
 import io.thatworked.support.ping.application.service.MonitoredDeviceService;
+import io.thatworked.support.ping.application.usecase.UpdatePingTargetAddressUseCase.UpdatePingTargetAddressCommand;
 import io.thatworked.support.ping.domain.MonitoredDevice;
+import io.thatworked.support.ping.domain.model.PingTargetDomain;
+import io.thatworked.support.ping.infrastructure.config.KafkaConfig;
+import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Keeps the local device copy and the ping target addresses in step with device-service.
+ *
+ * <p>Events are consumed a poll at a time. Each batch is decoded into {@link DeviceEvent}s and
+ * collapsed to the latest event per device, since device-service keys events by device ID and
+ * every event carries the device's full state. Created and updated devices are then upserted in
+ * one statement and their ping target addresses updated together; deleted devices are removed
+ * in one statement and their ping data cleaned up per device. A message that cannot be decoded is
+ * logged and skipped. When the devices cannot be written the batch fails and is redelivered,
+ * which is safe because every step is idempotent.
+ */
 @Service
 public class DeviceEventConsumer {
-
+    
     private final PingApplicationService pingApplicationService;
     private final MonitoredDeviceService monitoredDeviceService;
     private final ObjectMapper objectMapper;
-    private final io.thatworked.support.common.logging.StructuredLogger logger;
+    private final StructuredLogger logger;
+    
+    // Metrics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong decodeFailures = new AtomicLong();
+    private final AtomicLong devicesSaved = new AtomicLong();
+    private final AtomicLong devicesDeleted = new AtomicLong();
+    private final AtomicLong targetsUpdated = new AtomicLong();
+    private volatile long lastBatchMs;
     
     public DeviceEventConsumer(PingApplicationService pingApplicationService,
                              MonitoredDeviceService monitoredDeviceService,
@@ -31,143 +59,167 @@ public class DeviceEventConsumer {
         this.objectMapper = objectMapper;
         this.logger = structuredLoggerFactory.getLogger(DeviceEventConsumer.class);
     }
-
-    @KafkaListener(topics = "device-events", groupId = "ping-service")
-    public void handleDeviceEvent(@Payload String message,
-                                 @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                 @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                 @Header(KafkaHeaders.OFFSET) long offset) {
+    
+    @KafkaListener(topics = KafkaConfig.DEVICE_EVENTS_TOPIC,
+                   groupId = "ping-service",
+                   containerFactory = KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY,
+                   properties = "max.poll.records=${ping.device-events.max-batch-size:500}")
+    public void handleDeviceEvents(List<ConsumerRecord<String, String>> batch) {
+        long startTime = System.currentTimeMillis();
+        batches.incrementAndGet();
+        records.addAndGet(batch.size());
         
-        logger.with("eventType", "received")
-              .with("topic", topic)
-              .with("partition", partition)
-              .with("offset", offset)
-              .debug("Received device event");
+        List<DeviceEvent> decoded = decode(batch);
+        Collection<DeviceEvent> events = latestByDevice(decoded);
+        collapsed.addAndGet(decoded.size() - events.size());
         
-        try {
-            // Parse JSON string to Map
-            @SuppressWarnings("unchecked")
-            Map<String, Object> event = objectMapper.readValue(message, Map.class);
-            
-            String eventType = (String) event.get("eventType");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> payload = (Map<String, Object>) event.get("payload");
-            
-            if (payload != null) {
-                String deviceIdStr = (String) payload.get("deviceId");
-                if (deviceIdStr != null) {
-                    UUID deviceId = UUID.fromString(deviceIdStr);
-                    
-                    switch (eventType) {
-                        case "device.created":
-                        case "device.updated":
-                            handleDeviceCreateOrUpdate(deviceId, payload);
-                            break;
-                        case "device.deleted":
-                            handleDeviceDeleted(deviceId);
-                            break;
-                        default:
-                            logger.with("eventType", eventType)
-                                  .with("deviceId", deviceId)
-                                  .debug("Ignoring unhandled device event type");
-                    }
+        List<MonitoredDevice> devices = new ArrayList<>();
+        List<UpdatePingTargetAddressCommand> addressUpdates = new ArrayList<>();
+        List<UUID> deletions = new ArrayList<>();
+        for (DeviceEvent event : events) {
+            if (event.isDeletion()) {
+                deletions.add(event.deviceId());
+            } else if (!event.isUpsert()) {
+                logger.with("eventType", event.eventType())
+                      .with("deviceId", event.deviceId())
+                      .debug("Ignoring unhandled device event type");
+            } else if (event.deviceName() == null) {
+                logger.with("eventType", event.eventType())
+                      .with("deviceId", event.deviceId())
+                      .warn("Ignoring device event without a device name");
+            } else {
+                devices.add(event.toMonitoredDevice());
+                if (event.hasAddress()) {
+                    addressUpdates.add(new UpdatePingTargetAddressCommand(event.deviceId(), event.ipAddress(), event.hostname()));
                 }
             }
-            
-        } catch (Exception e) {
-            logger.with("eventType", "error")
-                  .with("message", message)
-                  .error("Failed to process device event", e);
         }
-    }
-    
-    private void handleDeviceCreateOrUpdate(UUID deviceId, Map<String, Object> payload) {
-        String deviceName = (String) payload.get("deviceName");
-        
-        // Handle IP address - could be a string (create) or a map (update)
-        String ipAddress = extractStringValue(payload.get("ipAddress"));
-        
-        // Handle hostname - could be a string (create) or a map (update)
-        String hostname = extractStringValue(payload.get("hostname"));
         
-        // Handle both direct values and update maps
-        String os = extractStringValue(payload.get("os"));
-        String osType = extractStringValue(payload.get("osType"));
+        saveDevices(devices);
+        updateTargetAddresses(addressUpdates);
+        deleteDevices(deletions);
         
-        Object siteObj = payload.get("siteId");
-        UUID site = null;
-        if (siteObj instanceof String && !((String) siteObj).isEmpty()) {
-            site = UUID.fromString((String) siteObj);
+        lastBatchMs = System.currentTimeMillis() - startTime;
+        logger.with("records", batch.size())
+              .with("devices", events.size())
+              .with("saved", devices.size())
+              .with("deleted", deletions.size())
+              .with("durationMs", lastBatchMs)
+              .info("Processed device event batch");
+    }
+    
+    private List<DeviceEvent> decode(List<ConsumerRecord<String, String>> batch) {
+        List<DeviceEvent> events = new ArrayList<>(batch.size());
+        for (ConsumerRecord<String, String> record : batch) {
+            try {
+                DeviceEvent event = DeviceEvent.parse(objectMapper, record.value());
+                if (event != null) {
+                    events.add(event);
+                }
+            } catch (Exception e) {
+                decodeFailures.incrementAndGet();
+                logger.with("eventType", "error")
+                      .with("topic", record.topic())
+                      .with("partition", record.partition())
+                      .with("offset", record.offset())
+                      .with("message", record.value())
+                      .error("Failed to decode device event", e);
+            }
+        }
+        return events;
+    }
+    
+    /**
+     * Keep the last event of each device, in the order the devices were last seen
+     */
+    static Collection<DeviceEvent> latestByDevice(List<DeviceEvent> events) {
+        Map<UUID, DeviceEvent> latest = new LinkedHashMap<>();
+        for (DeviceEvent event : events) {
+            latest.remove(event.deviceId());
+            latest.put(event.deviceId(), event);
+        }
+        return latest.values();
+    }
+    
+    private void saveDevices(List<MonitoredDevice> devices) {
+        if (devices.isEmpty()) {
+            return;
         }
         
-        logger.with("businessEvent", "deviceCreateOrUpdate")
-              .with("deviceId", deviceId)
-              .with("deviceName", deviceName)
-              .with("ipAddress", ipAddress)
-              .with("hostname", hostname)
-              .info("Processing device create/update event");
-        
-        MonitoredDevice device = new MonitoredDevice();
-        device.setDeviceId(deviceId);
-        device.setDeviceName(deviceName);
-        device.setIpAddress(ipAddress);
-        device.setOs(os);
-        device.setOsType(osType);
-        device.setSite(site);
-        
-        monitoredDeviceService.save(device);
-        
-        // Update the ping target IP address and hostname if it exists
         try {
-            pingApplicationService.updatePingTargetAddress(deviceId, ipAddress, hostname);
-            logger.with("businessEvent", "pingTargetUpdated")
-                  .with("deviceId", deviceId)
-                  .with("ipAddress", ipAddress)
-                  .with("hostname", hostname)
-                  .info("Updated ping target address");
-        } catch (Exception e) {
-            logger.with("businessEvent", "pingTargetUpdateFailed")
-                  .with("deviceId", deviceId)
-                  .with("ipAddress", ipAddress)
-                  .with("hostname", hostname)
-                  .with("error", e.getMessage())
-                  .debug("Failed to update ping target - may not exist");
+            monitoredDeviceService.saveAll(devices);
+            devicesSaved.addAndGet(devices.size());
+        } catch (RuntimeException e) {
+            logger.with("businessEvent", "deviceSaveFailed")
+                  .with("devices", devices.size())
+                  .error("Failed to save devices, batch will be redelivered", e);
+            throw e;
         }
-        
-        logger.with("businessEvent", "deviceSaved")
-              .with("deviceId", deviceId)
-              .info("Device information saved to local storage");
     }
     
-    private void handleDeviceDeleted(UUID deviceId) {
-        logger.with("businessEvent", "deviceDeleted")
-              .with("deviceId", deviceId)
-              .info("Processing device deletion");
-        
-        // Delete from monitored devices
-        monitoredDeviceService.deleteById(deviceId);
-        
-        // Delete ping target and all associated data for this device
-        pingApplicationService.cleanupDeviceData(deviceId);
+    private void updateTargetAddresses(List<UpdatePingTargetAddressCommand> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
         
-        logger.with("businessEvent", "deviceDataCleanupCompleted")
-              .with("deviceId", deviceId)
-              .info("Device data cleanup completed");
+        try {
+            List<PingTargetDomain> updated = pingApplicationService.updatePingTargetAddresses(commands);
+            targetsUpdated.addAndGet(updated.size());
+            logger.with("businessEvent", "pingTargetsUpdated")
+                  .with("devices", commands.size())
+                  .with("updated", updated.size())
+                  .debug("Updated ping target addresses");
+        } catch (RuntimeException e) {
+            logger.with("businessEvent", "pingTargetUpdateFailed")
+                  .with("devices", commands.size())
+                  .error("Failed to update ping target addresses, batch will be redelivered", e);
+            throw e;
+        }
     }
     
-    private String extractStringValue(Object value) {
-        if (value == null) {
-            return null;
+    private void deleteDevices(List<UUID> deviceIds) {
+        if (deviceIds.isEmpty()) {
+            return;
         }
-        if (value instanceof String) {
-            return (String) value;
+        
+        try {
+            monitoredDeviceService.deleteAll(deviceIds);
+            devicesDeleted.addAndGet(deviceIds.size());
+        } catch (RuntimeException e) {
+            logger.with("businessEvent", "deviceDeleteFailed")
+                  .with("devices", deviceIds.size())
+                  .error("Failed to delete devices, batch will be redelivered", e);
+            throw e;
         }
-        if (value instanceof Map) {
-            // For update events, get the "new" value
-            Map<?, ?> map = (Map<?, ?>) value;
-            Object newValue = map.get("new");
-            return newValue != null ? newValue.toString() : null;
+        
+        // Delete ping target and all associated data for each device
+        for (UUID deviceId : deviceIds) {
+            try {
+                pingApplicationService.cleanupDeviceData(deviceId);
+                logger.with("businessEvent", "deviceDataCleanupCompleted")
+                      .with("deviceId", deviceId)
+                      .info("Device data cleanup completed");
+            } catch (Exception e) {
+                logger.with("businessEvent", "deviceDataCleanupFailed")
+                      .with("deviceId", deviceId)
+                      .error("Failed to clean up device data", e);
+            }
         }
-        return value.toString();
+    }
+    
+    /**
+     * Get device event consumer metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("batches", batches.get());
+        metrics.put("records", records.get());
+        metrics.put("collapsed", collapsed.get());
+        metrics.put("decodeFailures", decodeFailures.get());
+        metrics.put("devicesSaved", devicesSaved.get());
+        metrics.put("devicesDeleted", devicesDeleted.get());
+        metrics.put("targetsUpdated", targetsUpdated.get());
+        metrics.put("lastBatchMs", lastBatchMs);
+        return metrics;
     }
 }
\ No newline at end of file
@@ -4,7 +4,8 @@
  * 
  * <p>Consumer components:
  * <ul>
- *   <li>{@link io.thatworked.support.ping.infrastructure.consumer.DeviceEventConsumer} - Handles device lifecycle events</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.consumer.DeviceEventConsumer} - Consumes device lifecycle events in batches</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.consumer.DeviceEvent} - Typed device lifecycle event</li>
  * </ul>
  */
 package io.thatworked.support.ping.infrastructure.consumer;
\ No newline at end of file
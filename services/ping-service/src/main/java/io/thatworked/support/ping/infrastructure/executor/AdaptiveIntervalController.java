@@ -0,0 +1,258 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AdaptiveIntervalConfig;
+import io.thatworked.support.ping.config.BusinessRulesConfig;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the probe interval of every device from its recent results.
+ *
+ * <p>Each device has a desired interval between a minimum and maximum derived from its configured
+ * interval. A failure drops it to the minimum, a round trip time far above the device's moving
+ * average halves it, and every run of stable successes stretches it by the growth factor.
+ * Desired intervals are then scaled by one common factor so the total probe rate stays within
+ * the global budget; every device is stretched in the same proportion. While the executor is
+ * dropping pings at admission, the common factor keeps growing until it stops, and it shrinks
+ * back once the executor keeps up. A new interval is only
+ * reported when it differs from the scheduled one by more than a tenth or reaches a bound, to
+ * avoid rescheduling on every result.
+ *
+ * <p>The budget is only enforced as far as the maximum intervals allow: a device is never
+ * stretched past its configured interval times the max factor. When the fleet at its maximum
+ * intervals still probes faster than the budget, the excess is reported as unmet budget and a
+ * warning is logged.
+ */
+@Component
+public class AdaptiveIntervalController {
+    
+    private static final double RESCHEDULE_TOLERANCE = 0.1;
+    private static final double RTT_SMOOTHING = 0.1;
+    private static final int MIN_RTT_SAMPLES = 10;
+    private static final double OVERLOAD_BACKOFF = 1.25;
+    
+    private final StructuredLogger logger;
+    private final AdaptiveIntervalConfig config;
+    private final BusinessRulesConfig businessRules;
+    private final VirtualThreadPingExecutor executor;
+    private final Map<UUID, DeviceInterval> devices = new ConcurrentHashMap<>();
+    
+    // Common stretch applied to every desired interval to honour the probe budget, at least 1
+    private volatile double budgetScale = 1.0;
+    private volatile double demandPps;
+    // Probe rate above the budget that the maximum intervals leave, 0 while the budget is met
+    private volatile double unmetBudgetPps;
+    // Extra stretch while the executor drops pings, at least 1
+    private volatile double overloadScale = 1.0;
+    private long lastDroppedPings;
+    
+    // Metrics
+    private final AtomicLong reschedules = new AtomicLong();
+    private final AtomicLong tightenedOnFailure = new AtomicLong();
+    private final AtomicLong tightenedOnAnomaly = new AtomicLong();
+    private final AtomicLong relaxed = new AtomicLong();
+    
+    public AdaptiveIntervalController(StructuredLoggerFactory structuredLoggerFactory,
+                                      AdaptiveIntervalConfig config,
+                                      BusinessRulesConfig businessRules,
+                                      VirtualThreadPingExecutor executor,
+                                      PingMeters meters) {
+        this.logger = structuredLoggerFactory.getLogger(AdaptiveIntervalController.class);
+        this.config = config;
+        this.businessRules = businessRules;
+        this.executor = executor;
+        meters.gauge("ping.probe.budget.unmet", "Probes per second above the probe budget at the maximum intervals",
+            this, controller -> controller.unmetBudgetPps);
+    }
+    
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+    
+    /**
+     * Start tracking a device
+     * @param configured The target's configured interval, which the device starts at
+     * @return The interval to schedule first
+     */
+    public Duration register(UUID deviceId, Duration configured) {
+        long configuredMs = configured.toMillis();
+        long floorMs = businessRules.getMinPingIntervalSeconds() * 1000L;
+        long ceilingMs = businessRules.getMaxPingIntervalSeconds() * 1000L;
+        long minMs = Math.max(floorMs, Math.min(configuredMs, Math.round(configuredMs * config.getMinFactor())));
+        long maxMs = Math.min(ceilingMs, Math.max(configuredMs, Math.round(configuredMs * config.getMaxFactor())));
+        
+        DeviceInterval device = new DeviceInterval(minMs, Math.max(minMs, maxMs), configuredMs);
+        device.scheduledMs = device.effectiveMs(budgetScale);
+        devices.put(deviceId, device);
+        return Duration.ofMillis(device.scheduledMs);
+    }
+    
+    public void unregister(UUID deviceId) {
+        devices.remove(deviceId);
+    }
+    
+    /**
+     * Update a device from a completed ping
+     * @return The interval to reschedule the device at, or null to keep its current schedule
+     */
+    public Duration onResult(UUID deviceId, PingStatus status, Double roundTripTime) {
+        DeviceInterval device = devices.get(deviceId);
+        if (device == null || status == PingStatus.SKIPPED || status == PingStatus.CIRCUIT_OPEN) {
+            return null;
+        }
+        
+        synchronized (device) {
+            if (!status.isSuccess()) {
+                device.stableCount = 0;
+                if (device.desiredMs > device.minMs) {
+                    device.desiredMs = device.minMs;
+                    tightenedOnFailure.incrementAndGet();
+                }
+            } else if (roundTripTime != null && device.isAnomaly(roundTripTime)) {
+                device.stableCount = 0;
+                device.desiredMs = Math.max(device.minMs, device.desiredMs / 2);
+                tightenedOnAnomaly.incrementAndGet();
+            } else if (++device.stableCount >= config.getStableSamples()) {
+                device.stableCount = 0;
+                long stretched = Math.min(device.maxMs, Math.round(device.desiredMs * config.getGrowthFactor()));
+                if (stretched > device.desiredMs) {
+                    device.desiredMs = stretched;
+                    relaxed.incrementAndGet();
+                }
+            }
+            if (status.isSuccess() && roundTripTime != null) {
+                device.recordRtt(roundTripTime);
+            }
+            
+            long effectiveMs = device.effectiveMs(budgetScale);
+            // Small changes wait for the next one, except the last step onto a bound
+            boolean atBound = effectiveMs == device.minMs || effectiveMs == device.maxMs;
+            long change = Math.abs(effectiveMs - device.scheduledMs);
+            if (change == 0 || (change <= device.scheduledMs * RESCHEDULE_TOLERANCE && !atBound)) {
+                return null;
+            }
+            device.scheduledMs = effectiveMs;
+            reschedules.incrementAndGet();
+            return Duration.ofMillis(effectiveMs);
+        }
+    }
+    
+    /**
+     * Recompute the budget scale from the desired intervals of all devices and the executor's drops
+     */
+    @Scheduled(fixedDelayString = "1000")
+    public void rebalance() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        double demand = 0;
+        for (DeviceInterval device : devices.values()) {
+            demand += 1000.0 / device.desiredMs;
+        }
+        demandPps = demand;
+        
+        long droppedPings = executor.getDroppedPings();
+        if (droppedPings > lastDroppedPings) {
+            overloadScale = Math.min(config.getMaxFactor(), overloadScale * OVERLOAD_BACKOFF);
+        } else {
+            overloadScale = Math.max(1.0, overloadScale / OVERLOAD_BACKOFF);
+        }
+        lastDroppedPings = droppedPings;
+        double scale = Math.max(1.0, demand / config.getProbeBudgetPps()) * overloadScale;
+        budgetScale = scale;
+        
+        // Devices stop stretching at their maximum interval, which can leave the budget exceeded
+        double cappedPps = 0;
+        for (DeviceInterval device : devices.values()) {
+            cappedPps += 1000.0 / device.effectiveMs(scale);
+        }
+        double unmet = Math.max(0, cappedPps - config.getProbeBudgetPps());
+        if (unmet > 0 && unmetBudgetPps == 0) {
+            logger.with("probeBudgetPps", config.getProbeBudgetPps())
+                  .with("scheduledPps", cappedPps)
+                  .with("budgetScale", scale)
+                  .with("maxFactor", config.getMaxFactor())
+                  .warn("Probe budget exceeded with devices at their maximum interval");
+        }
+        unmetBudgetPps = unmet;
+    }
+    
+    /**
+     * Get adaptive interval metrics
+     */
+    public Map<String, Object> getMetrics() {
+        double scheduledPps = 0;
+        for (DeviceInterval device : devices.values()) {
+            scheduledPps += 1000.0 / device.scheduledMs;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", config.isEnabled());
+        metrics.put("devices", devices.size());
+        metrics.put("probeBudgetPps", config.getProbeBudgetPps());
+        metrics.put("demandPps", demandPps);
+        metrics.put("scheduledPps", scheduledPps);
+        metrics.put("budgetScale", budgetScale);
+        metrics.put("unmetBudgetPps", unmetBudgetPps);
+        metrics.put("overloadScale", overloadScale);
+        metrics.put("reschedules", reschedules.get());
+        metrics.put("tightenedOnFailure", tightenedOnFailure.get());
+        metrics.put("tightenedOnAnomaly", tightenedOnAnomaly.get());
+        metrics.put("relaxed", relaxed.get());
+        return metrics;
+    }
+    
+    /**
+     * Interval state of one device, guarded by its own monitor
+     */
+    private final class DeviceInterval {
+        final long minMs;
+        final long maxMs;
+        volatile long desiredMs;
+        volatile long scheduledMs;
+        int stableCount;
+        int rttSamples;
+        double rttMean;
+        double rttVariance;
+        
+        DeviceInterval(long minMs, long maxMs, long initialMs) {
+            this.minMs = minMs;
+            this.maxMs = maxMs;
+            this.desiredMs = Math.max(minMs, Math.min(maxMs, initialMs));
+        }
+        
+        long effectiveMs(double scale) {
+            return Math.max(minMs, Math.min(maxMs, Math.round(desiredMs * scale)));
+        }
+        
+        boolean isAnomaly(double roundTripTime) {
+            double excess = roundTripTime - rttMean;
+            return rttSamples >= MIN_RTT_SAMPLES
+                && excess > config.getAnomalyMinMs()
+                && excess > config.getAnomalyDeviations() * Math.sqrt(rttVariance);
+        }
+        
+        /**
+         * Exponentially weighted mean and variance of the round trip time
+         */
+        void recordRtt(double roundTripTime) {
+            if (rttSamples++ == 0) {
+                rttMean = roundTripTime;
+                return;
+            }
+            double difference = roundTripTime - rttMean;
+            rttMean += RTT_SMOOTHING * difference;
+            rttVariance = (1 - RTT_SMOOTHING) * (rttVariance + RTT_SMOOTHING * difference * difference);
+        }
+    }
+}
\ No newline at end of file
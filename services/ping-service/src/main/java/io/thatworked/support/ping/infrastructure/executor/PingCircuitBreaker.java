@@ -1,41 +1,44 @@
 package io.thatworked.support.ping.infrastructure.executor;
 
-import lombok.Getter;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
 import io.thatworked.support.ping.config.PingExecutorConfig;
+import io.thatworked.support.ping.infrastructure.jfr.CircuitTransitionEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Circuit breaker for ping operations to prevent wasting resources on consistently unreachable hosts.
  * Implements a half-open state to periodically retry failed hosts.
+ * Circuit state lives in the device's slot of the {@link DeviceSlotRegistry}, so only monitored devices have a circuit.
  */
 @Component
 public class PingCircuitBreaker {
     
     private final StructuredLogger logger;
-    private final Map<UUID, CircuitState> circuits = new ConcurrentHashMap<>();
+    private final DeviceSlotRegistry registry;
     
     // Configuration from PingExecutorConfig
     private final int failureThreshold;
-    private final Duration openDuration;
-    private final Duration halfOpenTestInterval;
+    private final long openDurationNanos;
+    private final long halfOpenTestIntervalNanos;
     private final boolean circuitBreakerEnabled;
     
-    public PingCircuitBreaker(StructuredLoggerFactory structuredLoggerFactory, PingExecutorConfig config) {
+    public PingCircuitBreaker(StructuredLoggerFactory structuredLoggerFactory, PingExecutorConfig config,
+                              DeviceSlotRegistry registry, PingMeters meters) {
         this.logger = structuredLoggerFactory.getLogger(PingCircuitBreaker.class);
+        this.registry = registry;
         this.failureThreshold = config.getCircuitBreakerFailureThreshold();
-        this.openDuration = Duration.ofMinutes(config.getCircuitBreakerOpenDurationMinutes());
-        this.halfOpenTestInterval = Duration.ofMinutes(config.getCircuitBreakerHalfOpenIntervalMinutes());
+        this.openDurationNanos = Duration.ofMinutes(config.getCircuitBreakerOpenDurationMinutes()).toNanos();
+        this.halfOpenTestIntervalNanos = Duration.ofMinutes(config.getCircuitBreakerHalfOpenIntervalMinutes()).toNanos();
         this.circuitBreakerEnabled = config.isCircuitBreakerEnabled();
+        meters.gauge("ping.circuits.open", "Monitored devices whose circuit breaker is open", registry,
+            r -> r.countCircuits(DeviceSlotRegistry.CIRCUIT_OPEN));
         
         logger.with("failureThreshold", failureThreshold)
               .with("openDurationMinutes", config.getCircuitBreakerOpenDurationMinutes())
@@ -44,6 +47,7 @@ public class PingCircuitBreaker {
               .info("Circuit breaker initialized with configuration");
     }
     
+    // Ordinals match the circuit constants stored in DeviceSlotRegistry
     public enum State {
         CLOSED,      // Normal operation
         OPEN,        // Failures exceeded threshold, blocking requests
@@ -65,27 +69,33 @@ public class PingCircuitBreaker {
                 return true; // Allow ping by default for null devices
             }
             
-            CircuitState state = circuits.computeIfAbsent(deviceId, k -> new CircuitState());
+            int slot = registry.slotOf(deviceId);
+            if (slot == DeviceSlotRegistry.NO_SLOT) {
+                return true; // Device is not monitored, so it has no circuit
+            }
             
-            switch (state.getCurrentState()) {
-                case State.CLOSED -> {
+            long now = System.nanoTime();
+            switch (registry.circuitState(slot)) {
+                case DeviceSlotRegistry.CIRCUIT_CLOSED -> {
                     return true;
                 }
-                case State.OPEN -> {
-                    // Check if it's time to transition to half-open
-                    if (state.shouldTransitionToHalfOpen()) {
-                        state.transitionToHalfOpen();
+                case DeviceSlotRegistry.CIRCUIT_OPEN -> {
+                    // Check if it's time to transition to half-open; only one caller wins the transition
+                    if (now - registry.stateChangedNanos(slot) > openDurationNanos
+                            && registry.compareAndSetCircuitState(slot, DeviceSlotRegistry.CIRCUIT_OPEN, DeviceSlotRegistry.CIRCUIT_HALF_OPEN, now)) {
+                        registry.setHalfOpenTestNanos(slot, now);
+                        recordTransition(deviceId, slot, State.OPEN, State.HALF_OPEN);
                         logger.with("deviceId", deviceId).info("Circuit breaker for device transitioned to HALF_OPEN");
                         return true; // Allow one test ping
                     }
                     return false;
                 }
-                case State.HALF_OPEN -> {
+                case DeviceSlotRegistry.CIRCUIT_HALF_OPEN -> {
                     // Only allow periodic test pings
-                    return state.shouldAllowHalfOpenTest();
+                    return registry.tryClaimHalfOpenTest(slot, now, halfOpenTestIntervalNanos);
                 }
                 default -> {
-                    logger.with("deviceId", deviceId).with("state", state.getState()).warn("Unknown circuit state for device");
+                    logger.with("deviceId", deviceId).with("state", registry.circuitState(slot)).warn("Unknown circuit state for device");
                     return true;
                 }
             }
@@ -110,27 +120,29 @@ public class PingCircuitBreaker {
                 return;
             }
             
-            CircuitState state = circuits.get(deviceId);
-            if (state == null) {
+            int slot = registry.slotOf(deviceId);
+            if (slot == DeviceSlotRegistry.NO_SLOT) {
                 return;
             }
             
-            switch (state.getCurrentState()) {
-                case State.HALF_OPEN -> {
+            switch (registry.circuitState(slot)) {
+                case DeviceSlotRegistry.CIRCUIT_HALF_OPEN -> {
                     // Success in half-open state closes the circuit
-                    state.reset();
+                    registry.resetCircuit(slot, System.nanoTime());
+                    recordTransition(deviceId, slot, State.HALF_OPEN, State.CLOSED);
                     logger.with("deviceId", deviceId).info("Circuit breaker for device closed after successful ping");
                 }
-                case State.OPEN -> {
+                case DeviceSlotRegistry.CIRCUIT_OPEN -> {
                     // Shouldn't happen, but reset anyway
-                    state.reset();
+                    registry.resetCircuit(slot, System.nanoTime());
+                    recordTransition(deviceId, slot, State.OPEN, State.CLOSED);
                 }
-                case State.CLOSED -> {
+                case DeviceSlotRegistry.CIRCUIT_CLOSED -> {
                     // Reset consecutive failures
-                    state.resetFailures();
+                    registry.resetFailures(slot);
                 }
                 default -> {
-                    logger.with("deviceId", deviceId).with("state", state.getState()).warn("Unknown circuit state on success for device");
+                    logger.with("deviceId", deviceId).with("state", registry.circuitState(slot)).warn("Unknown circuit state on success for device");
                 }
             }
         } catch (Exception e) {
@@ -153,26 +165,32 @@ public class PingCircuitBreaker {
                 return;
             }
             
-            CircuitState state = circuits.computeIfAbsent(deviceId, k -> new CircuitState());
+            int slot = registry.slotOf(deviceId);
+            if (slot == DeviceSlotRegistry.NO_SLOT) {
+                return;
+            }
             
-            switch (state.getCurrentState()) {
-                case State.CLOSED -> {
-                    if (state.incrementFailures() >= failureThreshold) {
-                        state.transitionToOpen();
+            long now = System.nanoTime();
+            switch (registry.circuitState(slot)) {
+                case DeviceSlotRegistry.CIRCUIT_CLOSED -> {
+                    if (registry.incrementFailures(slot) >= failureThreshold
+                            && registry.compareAndSetCircuitState(slot, DeviceSlotRegistry.CIRCUIT_CLOSED, DeviceSlotRegistry.CIRCUIT_OPEN, now)) {
+                        recordTransition(deviceId, slot, State.CLOSED, State.OPEN);
                         logger.with("deviceId", deviceId).with("failureThreshold", failureThreshold).warn("Circuit breaker for device opened after failures");
                     }
                 }
-                case State.HALF_OPEN -> {
+                case DeviceSlotRegistry.CIRCUIT_HALF_OPEN -> {
                     // Failure in half-open state reopens the circuit
-                    state.transitionToOpen();
-                    logger.with("deviceId", deviceId).info("Circuit breaker for device reopened after half-open test failure");
+                    if (registry.compareAndSetCircuitState(slot, DeviceSlotRegistry.CIRCUIT_HALF_OPEN, DeviceSlotRegistry.CIRCUIT_OPEN, now)) {
+                        recordTransition(deviceId, slot, State.HALF_OPEN, State.OPEN);
+                        logger.with("deviceId", deviceId).info("Circuit breaker for device reopened after half-open test failure");
+                    }
                 }
-                case State.OPEN -> {
-                    // Already open, update last failure time
-                    state.updateLastFailureTime();
+                case DeviceSlotRegistry.CIRCUIT_OPEN -> {
+                    // Already open, nothing to update
                 }
                 default -> {
-                    logger.with("deviceId", deviceId).with("state", state.getState()).warn("Unknown circuit state on failure for device");
+                    logger.with("deviceId", deviceId).with("state", registry.circuitState(slot)).warn("Unknown circuit state on failure for device");
                 }
             }
         } catch (Exception e) {
@@ -180,38 +198,42 @@ public class PingCircuitBreaker {
         }
     }
     
+    /**
+     * Emit a flight recorder event for a state change, while a recording is running
+     */
+    private void recordTransition(UUID deviceId, int slot, State from, State to) {
+        CircuitTransitionEvent event = new CircuitTransitionEvent();
+        if (event.shouldCommit()) {
+            event.slot = slot;
+            event.deviceId = deviceId.toString();
+            event.fromState = from.name();
+            event.toState = to.name();
+            event.failures = registry.failures(slot);
+            event.commit();
+        }
+    }
+    
     /**
      * Get circuit breaker metrics
      */
     public Map<String, Object> getMetrics() {
         try {
-            int openCircuits = 0;
-            int halfOpenCircuits = 0;
-            int closedCircuits = 0;
-            
-            for (CircuitState state : circuits.values()) {
-                try {
-                    switch (state.getCurrentState()) {
-                        case State.OPEN -> openCircuits++;
-                        case State.HALF_OPEN -> halfOpenCircuits++;
-                        case State.CLOSED -> closedCircuits++;
-                    }
-                } catch (Exception e) {
-                    logger.with("method", "getMetrics").error("Error getting state for circuit", e);
-                }
-            }
+            Map<String, Object> registryMetrics = registry.getMetrics();
+            int totalCircuits = (int) registryMetrics.get("devices");
+            int openCircuits = (int) registryMetrics.get("openCircuits");
+            int halfOpenCircuits = (int) registryMetrics.get("halfOpenCircuits");
             
             return Map.of(
-                "totalCircuits", circuits.size(),
+                "totalCircuits", totalCircuits,
                 "openCircuits", openCircuits,
                 "halfOpenCircuits", halfOpenCircuits,
-                "closedCircuits", closedCircuits
+                "closedCircuits", Math.max(0, totalCircuits - openCircuits - halfOpenCircuits)
             );
         } catch (Exception e) {
             logger.with("method", "getMetrics").error("Error getting circuit breaker metrics", e);
             return Map.of(
                 "error", "Failed to retrieve metrics",
-                "totalCircuits", circuits.size()
+                "totalCircuits", registry.size()
             );
         }
     }
@@ -226,9 +248,13 @@ public class PingCircuitBreaker {
                 return;
             }
             
-            CircuitState state = circuits.get(deviceId);
-            if (state != null) {
-                state.reset();
+            int slot = registry.slotOf(deviceId);
+            if (slot != DeviceSlotRegistry.NO_SLOT) {
+                State previous = State.values()[registry.circuitState(slot)];
+                registry.resetCircuit(slot, System.nanoTime());
+                if (previous != State.CLOSED) {
+                    recordTransition(deviceId, slot, previous, State.CLOSED);
+                }
                 logger.with("deviceId", deviceId).info("Circuit breaker for device manually reset");
             }
         } catch (Exception e) {
@@ -241,116 +267,16 @@ public class PingCircuitBreaker {
      */
     public void clearAll() {
         try {
-            circuits.clear();
+            long now = System.nanoTime();
+            for (UUID deviceId : registry.deviceIds()) {
+                int slot = registry.slotOf(deviceId);
+                if (slot != DeviceSlotRegistry.NO_SLOT) {
+                    registry.resetCircuit(slot, now);
+                }
+            }
             logger.with("method", "clearAll").info("All circuit breakers cleared");
         } catch (Exception e) {
             logger.with("method", "clearAll").error("Error clearing all circuit breakers", e);
         }
     }
-    
-    /**
-     * Internal circuit state tracking
-     */
-    @Getter
-    private class CircuitState {
-        private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
-        private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
-        private volatile Instant lastFailureTime;
-        private volatile Instant lastStateChangeTime;
-        private volatile Instant lastHalfOpenTest;
-        
-        public CircuitState() {
-            this.lastStateChangeTime = Instant.now();
-        }
-        
-        public State getCurrentState() {
-            return state.get();
-        }
-        
-        public boolean shouldTransitionToHalfOpen() {
-            try {
-                return state.get() == State.OPEN && 
-                       Duration.between(lastStateChangeTime, Instant.now()).compareTo(openDuration) > 0;
-            } catch (Exception e) {
-                logger.with("method", "shouldTransitionToHalfOpen").error("Error checking half-open transition", e);
-                return false;
-            }
-        }
-        
-        public boolean shouldAllowHalfOpenTest() {
-            try {
-                if (lastHalfOpenTest == null) {
-                    lastHalfOpenTest = Instant.now();
-                    return true;
-                }
-                
-                if (Duration.between(lastHalfOpenTest, Instant.now()).compareTo(halfOpenTestInterval) > 0) {
-                    lastHalfOpenTest = Instant.now();
-                    return true;
-                }
-                
-                return false;
-            } catch (Exception e) {
-                logger.with("method", "shouldAllowHalfOpenTest").error("Error checking half-open test allowance", e);
-                return false;
-            }
-        }
-        
-        public int incrementFailures() {
-            try {
-                lastFailureTime = Instant.now();
-                return consecutiveFailures.incrementAndGet();
-            } catch (Exception e) {
-                logger.with("method", "incrementFailures").error("Error incrementing failures", e);
-                return consecutiveFailures.get();
-            }
-        }
-        
-        public void resetFailures() {
-            try {
-                consecutiveFailures.set(0);
-            } catch (Exception e) {
-                logger.with("method", "resetFailures").error("Error resetting failures", e);
-            }
-        }
-        
-        public void transitionToOpen() {
-            try {
-                state.set(State.OPEN);
-                lastStateChangeTime = Instant.now();
-                lastFailureTime = Instant.now();
-            } catch (Exception e) {
-                logger.with("method", "transitionToOpen").error("Error transitioning to OPEN state", e);
-            }
-        }
-        
-        public void transitionToHalfOpen() {
-            try {
-                state.set(State.HALF_OPEN);
-                lastStateChangeTime = Instant.now();
-                lastHalfOpenTest = null;
-            } catch (Exception e) {
-                logger.with("method", "transitionToHalfOpen").error("Error transitioning to HALF_OPEN state", e);
-            }
-        }
-        
-        public void reset() {
-            try {
-                state.set(State.CLOSED);
-                consecutiveFailures.set(0);
-                lastStateChangeTime = Instant.now();
-                lastHalfOpenTest = null;
-            } catch (Exception e) {
-                logger.with("method", "reset").error("Error resetting circuit state", e);
-            }
-        }
-        
-        public void updateLastFailureTime() {
-            try {
-                lastFailureTime = Instant.now();
-            } catch (Exception e) {
-                logger.with("method", "updateLastFailureTime").error("Error updating last failure time", e);
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -26,6 +26,8 @@ public class PingExecutorAdapter implements PingExecutor {
         PingTask task = PingTask.builder()
             .deviceId(pingTarget.getDeviceId())
             .ipAddress(pingTarget.getIpAddress())
+            .probeType(pingTarget.getProbeType())
+            .probePort(pingTarget.getProbePort())
             .intervalMs(pingTarget.getPingIntervalSeconds() * 1000L)
             .recurring(true)
             .build();
@@ -0,0 +1,57 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Decides when each recurring ping task is due and hands due tasks to a dispatcher.
+ * One schedule is kept per device; scheduling a device again replaces its previous schedule.
+ */
+public interface PingSchedulingEngine extends AutoCloseable {
+    
+    /**
+     * Start firing tasks
+     * @param dispatcher Receives the tasks that became due together, never called concurrently for the same device
+     */
+    void start(Consumer<List<PingTask>> dispatcher);
+    
+    /**
+     * Schedule a recurring task, replacing any existing schedule for the same device
+     * @param task The task to fire
+     * @param initialDelay Delay before the first firing
+     * @param interval Interval between firings
+     */
+    void schedule(PingTask task, Duration initialDelay, Duration interval);
+    
+    /**
+     * Cancel the schedule for a device
+     * @return true if a schedule existed
+     */
+    boolean cancel(UUID deviceId);
+    
+    /**
+     * Number of scheduled devices
+     */
+    int size();
+    
+    /**
+     * Short engine name used in logs and metrics
+     */
+    String name();
+    
+    /**
+     * Get engine metrics
+     */
+    Map<String, Object> getMetrics();
+    
+    /**
+     * Cancel all schedules and stop firing
+     */
+    @Override
+    void close();
+}
\ No newline at end of file
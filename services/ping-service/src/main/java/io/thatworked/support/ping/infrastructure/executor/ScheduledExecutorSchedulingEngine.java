@@ -0,0 +1,84 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Scheduling engine with one scheduleAtFixedRate task per device.
+ * Insert and cancel are O(log n) on the executor's delay queue.
+ */
+public class ScheduledExecutorSchedulingEngine implements PingSchedulingEngine {
+    
+    public static final String NAME = "scheduled-executor";
+    
+    private final ScheduledExecutorService scheduler;
+    private final Map<UUID, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    private volatile Consumer<List<PingTask>> dispatcher;
+    
+    public ScheduledExecutorSchedulingEngine(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public void start(Consumer<List<PingTask>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+    
+    @Override
+    public void schedule(PingTask task, Duration initialDelay, Duration interval) {
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
+            () -> dispatcher.accept(List.of(task)),
+            initialDelay.toMillis(),
+            interval.toMillis(),
+            TimeUnit.MILLISECONDS
+        );
+        
+        ScheduledFuture<?> previous = scheduledTasks.put(task.getDeviceId(), future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+    
+    @Override
+    public boolean cancel(UUID deviceId) {
+        ScheduledFuture<?> future = scheduledTasks.remove(deviceId);
+        if (future == null) {
+            return false;
+        }
+        future.cancel(false);
+        return true;
+    }
+    
+    @Override
+    public int size() {
+        return scheduledTasks.size();
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "engine", NAME,
+            "scheduledTasks", scheduledTasks.size()
+        );
+    }
+    
+    @Override
+    public void close() {
+        scheduledTasks.values().forEach(future -> future.cancel(false));
+        scheduledTasks.clear();
+    }
+}
\ No newline at end of file
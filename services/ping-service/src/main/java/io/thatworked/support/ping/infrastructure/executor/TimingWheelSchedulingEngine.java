@@ -0,0 +1,317 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel with O(1) schedule, cancel and reschedule.
+ *
+ * <p>Four levels of 256 slots each; level 0 holds entries due within the next 256 ticks and each
+ * higher level covers 256 times the range of the one below. Entries are kept in intrusive linked
+ * lists and cascade down a level when the level below wraps. A single wheel thread owns the
+ * slots: callers only publish schedule and cancel commands, which the wheel applies at the start
+ * of every tick. All entries due on the same tick are handed to the dispatcher as one batch, so
+ * the dispatcher must not block.
+ *
+ * <p>Recurring entries are re-armed at their previous deadline plus the interval, so the schedule
+ * does not drift. Intervals are rounded to whole ticks.
+ */
+public class TimingWheelSchedulingEngine implements PingSchedulingEngine {
+
+    public static final String NAME = "timing-wheel";
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final StructuredLogger logger;
+    private final long tickNanos;
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> commands = new ConcurrentLinkedQueue<>();
+    private final Thread wheelThread;
+    private final long startNanos;
+    private volatile Consumer<List<PingTask>> dispatcher;
+    private volatile boolean running;
+
+    // Owned by the wheel thread
+    private long currentTick;
+    private final List<PingTask> due = new ArrayList<>();
+
+    // Metrics
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong cascaded = new AtomicLong();
+    private final AtomicLong dispatcherErrors = new AtomicLong();
+    private volatile long lastTickLagNanos;
+    private volatile long maxTickLagNanos;
+    private volatile int maxBatchSize;
+
+    /**
+     * @param tick Wheel resolution, also the smallest interval the wheel can express
+     */
+    public TimingWheelSchedulingEngine(StructuredLoggerFactory structuredLoggerFactory, Duration tick) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        this.logger = structuredLoggerFactory.getLogger(TimingWheelSchedulingEngine.class);
+        this.tickNanos = tick.toNanos();
+        this.startNanos = System.nanoTime();
+        this.wheelThread = Thread.ofPlatform().name("ping-timing-wheel").daemon(true).unstarted(this::run);
+    }
+
+    @Override
+    public void start(Consumer<List<PingTask>> dispatcher) {
+        this.dispatcher = dispatcher;
+        this.running = true;
+        wheelThread.start();
+    }
+
+    @Override
+    public void schedule(PingTask task, Duration initialDelay, Duration interval) {
+        long firstDeadlineNanos = System.nanoTime() + Math.max(0, initialDelay.toNanos());
+        long intervalTicks = Math.max(1, Math.round((double) interval.toNanos() / tickNanos));
+
+        Entry entry = new Entry(task, firstDeadlineNanos, intervalTicks);
+        Entry previous = entries.put(task.getDeviceId(), entry);
+        if (previous != null) {
+            previous.cancelled = true;
+            commands.offer(previous);
+        }
+        commands.offer(entry);
+    }
+
+    @Override
+    public boolean cancel(UUID deviceId) {
+        Entry entry = entries.remove(deviceId);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        commands.offer(entry);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "engine", NAME,
+            "scheduledTasks", entries.size(),
+            "tickMs", TimeUnit.NANOSECONDS.toMillis(tickNanos),
+            "ticks", ticks.get(),
+            "dispatched", dispatched.get(),
+            "cascaded", cascaded.get(),
+            "dispatcherErrors", dispatcherErrors.get(),
+            "lastTickLagMs", TimeUnit.NANOSECONDS.toMillis(lastTickLagNanos),
+            "maxTickLagMs", TimeUnit.NANOSECONDS.toMillis(maxTickLagNanos),
+            "maxBatchSize", maxBatchSize
+        );
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        entries.values().forEach(entry -> entry.cancelled = true);
+        entries.clear();
+        if (wheelThread.isAlive()) {
+            LockSupport.unpark(wheelThread);
+            try {
+                wheelThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long waitNanos = nextTickNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+
+            // Apply commands before advancing so a schedule made during the previous tick is not missed
+            applyCommands();
+            currentTick++;
+            cascade();
+            collectDue();
+
+            long lag = System.nanoTime() - nextTickNanos;
+            lastTickLagNanos = lag;
+            if (lag > maxTickLagNanos) {
+                maxTickLagNanos = lag;
+            }
+            ticks.incrementAndGet();
+
+            if (!due.isEmpty()) {
+                dispatch();
+            }
+        }
+    }
+
+    private void applyCommands() {
+        Entry entry;
+        while ((entry = commands.poll()) != null) {
+            if (entry.cancelled) {
+                unlink(entry);
+            } else if (entry.level < 0) {
+                long ticksFromStart = Math.ceilDiv(entry.firstDeadlineNanos - startNanos, tickNanos);
+                entry.expirationTick = Math.max(currentTick + 1, ticksFromStart);
+                insert(entry);
+            }
+        }
+    }
+
+    /**
+     * Move the entries of every higher-level slot that has come due down to the levels below,
+     * starting from the highest level so they can cascade further in the same tick.
+     */
+    private void cascade() {
+        int levelsToCascade = 0;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            levelsToCascade = level;
+        }
+
+        for (int level = levelsToCascade; level >= 1; level--) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Entry entry = slots[level][slot];
+            slots[level][slot] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.level = -1;
+                insert(entry);
+                cascaded.incrementAndGet();
+                entry = next;
+            }
+        }
+    }
+
+    private void collectDue() {
+        int slot = (int) (currentTick & SLOT_MASK);
+        Entry entry = slots[0][slot];
+        slots[0][slot] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            entry.level = -1;
+            if (!entry.cancelled) {
+                due.add(entry.task);
+                entry.expirationTick += entry.intervalTicks;
+                insert(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void dispatch() {
+        int batchSize = due.size();
+        if (batchSize > maxBatchSize) {
+            maxBatchSize = batchSize;
+        }
+        try {
+            dispatcher.accept(List.copyOf(due));
+            dispatched.addAndGet(batchSize);
+        } catch (RuntimeException e) {
+            dispatcherErrors.incrementAndGet();
+            logger.with("batchSize", batchSize)
+                  .with("tick", currentTick)
+                  .error("Failed to dispatch due pings, skipping them until their next firing", e);
+        } finally {
+            due.clear();
+        }
+    }
+
+    private void insert(Entry entry) {
+        long delay = Math.min(Math.max(entry.expirationTick - currentTick, 0), MAX_DELAY_TICKS);
+        // A zero delay lands on the slot about to be processed
+        entry.expirationTick = currentTick + delay;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((entry.expirationTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Entry head = slots[level][slot];
+        entry.next = head;
+        entry.prev = null;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[level][slot] = entry;
+        entry.level = level;
+        entry.slot = slot;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.level < 0) {
+            return;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.level = -1;
+    }
+
+    /**
+     * Wheel entry. Everything except the cancelled flag is confined to the wheel thread once published.
+     */
+    private static final class Entry {
+        final PingTask task;
+        final long firstDeadlineNanos;
+        final long intervalTicks;
+        volatile boolean cancelled;
+        long expirationTick;
+        int level = -1;
+        int slot;
+        Entry prev;
+        Entry next;
+
+        Entry(PingTask task, long firstDeadlineNanos, long intervalTicks) {
+            this.task = task;
+            this.firstDeadlineNanos = firstDeadlineNanos;
+            this.intervalTicks = intervalTicks;
+        }
+    }
+}
\ No newline at end of file
@@ -2,9 +2,15 @@ package io.thatworked.support.ping.infrastructure.executor;
 
 import io.thatworked.support.ping.domain.PingResult;
 import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.cache.DeviceLatencyHistograms;
+import io.thatworked.support.ping.infrastructure.cache.RecentPingResultsCache;
 import io.thatworked.support.ping.infrastructure.event.PingResultEvent;
+import io.thatworked.support.ping.infrastructure.jfr.ResultPersistedEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.queue.PingAdmissionQueue;
 import io.thatworked.support.ping.infrastructure.queue.PingTask;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
+import io.thatworked.support.ping.infrastructure.writer.PingResultWriteBehind;
 import io.thatworked.support.ping.config.PingExecutorConfig;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
@@ -19,6 +25,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
@@ -28,22 +35,27 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Virtual Thread-based ping executor for high scalability.
  * Uses Java 21 virtual threads to handle thousands of concurrent pings efficiently.
+ * Pings that find every permit taken wait in a {@link PingAdmissionQueue} and are shed, not
+ * recorded, if no permit frees up before their deadline.
  */
 @Component
 public class VirtualThreadPingExecutor {
     
     private final StructuredLogger logger;
+    // For the scheduling engine, created on start
+    private final StructuredLoggerFactory structuredLoggerFactory;
     private final PingResultRepository pingResultRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final PingExecutionDelegate pingExecutionDelegate;
     private final PingExecutorConfig config;
+    private final PingResultWriteBehind resultWriteBehind;
+    private final RecentPingResultsCache recentResultsCache;
+    private final DeviceLatencyHistograms latencyHistograms;
+    private final PingMeters meters;
     
     @Value("${ping.executor.timeout-ms:1000}")
     private int timeoutMs;
     
-    @Value("${ping.executor.batch-interval-ms:100}")
-    private int batchIntervalMs;
-    
     @Value("${ping.executor.max-concurrent-pings:1000}")
     private int maxConcurrentPings;
     
@@ -51,18 +63,29 @@ public class VirtualThreadPingExecutor {
                                     PingResultRepository pingResultRepository,
                                     ApplicationEventPublisher eventPublisher,
                                     @Lazy PingExecutionDelegate pingExecutionDelegate,
-                                    PingExecutorConfig config) {
+                                    PingExecutorConfig config,
+                                    PingResultWriteBehind resultWriteBehind,
+                                    RecentPingResultsCache recentResultsCache,
+                                    DeviceLatencyHistograms latencyHistograms,
+                                    PingMeters meters) {
         this.logger = structuredLoggerFactory.getLogger(VirtualThreadPingExecutor.class);
+        this.structuredLoggerFactory = structuredLoggerFactory;
         this.pingResultRepository = pingResultRepository;
         this.eventPublisher = eventPublisher;
         this.pingExecutionDelegate = pingExecutionDelegate;
         this.config = config;
+        this.resultWriteBehind = resultWriteBehind;
+        this.recentResultsCache = recentResultsCache;
+        this.latencyHistograms = latencyHistograms;
+        this.meters = meters;
     }
     
     private ScheduledExecutorService scheduler;
     private ExecutorService virtualThreadExecutor;
-    private final Map<String, ScheduledPingTask> scheduledTasks = new ConcurrentHashMap<>();
+    private PingSchedulingEngine schedulingEngine;
     private Semaphore concurrencyLimiter; // Will be initialized in @PostConstruct
+    private PingAdmissionQueue admissionQueue;
+    private Thread admissionThread;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicInteger activePings = new AtomicInteger(0);
     
@@ -78,6 +101,7 @@ public class VirtualThreadPingExecutor {
             
             // Initialize concurrency limiter with configured value
             concurrencyLimiter = new Semaphore(maxConcurrentPings);
+            admissionQueue = new PingAdmissionQueue(config.getAdmissionQueueCapacity());
             
             // Create virtual thread executor
             virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
@@ -90,10 +114,18 @@ public class VirtualThreadPingExecutor {
                 return t;
             });
             
+            schedulingEngine = createSchedulingEngine();
+            schedulingEngine.start(this::dispatchDuePings);
+            
+            registerGauges();
+            
             running.set(true);
+            admissionThread = Thread.ofPlatform().name("ping-admission").daemon(true).start(this::admitWaitingPings);
             
             logger.with("schedulerPoolSize", config.getSchedulerPoolSize())
+                  .with("schedulingEngine", schedulingEngine.name())
                   .with("maxConcurrentPings", maxConcurrentPings)
+                  .with("admissionQueueCapacity", config.getAdmissionQueueCapacity())
                   .with("timeoutMs", timeoutMs)
                   .info("Virtual thread ping executor initialized");
             
@@ -115,18 +147,17 @@ public class VirtualThreadPingExecutor {
             
             // Cancel all scheduled tasks
             try {
-                scheduledTasks.values().forEach(task -> {
-                    try {
-                        task.future.cancel(false);
-                    } catch (Exception e) {
-                        logger.with("error", e.getMessage()).error("Error cancelling task", e);
-                    }
-                });
-                scheduledTasks.clear();
+                if (schedulingEngine != null) {
+                    schedulingEngine.close();
+                }
             } catch (Exception e) {
                 logger.with("error", e.getMessage()).error("Error cancelling scheduled tasks", e);
             }
             
+            if (admissionThread != null) {
+                admissionThread.interrupt();
+            }
+            
             // Shutdown executors
             if (scheduler != null) {
                 scheduler.shutdown();
@@ -155,11 +186,19 @@ public class VirtualThreadPingExecutor {
     }
     
     /**
-     * Schedule a ping task with the specified interval
+     * Schedule a ping task with the specified interval, pinging right away
      */
     public void schedulePing(PingTask task, Duration interval) {
+        schedulePing(task, Duration.ZERO, interval);
+    }
+    
+    /**
+     * Schedule a ping task with the specified interval
+     * @param initialDelay Delay before the first ping
+     */
+    public void schedulePing(PingTask task, Duration initialDelay, Duration interval) {
         try {
-            if (task == null || interval == null) {
+            if (task == null || initialDelay == null || interval == null) {
                 logger.with("method", "schedulePing")
                       .with("task", task)
                       .with("interval", interval)
@@ -174,26 +213,30 @@ public class VirtualThreadPingExecutor {
                 return;
             }
             
-            String key = task.getDeviceId().toString();
-            
-            // Cancel existing task if present
-            cancelPing(task.getDeviceId());
-            
-            // Schedule new task
-            ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
-                () -> executePingAsync(task),
-                0,
-                interval.toMillis(),
-                TimeUnit.MILLISECONDS
-            );
-            
-            scheduledTasks.put(key, new ScheduledPingTask(task, future));
-            logger.with("deviceId", key).with("intervalMs", interval.toMillis()).debug("Scheduled ping for device with interval");
+            // Replaces any existing schedule for the device
+            schedulingEngine.schedule(task, initialDelay, interval);
+            logger.with("deviceId", task.getDeviceId()).with("intervalMs", interval.toMillis()).with("initialDelayMs", initialDelay.toMillis()).debug("Scheduled ping for device with interval");
         } catch (Exception e) {
             logger.with("deviceId", task != null ? task.getDeviceId() : "null").error("Error scheduling ping for device", e);
         }
     }
     
+    /**
+     * Replace the schedule of a device that is already being pinged
+     * @param initialDelay Delay before the next ping
+     */
+    public void reschedulePing(PingTask task, Duration initialDelay, Duration interval) {
+        if (!running.get()) {
+            return;
+        }
+        try {
+            schedulingEngine.schedule(task, initialDelay, interval);
+            logger.with("deviceId", task.getDeviceId()).with("intervalMs", interval.toMillis()).debug("Rescheduled ping for device");
+        } catch (Exception e) {
+            logger.with("deviceId", task.getDeviceId()).error("Error rescheduling ping for device", e);
+        }
+    }
+    
     /**
      * Cancel a scheduled ping
      */
@@ -206,24 +249,43 @@ public class VirtualThreadPingExecutor {
                 return;
             }
             
-            String key = deviceId.toString();
-            ScheduledPingTask scheduledTask = scheduledTasks.remove(key);
-            
-            if (scheduledTask != null) {
-                try {
-                    scheduledTask.future.cancel(false);
-                    logger.with("deviceId", key).debug("Cancelled ping for device");
-                } catch (Exception e) {
-                    logger.with("deviceId", key).error("Error cancelling future for device", e);
-                }
+            if (schedulingEngine != null && schedulingEngine.cancel(deviceId)) {
+                logger.with("deviceId", deviceId).debug("Cancelled ping for device");
             }
+            recentResultsCache.evict(deviceId);
+            latencyHistograms.evict(deviceId);
         } catch (Exception e) {
             logger.with("deviceId", deviceId).error("Error cancelling ping for device", e);
         }
     }
     
+    private void registerGauges() {
+        meters.gauge("ping.probes.active", "Pings currently running on virtual threads", activePings, AtomicInteger::get);
+        meters.gauge("ping.targets.scheduled", "Devices with a recurring ping schedule", schedulingEngine, PingSchedulingEngine::size);
+        meters.queueDepth("admission", admissionQueue, PingAdmissionQueue::size);
+    }
+    
     /**
-     * Execute ping asynchronously using virtual thread
+     * Create the scheduling engine selected by configuration
+     */
+    private PingSchedulingEngine createSchedulingEngine() {
+        if (TimingWheelSchedulingEngine.NAME.equalsIgnoreCase(config.getSchedulingEngine())) {
+            return new TimingWheelSchedulingEngine(structuredLoggerFactory, Duration.ofMillis(config.getBatchIntervalMs()));
+        }
+        return new ScheduledExecutorSchedulingEngine(scheduler);
+    }
+    
+    /**
+     * Hand a batch of due tasks to the virtual thread executor
+     */
+    private void dispatchDuePings(List<PingTask> tasks) {
+        for (PingTask task : tasks) {
+            executePingAsync(task);
+        }
+    }
+    
+    /**
+     * Execute ping asynchronously using virtual thread, or queue it for admission when every permit is taken
      */
     private void executePingAsync(PingTask task) {
         try {
@@ -231,14 +293,47 @@ public class VirtualThreadPingExecutor {
                 return;
             }
             
-            // Try to acquire permit (non-blocking)
-            if (!concurrencyLimiter.tryAcquire()) {
-                logger.with("deviceId", task.getDeviceId()).warn("Max concurrent pings reached, skipping ping for device");
-                recordSkippedPing(task);
+            // Waiting pings go first, so only take a permit directly when none are queued
+            if (admissionQueue.isEmpty() && concurrencyLimiter.tryAcquire()) {
+                submitPing(task);
                 return;
             }
             
-            // Submit to virtual thread executor
+            // Wait for a permit, but not past the point where the device's next ping is due
+            long maxWaitMs = Math.min(config.getAdmissionMaxWaitMs(), task.getIntervalMs());
+            if (!admissionQueue.offer(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs))) {
+                logger.with("deviceId", task.getDeviceId()).debug("Admission queue full, shedding ping for device");
+            }
+        } catch (Exception e) {
+            logger.with("deviceId", task != null ? task.getDeviceId() : "null").error("Error submitting ping task for device", e);
+        }
+    }
+    
+    /**
+     * Hand queued pings to virtual threads as permits free up
+     */
+    private void admitWaitingPings() {
+        while (running.get()) {
+            try {
+                PingTask task = admissionQueue.take(concurrencyLimiter);
+                if (!running.get()) {
+                    concurrencyLimiter.release();
+                    return;
+                }
+                submitPing(task);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                logger.with("error", e.getMessage()).error("Error admitting queued ping", e);
+            }
+        }
+    }
+    
+    /**
+     * Run a ping on a virtual thread; the caller has acquired a permit, which is released when the ping completes
+     */
+    private void submitPing(PingTask task) {
+        try {
             virtualThreadExecutor.submit(() -> {
                 try {
                     activePings.incrementAndGet();
@@ -259,8 +354,9 @@ public class VirtualThreadPingExecutor {
                     concurrencyLimiter.release();
                 }
             });
-        } catch (Exception e) {
-            logger.with("deviceId", task != null ? task.getDeviceId() : "null").error("Error submitting ping task for device", e);
+        } catch (RejectedExecutionException e) {
+            concurrencyLimiter.release();
+            logger.with("deviceId", task.getDeviceId()).debug("Executor shut down, not running ping for device");
         }
     }
     
@@ -290,30 +386,36 @@ public class VirtualThreadPingExecutor {
     }
     
     /**
-     * Process and save ping result
+     * Process and save ping result, through the write-behind queue when it is enabled
      */
     private void processPingResult(PingResult result) {
         try {
-            pingResultRepository.save(result);
+            recentResultsCache.record(result);
+            latencyHistograms.record(result);
+            if (resultWriteBehind.isEnabled()) {
+                if (!resultWriteBehind.submit(result)) {
+                    logger.with("deviceId", result.getDeviceId()).debug("Result queue full, dropping ping result for device");
+                }
+            } else {
+                ResultPersistedEvent persisted = new ResultPersistedEvent();
+                persisted.begin();
+                long startNanos = System.nanoTime();
+                pingResultRepository.save(result);
+                meters.recordResultWrite("single", System.nanoTime() - startNanos);
+                persisted.end();
+                if (persisted.shouldCommit()) {
+                    persisted.rows = 1;
+                    persisted.mode = "single";
+                    persisted.succeeded = true;
+                    persisted.commit();
+                }
+            }
             eventPublisher.publishEvent(new PingResultEvent(result));
         } catch (Exception e) {
             logger.with("deviceId", result.getDeviceId()).error("Failed to process ping result for device", e);
         }
     }
     
-    /**
-     * Record a skipped ping due to overload
-     */
-    private void recordSkippedPing(PingTask task) {
-        PingResult result = PingResult.builder()
-                .time(Instant.now())
-                .deviceId(task.getDeviceId())
-                .status(PingStatus.SKIPPED)
-                .build();
-        
-        processPingResult(result);
-    }
-    
     /**
      * Record a failed ping
      */
@@ -332,6 +434,8 @@ public class VirtualThreadPingExecutor {
      */
     private void logMetrics() {
         logger.with("activePings", activePings.get())
+              .with("waitingPings", admissionQueue.size())
+              .with("droppedPings", admissionQueue.droppedCount())
               .with("totalPingsExecuted", totalPingsExecuted.get())
               .with("successfulPings", successfulPings.get())
               .with("failedPings", failedPings.get())
@@ -340,6 +444,13 @@ public class VirtualThreadPingExecutor {
               .info("Ping Executor Metrics");
     }
     
+    /**
+     * Pings dropped by admission control since startup, for callers that back off under overload
+     */
+    public long getDroppedPings() {
+        return admissionQueue != null ? admissionQueue.droppedCount() : 0;
+    }
+    
     /**
      * Get current metrics
      */
@@ -349,13 +460,10 @@ public class VirtualThreadPingExecutor {
             "totalPingsExecuted", totalPingsExecuted.get(),
             "successfulPings", successfulPings.get(),
             "failedPings", failedPings.get(),
-            "scheduledTasks", scheduledTasks.size(),
-            "maxConcurrentPings", maxConcurrentPings
+            "scheduledTasks", schedulingEngine != null ? schedulingEngine.size() : 0,
+            "maxConcurrentPings", maxConcurrentPings,
+            "admission", admissionQueue != null ? admissionQueue.getMetrics() : Map.of(),
+            "schedulingEngine", schedulingEngine != null ? schedulingEngine.getMetrics() : Map.of()
         );
     }
-    
-    /**
-     * Container for scheduled ping task
-     */
-    private record ScheduledPingTask(PingTask task, ScheduledFuture<?> future) {}
 }
\ No newline at end of file
@@ -6,7 +6,10 @@
  * <ul>
  *   <li>{@link io.thatworked.support.ping.infrastructure.executor.VirtualThreadPingExecutor} - Virtual thread-based executor</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.executor.PingExecutorAdapter} - Adapter for domain port</li>
- *   <li>{@link io.thatworked.support.ping.infrastructure.executor.BatchPingProcessor} - Batch ping processing</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.executor.PingSchedulingEngine} - Scheduling engine abstraction</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.executor.ScheduledExecutorSchedulingEngine} - One fixed-rate task per device</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.executor.TimingWheelSchedulingEngine} - Hierarchical timing wheel with batched dispatch</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.executor.AdaptiveIntervalController} - Per-device intervals under a global probe budget</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.executor.PingExecutionDelegate} - Ping execution delegation</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.executor.PingCircuitBreaker} - Circuit breaker for resilience</li>
  * </ul>
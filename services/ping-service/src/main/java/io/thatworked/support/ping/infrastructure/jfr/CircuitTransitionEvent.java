@@ -0,0 +1,34 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A device's circuit breaker changed state
+ */
+@Name("io.thatworked.ping.CircuitTransition")
+@Label("Circuit Transition")
+@Category({"Ping Service", "Circuit Breaker"})
+@Description("A device's circuit breaker changed state")
+@StackTrace(false)
+public class CircuitTransitionEvent extends Event {
+    
+    @Label("Device Slot")
+    public int slot;
+    
+    @Label("Device ID")
+    public String deviceId;
+    
+    @Label("From State")
+    public String fromState;
+    
+    @Label("To State")
+    public String toState;
+    
+    @Label("Consecutive Failures")
+    public int failures;
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.FlightRecorderConfig;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One Flight Recorder recording, started and dumped on demand.
+ *
+ * <p>The recording uses the configured JDK settings, which already cover GC pauses, virtual thread
+ * pinning and safepoints, and enables the ping service's own events on top. Data is kept on disk
+ * in a ring buffer bounded by age and size, so a recording can stay on while waiting for a
+ * problem and be dumped right after it. The ping service events only cost anything while a
+ * recording is running.
+ */
+@Component
+public class FlightRecordings {
+    
+    private static final String RECORDING_NAME = "ping-service";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    
+    private static final Class<?>[] PING_EVENTS = {
+        ProbeScheduledEvent.class,
+        ProbeSentEvent.class,
+        ReplyReceivedEvent.class,
+        ResultPersistedEvent.class,
+        ResultPublishedEvent.class,
+        CircuitTransitionEvent.class
+    };
+    
+    private final StructuredLogger logger;
+    private final FlightRecorderConfig config;
+    
+    // Guarded by this
+    private Recording recording;
+    
+    public FlightRecordings(StructuredLoggerFactory structuredLoggerFactory, FlightRecorderConfig config) {
+        this.logger = structuredLoggerFactory.getLogger(FlightRecordings.class);
+        this.config = config;
+    }
+    
+    /**
+     * Start the recording unless it is already running
+     * @return Recording status
+     */
+    public synchronized Map<String, Object> start() throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return getStatus();
+        }
+        
+        Recording started = new Recording(Configuration.getConfiguration(config.getSettings()));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofMinutes(config.getMaxAgeMinutes()));
+        started.setMaxSize(config.getMaxSizeMb() * 1024 * 1024);
+        for (Class<?> event : PING_EVENTS) {
+            started.enable(event.getName()).withoutStackTrace();
+        }
+        started.start();
+        recording = started;
+        
+        logger.with("settings", config.getSettings())
+              .with("maxAgeMinutes", config.getMaxAgeMinutes())
+              .with("maxSizeMb", config.getMaxSizeMb())
+              .info("Flight recording started");
+        return getStatus();
+    }
+    
+    /**
+     * Write what the running recording holds to a new file in the recording directory
+     * @return Path and size of the dump
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized Map<String, Object> dump() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+        
+        Path directory = Path.of(config.getDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve(RECORDING_NAME + "-" + FILE_TIME.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        
+        long bytes = Files.size(file);
+        logger.with("file", file.toString()).with("bytes", bytes).info("Flight recording dumped");
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.toString());
+        result.put("bytes", bytes);
+        return result;
+    }
+    
+    /**
+     * Stop and discard the recording; dump it first to keep the data
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.close();
+            logger.with("name", RECORDING_NAME).info("Flight recording stopped");
+        } catch (Exception e) {
+            logger.with("error", e.getMessage()).error("Error stopping flight recording", e);
+        } finally {
+            recording = null;
+        }
+    }
+    
+    /**
+     * Get recording status
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState().name() : RecordingState.CLOSED.name());
+        status.put("settings", config.getSettings());
+        status.put("directory", config.getDirectory());
+        if (recording != null) {
+            status.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+            status.put("bytesOnDisk", recording.getSize());
+            status.put("maxAgeMinutes", config.getMaxAgeMinutes());
+            status.put("maxSizeMb", config.getMaxSizeMb());
+        }
+        return status;
+    }
+}
\ No newline at end of file
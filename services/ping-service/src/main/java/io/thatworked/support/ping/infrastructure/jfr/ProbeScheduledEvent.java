@@ -0,0 +1,31 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A scheduled ping started running, with how late it started against its due time
+ */
+@Name("io.thatworked.ping.ProbeScheduled")
+@Label("Probe Scheduled")
+@Category({"Ping Service", "Probe"})
+@Description("A scheduled ping started running")
+@StackTrace(false)
+public class ProbeScheduledEvent extends Event {
+    
+    @Label("Device Slot")
+    public int slot;
+    
+    @Label("Device ID")
+    public String deviceId;
+    
+    @Label("Schedule Lag")
+    @Description("Time between when the ping was due and when it started")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lag;
+}
\ No newline at end of file
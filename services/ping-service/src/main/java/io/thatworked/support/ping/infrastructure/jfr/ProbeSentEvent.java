@@ -0,0 +1,30 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A probe was handed to a probe engine, after the target name was resolved
+ */
+@Name("io.thatworked.ping.ProbeSent")
+@Label("Probe Sent")
+@Category({"Ping Service", "Probe"})
+@Description("A probe was handed to a probe engine")
+@StackTrace(false)
+public class ProbeSentEvent extends Event {
+    
+    @Label("Device Slot")
+    public int slot;
+    
+    @Label("Probe Type")
+    public String probeType;
+    
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    public long timeout;
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The probe engine answered. The event spans the wait from send to answer, so a long duration with
+ * a short round trip time points at the pinging thread rather than the network.
+ */
+@Name("io.thatworked.ping.ReplyReceived")
+@Label("Reply Received")
+@Category({"Ping Service", "Probe"})
+@Description("A probe engine answered a probe; the duration is the wait for the answer")
+@StackTrace(false)
+public class ReplyReceivedEvent extends Event {
+    
+    @Label("Device Slot")
+    public int slot;
+    
+    @Label("Probe Type")
+    public String probeType;
+    
+    @Label("Reachable")
+    public boolean reachable;
+    
+    @Label("Round Trip Time")
+    @Description("Round trip time measured by the engine, 0 when unreachable")
+    @Timespan(Timespan.NANOSECONDS)
+    public long rtt;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ping results were written to the database, either one result directly or a write-behind batch
+ */
+@Name("io.thatworked.ping.ResultPersisted")
+@Label("Result Persisted")
+@Category({"Ping Service", "Persistence"})
+@Description("Ping results were written to the database; the duration is the write")
+@StackTrace(false)
+public class ResultPersistedEvent extends Event {
+    
+    @Label("Rows")
+    public int rows;
+    
+    @Label("Write Mode")
+    public String mode;
+    
+    @Label("Succeeded")
+    public boolean succeeded;
+}
\ No newline at end of file
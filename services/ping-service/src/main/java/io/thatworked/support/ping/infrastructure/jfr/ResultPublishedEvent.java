@@ -0,0 +1,26 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A ping result event was acknowledged or failed by Kafka. The event spans the send until the
+ * broker answered and is committed on the producer's callback thread.
+ */
+@Name("io.thatworked.ping.ResultPublished")
+@Label("Result Published")
+@Category({"Ping Service", "Messaging"})
+@Description("A ping result event was sent to Kafka; the duration is the wait for the broker")
+@StackTrace(false)
+public class ResultPublishedEvent extends Event {
+    
+    @Label("Device ID")
+    public String deviceId;
+    
+    @Label("Acknowledged")
+    public boolean acknowledged;
+}
\ No newline at end of file
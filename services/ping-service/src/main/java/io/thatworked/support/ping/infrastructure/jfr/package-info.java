@@ -0,0 +1,19 @@
+/**
+ * Java Flight Recorder events for the ping pipeline, and the recording that collects them on demand.
+ *
+ * <p>Events are committed only while a recording is running, so they can be left in the hot path.
+ * Each carries the device slot or ID, timing fields and outcome, so missed deadlines can be lined
+ * up with GC pauses, virtual thread pinning and carrier thread starvation in the same recording.
+ *
+ * <p>Flight recorder components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.FlightRecordings} - Starts and dumps the recording</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.ProbeScheduledEvent} - A scheduled ping started, with its schedule lag</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.ProbeSentEvent} - A probe was handed to a probe engine</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.ReplyReceivedEvent} - The probe engine answered</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.ResultPersistedEvent} - A result or write-behind batch was written</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.ResultPublishedEvent} - Kafka acknowledged or failed a result event</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.jfr.CircuitTransitionEvent} - A circuit breaker changed state</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.jfr;
\ No newline at end of file
@@ -0,0 +1,139 @@
+package io.thatworked.support.ping.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.domain.ProbeType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the ping pipeline, exported through the actuator Prometheus endpoint.
+ *
+ * <p>Every tag comes from a small fixed set (probe type, ping status, write mode, send result,
+ * queue name), never from a device, address or hostname, so the number of series stays constant
+ * however many devices are monitored. Timers for the hot path are created once up front and
+ * recorded without a registry lookup. Histogram buckets and percentiles are configured under
+ * {@code management.metrics.distribution} rather than here.
+ */
+@Component
+public class PingMeters {
+    
+    public static final String PROBE_RTT = "ping.probe.rtt";
+    public static final String PROBE_DURATION = "ping.probe.duration";
+    public static final String SCHEDULE_LAG = "ping.schedule.lag";
+    public static final String RESULT_WRITE = "ping.result.write";
+    public static final String RESULT_PUBLISH = "ping.result.publish";
+    public static final String QUEUE_DEPTH = "ping.queue.depth";
+    
+    private final MeterRegistry registry;
+    private final Map<ProbeType, Timer> probeRtt = new EnumMap<>(ProbeType.class);
+    private final Map<ProbeType, Map<PingStatus, Timer>> probeDuration = new EnumMap<>(ProbeType.class);
+    private final Timer scheduleLag;
+    private final Timer publishAcknowledged;
+    private final Timer publishFailed;
+    private final Map<String, Timer> resultWrites = new ConcurrentHashMap<>();
+    
+    public PingMeters(MeterRegistry registry) {
+        this.registry = registry;
+        for (ProbeType type : ProbeType.values()) {
+            probeRtt.put(type, Timer.builder(PROBE_RTT)
+                .description("Round trip time reported by reachable probes")
+                .tag("probe", tagValue(type.name()))
+                .register(registry));
+            
+            Map<PingStatus, Timer> byStatus = new EnumMap<>(PingStatus.class);
+            for (PingStatus status : PingStatus.values()) {
+                byStatus.put(status, Timer.builder(PROBE_DURATION)
+                    .description("Wall time of a ping including name resolution and retries")
+                    .tag("probe", tagValue(type.name()))
+                    .tag("status", tagValue(status.name()))
+                    .register(registry));
+            }
+            probeDuration.put(type, byStatus);
+        }
+        this.scheduleLag = Timer.builder(SCHEDULE_LAG)
+            .description("How late a ping started compared to when it was due")
+            .register(registry);
+        this.publishAcknowledged = publishTimer("acknowledged");
+        this.publishFailed = publishTimer("failed");
+    }
+    
+    private Timer publishTimer(String result) {
+        return Timer.builder(RESULT_PUBLISH)
+            .description("Time from sending a ping result event to Kafka until the broker answered")
+            .tag("result", result)
+            .register(registry);
+    }
+    
+    /**
+     * Record the round trip time of a reachable probe
+     */
+    public void recordProbeRtt(ProbeType type, long rttNanos) {
+        probeRtt.get(type).record(rttNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record how long a ping took from start to result
+     */
+    public void recordProbeDuration(ProbeType type, PingStatus status, long elapsedNanos) {
+        probeDuration.get(type).get(status).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record how far behind its due time a ping started
+     */
+    public void recordScheduleLag(long lagNanos) {
+        scheduleLag.record(lagNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record one database write of ping results
+     * @param mode How the rows were written, one of a few fixed values such as copy, insert or single
+     */
+    public void recordResultWrite(String mode, long elapsedNanos) {
+        resultWrites.computeIfAbsent(mode, key -> Timer.builder(RESULT_WRITE)
+                .description("Time to write a batch of ping results to the database")
+                .tag("mode", key)
+                .register(registry))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record the time until Kafka acknowledged or failed a ping result event
+     */
+    public void recordPublish(boolean acknowledged, long elapsedNanos) {
+        (acknowledged ? publishAcknowledged : publishFailed).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Register a gauge read from a long-lived component whenever metrics are scraped
+     */
+    public <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value)
+            .description(description)
+            .register(registry);
+    }
+    
+    /**
+     * Register the depth of one of the pipeline's queues
+     * @param queue Short fixed queue name used as the tag value
+     */
+    public <T> void queueDepth(String queue, T source, ToDoubleFunction<T> depth) {
+        Gauge.builder(QUEUE_DEPTH, source, depth)
+            .description("Items waiting in a ping pipeline queue")
+            .tag("queue", queue)
+            .register(registry);
+    }
+    
+    private static String tagValue(String enumName) {
+        return enumName.toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+/**
+ * Micrometer instrumentation of the ping pipeline.
+ *
+ * <p>Metrics components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.metrics.PingMeters} - Timers, histograms and gauges with bounded tags for probes, scheduling, database writes, Kafka sends and queues</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.metrics;
\ No newline at end of file
@@ -5,15 +5,20 @@
  * <p>Key components:
  * <ul>
  *   <li>{@link io.thatworked.support.ping.infrastructure.adapter} - Port adapter implementations</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.cache} - In-memory result caches</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.client} - External service clients</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.config} - Configuration classes</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.consumer} - Message consumers</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.entity} - JPA entities</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.event} - Event handling</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.executor} - Ping execution implementation</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe} - Probe engines</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.publisher} - Event publishing</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.repository} - Repository implementations</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.scheduler} - Scheduling infrastructure</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard} - Probe ownership across instances</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.snapshot} - Local state snapshot for warm restarts</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.writer} - Write-behind ping result persistence</li>
  * </ul>
  */
 package io.thatworked.support.ping.infrastructure;
\ No newline at end of file
@@ -0,0 +1,193 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine that hedges every probe instead of retrying it.
+ *
+ * <p>The first echo goes out at once and each further echo one hedge delay after the previous one,
+ * each through the wrapped engine on its own virtual thread. The first reply completes the probe;
+ * hedges that are not yet due by then are never sent. The whole set shares one timeout, counted
+ * from the first echo, so a dead host costs a single timeout rather than one per attempt plus the
+ * retry delays. Whichever of the echoes, the timeout or the last failed echo settles the probe
+ * first is recorded before the probe completes, so the metrics already count it when the caller
+ * sees the outcome.
+ */
+public class HedgedProbeEngine implements ProbeEngine, AutoCloseable {
+
+    public static final String NAME = "hedged";
+
+    private final ProbeEngine delegate;
+    private final long hedgeDelayMs;
+    private final int attempts;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Metrics
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder echoesSent = new LongAdder();
+    private final LongAdder hedgesSkipped = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicLongArray wins;
+
+    /**
+     * @param delegate Engine that sends each echo
+     * @param hedgeDelayMs Delay between consecutive echoes of one probe
+     * @param hedges Echoes sent after the first one, at most
+     */
+    public HedgedProbeEngine(ProbeEngine delegate, long hedgeDelayMs, int hedges) {
+        if (hedgeDelayMs < 1 || hedges < 0) {
+            throw new IllegalArgumentException("Invalid hedging: delay " + hedgeDelayMs + "ms, hedges " + hedges);
+        }
+        this.delegate = delegate;
+        this.hedgeDelayMs = hedgeDelayMs;
+        this.attempts = hedges + 1;
+        this.wins = new AtomicLongArray(attempts);
+    }
+
+    @Override
+    public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+        probes.increment();
+        CompletableFuture<ProbeOutcome> result = new CompletableFuture<>();
+        HedgedProbe probe = new HedgedProbe(address, timeoutMs, result);
+
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            long offsetMs = attempt * hedgeDelayMs;
+            // Hedges that would start after the shared timeout can never answer in time
+            if (offsetMs >= timeoutMs) {
+                probe.skip(attempts - attempt);
+                break;
+            }
+            int index = attempt;
+            Executor sendExecutor = offsetMs == 0
+                ? executor
+                : CompletableFuture.delayedExecutor(offsetMs, TimeUnit.MILLISECONDS, executor);
+            sendExecutor.execute(() -> probe.send(index, offsetMs));
+        }
+
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(probe::expire);
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return NAME + "-" + delegate.name();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        List<Long> wonByAttempt = new ArrayList<>(attempts);
+        long rescued = 0;
+        for (int i = 0; i < attempts; i++) {
+            wonByAttempt.add(wins.get(i));
+            if (i > 0) {
+                rescued += wins.get(i);
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("engine", name());
+        metrics.put("hedgeDelayMs", hedgeDelayMs);
+        metrics.put("maxEchoesPerProbe", attempts);
+        metrics.put("probes", probes.sum());
+        metrics.put("echoesSent", echoesSent.sum());
+        metrics.put("hedgesSkipped", hedgesSkipped.sum());
+        metrics.put("wonByAttempt", wonByAttempt);
+        metrics.put("rescuedByHedge", rescued);
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("delegate", delegate.getMetrics());
+        return metrics;
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Waits for sends already running; hedges still delayed are rejected and the timeout settles their probes
+        executor.close();
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Echoes of one probe. Completed once an echo answers, once every echo has failed, or at the
+     * timeout, whichever settles it first.
+     */
+    private final class HedgedProbe {
+        final InetAddress address;
+        final int timeoutMs;
+        final CompletableFuture<ProbeOutcome> result;
+        final AtomicInteger outstanding = new AtomicInteger(attempts);
+        final AtomicInteger answered = new AtomicInteger();
+        final AtomicBoolean settled = new AtomicBoolean();
+        volatile Throwable lastError;
+
+        HedgedProbe(InetAddress address, int timeoutMs, CompletableFuture<ProbeOutcome> result) {
+            this.address = address;
+            this.timeoutMs = timeoutMs;
+            this.result = result;
+        }
+
+        void send(int attempt, long offsetMs) {
+            if (settled.get()) {
+                skip(1);
+                return;
+            }
+            echoesSent.increment();
+            CompletableFuture<ProbeOutcome> echo;
+            try {
+                echo = delegate.probe(address, (int) Math.max(1, timeoutMs - offsetMs));
+            } catch (RuntimeException e) {
+                echo = CompletableFuture.failedFuture(e);
+            }
+            echo.whenComplete((outcome, error) -> {
+                if (outcome != null) {
+                    answered.incrementAndGet();
+                    if (outcome.reachable() && settled.compareAndSet(false, true)) {
+                        wins.incrementAndGet(attempt);
+                        result.complete(outcome);
+                    }
+                } else {
+                    lastError = error;
+                }
+                finish(1);
+            });
+        }
+
+        void skip(int count) {
+            hedgesSkipped.add(count);
+            finish(count);
+        }
+
+        void expire() {
+            if (settled.compareAndSet(false, true)) {
+                timeouts.increment();
+                result.complete(ProbeOutcome.unreachable());
+            }
+        }
+
+        /**
+         * Complete the probe once no echo can still answer; it fails only if no echo could be sent
+         */
+        private void finish(int count) {
+            if (outstanding.addAndGet(-count) > 0 || !settled.compareAndSet(false, true)) {
+                return;
+            }
+            if (answered.get() == 0 && lastError != null) {
+                result.completeExceptionally(lastError);
+            } else {
+                result.complete(ProbeOutcome.unreachable());
+            }
+        }
+    }
+}
\ No newline at end of file
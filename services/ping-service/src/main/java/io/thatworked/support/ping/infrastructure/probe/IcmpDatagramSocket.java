@@ -0,0 +1,323 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Linux unprivileged ICMP datagram socket ({@code socket(AF_INET, SOCK_DGRAM, IPPROTO_ICMP)})
+ * bound through the Java FFM API.
+ *
+ * <p>The kernel owns the echo identifier (the socket's local "port"), computes checksums and
+ * strips the IP header from replies. Receive timestamps come from {@code SO_TIMESTAMPNS}.
+ * Requires the process group to be inside {@code net.ipv4.ping_group_range}.
+ *
+ * <p>Native scratch memory is owned by the calling thread through {@link Buffers}; the socket
+ * itself may be used from one sending and one receiving thread concurrently.
+ */
+final class IcmpDatagramSocket implements AutoCloseable {
+
+    // Linux x86_64 / aarch64 constants
+    private static final int AF_INET = 2;
+    private static final int SOCK_DGRAM = 2;
+    private static final int IPPROTO_ICMP = 1;
+    private static final int SOL_SOCKET = 1;
+    private static final int SO_RCVBUF = 8;
+    private static final int SO_RCVTIMEO = 20;
+    private static final int SO_TIMESTAMPNS = 35;
+    private static final int SCM_TIMESTAMPNS = SO_TIMESTAMPNS;
+    private static final int CLOCK_REALTIME = 0;
+    private static final int EAGAIN = 11;
+    private static final int EINTR = 4;
+
+    static final int SOCKADDR_IN_SIZE = 16;
+    static final int ICMP_HEADER_SIZE = 8;
+    static final int ICMP_ECHO_REQUEST = 8;
+    static final int ICMP_ECHO_REPLY = 0;
+
+    // struct msghdr offsets (LP64)
+    private static final long MSG_NAME = 0;
+    private static final long MSG_NAMELEN = 8;
+    private static final long MSG_IOV = 16;
+    private static final long MSG_IOVLEN = 24;
+    private static final long MSG_CONTROL = 32;
+    private static final long MSG_CONTROLLEN = 40;
+    private static final long MSGHDR_SIZE = 56;
+    private static final long CMSG_HEADER_SIZE = 16;
+
+    static final ValueLayout.OfShort NET_SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfInt NET_INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final StructLayout CAPTURE_LAYOUT = Linker.Option.captureStateLayout();
+    private static final long ERRNO_OFFSET = CAPTURE_LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement("errno"));
+    private static final Linker.Option CAPTURE_ERRNO = Linker.Option.captureCallState("errno");
+
+    private static final MethodHandle SOCKET = downcall("socket",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+    private static final MethodHandle SETSOCKOPT = downcall("setsockopt",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT,
+            ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+    private static final MethodHandle BIND = downcall("bind",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+    private static final MethodHandle GETSOCKNAME = downcall("getsockname",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS));
+    private static final MethodHandle SENDTO = downcall("sendto",
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG,
+            ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+    private static final MethodHandle RECVMSG = downcall("recvmsg",
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+    private static final MethodHandle CLOCK_GETTIME = downcall("clock_gettime",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+    private static final MethodHandle CLOSE = downcall("close",
+        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+
+    private final int fd;
+    private final int identifier;
+    private volatile boolean closed;
+
+    private IcmpDatagramSocket(int fd, int identifier) {
+        this.fd = fd;
+        this.identifier = identifier;
+    }
+
+    /**
+     * Open and bind a new ICMP datagram socket
+     * @param receiveTimeoutMs Upper bound for a single blocking receive, so the reader can sweep timeouts
+     * @param receiveBufferBytes Requested SO_RCVBUF, capped by net.core.rmem_max
+     */
+    static IcmpDatagramSocket open(int receiveTimeoutMs, int receiveBufferBytes) throws IOException {
+        if (!isSupportedPlatform()) {
+            throw new IOException("ICMP datagram sockets require 64-bit Linux");
+        }
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment errno = arena.allocate(CAPTURE_LAYOUT);
+
+            int fd = (int) SOCKET.invokeExact(errno, AF_INET, SOCK_DGRAM, IPPROTO_ICMP);
+            if (fd < 0) {
+                throw new IOException("socket(AF_INET, SOCK_DGRAM, IPPROTO_ICMP) failed, errno " + errno(errno)
+                    + " - check net.ipv4.ping_group_range");
+            }
+
+            try {
+                MemorySegment one = arena.allocate(ValueLayout.JAVA_INT);
+                one.set(ValueLayout.JAVA_INT, 0, 1);
+                check((int) SETSOCKOPT.invokeExact(errno, fd, SOL_SOCKET, SO_TIMESTAMPNS, one, 4), errno, "setsockopt(SO_TIMESTAMPNS)");
+
+                // Reply bursts from thousands of targets overflow the default receive buffer
+                MemorySegment receiveBuffer = arena.allocate(ValueLayout.JAVA_INT);
+                receiveBuffer.set(ValueLayout.JAVA_INT, 0, receiveBufferBytes);
+                check((int) SETSOCKOPT.invokeExact(errno, fd, SOL_SOCKET, SO_RCVBUF, receiveBuffer, 4), errno, "setsockopt(SO_RCVBUF)");
+
+                MemorySegment timeval = arena.allocate(16, 8);
+                timeval.set(ValueLayout.JAVA_LONG, 0, receiveTimeoutMs / 1000L);
+                timeval.set(ValueLayout.JAVA_LONG, 8, (receiveTimeoutMs % 1000L) * 1000L);
+                check((int) SETSOCKOPT.invokeExact(errno, fd, SOL_SOCKET, SO_RCVTIMEO, timeval, 16), errno, "setsockopt(SO_RCVTIMEO)");
+
+                // Bind to an ephemeral identifier so it is known before the first send
+                MemorySegment local = arena.allocate(SOCKADDR_IN_SIZE, 4);
+                local.set(ValueLayout.JAVA_SHORT, 0, (short) AF_INET);
+                check((int) BIND.invokeExact(errno, fd, local, SOCKADDR_IN_SIZE), errno, "bind");
+
+                MemorySegment length = arena.allocate(ValueLayout.JAVA_INT);
+                length.set(ValueLayout.JAVA_INT, 0, SOCKADDR_IN_SIZE);
+                check((int) GETSOCKNAME.invokeExact(errno, fd, local, length), errno, "getsockname");
+                int identifier = Short.toUnsignedInt(local.get(NET_SHORT, 2));
+
+                return new IcmpDatagramSocket(fd, identifier);
+            } catch (IOException e) {
+                closeQuietly(fd);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IOException("Native ICMP socket setup failed", t);
+        }
+    }
+
+    /**
+     * Echo identifier assigned by the kernel to this socket
+     */
+    int identifier() {
+        return identifier;
+    }
+
+    /**
+     * Send a prepared ICMP packet
+     * @return 0 on success, otherwise the errno reported by sendto
+     */
+    int send(Buffers buffers, int length) throws IOException {
+        try {
+            long sent = (long) SENDTO.invokeExact(buffers.errno, fd, buffers.packet, (long) length, 0,
+                buffers.address, SOCKADDR_IN_SIZE);
+            return sent < 0 ? errno(buffers.errno) : 0;
+        } catch (Throwable t) {
+            throw new IOException("sendto failed", t);
+        }
+    }
+
+    /**
+     * Receive one datagram into {@link Buffers#packet}
+     * @return Number of bytes received, or -1 when the receive timeout expired
+     */
+    int receive(Buffers buffers) throws IOException {
+        MemorySegment msg = buffers.message;
+        msg.set(ValueLayout.JAVA_INT, MSG_NAMELEN, SOCKADDR_IN_SIZE);
+        msg.set(ValueLayout.JAVA_LONG, MSG_CONTROLLEN, buffers.control.byteSize());
+        buffers.kernelTimestampNanos = 0L;
+
+        long received;
+        try {
+            received = (long) RECVMSG.invokeExact(buffers.errno, fd, msg, 0);
+        } catch (Throwable t) {
+            throw new IOException("recvmsg failed", t);
+        }
+
+        if (received < 0) {
+            int errno = errno(buffers.errno);
+            if (errno == EAGAIN || errno == EINTR) {
+                return -1;
+            }
+            if (closed) {
+                return -1;
+            }
+            throw new IOException("recvmsg failed, errno " + errno);
+        }
+
+        long controlLength = msg.get(ValueLayout.JAVA_LONG, MSG_CONTROLLEN);
+        long offset = 0;
+        while (offset + CMSG_HEADER_SIZE <= controlLength) {
+            long cmsgLength = buffers.control.get(ValueLayout.JAVA_LONG, offset);
+            int level = buffers.control.get(ValueLayout.JAVA_INT, offset + 8);
+            int type = buffers.control.get(ValueLayout.JAVA_INT, offset + 12);
+            if (cmsgLength < CMSG_HEADER_SIZE) {
+                break;
+            }
+            if (level == SOL_SOCKET && type == SCM_TIMESTAMPNS) {
+                long seconds = buffers.control.get(ValueLayout.JAVA_LONG, offset + CMSG_HEADER_SIZE);
+                long nanos = buffers.control.get(ValueLayout.JAVA_LONG, offset + CMSG_HEADER_SIZE + 8);
+                buffers.kernelTimestampNanos = seconds * 1_000_000_000L + nanos;
+            }
+            offset += (cmsgLength + 7) & ~7L;
+        }
+
+        return (int) received;
+    }
+
+    /**
+     * CLOCK_REALTIME in nanoseconds, the same clock as SO_TIMESTAMPNS
+     */
+    long realtimeNanos(Buffers buffers) {
+        try {
+            int rc = (int) CLOCK_GETTIME.invokeExact(buffers.errno, CLOCK_REALTIME, buffers.timespec);
+            if (rc != 0) {
+                return 0L;
+            }
+            return buffers.timespec.get(ValueLayout.JAVA_LONG, 0) * 1_000_000_000L
+                + buffers.timespec.get(ValueLayout.JAVA_LONG, 8);
+        } catch (Throwable t) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            closeQuietly(fd);
+        }
+    }
+
+    static boolean isSupportedPlatform() {
+        return System.getProperty("os.name", "").toLowerCase().contains("linux")
+            && ValueLayout.ADDRESS.byteSize() == 8;
+    }
+
+    private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+        return LINKER.defaultLookup().find(name)
+            .map(symbol -> LINKER.downcallHandle(symbol, descriptor, CAPTURE_ERRNO))
+            .orElse(null);
+    }
+
+    private static int errno(MemorySegment capturedState) {
+        return capturedState.get(ValueLayout.JAVA_INT, ERRNO_OFFSET);
+    }
+
+    private static void check(int rc, MemorySegment errno, String call) throws IOException {
+        if (rc != 0) {
+            throw new IOException(call + " failed, errno " + errno(errno));
+        }
+    }
+
+    private static void closeQuietly(int fd) {
+        try (Arena arena = Arena.ofConfined()) {
+            int ignored = (int) CLOSE.invokeExact(arena.allocate(CAPTURE_LAYOUT), fd);
+        } catch (Throwable ignored) {
+            // Nothing useful to do if close fails
+        }
+    }
+
+    /**
+     * Per-thread native scratch memory for sending and receiving.
+     * Allocated once per thread so the hot path does not allocate.
+     */
+    static final class Buffers implements AutoCloseable {
+        final Arena arena;
+        final MemorySegment packet;
+        final MemorySegment address;
+        final MemorySegment errno;
+        final MemorySegment timespec;
+        final MemorySegment message;
+        final MemorySegment control;
+        long kernelTimestampNanos;
+
+        Buffers(int packetSize) {
+            this.arena = Arena.ofConfined();
+            this.packet = arena.allocate(packetSize, 8);
+            this.address = arena.allocate(SOCKADDR_IN_SIZE, 4);
+            this.errno = arena.allocate(CAPTURE_LAYOUT);
+            this.timespec = arena.allocate(16, 8);
+            this.control = arena.allocate(128, 8);
+            this.message = arena.allocate(MSGHDR_SIZE, 8);
+
+            MemorySegment iov = arena.allocate(16, 8);
+            iov.set(ValueLayout.ADDRESS, 0, packet);
+            iov.set(ValueLayout.JAVA_LONG, 8, packetSize);
+
+            message.set(ValueLayout.ADDRESS, MSG_NAME, address);
+            message.set(ValueLayout.ADDRESS, MSG_IOV, iov);
+            message.set(ValueLayout.JAVA_LONG, MSG_IOVLEN, 1L);
+            message.set(ValueLayout.ADDRESS, MSG_CONTROL, control);
+        }
+
+        /**
+         * Set the destination address from an IPv4 address in network byte order
+         */
+        void destination(int ipv4) {
+            address.fill((byte) 0);
+            address.set(ValueLayout.JAVA_SHORT, 0, (short) AF_INET);
+            address.set(NET_INT, 4, ipv4);
+        }
+
+        /**
+         * Source address of the last received datagram in network byte order
+         */
+        int source() {
+            return address.get(NET_INT, 4);
+        }
+
+        @Override
+        public void close() {
+            arena.close();
+        }
+    }
+}
\ No newline at end of file
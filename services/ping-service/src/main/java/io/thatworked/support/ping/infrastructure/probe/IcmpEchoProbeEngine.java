@@ -0,0 +1,326 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.io.IOException;
+import java.lang.foreign.ValueLayout;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ICMP echo engine that multiplexes all in-flight probes over one unprivileged ICMP datagram socket.
+ *
+ * <p>Callers enqueue an echo and get a future back. A single sender thread writes echo requests,
+ * and a single reader thread matches replies to pending probes by identifier, sequence and a
+ * per-probe token carried in the payload, then completes them with the kernel receive timestamp.
+ * The reader also expires probes whose deadline has passed.
+ *
+ * <p>The 16-bit sequence space bounds the number of probes in flight on one socket to 65536.
+ * Non-IPv4 addresses are handed to the fallback engine.
+ */
+public class IcmpEchoProbeEngine implements ProbeEngine, AutoCloseable {
+
+    public static final String NAME = "icmp";
+
+    private static final int MAX_IN_FLIGHT = 1 << 16;
+    private static final int PAYLOAD_SIZE = 16;
+    private static final int PACKET_SIZE = IcmpDatagramSocket.ICMP_HEADER_SIZE + PAYLOAD_SIZE;
+    private static final int RECEIVE_BUFFER_SIZE = 1500;
+    private static final int RECEIVE_TIMEOUT_MS = 20;
+    private static final int SEQUENCE_PROBE_LIMIT = 64;
+
+    private final IcmpDatagramSocket socket;
+    private final ProbeEngine fallback;
+    private final AtomicReferenceArray<PendingEcho> pending = new AtomicReferenceArray<>(MAX_IN_FLIGHT);
+    private final BlockingQueue<PendingEcho> sendQueue;
+    private final AtomicInteger nextSequence = new AtomicInteger();
+    private final AtomicLong nextToken = new AtomicLong(System.nanoTime());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Thread sender;
+    private final Thread reader;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder strayReplies = new LongAdder();
+    private final LongAdder kernelTimestamps = new LongAdder();
+
+    private IcmpEchoProbeEngine(IcmpDatagramSocket socket, int sendQueueCapacity, ProbeEngine fallback) {
+        this.socket = socket;
+        this.fallback = fallback;
+        this.sendQueue = new ArrayBlockingQueue<>(sendQueueCapacity);
+        this.sender = Thread.ofPlatform().name("icmp-echo-sender").daemon(true).unstarted(this::sendLoop);
+        this.reader = Thread.ofPlatform().name("icmp-echo-reader").daemon(true).unstarted(this::readLoop);
+    }
+
+    /**
+     * Open the ICMP socket and start the sender and reader threads
+     * @param sendQueueCapacity Maximum number of probes waiting to be written
+     * @param receiveBufferBytes Socket receive buffer size, sized for reply bursts
+     * @param fallback Engine used for addresses the ICMP socket cannot reach (IPv6)
+     * @throws IOException if the platform or kernel does not allow unprivileged ICMP sockets
+     */
+    public static IcmpEchoProbeEngine open(int sendQueueCapacity, int receiveBufferBytes, ProbeEngine fallback) throws IOException {
+        IcmpDatagramSocket socket = IcmpDatagramSocket.open(RECEIVE_TIMEOUT_MS, receiveBufferBytes);
+        IcmpEchoProbeEngine engine = new IcmpEchoProbeEngine(socket, sendQueueCapacity, fallback);
+        engine.sender.start();
+        engine.reader.start();
+        return engine;
+    }
+
+    @Override
+    public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+        if (!(address instanceof Inet4Address)) {
+            return fallback.probe(address, timeoutMs);
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("ICMP echo engine is closed"));
+        }
+
+        PendingEcho echo = new PendingEcho(
+            ByteBuffer.wrap(address.getAddress()).getInt(),
+            nextToken.incrementAndGet(),
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+
+        if (!reserveSequence(echo)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IOException("Too many ICMP echoes in flight"));
+        }
+
+        if (!sendQueue.offer(echo)) {
+            release(echo);
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IOException("ICMP send queue is full"));
+        }
+
+        return echo.future;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Echo identifier the kernel assigned to the engine's socket
+     */
+    public int identifier() {
+        return socket.identifier();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("engine", NAME);
+        metrics.put("identifier", socket.identifier());
+        metrics.put("inFlight", inFlight.get());
+        metrics.put("sendQueueDepth", sendQueue.size());
+        metrics.put("sent", sent.sum());
+        metrics.put("replies", replies.sum());
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("sendErrors", sendErrors.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("strayReplies", strayReplies.sum());
+        metrics.put("kernelTimestamps", kernelTimestamps.sum());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        sender.interrupt();
+        try {
+            sender.join(1000);
+            reader.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        socket.close();
+
+        IOException closed = new IOException("ICMP echo engine is closed");
+        for (int sequence = 0; sequence < MAX_IN_FLIGHT; sequence++) {
+            PendingEcho echo = pending.getAndSet(sequence, null);
+            if (echo != null) {
+                echo.future.completeExceptionally(closed);
+            }
+        }
+        inFlight.set(0);
+    }
+
+    private boolean reserveSequence(PendingEcho echo) {
+        for (int attempt = 0; attempt < SEQUENCE_PROBE_LIMIT; attempt++) {
+            int sequence = nextSequence.getAndIncrement() & 0xFFFF;
+            echo.sequence = sequence;
+            if (pending.compareAndSet(sequence, null, echo)) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean release(PendingEcho echo) {
+        if (pending.compareAndSet(echo.sequence, echo, null)) {
+            inFlight.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void sendLoop() {
+        try (IcmpDatagramSocket.Buffers buffers = new IcmpDatagramSocket.Buffers(PACKET_SIZE)) {
+            while (running) {
+                PendingEcho echo;
+                try {
+                    echo = sendQueue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (echo.future.isDone()) {
+                    continue;
+                }
+
+                buffers.packet.set(ValueLayout.JAVA_BYTE, 0, (byte) IcmpDatagramSocket.ICMP_ECHO_REQUEST);
+                buffers.packet.set(ValueLayout.JAVA_BYTE, 1, (byte) 0);
+                buffers.packet.set(IcmpDatagramSocket.NET_SHORT, 2, (short) 0);
+                buffers.packet.set(IcmpDatagramSocket.NET_SHORT, 4, (short) 0);
+                buffers.packet.set(IcmpDatagramSocket.NET_SHORT, 6, (short) echo.sequence);
+                buffers.packet.set(ValueLayout.JAVA_LONG_UNALIGNED, 8, echo.token);
+                buffers.packet.set(ValueLayout.JAVA_LONG_UNALIGNED, 16, 0L);
+                buffers.destination(echo.address);
+
+                echo.sentRealtimeNanos = socket.realtimeNanos(buffers);
+                echo.sentNanoTime = System.nanoTime();
+
+                int errno;
+                try {
+                    errno = socket.send(buffers, PACKET_SIZE);
+                } catch (IOException e) {
+                    sendErrors.increment();
+                    if (release(echo)) {
+                        echo.future.completeExceptionally(e);
+                    }
+                    continue;
+                }
+
+                if (errno != 0) {
+                    // Unreachable network or host reported synchronously by the stack
+                    sendErrors.increment();
+                    if (release(echo)) {
+                        echo.future.complete(ProbeOutcome.unreachable());
+                    }
+                } else {
+                    sent.increment();
+                }
+            }
+        }
+    }
+
+    private void readLoop() {
+        long lastSweep = System.nanoTime();
+        try (IcmpDatagramSocket.Buffers buffers = new IcmpDatagramSocket.Buffers(RECEIVE_BUFFER_SIZE)) {
+            while (running) {
+                int length;
+                try {
+                    length = socket.receive(buffers);
+                } catch (IOException e) {
+                    if (!running) {
+                        break;
+                    }
+                    length = -1;
+                }
+
+                if (length >= PACKET_SIZE) {
+                    handleReply(buffers, length);
+                }
+
+                long now = System.nanoTime();
+                if (now - lastSweep >= TimeUnit.MILLISECONDS.toNanos(RECEIVE_TIMEOUT_MS)) {
+                    expire(now);
+                    lastSweep = now;
+                }
+            }
+        }
+    }
+
+    private void handleReply(IcmpDatagramSocket.Buffers buffers, int length) {
+        long receivedNanoTime = System.nanoTime();
+        int type = Byte.toUnsignedInt(buffers.packet.get(ValueLayout.JAVA_BYTE, 0));
+        int identifier = Short.toUnsignedInt(buffers.packet.get(IcmpDatagramSocket.NET_SHORT, 4));
+        int sequence = Short.toUnsignedInt(buffers.packet.get(IcmpDatagramSocket.NET_SHORT, 6));
+        long token = buffers.packet.get(ValueLayout.JAVA_LONG_UNALIGNED, 8);
+
+        if (type != IcmpDatagramSocket.ICMP_ECHO_REPLY || identifier != socket.identifier()) {
+            strayReplies.increment();
+            return;
+        }
+
+        PendingEcho echo = pending.get(sequence);
+        if (echo == null || echo.token != token || echo.address != buffers.source() || !release(echo)) {
+            // Late reply for an expired probe, or a reused sequence number
+            strayReplies.increment();
+            return;
+        }
+
+        long rttNanos = -1L;
+        if (buffers.kernelTimestampNanos > 0 && echo.sentRealtimeNanos > 0) {
+            rttNanos = buffers.kernelTimestampNanos - echo.sentRealtimeNanos;
+            kernelTimestamps.increment();
+        }
+        if (rttNanos < 0) {
+            // No kernel timestamp or the wall clock stepped, use the monotonic clock instead
+            rttNanos = receivedNanoTime - echo.sentNanoTime;
+        }
+
+        replies.increment();
+        echo.future.complete(ProbeOutcome.reachable(rttNanos));
+    }
+
+    private void expire(long now) {
+        if (inFlight.get() == 0) {
+            return;
+        }
+        for (int sequence = 0; sequence < MAX_IN_FLIGHT; sequence++) {
+            PendingEcho echo = pending.get(sequence);
+            if (echo != null && now - echo.deadlineNanos >= 0 && release(echo)) {
+                timeouts.increment();
+                echo.future.complete(ProbeOutcome.unreachable());
+            }
+        }
+    }
+
+    /**
+     * Echo waiting for a reply. The sequence is fixed before the echo is published to the sender.
+     */
+    private static final class PendingEcho {
+        final int address;
+        final long token;
+        final long deadlineNanos;
+        final CompletableFuture<ProbeOutcome> future = new CompletableFuture<>();
+        int sequence;
+        volatile long sentRealtimeNanos;
+        volatile long sentNanoTime;
+
+        PendingEcho(int address, long token, long deadlineNanos) {
+            this.address = address;
+            this.token = token;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
\ No newline at end of file
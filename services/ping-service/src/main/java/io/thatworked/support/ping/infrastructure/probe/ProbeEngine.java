@@ -0,0 +1,33 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used to check whether a single address answers.
+ * Implementations may complete the returned future on their own threads, so callers
+ * must not assume the probe ran on the calling thread.
+ */
+public interface ProbeEngine {
+
+    /**
+     * Probe an address once
+     * @param address The resolved address to probe
+     * @param timeoutMs Time to wait for a reply in milliseconds
+     * @return Future completed with the outcome, or exceptionally if the probe could not be sent
+     */
+    CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs);
+
+    /**
+     * Short engine name used in logs and metrics
+     */
+    String name();
+
+    /**
+     * Get engine metrics
+     */
+    default Map<String, Object> getMetrics() {
+        return Map.of("engine", name());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+/**
+ * Result of a single probe.
+ * The round trip time is only meaningful when the target was reachable.
+ */
+public record ProbeOutcome(boolean reachable, long rttNanos) {
+
+    private static final ProbeOutcome UNREACHABLE = new ProbeOutcome(false, -1L);
+
+    public static ProbeOutcome reachable(long rttNanos) {
+        return new ProbeOutcome(true, Math.max(0L, rttNanos));
+    }
+
+    public static ProbeOutcome unreachable() {
+        return UNREACHABLE;
+    }
+
+    public double rttMillis() {
+        return rttNanos / 1_000_000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Probe engine based on {@link InetAddress#isReachable(int)}.
+ * Blocks the calling thread for the duration of the probe. Without raw socket privileges
+ * the JDK falls back to a TCP connect on port 7, so this is kept as the portable default.
+ */
+public class ReachabilityProbeEngine implements ProbeEngine {
+
+    public static final String NAME = "reachable";
+
+    @Override
+    public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+        try {
+            long start = System.nanoTime();
+            boolean reachable = address.isReachable(timeoutMs);
+            long rttNanos = System.nanoTime() - start;
+            return CompletableFuture.completedFuture(
+                reachable ? ProbeOutcome.reachable(rttNanos) : ProbeOutcome.unreachable());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
\ No newline at end of file
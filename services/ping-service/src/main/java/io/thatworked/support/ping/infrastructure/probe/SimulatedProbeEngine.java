@@ -0,0 +1,146 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import io.thatworked.support.ping.config.SimulatorConfig;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine that answers from a simulated network instead of sending packets, for load tests without one.
+ *
+ * <p>Each address gets a fixed behaviour drawn from the seed and the address: most targets are up
+ * with their own log-normal median round trip time, some never answer, and some alternate between
+ * up and down every half flap period. Loss and jitter of each probe are drawn from the target and
+ * the probe's sequence number, so the same seed reproduces the same replies whatever the timing.
+ * Replies complete after the simulated round trip time on the JDK's shared delay thread; lost
+ * probes and replies slower than the timeout complete unreachable at the timeout, as real ones do.
+ */
+public class SimulatedProbeEngine implements ProbeEngine {
+
+    public static final String NAME = "simulated";
+
+    // Spreads consecutive probe sequence numbers across seeds
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private enum Behaviour { UP, FLAPPING, BLACKHOLE }
+
+    private record Target(long seed, Behaviour behaviour, double medianRttMs, int flapOffset, AtomicLong sequence) {
+    }
+
+    private final long seed;
+    private final double rttMedianMs;
+    private final double rttTargetSpread;
+    private final double rttJitter;
+    private final double lossRate;
+    private final double flappingFraction;
+    private final int flapPeriodProbes;
+    private final double blackholeFraction;
+    private final Map<InetAddress, Target> targets = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder slowReplies = new LongAdder();
+    private final LongAdder blackholed = new LongAdder();
+    private final LongAdder flappedDown = new LongAdder();
+
+    public SimulatedProbeEngine(SimulatorConfig config) {
+        if (config.getRttMedianMs() <= 0 || config.getFlapPeriodProbes() < 2
+                || config.getBlackholeFraction() + config.getFlappingFraction() > 1) {
+            throw new IllegalArgumentException("Invalid simulator: median " + config.getRttMedianMs() + "ms, flap period "
+                + config.getFlapPeriodProbes() + ", blackhole " + config.getBlackholeFraction() + ", flapping " + config.getFlappingFraction());
+        }
+        this.seed = config.getSeed();
+        this.rttMedianMs = config.getRttMedianMs();
+        this.rttTargetSpread = config.getRttTargetSpread();
+        this.rttJitter = config.getRttJitter();
+        this.lossRate = config.getLossRate();
+        this.flappingFraction = config.getFlappingFraction();
+        this.flapPeriodProbes = config.getFlapPeriodProbes();
+        this.blackholeFraction = config.getBlackholeFraction();
+    }
+
+    @Override
+    public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+        probes.increment();
+        Target target = targets.computeIfAbsent(address, this::newTarget);
+        double rttMs = replyRttMs(target, target.sequence().getAndIncrement());
+
+        CompletableFuture<ProbeOutcome> result = new CompletableFuture<>();
+        if (rttMs < 0) {
+            return result.completeOnTimeout(ProbeOutcome.unreachable(), timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (rttMs >= timeoutMs) {
+            slowReplies.increment();
+            return result.completeOnTimeout(ProbeOutcome.unreachable(), timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        replies.increment();
+        long rttNanos = (long) (rttMs * 1_000_000);
+        return result.completeOnTimeout(ProbeOutcome.reachable(rttNanos), rttNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Round trip time of one probe's reply, or -1 if it gets none
+     */
+    private double replyRttMs(Target target, long sequence) {
+        if (target.behaviour() == Behaviour.BLACKHOLE) {
+            blackholed.increment();
+            return -1;
+        }
+        if (target.behaviour() == Behaviour.FLAPPING
+                && (sequence + target.flapOffset()) % flapPeriodProbes >= flapPeriodProbes / 2) {
+            flappedDown.increment();
+            return -1;
+        }
+
+        SplittableRandom random = new SplittableRandom(target.seed() + sequence * GOLDEN_GAMMA);
+        if (random.nextDouble() < lossRate) {
+            lost.increment();
+            return -1;
+        }
+        return target.medianRttMs() * Math.exp(rttJitter * random.nextGaussian());
+    }
+
+    private Target newTarget(InetAddress address) {
+        long key = 0;
+        for (byte b : address.getAddress()) {
+            key = key * 257 + (b & 0xFF);
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ key * GOLDEN_GAMMA);
+
+        double draw = random.nextDouble();
+        Behaviour behaviour = draw < blackholeFraction ? Behaviour.BLACKHOLE
+            : draw < blackholeFraction + flappingFraction ? Behaviour.FLAPPING
+            : Behaviour.UP;
+        double medianRttMs = rttMedianMs * Math.exp(rttTargetSpread * random.nextGaussian());
+        return new Target(random.nextLong(), behaviour, medianRttMs, random.nextInt(flapPeriodProbes), new AtomicLong());
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("engine", NAME);
+        metrics.put("seed", seed);
+        metrics.put("targets", targets.size());
+        metrics.put("probes", probes.sum());
+        metrics.put("replies", replies.sum());
+        metrics.put("lost", lost.sum());
+        metrics.put("slowReplies", slowReplies.sum());
+        metrics.put("blackholed", blackholed.sum());
+        metrics.put("flappedDown", flappedDown.sum());
+        return metrics;
+    }
+}
\ No newline at end of file
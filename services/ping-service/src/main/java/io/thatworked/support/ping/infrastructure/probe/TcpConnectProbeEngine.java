@@ -0,0 +1,320 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine that probes a TCP port with non-blocking connects, for devices that drop ICMP.
+ *
+ * <p>Each probe opens a non-blocking socket channel and starts a connect. A single selector thread
+ * waits for every outstanding connect, so thousands can be in flight without a thread each. The time
+ * until the connect completes is the round trip time. A refused connection (RST) also counts as
+ * reachable, because the host answered even though nothing listens on the port. Other connect
+ * errors, such as no route to host, and connects still pending at their deadline are closed and
+ * reported unreachable.
+ */
+public class TcpConnectProbeEngine implements ProbeEngine, AutoCloseable {
+
+    public static final String NAME = "tcp-connect";
+
+    private static final long MAX_SELECT_WAIT_MS = 100;
+
+    private final Selector selector;
+    private final int defaultPort;
+    private final int maxInFlight;
+    private final Queue<PendingConnect> registrations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    // Owned by the selector thread
+    private final PriorityQueue<PendingConnect> deadlines =
+        new PriorityQueue<>(Comparator.comparingLong(connect -> connect.deadlineNanos));
+
+    // Metrics
+    private final LongAdder started = new LongAdder();
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder unreachable = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private TcpConnectProbeEngine(Selector selector, int defaultPort, int maxInFlight) {
+        this.selector = selector;
+        this.defaultPort = defaultPort;
+        this.maxInFlight = maxInFlight;
+        this.selectorThread = Thread.ofPlatform().name("tcp-connect-selector").daemon(true).unstarted(this::selectLoop);
+    }
+
+    /**
+     * Open the selector and start the selector thread
+     * @param defaultPort Port probed when the target does not name one
+     * @param maxInFlight Maximum number of connects outstanding at once, each holding a socket
+     */
+    public static TcpConnectProbeEngine open(int defaultPort, int maxInFlight) throws IOException {
+        TcpConnectProbeEngine engine = new TcpConnectProbeEngine(Selector.open(), defaultPort, maxInFlight);
+        engine.selectorThread.start();
+        return engine;
+    }
+
+    @Override
+    public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+        return probe(new InetSocketAddress(address, defaultPort), timeoutMs);
+    }
+
+    /**
+     * Probe one TCP port
+     * @param endpoint The resolved address and port to connect to
+     * @param timeoutMs Time to wait for the connect to complete in milliseconds
+     * @return Future completed with the outcome, or exceptionally if the connect could not be started
+     */
+    public CompletableFuture<ProbeOutcome> probe(InetSocketAddress endpoint, int timeoutMs) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("TCP connect engine is closed"));
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IOException("Too many TCP connects in flight"));
+        }
+
+        long startNanos = System.nanoTime();
+        PendingConnect connect = new PendingConnect(startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs), startNanos);
+        try {
+            connect.channel = SocketChannel.open();
+            connect.channel.configureBlocking(false);
+            started.increment();
+            if (connect.channel.connect(endpoint)) {
+                complete(connect, System.nanoTime());
+                return connect.future;
+            }
+        } catch (ConnectException e) {
+            // Refused synchronously, typically on loopback
+            refused(connect, System.nanoTime());
+            return connect.future;
+        } catch (IOException | RuntimeException e) {
+            finish(connect);
+            connect.future.completeExceptionally(e);
+            return connect.future;
+        }
+
+        registrations.add(connect);
+        selector.wakeup();
+        if (!running) {
+            // Closed while this connect was being queued
+            failRegistrations();
+        }
+        return connect.future;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("engine", NAME);
+        metrics.put("defaultPort", defaultPort);
+        metrics.put("inFlight", inFlight.get());
+        metrics.put("maxInFlight", maxInFlight);
+        metrics.put("started", started.sum());
+        metrics.put("connected", connected.sum());
+        metrics.put("refused", refused.sum());
+        metrics.put("unreachable", unreachable.sum());
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("rejected", rejected.sum());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                registerPending();
+                selector.select(selectTimeoutMs());
+                long now = System.nanoTime();
+
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    PendingConnect connect = (PendingConnect) key.attachment();
+                    try {
+                        if (key.isConnectable() && connect.channel.finishConnect()) {
+                            complete(connect, now);
+                        }
+                    } catch (ConnectException e) {
+                        refused(connect, now);
+                    } catch (IOException | CancelledKeyException e) {
+                        if (finish(connect)) {
+                            unreachable.increment();
+                            connect.future.complete(ProbeOutcome.unreachable());
+                        }
+                    }
+                }
+
+                expire(now);
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            running = false;
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void registerPending() {
+        PendingConnect connect;
+        while ((connect = registrations.poll()) != null) {
+            try {
+                connect.channel.register(selector, SelectionKey.OP_CONNECT, connect);
+                deadlines.add(connect);
+            } catch (IOException e) {
+                if (finish(connect)) {
+                    connect.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait no longer than until the earliest deadline, skipping connects that already finished
+     */
+    private long selectTimeoutMs() {
+        while (!deadlines.isEmpty() && deadlines.peek().future.isDone()) {
+            deadlines.poll();
+        }
+        if (deadlines.isEmpty()) {
+            return MAX_SELECT_WAIT_MS;
+        }
+        long waitNanos = deadlines.peek().deadlineNanos - System.nanoTime();
+        return Math.clamp(TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1, 1, MAX_SELECT_WAIT_MS);
+    }
+
+    private void expire(long now) {
+        while (!deadlines.isEmpty() && now - deadlines.peek().deadlineNanos >= 0) {
+            PendingConnect connect = deadlines.poll();
+            if (finish(connect)) {
+                timeouts.increment();
+                connect.future.complete(ProbeOutcome.unreachable());
+            }
+        }
+    }
+
+    private void complete(PendingConnect connect, long now) {
+        if (finish(connect)) {
+            connected.increment();
+            connect.future.complete(ProbeOutcome.reachable(now - connect.startNanos));
+        }
+    }
+
+    /**
+     * A ConnectException is the host's reset, so the host is up with the port closed. Errors that
+     * mean no answer, such as no route to host, are other socket exceptions.
+     */
+    private void refused(PendingConnect connect, long now) {
+        if (!finish(connect)) {
+            return;
+        }
+        if (now - connect.deadlineNanos >= 0) {
+            // Answered too late to count
+            timeouts.increment();
+            connect.future.complete(ProbeOutcome.unreachable());
+        } else {
+            refused.increment();
+            connect.future.complete(ProbeOutcome.reachable(now - connect.startNanos));
+        }
+    }
+
+    /**
+     * Close the connect's socket once; only the caller that gets true may complete its future
+     */
+    private boolean finish(PendingConnect connect) {
+        if (!connect.finished.compareAndSet(false, true)) {
+            return false;
+        }
+        inFlight.decrementAndGet();
+        if (connect.channel != null) {
+            try {
+                connect.channel.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+        return true;
+    }
+
+    private void shutdown() {
+        IOException closed = new IOException("TCP connect engine is closed");
+        for (PendingConnect connect : deadlines) {
+            if (finish(connect)) {
+                connect.future.completeExceptionally(closed);
+            }
+        }
+        deadlines.clear();
+        failRegistrations();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Selector is unusable either way
+        }
+    }
+
+    private void failRegistrations() {
+        PendingConnect connect;
+        while ((connect = registrations.poll()) != null) {
+            if (finish(connect)) {
+                connect.future.completeExceptionally(new IOException("TCP connect engine is closed"));
+            }
+        }
+    }
+
+    /**
+     * Connect waiting for the selector. The channel is set before the connect is handed to the selector thread.
+     */
+    private static final class PendingConnect {
+        final long deadlineNanos;
+        final long startNanos;
+        final CompletableFuture<ProbeOutcome> future = new CompletableFuture<>();
+        final AtomicBoolean finished = new AtomicBoolean();
+        SocketChannel channel;
+
+        PendingConnect(long deadlineNanos, long startNanos) {
+            this.deadlineNanos = deadlineNanos;
+            this.startNanos = startNanos;
+        }
+    }
+}
\ No newline at end of file
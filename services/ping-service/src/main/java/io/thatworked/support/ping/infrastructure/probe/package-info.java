@@ -0,0 +1,15 @@
+/**
+ * Probe engines that decide whether a single address answers.
+ * The ping service resolves the target and hands the address to the configured engine.
+ * 
+ * <p>Probe components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.ProbeEngine} - Probe transport contract</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.ReachabilityProbeEngine} - InetAddress.isReachable probe</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.IcmpEchoProbeEngine} - Multiplexed ICMP echo over one datagram socket</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.HedgedProbeEngine} - Staggered echoes through another engine, first reply wins</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.TcpConnectProbeEngine} - Non-blocking TCP connects on one selector thread</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.probe.SimulatedProbeEngine} - Seeded network model for load tests, sends nothing</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.probe;
\ No newline at end of file
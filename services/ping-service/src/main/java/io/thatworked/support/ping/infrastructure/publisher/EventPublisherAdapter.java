@@ -53,6 +53,8 @@ public class EventPublisherAdapter implements EventPublisher {
             .hostname(pingTarget.getHostname())
             .isMonitored(pingTarget.isMonitored())
             .pingIntervalSeconds(pingTarget.getPingIntervalSeconds())
+            .probeType(pingTarget.getProbeType())
+            .probePort(pingTarget.getProbePort())
             .createdAt(pingTarget.getCreatedAt())
             .updatedAt(pingTarget.getUpdatedAt())
             .build();
@@ -106,6 +108,8 @@ public class EventPublisherAdapter implements EventPublisher {
             .hostname(pingTarget.getHostname())
             .isMonitored(pingTarget.isMonitored())
             .pingIntervalSeconds(pingTarget.getPingIntervalSeconds())
+            .probeType(pingTarget.getProbeType())
+            .probePort(pingTarget.getProbePort())
             .createdAt(pingTarget.getCreatedAt())
             .updatedAt(pingTarget.getUpdatedAt())
             .build();
@@ -122,6 +126,8 @@ public class EventPublisherAdapter implements EventPublisher {
             .hostname(pingTarget.getHostname())
             .isMonitored(pingTarget.isMonitored())
             .pingIntervalSeconds(pingTarget.getPingIntervalSeconds())
+            .probeType(pingTarget.getProbeType())
+            .probePort(pingTarget.getProbePort())
             .createdAt(pingTarget.getCreatedAt())
             .updatedAt(pingTarget.getUpdatedAt())
             .build();
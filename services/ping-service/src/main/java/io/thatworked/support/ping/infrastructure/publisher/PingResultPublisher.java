@@ -0,0 +1,159 @@
+package io.thatworked.support.ping.infrastructure.publisher;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.api.dto.PingResultEvent;
+import io.thatworked.support.ping.config.ResultPublisherConfig;
+import io.thatworked.support.ping.infrastructure.config.KafkaConfig;
+import io.thatworked.support.ping.infrastructure.jfr.ResultPublishedEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes ping results to the ping-results topic through a producer tuned for throughput.
+ *
+ * <p>The producer overrides the shared Kafka settings with batching, compression and idempotence,
+ * so repeated device names and addresses compress well within a batch and retries keep each
+ * device's results in order. Sends are asynchronous; a semaphore bounds the sends awaiting
+ * acknowledgement, and a publishing thread that cannot get a slot within the acquire timeout
+ * drops the event instead of backing up the ping pipeline indefinitely.
+ */
+@Component
+public class PingResultPublisher {
+    
+    private final StructuredLogger logger;
+    private final ResultPublisherConfig config;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Semaphore inFlight;
+    private final PingMeters meters;
+    
+    // Metrics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile String lastError;
+    
+    public PingResultPublisher(StructuredLoggerFactory structuredLoggerFactory,
+                               ProducerFactory<String, Object> producerFactory,
+                               ResultPublisherConfig config,
+                               PingMeters meters) {
+        this.logger = structuredLoggerFactory.getLogger(PingResultPublisher.class);
+        this.config = config;
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory, producerOverrides(config));
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        this.meters = meters;
+        meters.queueDepth("result-publisher", inFlight, permits -> config.getMaxInFlight() - permits.availablePermits());
+        
+        logger.with("lingerMs", config.getLingerMs())
+              .with("batchSize", config.getBatchSize())
+              .with("compressionType", config.getCompressionType())
+              .with("maxInFlight", config.getMaxInFlight())
+              .info("Ping result publisher configured");
+    }
+    
+    private static Map<String, Object> producerOverrides(ResultPublisherConfig config) {
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        overrides.put(ProducerConfig.CLIENT_ID_CONFIG, "ping-service-results");
+        overrides.put(ProducerConfig.LINGER_MS_CONFIG, config.getLingerMs());
+        overrides.put(ProducerConfig.BATCH_SIZE_CONFIG, config.getBatchSize());
+        overrides.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, config.getCompressionType());
+        overrides.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, config.isIdempotenceEnabled());
+        overrides.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, config.getMaxBlockMs());
+        if (config.isIdempotenceEnabled()) {
+            overrides.put(ProducerConfig.ACKS_CONFIG, "all");
+            overrides.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        }
+        return overrides;
+    }
+    
+    /**
+     * Send a ping result event keyed by device
+     * @return false if the event was dropped, because too many sends are unacknowledged or the
+     *         producer rejected it
+     */
+    public boolean publish(UUID deviceId, PingResultEvent event) {
+        try {
+            if (!inFlight.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        }
+        
+        submitted.increment();
+        long startNanos = System.nanoTime();
+        ResultPublishedEvent published = new ResultPublishedEvent();
+        published.begin();
+        try {
+            kafkaTemplate.send(KafkaConfig.PING_RESULTS_TOPIC, deviceId.toString(), event)
+                .whenComplete((result, error) -> {
+                    inFlight.release();
+                    meters.recordPublish(error == null, System.nanoTime() - startNanos);
+                    published.end();
+                    if (published.shouldCommit()) {
+                        published.deviceId = deviceId.toString();
+                        published.acknowledged = error == null;
+                        published.commit();
+                    }
+                    if (error == null) {
+                        acknowledged.increment();
+                    } else {
+                        onFailure(deviceId, error);
+                    }
+                });
+            return true;
+        } catch (RuntimeException e) {
+            // Thrown synchronously when the producer cannot get metadata or buffer space in time
+            inFlight.release();
+            onFailure(deviceId, e);
+            return false;
+        }
+    }
+    
+    private void onFailure(UUID deviceId, Throwable error) {
+        failed.increment();
+        lastError = error.getMessage();
+        logger.with("deviceId", deviceId)
+              .with("error", error.getMessage())
+              .debug("Failed to publish ping result event");
+    }
+    
+    @PreDestroy
+    public void close() {
+        // Deliver what is still batched before the producer is closed
+        kafkaTemplate.flush();
+        kafkaTemplate.destroy();
+    }
+    
+    /**
+     * Get ping result publisher metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("submitted", submitted.sum());
+        metrics.put("acknowledged", acknowledged.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("inFlight", config.getMaxInFlight() - inFlight.availablePermits());
+        metrics.put("maxInFlight", config.getMaxInFlight());
+        metrics.put("compressionType", config.getCompressionType());
+        metrics.put("lingerMs", config.getLingerMs());
+        metrics.put("lastError", lastError);
+        return metrics;
+    }
+}
\ No newline at end of file
@@ -5,6 +5,7 @@
  * <p>Publisher components:
  * <ul>
  *   <li>{@link io.thatworked.support.ping.infrastructure.publisher.EventPublisherAdapter} - Kafka event publisher</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.publisher.PingResultPublisher} - Batched, compressed ping-results producer with bounded in-flight sends</li>
  * </ul>
  */
 package io.thatworked.support.ping.infrastructure.publisher;
\ No newline at end of file
@@ -0,0 +1,199 @@
+package io.thatworked.support.ping.infrastructure.queue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of pings waiting for a concurrency permit, ordered by deadline.
+ *
+ * <p>Pings that find no free permit are offered here instead of being dropped. A single admission
+ * thread calls {@link #take(Semaphore)}, which waits for a permit and hands out the ping with the
+ * earliest deadline, so the pings closest to missing their slot run first. A ping still waiting at
+ * its deadline is shed, and a device dispatched again while its previous ping is still waiting
+ * keeps only the newer one. Shed and rejected pings are only counted; they produce no result.
+ */
+public class PingAdmissionQueue {
+    
+    private final int capacity;
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>((a, b) -> Long.compare(a.deadlineNanos, b.deadlineNanos));
+    // Live entry of each waiting device; superseded entries stay in the heap until they reach its head
+    private final Map<UUID, Entry> waiting = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    
+    // Metrics
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private volatile long lastWaitNanos;
+    private volatile long maxWaitNanos;
+    
+    public PingAdmissionQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Queue a ping until a permit is free
+     * @param deadlineNanos {@link System#nanoTime()} after which the ping is no longer worth running
+     * @return false if the queue is full, in which case the ping is counted as rejected
+     */
+    public boolean offer(PingTask task, long deadlineNanos) {
+        lock.lock();
+        try {
+            Entry previous = waiting.get(task.getDeviceId());
+            if (previous == null && waiting.size() >= capacity) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (previous != null) {
+                previous.superseded = true;
+                superseded.incrementAndGet();
+            }
+            
+            Entry entry = new Entry(task, System.nanoTime(), deadlineNanos);
+            waiting.put(task.getDeviceId(), entry);
+            entries.add(entry);
+            offered.incrementAndGet();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Wait for a permit and return the waiting ping with the earliest deadline. The caller owns the
+     * acquired permit and must release it once the ping completes.
+     */
+    public PingTask take(Semaphore permits) throws InterruptedException {
+        while (true) {
+            long deadlineNanos;
+            lock.lockInterruptibly();
+            try {
+                shedExpired(System.nanoTime());
+                while (entries.isEmpty()) {
+                    notEmpty.await();
+                    shedExpired(System.nanoTime());
+                }
+                deadlineNanos = entries.peek().deadlineNanos;
+            } finally {
+                lock.unlock();
+            }
+            
+            // Wait no longer than the most urgent ping can; if it expires, it is shed on the next pass
+            long waitNanos = deadlineNanos - System.nanoTime();
+            if (waitNanos <= 0 || !permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                continue;
+            }
+            
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                shedExpired(now);
+                Entry head = entries.poll();
+                if (head != null) {
+                    waiting.remove(head.task.getDeviceId());
+                    long waited = now - head.enqueuedNanos;
+                    lastWaitNanos = waited;
+                    if (waited > maxWaitNanos) {
+                        maxWaitNanos = waited;
+                    }
+                    admitted.incrementAndGet();
+                    return head.task;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Everything expired while the permit was being acquired
+            permits.release();
+        }
+    }
+    
+    /**
+     * Drop superseded entries and entries past their deadline from the head of the heap
+     */
+    private void shedExpired(long now) {
+        Entry head;
+        while ((head = entries.peek()) != null && (head.superseded || head.deadlineNanos <= now)) {
+            entries.poll();
+            if (!head.superseded) {
+                waiting.remove(head.task.getDeviceId());
+                shed.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Number of pings waiting
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Fraction of the capacity in use, from 0 to 1
+     */
+    public double saturation() {
+        return (double) size() / capacity;
+    }
+    
+    /**
+     * Pings dropped without running: shed at their deadline, superseded or rejected by a full queue
+     */
+    public long droppedCount() {
+        return shed.get() + superseded.get() + rejected.get();
+    }
+    
+    /**
+     * Get admission metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("waiting", size());
+        metrics.put("capacity", capacity);
+        metrics.put("saturation", saturation());
+        metrics.put("offered", offered.get());
+        metrics.put("admitted", admitted.get());
+        metrics.put("shed", shed.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("superseded", superseded.get());
+        metrics.put("lastWaitMs", TimeUnit.NANOSECONDS.toMillis(lastWaitNanos));
+        metrics.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        return metrics;
+    }
+    
+    private static final class Entry {
+        final PingTask task;
+        final long enqueuedNanos;
+        final long deadlineNanos;
+        boolean superseded;
+        
+        Entry(PingTask task, long enqueuedNanos, long deadlineNanos) {
+            this.task = task;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.thatworked.support.ping.infrastructure.queue;
 
+import io.thatworked.support.ping.domain.ProbeType;
 import lombok.Builder;
 import lombok.Data;
 
@@ -12,6 +13,8 @@ public class PingTask implements Comparable<PingTask> {
     private final UUID deviceId;
     private final String ipAddress;
     private final String hostname;
+    private final ProbeType probeType;
+    private final Integer probePort;
     private final long intervalMs;
     private final boolean recurring;
 
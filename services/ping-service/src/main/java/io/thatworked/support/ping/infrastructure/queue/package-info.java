@@ -5,6 +5,7 @@
  * <p>Queue components:
  * <ul>
  *   <li>{@link io.thatworked.support.ping.infrastructure.queue.PingTask} - Ping execution task representation</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.queue.PingAdmissionQueue} - Deadline-ordered queue of pings waiting for a permit</li>
  * </ul>
  */
 package io.thatworked.support.ping.infrastructure.queue;
\ No newline at end of file
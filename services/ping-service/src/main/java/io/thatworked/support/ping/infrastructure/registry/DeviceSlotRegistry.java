@@ -0,0 +1,386 @@
+package io.thatworked.support.ping.infrastructure.registry;
+
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dense slot numbers for monitored devices, with their hot state kept in primitive arrays.
+ *
+ * <p>A device gets an int slot when monitoring starts and gives it back when monitoring stops; freed
+ * slots are reused first, so slots stay packed from zero. State is stored struct-of-arrays in pages of
+ * {@value #PAGE_SIZE} slots: circuit state, consecutive failures, last RTT, interval and next-due time
+ * take under 50 bytes per device instead of a handful of objects each. Pages are never moved once
+ * allocated, so writers never race with growth; only the page directory is copied when it fills.
+ *
+ * <p>The UUID to slot lookup is the only map access. Callers resolve the slot once and then read and
+ * write state by slot. A ping still in flight when its device stops resolves the slot again before
+ * writing and finds none.
+ */
+@Component
+public class DeviceSlotRegistry {
+
+    public static final int NO_SLOT = -1;
+
+    public static final int CIRCUIT_CLOSED = 0;
+    public static final int CIRCUIT_OPEN = 1;
+    public static final int CIRCUIT_HALF_OPEN = 2;
+
+    // Time that was never set, such as the next due time of a device not pinged yet
+    public static final long NONE = Long.MIN_VALUE;
+
+    static final int PAGE_SIZE = 4096;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // Bytes of primitive state per slot: four ints, three longs and two compressed references
+    private static final int BYTES_PER_SLOT = 4 * 4 + 3 * 8 + 2 * 4;
+
+    private final Map<UUID, Integer> slots = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Page[] pages = new Page[16];
+
+    // Guarded by lock
+    private int highWater;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+
+    /**
+     * Slot of a device, assigning a free one if the device has none
+     */
+    public int acquire(UUID deviceId) {
+        Integer existing = slots.get(deviceId);
+        if (existing != null) {
+            return existing;
+        }
+        lock.lock();
+        try {
+            existing = slots.get(deviceId);
+            if (existing != null) {
+                return existing;
+            }
+            int slot = freeCount > 0 ? freeSlots[--freeCount] : highWater++;
+            Page page = pageFor(slot);
+            int index = slot & PAGE_MASK;
+            page.clear(index);
+            page.deviceIds.set(index, deviceId);
+            slots.put(deviceId, slot);
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slot of a device, or {@link #NO_SLOT} if it is not registered
+     */
+    public int slotOf(UUID deviceId) {
+        if (deviceId == null) {
+            return NO_SLOT;
+        }
+        Integer slot = slots.get(deviceId);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    /**
+     * Give a device's slot back
+     * @return The task that was stored in the slot, or null if the device was not registered
+     */
+    public PingTask release(UUID deviceId) {
+        lock.lock();
+        try {
+            Integer slot = slots.remove(deviceId);
+            if (slot == null) {
+                return null;
+            }
+            Page page = page(slot);
+            int index = slot & PAGE_MASK;
+            PingTask task = page.tasks.get(index);
+            page.clear(index);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of registered devices
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Snapshot of the registered devices
+     */
+    public List<UUID> deviceIds() {
+        return new ArrayList<>(slots.keySet());
+    }
+
+    public UUID deviceId(int slot) {
+        return page(slot).deviceIds.get(slot & PAGE_MASK);
+    }
+
+    public PingTask task(int slot) {
+        return page(slot).tasks.get(slot & PAGE_MASK);
+    }
+
+    public void setTask(int slot, PingTask task) {
+        page(slot).tasks.set(slot & PAGE_MASK, task);
+    }
+
+    // Circuit breaker state
+
+    public int circuitState(int slot) {
+        return page(slot).circuitState.get(slot & PAGE_MASK);
+    }
+
+    public boolean compareAndSetCircuitState(int slot, int expected, int state, long nowNanos) {
+        Page page = page(slot);
+        int index = slot & PAGE_MASK;
+        if (!page.circuitState.compareAndSet(index, expected, state)) {
+            return false;
+        }
+        page.stateChangedNanos.set(index, nowNanos);
+        return true;
+    }
+
+    public long stateChangedNanos(int slot) {
+        return page(slot).stateChangedNanos.get(slot & PAGE_MASK);
+    }
+
+    public int failures(int slot) {
+        return page(slot).failures.get(slot & PAGE_MASK);
+    }
+
+    public int incrementFailures(int slot) {
+        return page(slot).failures.incrementAndGet(slot & PAGE_MASK);
+    }
+
+    public void resetFailures(int slot) {
+        page(slot).failures.set(slot & PAGE_MASK, 0);
+    }
+
+    /**
+     * Claim a half-open test ping if none ran within the interval
+     */
+    public boolean tryClaimHalfOpenTest(int slot, long nowNanos, long intervalNanos) {
+        Page page = page(slot);
+        int index = slot & PAGE_MASK;
+        long last = page.halfOpenTestNanos.get(index);
+        if (last != NONE && nowNanos - last <= intervalNanos) {
+            return false;
+        }
+        return page.halfOpenTestNanos.compareAndSet(index, last, nowNanos);
+    }
+
+    public void setHalfOpenTestNanos(int slot, long nanos) {
+        page(slot).halfOpenTestNanos.set(slot & PAGE_MASK, nanos);
+    }
+
+    /**
+     * Put the circuit back to its initial state
+     */
+    public void resetCircuit(int slot, long nowNanos) {
+        Page page = page(slot);
+        int index = slot & PAGE_MASK;
+        page.circuitState.set(index, CIRCUIT_CLOSED);
+        page.failures.set(index, 0);
+        page.stateChangedNanos.set(index, nowNanos);
+        page.halfOpenTestNanos.set(index, NONE);
+    }
+
+    /**
+     * Put the circuit back to a state restored from a snapshot
+     */
+    public void restoreCircuit(int slot, int state, int failures, long stateChangedNanos) {
+        Page page = page(slot);
+        int index = slot & PAGE_MASK;
+        page.circuitState.set(index, state);
+        page.failures.set(index, failures);
+        page.stateChangedNanos.set(index, stateChangedNanos);
+        page.halfOpenTestNanos.set(index, NONE);
+    }
+
+    // Ping timing
+
+    public void setIntervalMs(int slot, long intervalMs) {
+        page(slot).intervalMs.set(slot & PAGE_MASK, (int) Math.min(intervalMs, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Record that a ping started and set when the next one is due
+     * @return How late the ping started against the due time set by the previous one, or -1 for the first ping
+     */
+    public long markStarted(int slot, long startNanos) {
+        Page page = page(slot);
+        int index = slot & PAGE_MASK;
+        long due = page.nextDueNanos.getAndSet(index, startNanos + TimeUnit.MILLISECONDS.toNanos(page.intervalMs.get(index)));
+        return due == NONE ? -1 : Math.max(0, startNanos - due);
+    }
+
+    /**
+     * Move the next due time, when the device is rescheduled
+     */
+    public void setNextDueNanos(int slot, long nextDueNanos) {
+        page(slot).nextDueNanos.set(slot & PAGE_MASK, nextDueNanos);
+    }
+
+    /**
+     * Record the round trip time of a finished ping
+     * @param rttMillis NaN when the ping produced no round trip time
+     */
+    public void recordRtt(int slot, float rttMillis) {
+        page(slot).lastRttBits.set(slot & PAGE_MASK, Float.floatToRawIntBits(rttMillis));
+    }
+
+    /**
+     * Round trip time of the last ping, NaN if it produced none or the device was not pinged yet
+     */
+    public float lastRttMillis(int slot) {
+        return Float.intBitsToFloat(page(slot).lastRttBits.get(slot & PAGE_MASK));
+    }
+
+    public long nextDueNanos(int slot) {
+        return page(slot).nextDueNanos.get(slot & PAGE_MASK);
+    }
+
+    /**
+     * Number of registered devices whose circuit is in the given state. Walks every slot.
+     */
+    public int countCircuits(int state) {
+        int allocated;
+        Page[] directory;
+        lock.lock();
+        try {
+            allocated = highWater;
+            directory = pages;
+        } finally {
+            lock.unlock();
+        }
+
+        int count = 0;
+        for (int slot = 0; slot < allocated; slot++) {
+            Page page = directory[slot >>> PAGE_SHIFT];
+            int index = slot & PAGE_MASK;
+            if (page.deviceIds.get(index) != null && page.circuitState.get(index) == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get registry metrics. Counting circuit states and overdue devices walks every slot.
+     */
+    public Map<String, Object> getMetrics() {
+        int allocated;
+        int free;
+        Page[] directory;
+        lock.lock();
+        try {
+            allocated = highWater;
+            free = freeCount;
+            directory = pages;
+        } finally {
+            lock.unlock();
+        }
+
+        long now = System.nanoTime();
+        int openCircuits = 0;
+        int halfOpenCircuits = 0;
+        int overdue = 0;
+        for (int slot = 0; slot < allocated; slot++) {
+            Page page = directory[slot >>> PAGE_SHIFT];
+            int index = slot & PAGE_MASK;
+            if (page.deviceIds.get(index) == null) {
+                continue;
+            }
+            switch (page.circuitState.get(index)) {
+                case CIRCUIT_OPEN -> openCircuits++;
+                case CIRCUIT_HALF_OPEN -> halfOpenCircuits++;
+                default -> { }
+            }
+            long nextDue = page.nextDueNanos.get(index);
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(page.intervalMs.get(index));
+            // Overdue by a whole interval, so at least one ping was missed
+            if (nextDue != NONE && now - nextDue > intervalNanos) {
+                overdue++;
+            }
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("devices", slots.size());
+        metrics.put("slotsAllocated", allocated);
+        metrics.put("freeSlots", free);
+        metrics.put("pages", (allocated + PAGE_SIZE - 1) / PAGE_SIZE);
+        metrics.put("stateBytesPerDevice", BYTES_PER_SLOT);
+        metrics.put("openCircuits", openCircuits);
+        metrics.put("halfOpenCircuits", halfOpenCircuits);
+        metrics.put("overdueDevices", overdue);
+        return metrics;
+    }
+
+    private Page page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+
+    /**
+     * Page holding a slot, allocated if needed. Called with the lock held.
+     */
+    private Page pageFor(int slot) {
+        int pageIndex = slot >>> PAGE_SHIFT;
+        Page[] directory = pages;
+        if (pageIndex >= directory.length) {
+            directory = Arrays.copyOf(directory, Math.max(directory.length * 2, pageIndex + 1));
+        }
+        if (directory[pageIndex] == null) {
+            directory[pageIndex] = new Page();
+        }
+        pages = directory;
+        return directory[pageIndex];
+    }
+
+    /**
+     * State of {@value #PAGE_SIZE} consecutive slots, one array per field
+     */
+    private static final class Page {
+        final AtomicReferenceArray<UUID> deviceIds = new AtomicReferenceArray<>(PAGE_SIZE);
+        final AtomicReferenceArray<PingTask> tasks = new AtomicReferenceArray<>(PAGE_SIZE);
+        final AtomicIntegerArray circuitState = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicIntegerArray failures = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicIntegerArray lastRttBits = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicIntegerArray intervalMs = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicLongArray stateChangedNanos = new AtomicLongArray(PAGE_SIZE);
+        final AtomicLongArray halfOpenTestNanos = new AtomicLongArray(PAGE_SIZE);
+        final AtomicLongArray nextDueNanos = new AtomicLongArray(PAGE_SIZE);
+
+        void clear(int index) {
+            deviceIds.set(index, null);
+            tasks.set(index, null);
+            circuitState.set(index, CIRCUIT_CLOSED);
+            failures.set(index, 0);
+            lastRttBits.set(index, Float.floatToRawIntBits(Float.NaN));
+            intervalMs.set(index, 0);
+            stateChangedNanos.set(index, System.nanoTime());
+            halfOpenTestNanos.set(index, NONE);
+            nextDueNanos.set(index, NONE);
+        }
+    }
+}
\ No newline at end of file
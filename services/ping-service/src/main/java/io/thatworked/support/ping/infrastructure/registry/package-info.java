@@ -0,0 +1,9 @@
+/**
+ * Per-device state indexed by dense int slots instead of UUID-keyed maps.
+ * 
+ * <p>Registry components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry} - Slot per monitored device with circuit and timing state in paged primitive arrays</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.registry;
\ No newline at end of file
@@ -3,6 +3,7 @@ package io.thatworked.support.ping.infrastructure.repository;
 import io.thatworked.support.ping.domain.AlertState;
 import io.thatworked.support.ping.domain.model.AlertStateDomain;
 import io.thatworked.support.ping.domain.port.AlertStateRepository;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -11,37 +12,42 @@ import java.util.UUID;
 
 /**
  * Infrastructure adapter for alert state repository.
+ * Reads and writes go through the in-memory {@link AlertStateStore}, which flushes to the database.
  */
 @Component
 public class AlertStateRepositoryAdapter implements AlertStateRepository {
     
     private final io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository jpaAlertStateRepository;
+    private final AlertStateStore alertStateStore;
     
-    public AlertStateRepositoryAdapter(io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository jpaAlertStateRepository) {
+    public AlertStateRepositoryAdapter(io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository jpaAlertStateRepository,
+                                       AlertStateStore alertStateStore) {
         this.jpaAlertStateRepository = jpaAlertStateRepository;
+        this.alertStateStore = alertStateStore;
     }
     
     @Override
     public Optional<AlertStateDomain> findById(UUID deviceId) {
-        return jpaAlertStateRepository.findById(deviceId)
+        return alertStateStore.find(deviceId)
             .map(this::toDomain);
     }
     
     @Override
     public AlertStateDomain save(AlertStateDomain domain) {
         AlertState entity = toEntity(domain);
-        AlertState saved = jpaAlertStateRepository.save(entity);
-        return toDomain(saved);
+        alertStateStore.save(entity);
+        return toDomain(entity);
     }
     
     @Override
     public void deleteById(UUID deviceId) {
+        alertStateStore.remove(deviceId);
         jpaAlertStateRepository.deleteById(deviceId);
     }
     
     @Override
     public boolean existsById(UUID deviceId) {
-        return jpaAlertStateRepository.existsById(deviceId);
+        return alertStateStore.find(deviceId).isPresent();
     }
     
     private AlertStateDomain toDomain(AlertState entity) {
@@ -0,0 +1,28 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import java.time.Instant;
+
+/**
+ * Disk usage of one ping_results chunk
+ *
+ * @param totalBytes Current size including indexes and TOAST, compressed size for a compressed chunk
+ * @param uncompressedBytes Size before compression, null if the chunk has never been compressed
+ */
+public record ChunkStorage(
+        String chunkName,
+        Instant rangeStart,
+        Instant rangeEnd,
+        boolean compressed,
+        long totalBytes,
+        Long uncompressedBytes) {
+    
+    /**
+     * Size before compression divided by size after, null for an uncompressed chunk
+     */
+    public Double compressionRatio() {
+        if (!compressed || uncompressedBytes == null || totalBytes == 0) {
+            return null;
+        }
+        return (double) uncompressedBytes / totalBytes;
+    }
+}
\ No newline at end of file
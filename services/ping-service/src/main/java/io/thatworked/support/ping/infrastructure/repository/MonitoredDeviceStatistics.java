@@ -0,0 +1,18 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import java.util.UUID;
+
+/**
+ * Statistics for one monitored target together with its target and device metadata
+ *
+ * @param deviceName Null if the device is not in the local device cache
+ * @param pingIntervalSeconds Configured interval of the target, null for the service default
+ */
+public record MonitoredDeviceStatistics(
+        UUID deviceId,
+        String deviceName,
+        String ipAddress,
+        String hostname,
+        Integer pingIntervalSeconds,
+        PingStatisticsSummary summary) {
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a statistics time range across the continuous aggregates and the raw ping_results table.
+ *
+ * <p>The coarsest aggregate whose buckets fit inside the range answers the aligned middle of it;
+ * the partial buckets on either side are answered by the next finer aggregate, down to raw rows
+ * for whatever is left below one minute. A 30-day range therefore reads about 30 daily rows, at
+ * most 46 hourly rows and 118 minute rows per device, plus two raw edges shorter than a minute.
+ * Buckets are aligned to the epoch in UTC, matching TimescaleDB's {@code time_bucket}.
+ */
+public final class PingStatisticsQueryPlanner {
+    
+    /**
+     * Where a segment of the range is read from, finest first
+     */
+    public enum Source {
+        RAW("ping_results", Duration.ZERO),
+        MINUTE("ping_stats_1m", Duration.ofMinutes(1)),
+        HOUR("ping_stats_1h", Duration.ofHours(1)),
+        DAY("ping_stats_1d", Duration.ofDays(1));
+        
+        private final String relation;
+        private final Duration bucketWidth;
+        
+        Source(String relation, Duration bucketWidth) {
+            this.relation = relation;
+            this.bucketWidth = bucketWidth;
+        }
+        
+        public String getRelation() {
+            return relation;
+        }
+        
+        public Duration getBucketWidth() {
+            return bucketWidth;
+        }
+        
+        public boolean isAggregate() {
+            return this != RAW;
+        }
+    }
+    
+    /**
+     * A half-open part of the requested range, [start, end), and the source that answers it
+     */
+    public record Segment(Source source, Instant start, Instant end) {
+    }
+    
+    private static final List<Source> AGGREGATES_COARSEST_FIRST = List.of(Source.DAY, Source.HOUR, Source.MINUTE);
+    
+    private PingStatisticsQueryPlanner() {
+    }
+    
+    /**
+     * Plan totals over a range from the continuous aggregates
+     * @return Non-overlapping segments covering [start, end) in time order
+     */
+    public static List<Segment> plan(Instant start, Instant end) {
+        List<Segment> segments = new ArrayList<>();
+        if (start.isBefore(end)) {
+            plan(start, end, AGGREGATES_COARSEST_FIRST, 0, segments);
+        }
+        return segments;
+    }
+    
+    /**
+     * Plan a range that is read entirely from raw rows
+     */
+    public static List<Segment> planRaw(Instant start, Instant end) {
+        return start.isBefore(end) ? List.of(new Segment(Source.RAW, start, end)) : List.of();
+    }
+    
+    /**
+     * Name the sources a plan reads, as reported to clients
+     * @return "aggregates", "aggregates+raw" when raw rows fill edges the aggregates do not cover, or "raw"
+     */
+    public static String describe(List<Segment> plan) {
+        boolean aggregates = plan.stream().anyMatch(segment -> segment.source().isAggregate());
+        boolean raw = plan.stream().anyMatch(segment -> !segment.source().isAggregate());
+        if (!aggregates) {
+            return "raw";
+        }
+        return raw ? "aggregates+raw" : "aggregates";
+    }
+    
+    private static void plan(Instant start, Instant end, List<Source> sources, int index, List<Segment> segments) {
+        for (int i = index; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            long width = source.getBucketWidth().toMillis();
+            Instant alignedStart = Instant.ofEpochMilli(Math.ceilDiv(start.toEpochMilli(), width) * width);
+            Instant alignedEnd = Instant.ofEpochMilli(Math.floorDiv(end.toEpochMilli(), width) * width);
+            // Sub-millisecond edges stay with the raw segments
+            if (alignedStart.isBefore(start)) {
+                alignedStart = alignedStart.plusMillis(width);
+            }
+            
+            if (alignedStart.isBefore(alignedEnd)) {
+                plan(start, alignedStart, sources, i + 1, segments);
+                segments.add(new Segment(source, alignedStart, alignedEnd));
+                plan(alignedEnd, end, sources, i + 1, segments);
+                return;
+            }
+        }
+        
+        if (start.isBefore(end)) {
+            segments.add(new Segment(Source.RAW, start, end));
+        }
+    }
+}
\ No newline at end of file
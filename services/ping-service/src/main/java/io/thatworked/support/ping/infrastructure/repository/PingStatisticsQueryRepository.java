@@ -0,0 +1,207 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.config.TimescaleSchemaInitializer;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner.Segment;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner.Source;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Ping statistics read from the continuous aggregates where they cover the requested range.
+ *
+ * <p>Each query is planned with {@link PingStatisticsQueryPlanner} and sent as one statement: the
+ * segments are combined with UNION ALL and merged per device on the server, including their
+ * percentile histograms. Until the aggregates exist, or if reading them fails, the whole range is
+ * read from raw rows.
+ */
+@Repository
+public class PingStatisticsQueryRepository {
+    
+    /**
+     * Per-device aggregate columns over ping_results rows, shared by the continuous aggregates and raw edge queries
+     */
+    public static final String AGGREGATE_COLUMNS =
+        "count(*) AS total_count, " +
+        "count(*) FILTER (WHERE status = 'SUCCESS') AS success_count, " +
+        "count(round_trip_time) FILTER (WHERE status = 'SUCCESS') AS rtt_count, " +
+        "sum(round_trip_time) FILTER (WHERE status = 'SUCCESS') AS rtt_sum, " +
+        "min(round_trip_time) FILTER (WHERE status = 'SUCCESS') AS rtt_min, " +
+        "max(round_trip_time) FILTER (WHERE status = 'SUCCESS') AS rtt_max, " +
+        "min(time) AS first_time, " +
+        "max(time) AS last_time";
+    
+    private static final String MERGE_SEGMENTS =
+        "totals AS (" +
+        "SELECT device_id, sum(total_count) AS total_count, sum(success_count) AS success_count, " +
+        "sum(rtt_count) AS rtt_count, sum(rtt_sum) AS rtt_sum, min(rtt_min) AS rtt_min, max(rtt_max) AS rtt_max, " +
+        "min(first_time) AS first_time, max(last_time) AS last_time, " +
+        "sum(EXTRACT(EPOCH FROM (last_time - first_time))) AS sampled_seconds, " +
+        "sum(total_count - 1) AS sampled_intervals " +
+        "FROM parts GROUP BY device_id), " +
+        "histograms AS (" +
+        "SELECT device_id, array_agg(bucket_count ORDER BY bucket_index) AS rtt_histogram FROM (" +
+        "SELECT parts.device_id, h.bucket_index, sum(h.bucket_count) AS bucket_count " +
+        "FROM parts, unnest(parts.rtt_histogram) WITH ORDINALITY AS h(bucket_count, bucket_index) " +
+        "GROUP BY parts.device_id, h.bucket_index) merged GROUP BY device_id) ";
+    
+    private static final String SELECT_SUMMARIES =
+        "SELECT t.*, h.rtt_histogram FROM totals t LEFT JOIN histograms h ON h.device_id = t.device_id";
+    
+    private static final String SELECT_MONITORED =
+        "SELECT pt.device_id, md.device_name, pt.ip_address, pt.hostname, pt.ping_interval_seconds, " +
+        "t.total_count, t.success_count, t.rtt_count, t.rtt_sum, t.rtt_min, t.rtt_max, t.first_time, t.last_time, " +
+        "t.sampled_seconds, t.sampled_intervals, h.rtt_histogram " +
+        "FROM ping_target pt " +
+        "LEFT JOIN monitored_devices md ON md.device_id = pt.device_id " +
+        "LEFT JOIN totals t ON t.device_id = pt.device_id " +
+        "LEFT JOIN histograms h ON h.device_id = pt.device_id " +
+        "WHERE pt.is_monitored ORDER BY pt.device_id";
+    
+    private final StructuredLogger logger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TimescaleSchemaInitializer schema;
+    
+    public PingStatisticsQueryRepository(StructuredLoggerFactory structuredLoggerFactory,
+                                         JdbcTemplate jdbcTemplate,
+                                         TimescaleSchemaInitializer schema) {
+        this.logger = structuredLoggerFactory.getLogger(PingStatisticsQueryRepository.class);
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+    
+    /**
+     * Statistics for one device over [start, end)
+     */
+    public PingStatisticsSummary summarize(UUID deviceId, Instant start, Instant end) {
+        Rows<PingStatisticsSummary> summaries = query(deviceId, start, end, SELECT_SUMMARIES,
+            source -> (rs, rowNum) -> mapSummary(rs, rs.getObject("device_id", UUID.class), source));
+        return summaries.rows().isEmpty()
+            ? PingStatisticsSummary.empty(deviceId, summaries.source())
+            : summaries.rows().get(0);
+    }
+    
+    /**
+     * Statistics over [start, end) for every monitored target in a single statement, joined with
+     * target and device metadata. Targets without results in the range get an empty summary.
+     */
+    public List<MonitoredDeviceStatistics> summarizeMonitored(Instant start, Instant end) {
+        return query(null, start, end, SELECT_MONITORED, source -> (rs, rowNum) -> {
+            UUID deviceId = rs.getObject("device_id", UUID.class);
+            return new MonitoredDeviceStatistics(
+                deviceId,
+                rs.getString("device_name"),
+                rs.getString("ip_address"),
+                rs.getString("hostname"),
+                rs.getObject("ping_interval_seconds", Integer.class),
+                mapSummary(rs, deviceId, source));
+        }).rows();
+    }
+    
+    /**
+     * Query results and the sources they were read from
+     */
+    private record Rows<T>(String source, List<T> rows) {
+    }
+    
+    private <T> Rows<T> query(UUID deviceId, Instant start, Instant end, String select,
+                              Function<String, RowMapper<T>> rowMapper) {
+        if (schema.isContinuousAggregatesReady()) {
+            try {
+                return execute(PingStatisticsQueryPlanner.plan(start, end), deviceId, select, rowMapper);
+            } catch (DataAccessException e) {
+                logger.with("deviceId", deviceId)
+                      .with("error", e.getMessage())
+                      .warn("Continuous aggregate query failed, reading raw ping results");
+            }
+        }
+        return execute(PingStatisticsQueryPlanner.planRaw(start, end), deviceId, select, rowMapper);
+    }
+    
+    private <T> Rows<T> execute(List<Segment> plan, UUID deviceId, String select,
+                                Function<String, RowMapper<T>> rowMapper) {
+        if (plan.isEmpty()) {
+            // An empty range still lists the monitored targets; a zero-length raw segment matches no rows
+            plan = List.of(new Segment(Source.RAW, Instant.EPOCH, Instant.EPOCH));
+        }
+        
+        String histogramColumn = schema.isTimescaleAvailable()
+            ? RttHistogram.SQL_EXPRESSION + " AS rtt_histogram"
+            : "CAST(NULL AS integer[]) AS rtt_histogram";
+        String deviceFilter = deviceId != null ? " AND device_id = ?" : "";
+        
+        StringBuilder parts = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (Segment segment : plan) {
+            if (!parts.isEmpty()) {
+                parts.append(" UNION ALL ");
+            }
+            if (segment.source().isAggregate()) {
+                parts.append("SELECT device_id, total_count, success_count, rtt_count, rtt_sum, rtt_min, rtt_max, ")
+                     .append("first_time, last_time, rtt_histogram FROM ").append(segment.source().getRelation())
+                     .append(" WHERE bucket >= ? AND bucket < ?").append(deviceFilter);
+            } else {
+                parts.append("SELECT device_id, ").append(AGGREGATE_COLUMNS).append(", ").append(histogramColumn)
+                     .append(" FROM ping_results WHERE time >= ? AND time < ?").append(deviceFilter)
+                     .append(" GROUP BY device_id");
+            }
+            params.add(OffsetDateTime.ofInstant(segment.start(), ZoneOffset.UTC));
+            params.add(OffsetDateTime.ofInstant(segment.end(), ZoneOffset.UTC));
+            if (deviceId != null) {
+                params.add(deviceId);
+            }
+        }
+        
+        String sql = "WITH parts AS (" + parts + "), " + MERGE_SEGMENTS + select;
+        String source = PingStatisticsQueryPlanner.describe(plan);
+        return new Rows<>(source, jdbcTemplate.query(sql, rowMapper.apply(source), params.toArray()));
+    }
+    
+    /**
+     * Map the merged columns; they are null for a monitored target without results, which maps to zeros
+     */
+    private static PingStatisticsSummary mapSummary(ResultSet rs, UUID deviceId, String source) throws SQLException {
+        OffsetDateTime firstTime = rs.getObject("first_time", OffsetDateTime.class);
+        OffsetDateTime lastTime = rs.getObject("last_time", OffsetDateTime.class);
+        return new PingStatisticsSummary(
+            deviceId,
+            rs.getLong("total_count"),
+            rs.getLong("success_count"),
+            rs.getLong("rtt_count"),
+            rs.getDouble("rtt_sum"),
+            rs.getObject("rtt_min", Double.class),
+            rs.getObject("rtt_max", Double.class),
+            firstTime != null ? firstTime.toInstant() : null,
+            lastTime != null ? lastTime.toInstant() : null,
+            rs.getDouble("sampled_seconds"),
+            rs.getLong("sampled_intervals"),
+            toCounts(rs.getArray("rtt_histogram")),
+            source);
+    }
+    
+    private static long[] toCounts(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        Object[] values = (Object[]) array.getArray();
+        long[] counts = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            counts[i] = values[i] != null ? ((Number) values[i]).longValue() : 0;
+        }
+        return counts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Ping statistics for one device over a time range, merged from aggregate buckets and raw rows.
+ * Round trip time figures cover successful pings only.
+ *
+ * @param sampledSeconds Time between the first and last sample of each bucket, summed over buckets
+ * @param sampledIntervals Gaps between consecutive samples within buckets, summed over buckets
+ * @param rttHistogram Merged {@link RttHistogram} counts, null when no sketch was available
+ * @param source Sources the statistics were read from, see {@link PingStatisticsQueryPlanner#describe}
+ */
+public record PingStatisticsSummary(
+        UUID deviceId,
+        long totalCount,
+        long successCount,
+        long rttCount,
+        double rttSum,
+        Double rttMin,
+        Double rttMax,
+        Instant firstTime,
+        Instant lastTime,
+        double sampledSeconds,
+        long sampledIntervals,
+        long[] rttHistogram,
+        String source) {
+    
+    public static PingStatisticsSummary empty(UUID deviceId, String source) {
+        return new PingStatisticsSummary(deviceId, 0, 0, 0, 0, null, null, null, null, 0, 0, null, source);
+    }
+    
+    public long failureCount() {
+        return totalCount - successCount;
+    }
+    
+    /**
+     * Fraction of pings that succeeded, between 0 and 1
+     */
+    public double successRate() {
+        return totalCount > 0 ? (double) successCount / totalCount : 0.0;
+    }
+    
+    public Double averageRtt() {
+        return rttCount > 0 ? rttSum / rttCount : null;
+    }
+    
+    /**
+     * Average observed time between consecutive samples, or null with fewer than two samples in any bucket.
+     * Gaps between buckets are excluded, so a device that was not monitored for a while keeps its real spacing.
+     */
+    public Double averageSampleSpacingSeconds() {
+        return sampledIntervals > 0 ? sampledSeconds / sampledIntervals : null;
+    }
+    
+    /**
+     * Estimated round trip time percentile
+     * @param quantile Between 0 and 1, e.g. 0.95
+     */
+    public Double rttPercentile(double quantile) {
+        return RttHistogram.percentile(rttHistogram, quantile, rttMin, rttMax);
+    }
+    
+    /**
+     * Bucket width behind {@link #rttPercentile}, relative to the bucket's lower bound, or null without a histogram
+     */
+    public Double rttPercentileBucketWidth() {
+        return rttHistogram != null ? RttHistogram.RELATIVE_BUCKET_WIDTH : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import io.thatworked.support.ping.infrastructure.config.TimescaleSchemaInitializer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Chunk-level storage statistics for the ping_results hypertable
+ */
+@Repository
+public class PingStorageRepository {
+    
+    private static final String SELECT_CHUNKS =
+        "SELECT c.chunk_name, c.range_start, c.range_end, c.is_compressed, s.total_bytes, " +
+        "cs.before_compression_total_bytes " +
+        "FROM timescaledb_information.chunks c " +
+        "LEFT JOIN chunks_detailed_size('ping_results') s " +
+        "ON s.chunk_schema = c.chunk_schema AND s.chunk_name = c.chunk_name " +
+        "LEFT JOIN chunk_compression_stats('ping_results') cs " +
+        "ON cs.chunk_schema = c.chunk_schema AND cs.chunk_name = c.chunk_name " +
+        "WHERE c.hypertable_name = 'ping_results' ORDER BY c.range_start";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TimescaleSchemaInitializer schema;
+    
+    public PingStorageRepository(JdbcTemplate jdbcTemplate, TimescaleSchemaInitializer schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+    
+    /**
+     * List the chunks of ping_results, oldest first; empty without TimescaleDB
+     */
+    public List<ChunkStorage> findChunks() {
+        if (!schema.isTimescaleAvailable()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_CHUNKS, (rs, rowNum) -> new ChunkStorage(
+            rs.getString("chunk_name"),
+            toInstant(rs.getObject("range_start", OffsetDateTime.class)),
+            toInstant(rs.getObject("range_end", OffsetDateTime.class)),
+            rs.getBoolean("is_compressed"),
+            rs.getLong("total_bytes"),
+            rs.getObject("before_compression_total_bytes", Long.class)));
+    }
+    
+    private static Instant toInstant(OffsetDateTime time) {
+        return time != null ? time.toInstant() : null;
+    }
+}
\ No newline at end of file
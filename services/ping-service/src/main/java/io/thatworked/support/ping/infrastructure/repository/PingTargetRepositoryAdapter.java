@@ -7,8 +7,10 @@ import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +58,8 @@ public class PingTargetRepositoryAdapter implements PingTargetRepository {
             entity.setHostname(domain.getHostname());
             entity.setMonitored(domain.isMonitored());
             entity.setPingIntervalSeconds(domain.getPingIntervalSeconds());
+            entity.setProbeType(domain.getProbeType());
+            entity.setProbePort(domain.getProbePort());
             // Timestamps are managed by JPA annotations
         } else {
             // Create new entity
@@ -66,6 +70,34 @@ public class PingTargetRepositoryAdapter implements PingTargetRepository {
         return toDomain(saved);
     }
     
+    @Override
+    public List<PingTargetDomain> saveAll(List<PingTargetDomain> domains) {
+        // Load the existing entities with one query instead of one per target
+        Map<UUID, PingTarget> existing = jpaPingTargetRepository.findAllById(
+                domains.stream().map(PingTargetDomain::getDeviceId).toList()).stream()
+            .collect(Collectors.toMap(PingTarget::getDeviceId, Function.identity()));
+        
+        List<PingTarget> entities = domains.stream()
+            .map(domain -> {
+                PingTarget entity = existing.get(domain.getDeviceId());
+                if (entity == null) {
+                    return toEntity(domain);
+                }
+                entity.setIpAddress(domain.getIpAddress());
+                entity.setHostname(domain.getHostname());
+                entity.setMonitored(domain.isMonitored());
+                entity.setPingIntervalSeconds(domain.getPingIntervalSeconds());
+                entity.setProbeType(domain.getProbeType());
+                entity.setProbePort(domain.getProbePort());
+                return entity;
+            })
+            .toList();
+        
+        return jpaPingTargetRepository.saveAll(entities).stream()
+            .map(this::toDomain)
+            .collect(Collectors.toList());
+    }
+    
     @Override
     public void deleteById(UUID deviceId) {
         jpaPingTargetRepository.deleteById(deviceId);
@@ -97,6 +129,8 @@ public class PingTargetRepositoryAdapter implements PingTargetRepository {
             .hostname(entity.getHostname())
             .monitored(entity.isMonitored())
             .pingIntervalSeconds(entity.getPingIntervalSeconds())
+            .probeType(entity.getProbeType())
+            .probePort(entity.getProbePort())
             .createdAt(entity.getCreatedAt())
             .updatedAt(entity.getUpdatedAt())
             .build();
@@ -111,6 +145,8 @@ public class PingTargetRepositoryAdapter implements PingTargetRepository {
             .hostname(domain.getHostname())
             .isMonitored(domain.isMonitored())
             .pingIntervalSeconds(domain.getPingIntervalSeconds())
+            .probeType(domain.getProbeType())
+            .probePort(domain.getProbePort())
             .createdAt(domain.getCreatedAt() != null ? domain.getCreatedAt() : now)
             .updatedAt(now)
             // Don't set version - let JPA handle it automatically
@@ -0,0 +1,85 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+/**
+ * Log-scale round trip time histogram used as a mergeable percentile sketch.
+ *
+ * <p>Counts come from TimescaleDB's {@code histogram()} over {@code ln(round_trip_time)}: one
+ * underflow bucket, {@link #BUCKETS} buckets of equal width in log space between
+ * {@link #LOWER_MS} and {@link #UPPER_MS}, and one overflow bucket. Each bucket spans about 13%
+ * of its lower bound, so interpolated percentiles are within a few percent of the exact value.
+ * Histograms over disjoint time ranges merge by adding counts, which is what lets percentiles be
+ * answered from continuous aggregates. Changing the bounds requires recreating the aggregates.
+ */
+public final class RttHistogram {
+    
+    public static final double LOWER_MS = 0.05;
+    public static final double UPPER_MS = 10_000;
+    public static final int BUCKETS = 100;
+    
+    /**
+     * Width of every bucket relative to its lower bound
+     */
+    public static final double RELATIVE_BUCKET_WIDTH = Math.pow(UPPER_MS / LOWER_MS, 1.0 / BUCKETS) - 1;
+    
+    /**
+     * Aggregate expression over successful ping_results rows
+     */
+    public static final String SQL_EXPRESSION = String.format(
+        "histogram(ln(round_trip_time), ln(%s), ln(%s), %d) FILTER (WHERE status = 'SUCCESS' AND round_trip_time > 0)",
+        LOWER_MS, UPPER_MS, BUCKETS);
+    
+    private static final double LOG_LOWER = Math.log(LOWER_MS);
+    private static final double LOG_WIDTH = (Math.log(UPPER_MS) - LOG_LOWER) / BUCKETS;
+    
+    private RttHistogram() {
+    }
+    
+    /**
+     * Estimate a percentile from merged counts
+     * @param counts Histogram counts including the underflow and overflow buckets
+     * @param quantile Between 0 and 1
+     * @param min Smallest observed value, returned for ranks in the underflow bucket
+     * @param max Largest observed value, returned for ranks in the overflow bucket
+     * @return null if the histogram is empty
+     */
+    public static Double percentile(long[] counts, double quantile, Double min, Double max) {
+        if (counts == null || counts.length != BUCKETS + 2) {
+            return null;
+        }
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        
+        double rank = Math.max(1, Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long count = counts[i];
+            if (count == 0 || cumulative + count < rank) {
+                cumulative += count;
+                continue;
+            }
+            if (i == 0) {
+                return min;
+            }
+            if (i == counts.length - 1) {
+                return max;
+            }
+            
+            // Interpolate geometrically within the bucket, then clamp to what was actually observed
+            double fraction = (rank - cumulative) / count;
+            double value = Math.exp(LOG_LOWER + (i - 1 + fraction) * LOG_WIDTH);
+            if (min != null && value < min) {
+                value = min;
+            }
+            if (max != null && value > max) {
+                value = max;
+            }
+            return value;
+        }
+        return max;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,9 @@
  *   <li>{@link io.thatworked.support.ping.infrastructure.repository.PingTargetRepositoryAdapter} - Ping target persistence</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.repository.PingResultRepositoryAdapter} - Ping result persistence</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.repository.AlertStateRepositoryAdapter} - Alert state persistence</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryRepository} - Ping statistics from continuous aggregates</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner} - Splits statistics ranges across aggregates and raw rows</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.repository.PingStorageRepository} - Chunk size and compression statistics</li>
  *   <li>{@link io.thatworked.support.ping.infrastructure.repository.jpa} - JPA repository interfaces</li>
  * </ul>
  */
@@ -0,0 +1,122 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consistent hash ring assigning devices to ping service instances.
+ *
+ * <p>Each member takes a number of virtual node points on a 64-bit ring, hashed from its name, and
+ * a device belongs to the member of the first point at or after the device's hash. Every instance
+ * builds the same ring from the same member names, so all agree on ownership without coordinating,
+ * and a member joining or leaving only moves the devices next to its own points, about 1/N of them.
+ * Immutable; a membership change builds a new ring.
+ */
+public final class ConsistentHashRing {
+    
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // 2^64, the size of the ring
+    private static final double RING_SIZE = 0x1p64;
+    
+    private record Point(long hash, String member) {
+    }
+    
+    private final List<String> members;
+    private final int virtualNodes;
+    // Sorted point hashes and the member of each
+    private final long[] points;
+    private final String[] owners;
+    
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        if (members.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("Hash ring needs members and virtual nodes: " + members + ", " + virtualNodes);
+        }
+        this.members = members.stream().distinct().sorted().toList();
+        this.virtualNodes = virtualNodes;
+        
+        Point[] ring = new Point[this.members.size() * virtualNodes];
+        int i = 0;
+        for (String member : this.members) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring[i++] = new Point(hash(member + "#" + node), member);
+            }
+        }
+        // Members break ties in hash so every instance orders the ring the same way
+        Arrays.sort(ring, Comparator.comparingLong(Point::hash).thenComparing(Point::member));
+        this.points = new long[ring.length];
+        this.owners = new String[ring.length];
+        for (i = 0; i < ring.length; i++) {
+            points[i] = ring[i].hash();
+            owners[i] = ring[i].member();
+        }
+    }
+    
+    public String owner(UUID deviceId) {
+        long hash = mix(deviceId.getMostSignificantBits() ^ Long.rotateLeft(deviceId.getLeastSignificantBits(), 32));
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Past the last point wraps round to the first
+        return owners[index == points.length ? 0 : index];
+    }
+    
+    public List<String> members() {
+        return members;
+    }
+    
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+    
+    /**
+     * Fraction of the hash space, and so of devices, each member owns
+     */
+    public Map<String, Double> shares() {
+        Map<String, Double> shares = new LinkedHashMap<>();
+        members.forEach(member -> shares.put(member, 0.0));
+        if (points.length == 1) {
+            shares.put(owners[0], 1.0);
+            return shares;
+        }
+        for (int i = 0; i < points.length; i++) {
+            // A point owns the arc back from it to the previous point, wrapping from the first to the last
+            long arc = points[i] - points[i == 0 ? points.length - 1 : i - 1];
+            shares.merge(owners[i], unsigned(arc) / RING_SIZE, Double::sum);
+        }
+        return shares;
+    }
+    
+    /**
+     * FNV-1a over the name's UTF-8 bytes, finished with a mix so similar names spread across the ring
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+    
+    // MurmurHash3 64-bit finaliser
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+    
+    private static double unsigned(long value) {
+        return (value >>> 1) * 2.0 + (value & 1);
+    }
+}
\ No newline at end of file
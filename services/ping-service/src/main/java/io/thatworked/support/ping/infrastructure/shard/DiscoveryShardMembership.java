@@ -0,0 +1,50 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Membership from the instances of this service registered in service discovery (Consul).
+ * Only instances passing their health checks are returned by discovery, so a stopped or hung
+ * instance drops out once its check fails. This instance always counts itself, including before
+ * its own registration becomes visible.
+ */
+public class DiscoveryShardMembership implements ShardMembership {
+    
+    public static final String NAME = "discovery";
+    
+    private final DiscoveryClient discoveryClient;
+    private final String serviceName;
+    private final String localMember;
+    
+    public DiscoveryShardMembership(DiscoveryClient discoveryClient, String serviceName, String localMember) {
+        this.discoveryClient = discoveryClient;
+        this.serviceName = serviceName;
+        this.localMember = localMember;
+    }
+    
+    @Override
+    public String localMember() {
+        return localMember;
+    }
+    
+    @Override
+    public Set<String> liveMembers() {
+        Set<String> members = new HashSet<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceName)) {
+            if (instance.getInstanceId() != null) {
+                members.add(instance.getInstanceId());
+            }
+        }
+        members.add(localMember);
+        return Set.copyOf(members);
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.ShardingConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decides which devices this instance probes.
+ * With sharding disabled it owns every device; otherwise devices are split across live instances
+ * on a consistent hash ring, replaced by {@link ShardRebalancer} when the membership changes.
+ */
+@Component
+public class ProbeOwnership {
+    
+    private final StructuredLogger logger;
+    private final ShardingConfig config;
+    private final ShardMembership membership;
+    private volatile ConsistentHashRing ring;
+    
+    public ProbeOwnership(StructuredLoggerFactory structuredLoggerFactory,
+                          ShardingConfig config,
+                          ShardMembership membership) {
+        this.logger = structuredLoggerFactory.getLogger(ProbeOwnership.class);
+        this.config = config;
+        this.membership = membership;
+        this.ring = new ConsistentHashRing(initialMembers(), config.getVirtualNodes());
+    }
+    
+    /**
+     * Instances already running at start-up, so this one does not begin by probing their devices too
+     */
+    private Set<String> initialMembers() {
+        if (!config.isEnabled()) {
+            return Set.of(membership.localMember());
+        }
+        try {
+            Set<String> members = membership.liveMembers();
+            logger.with("membership", membership.name())
+                  .with("localMember", membership.localMember())
+                  .with("members", members.size())
+                  .info("Probe sharding enabled");
+            return members;
+        } catch (Exception e) {
+            logger.with("membership", membership.name())
+                  .with("error", e.getMessage())
+                  .warn("Shard membership unavailable at start-up, owning all devices until it is");
+            return Set.of(membership.localMember());
+        }
+    }
+    
+    public boolean owns(UUID deviceId) {
+        return ring.owner(deviceId).equals(membership.localMember());
+    }
+    
+    public String owner(UUID deviceId) {
+        return ring.owner(deviceId);
+    }
+    
+    public Set<String> members() {
+        return Set.copyOf(ring.members());
+    }
+    
+    /**
+     * Rebuild the ring for a new set of live instances
+     * @return true if the members changed
+     */
+    public boolean update(Set<String> members) {
+        if (members.equals(members())) {
+            return false;
+        }
+        ring = new ConsistentHashRing(members, config.getVirtualNodes());
+        logger.with("members", ring.members())
+              .info("Shard membership changed");
+        return true;
+    }
+    
+    public Map<String, Object> getAssignment() {
+        ConsistentHashRing current = ring;
+        Map<String, Object> assignment = new LinkedHashMap<>();
+        assignment.put("enabled", config.isEnabled());
+        assignment.put("membership", membership.name());
+        assignment.put("localMember", membership.localMember());
+        assignment.put("members", current.members());
+        assignment.put("virtualNodes", current.virtualNodes());
+        assignment.put("shares", current.shares());
+        return assignment;
+    }
+}
\ No newline at end of file
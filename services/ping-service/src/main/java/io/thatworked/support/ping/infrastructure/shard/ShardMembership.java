@@ -0,0 +1,21 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import java.util.Set;
+
+/**
+ * Source of the ping service instances that currently share the probing work
+ */
+public interface ShardMembership {
+    
+    /**
+     * Name of this instance, as it appears in {@link #liveMembers()}
+     */
+    String localMember();
+    
+    /**
+     * Names of all live instances, always including this one
+     */
+    Set<String> liveMembers();
+    
+    String name();
+}
\ No newline at end of file
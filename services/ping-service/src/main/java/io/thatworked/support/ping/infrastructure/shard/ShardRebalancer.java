@@ -0,0 +1,190 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.application.service.VirtualThreadPingService;
+import io.thatworked.support.ping.config.ShardingConfig;
+import io.thatworked.support.ping.domain.PingTarget;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
+import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves devices between instances as they join and leave.
+ *
+ * <p>Membership is checked every refresh interval, and a change is applied only once the same new
+ * membership has been seen on several consecutive checks, so a rolling restart or a missed health
+ * check does not move devices back and forth. On a change this instance starts the active targets
+ * it now owns straight away, and keeps probing the devices it lost for the hand-off grace period
+ * before stopping them, so the new owner has picked them up and no device goes unprobed.
+ *
+ * <p>Start, stop and update requests reach only the instance that receives them, which may not own
+ * the device, so targets are also reconciled periodically: owned active targets that are missing
+ * or have changed address, probe or interval are (re)started here, and devices that are no longer
+ * active are stopped.
+ */
+@Component
+public class ShardRebalancer {
+    
+    private final StructuredLogger logger;
+    private final ShardingConfig config;
+    private final ShardMembership membership;
+    private final ProbeOwnership ownership;
+    private final VirtualThreadPingService pingService;
+    private final PingTargetRepository pingTargetRepository;
+    private final DeviceSlotRegistry registry;
+    private final Executor handoffExecutor;
+    private final Set<UUID> releasing = ConcurrentHashMap.newKeySet();
+    
+    // Only touched from the scheduling thread
+    private Set<String> candidate = Set.of();
+    private int candidateRefreshes;
+    private long lastReconcileMs = System.currentTimeMillis();
+    
+    // Metrics
+    private final AtomicLong rebalances = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong stoppedInactive = new AtomicLong();
+    
+    public ShardRebalancer(StructuredLoggerFactory structuredLoggerFactory,
+                           ShardingConfig config,
+                           ShardMembership membership,
+                           ProbeOwnership ownership,
+                           VirtualThreadPingService pingService,
+                           PingTargetRepository pingTargetRepository,
+                           DeviceSlotRegistry registry) {
+        this.logger = structuredLoggerFactory.getLogger(ShardRebalancer.class);
+        this.config = config;
+        this.membership = membership;
+        this.ownership = ownership;
+        this.pingService = pingService;
+        this.pingTargetRepository = pingTargetRepository;
+        this.registry = registry;
+        this.handoffExecutor = CompletableFuture.delayedExecutor(config.getHandoffGraceMs(), TimeUnit.MILLISECONDS);
+    }
+    
+    @Scheduled(fixedDelayString = "${ping.sharding.refresh-interval-ms:10000}",
+               initialDelayString = "${ping.sharding.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            Set<String> members = membership.liveMembers();
+            if (!members.equals(ownership.members())) {
+                if (members.equals(candidate)) {
+                    candidateRefreshes++;
+                } else {
+                    candidate = members;
+                    candidateRefreshes = 1;
+                }
+                if (candidateRefreshes >= config.getStableRefreshes()) {
+                    ownership.update(members);
+                    candidate = Set.of();
+                    candidateRefreshes = 0;
+                    rebalances.incrementAndGet();
+                    rebalance("membership");
+                }
+                return;
+            }
+            
+            candidate = Set.of();
+            candidateRefreshes = 0;
+            if (System.currentTimeMillis() - lastReconcileMs >= config.getReconcileIntervalMs()) {
+                rebalance("reconcile");
+            }
+        } catch (Exception e) {
+            logger.with("method", "refresh")
+                  .with("membership", membership.name())
+                  .error("Failed to refresh shard membership", e);
+        }
+    }
+    
+    /**
+     * Start the active targets this instance owns and isn't probing, and hand off or stop the rest
+     */
+    void rebalance(String reason) {
+        lastReconcileMs = System.currentTimeMillis();
+        List<PingTarget> activeTargets = pingTargetRepository.findAllActiveTargets();
+        Set<UUID> active = new HashSet<>(activeTargets.size() * 2);
+        int starting = 0;
+        for (PingTarget target : activeTargets) {
+            UUID deviceId = target.getDeviceId();
+            active.add(deviceId);
+            if (!ownership.owns(deviceId)) {
+                continue;
+            }
+            releasing.remove(deviceId);
+            if (registry.slotOf(deviceId) == DeviceSlotRegistry.NO_SLOT) {
+                pingService.startMonitoring(target);
+                starting++;
+            } else if (!pingService.monitorsAsConfigured(target)) {
+                pingService.updateMonitoring(target);
+                starting++;
+            }
+        }
+        started.addAndGet(starting);
+        
+        int handingOff = 0;
+        int stopping = 0;
+        for (UUID deviceId : registry.deviceIds()) {
+            if (!active.contains(deviceId)) {
+                pingService.stopMonitoring(deviceId);
+                stoppedInactive.incrementAndGet();
+                stopping++;
+            } else if (!ownership.owns(deviceId) && releasing.add(deviceId)) {
+                handoffExecutor.execute(() -> release(deviceId));
+                handingOff++;
+            }
+        }
+        
+        if (starting > 0 || handingOff > 0 || stopping > 0) {
+            logger.with("reason", reason)
+                  .with("started", starting)
+                  .with("handingOff", handingOff)
+                  .with("stoppedInactive", stopping)
+                  .with("monitored", registry.size())
+                  .info("Rebalanced probe ownership");
+        }
+    }
+    
+    /**
+     * Stop a device handed off to another instance, unless membership moved it back during the grace period
+     */
+    private void release(UUID deviceId) {
+        try {
+            if (releasing.remove(deviceId) && !ownership.owns(deviceId)) {
+                pingService.stopMonitoring(deviceId);
+                released.incrementAndGet();
+            }
+        } catch (Exception e) {
+            logger.with("deviceId", deviceId)
+                  .error("Failed to release handed off device", e);
+        }
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("monitored", registry.size());
+        metrics.put("rebalances", rebalances.get());
+        metrics.put("started", started.get());
+        metrics.put("releasing", releasing.size());
+        metrics.put("released", released.get());
+        metrics.put("stoppedInactive", stoppedInactive.get());
+        return metrics;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Membership from a fixed list of instance names, for deployments with stable names and for tests.
+ * The list can be replaced at runtime to stand in for instances joining and leaving.
+ */
+public class StaticShardMembership implements ShardMembership {
+    
+    public static final String NAME = "static";
+    
+    private final String localMember;
+    private volatile Set<String> members;
+    
+    public StaticShardMembership(String localMember, Collection<String> members) {
+        this.localMember = localMember;
+        setMembers(members);
+    }
+    
+    public void setMembers(Collection<String> members) {
+        Set<String> live = new TreeSet<>(members);
+        live.add(localMember);
+        this.members = Set.copyOf(live);
+    }
+    
+    @Override
+    public String localMember() {
+        return localMember;
+    }
+    
+    @Override
+    public Set<String> liveMembers() {
+        return members;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
\ No newline at end of file
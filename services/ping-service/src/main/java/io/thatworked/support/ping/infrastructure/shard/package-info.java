@@ -0,0 +1,14 @@
+/**
+ * Splitting probe ownership across ping service instances.
+ * 
+ * <p>Sharding components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.ShardMembership} - Source of the live instances</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.DiscoveryShardMembership} - Instances registered in service discovery</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.StaticShardMembership} - Fixed instance list, also the in-memory stand-in for tests</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.ConsistentHashRing} - Consistent hash of devices onto instances</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.ProbeOwnership} - Which devices this instance probes</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.shard.ShardRebalancer} - Hand-off of devices on membership changes</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.shard;
\ No newline at end of file
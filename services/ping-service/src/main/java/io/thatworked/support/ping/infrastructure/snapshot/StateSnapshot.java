@@ -0,0 +1,171 @@
+package io.thatworked.support.ping.infrastructure.snapshot;
+
+import io.thatworked.support.ping.domain.AlertState;
+import io.thatworked.support.ping.domain.ProbeType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Schedule phase, circuit state and alert counters of every monitored device at one moment.
+ *
+ * <p>Times are wall clock epoch milliseconds, as the monotonic clock the service schedules with
+ * starts over with every JVM. The binary form is a header, the targets, the alert states and a
+ * CRC32 of everything before it, about 125 bytes per device plus its address and hostname; a
+ * truncated or corrupted file fails to read rather than restoring part of the state.
+ */
+public record StateSnapshot(long writtenAtMs, List<TargetState> targets, List<AlertState> alertStates) {
+    
+    /**
+     * Time that was never set
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    
+    // "PNGS"
+    private static final int MAGIC = 0x504e4753;
+    private static final int VERSION = 1;
+    // Far above any fleet, so a corrupt count fails fast instead of allocating
+    private static final int MAX_ENTRIES = 50_000_000;
+    
+    /**
+     * One monitored device
+     * @param intervalMs Configured ping interval
+     * @param nextDueMs When the next ping was due, or {@link #NONE} if it was never scheduled
+     * @param circuitState Circuit state constant of the device slot registry
+     * @param circuitAgeMs How long the circuit had been in its state
+     */
+    public record TargetState(UUID deviceId, String ipAddress, String hostname, ProbeType probeType, Integer probePort,
+                              long intervalMs, long nextDueMs, int circuitState, int failures, long circuitAgeMs) {
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(writtenAtMs);
+        
+        data.writeInt(targets.size());
+        for (TargetState target : targets) {
+            writeUuid(data, target.deviceId());
+            writeString(data, target.ipAddress());
+            writeString(data, target.hostname());
+            writeString(data, target.probeType() != null ? target.probeType().name() : null);
+            data.writeInt(target.probePort() != null ? target.probePort() : -1);
+            data.writeLong(target.intervalMs());
+            data.writeLong(target.nextDueMs());
+            data.writeByte(target.circuitState());
+            data.writeInt(target.failures());
+            data.writeLong(target.circuitAgeMs());
+        }
+        
+        data.writeInt(alertStates.size());
+        for (AlertState state : alertStates) {
+            writeUuid(data, state.getDeviceId());
+            data.writeInt(state.getConsecutiveFailures());
+            data.writeInt(state.getConsecutiveSuccesses());
+            data.writeBoolean(state.isAlerting());
+            writeInstant(data, state.getLastAlertSent());
+            writeInstant(data, state.getLastRecoverySent());
+            writeInstant(data, state.getLastFailureTime());
+            writeInstant(data, state.getLastSuccessTime());
+            writeInstant(data, state.getCreatedAt());
+            writeInstant(data, state.getUpdatedAt());
+        }
+        
+        data.flush();
+        new DataOutputStream(buffered).writeLong(crc.getValue());
+        buffered.flush();
+    }
+    
+    public static StateSnapshot readFrom(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 1 << 16);
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(buffered, crc));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a ping state snapshot");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported ping state snapshot version " + version);
+        }
+        long writtenAtMs = data.readLong();
+        
+        int targetCount = readCount(data);
+        List<TargetState> targets = new ArrayList<>(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+            UUID deviceId = readUuid(data);
+            String ipAddress = readString(data);
+            String hostname = readString(data);
+            String probeType = readString(data);
+            int probePort = data.readInt();
+            targets.add(new TargetState(deviceId, ipAddress, hostname,
+                probeType != null ? ProbeType.valueOf(probeType) : null,
+                probePort >= 0 ? probePort : null,
+                data.readLong(), data.readLong(), data.readByte(), data.readInt(), data.readLong()));
+        }
+        
+        int stateCount = readCount(data);
+        List<AlertState> alertStates = new ArrayList<>(stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            alertStates.add(new AlertState(readUuid(data), data.readInt(), data.readInt(), data.readBoolean(),
+                readInstant(data), readInstant(data), readInstant(data), readInstant(data), readInstant(data), readInstant(data)));
+        }
+        
+        long expected = crc.getValue();
+        if (new DataInputStream(buffered).readLong() != expected) {
+            throw new IOException("Ping state snapshot checksum mismatch");
+        }
+        return new StateSnapshot(writtenAtMs, targets, alertStates);
+    }
+    
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IOException("Invalid entry count " + count + " in ping state snapshot");
+        }
+        return count;
+    }
+    
+    private static void writeUuid(DataOutputStream data, UUID uuid) throws IOException {
+        data.writeLong(uuid.getMostSignificantBits());
+        data.writeLong(uuid.getLeastSignificantBits());
+    }
+    
+    private static UUID readUuid(DataInputStream data) throws IOException {
+        return new UUID(data.readLong(), data.readLong());
+    }
+    
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+    
+    private static String readString(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+    
+    private static void writeInstant(DataOutputStream data, Instant time) throws IOException {
+        data.writeLong(time != null ? time.toEpochMilli() : NONE);
+    }
+    
+    private static Instant readInstant(DataInputStream data) throws IOException {
+        long epochMs = data.readLong();
+        return epochMs != NONE ? Instant.ofEpochMilli(epochMs) : null;
+    }
+}
\ No newline at end of file
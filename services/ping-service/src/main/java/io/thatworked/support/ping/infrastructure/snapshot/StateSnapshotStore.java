@@ -0,0 +1,141 @@
+package io.thatworked.support.ping.infrastructure.snapshot;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.SnapshotConfig;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local file holding the latest {@link StateSnapshot}.
+ *
+ * <p>The snapshot left by the previous run is read once at startup and kept until the ping service
+ * has restored from it. Writes go to a temporary file next to the snapshot that is then moved over
+ * it, so a crash mid-write leaves the previous snapshot in place.
+ */
+@Component
+public class StateSnapshotStore {
+    
+    private final StructuredLogger logger;
+    private final SnapshotConfig config;
+    private final Path path;
+    private volatile StateSnapshot restored;
+    
+    // Metrics
+    private volatile int restoredTargets;
+    private volatile int restoredAlertStates;
+    private volatile long readMs;
+    private volatile long writes;
+    private volatile long failedWrites;
+    private volatile long lastWriteMs;
+    private volatile long lastWriteBytes;
+    private volatile long lastWrittenAtMs = StateSnapshot.NONE;
+    
+    public StateSnapshotStore(StructuredLoggerFactory structuredLoggerFactory, SnapshotConfig config) {
+        this.logger = structuredLoggerFactory.getLogger(StateSnapshotStore.class);
+        this.config = config;
+        this.path = Path.of(config.getPath());
+    }
+    
+    @PostConstruct
+    public void read() {
+        if (!config.isEnabled() || !Files.exists(path)) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try (InputStream in = Files.newInputStream(path)) {
+            StateSnapshot snapshot = StateSnapshot.readFrom(in);
+            readMs = System.currentTimeMillis() - startTime;
+            long ageMs = startTime - snapshot.writtenAtMs();
+            if (ageMs > config.getMaxAgeMs()) {
+                logger.with("path", path)
+                      .with("ageMs", ageMs)
+                      .with("maxAgeMs", config.getMaxAgeMs())
+                      .warn("State snapshot too old, starting cold");
+                return;
+            }
+            restored = snapshot;
+            restoredTargets = snapshot.targets().size();
+            restoredAlertStates = snapshot.alertStates().size();
+            logger.with("path", path)
+                  .with("ageMs", ageMs)
+                  .with("targets", restoredTargets)
+                  .with("alertStates", restoredAlertStates)
+                  .with("durationMs", readMs)
+                  .info("State snapshot read");
+        } catch (Exception e) {
+            logger.with("path", path)
+                  .with("error", e.getMessage())
+                  .warn("Unreadable state snapshot, starting cold");
+        }
+    }
+    
+    /**
+     * Snapshot left by the previous run, until {@link #release()} is called
+     */
+    public Optional<StateSnapshot> restored() {
+        return Optional.ofNullable(restored);
+    }
+    
+    /**
+     * Drop the restored snapshot once everything has been restored from it
+     */
+    public void release() {
+        restored = null;
+    }
+    
+    /**
+     * Replace the snapshot file
+     */
+    public synchronized void write(StateSnapshot snapshot) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                snapshot.writeTo(out);
+            }
+            lastWriteBytes = Files.size(temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            failedWrites++;
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        lastWriteMs = System.currentTimeMillis() - startTime;
+        lastWrittenAtMs = snapshot.writtenAtMs();
+        writes++;
+    }
+    
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", config.isEnabled());
+        metrics.put("path", path.toString());
+        metrics.put("restoredTargets", restoredTargets);
+        metrics.put("restoredAlertStates", restoredAlertStates);
+        metrics.put("readMs", readMs);
+        metrics.put("writes", writes);
+        metrics.put("failedWrites", failedWrites);
+        metrics.put("lastWriteMs", lastWriteMs);
+        metrics.put("lastWriteBytes", lastWriteBytes);
+        metrics.put("lastWrittenAtMs", lastWrittenAtMs != StateSnapshot.NONE ? lastWrittenAtMs : null);
+        metrics.put("intervalMs", config.getIntervalMs());
+        return metrics;
+    }
+}
\ No newline at end of file
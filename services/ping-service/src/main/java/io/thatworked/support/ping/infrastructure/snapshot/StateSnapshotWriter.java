@@ -0,0 +1,90 @@
+package io.thatworked.support.ping.infrastructure.snapshot;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures the state of every monitored device into the {@link StateSnapshotStore}.
+ * Runs every snapshot interval, and once more when the ping service shuts down before it stops
+ * its devices. Reads the registry slot by slot without stopping pings, so a snapshot may mix
+ * state from just before and just after a ping finished.
+ */
+@Component
+public class StateSnapshotWriter {
+    
+    private final StructuredLogger logger;
+    private final StateSnapshotStore store;
+    private final DeviceSlotRegistry registry;
+    private final AlertStateStore alertStateStore;
+    // Set once the last snapshot before shutdown is written, so no later write replaces it
+    private volatile boolean closed;
+    
+    public StateSnapshotWriter(StructuredLoggerFactory structuredLoggerFactory,
+                               StateSnapshotStore store,
+                               DeviceSlotRegistry registry,
+                               AlertStateStore alertStateStore) {
+        this.logger = structuredLoggerFactory.getLogger(StateSnapshotWriter.class);
+        this.store = store;
+        this.registry = registry;
+        this.alertStateStore = alertStateStore;
+    }
+    
+    @Scheduled(fixedDelayString = "${ping.snapshot.interval-ms:30000}",
+               initialDelayString = "${ping.snapshot.interval-ms:30000}")
+    public synchronized void write() {
+        if (!store.isEnabled() || closed) {
+            return;
+        }
+        try {
+            StateSnapshot snapshot = capture();
+            store.write(snapshot);
+            logger.with("targets", snapshot.targets().size())
+                  .with("alertStates", snapshot.alertStates().size())
+                  .debug("State snapshot written");
+        } catch (Exception e) {
+            logger.with("method", "write")
+                  .with("error", e.getMessage())
+                  .warn("Failed to write state snapshot");
+        }
+    }
+    
+    /**
+     * Write the snapshot the next start restores from, and no more after it
+     */
+    public synchronized void writeFinal() {
+        write();
+        closed = true;
+    }
+    
+    StateSnapshot capture() {
+        long nowMs = System.currentTimeMillis();
+        long nowNanos = System.nanoTime();
+        List<StateSnapshot.TargetState> targets = new ArrayList<>(registry.size());
+        for (UUID deviceId : registry.deviceIds()) {
+            int slot = registry.slotOf(deviceId);
+            PingTask task = slot != DeviceSlotRegistry.NO_SLOT ? registry.task(slot) : null;
+            if (task == null) {
+                continue;
+            }
+            long nextDueNanos = registry.nextDueNanos(slot);
+            long nextDueMs = nextDueNanos != DeviceSlotRegistry.NONE
+                ? nowMs + TimeUnit.NANOSECONDS.toMillis(nextDueNanos - nowNanos)
+                : StateSnapshot.NONE;
+            targets.add(new StateSnapshot.TargetState(deviceId, task.getIpAddress(), task.getHostname(),
+                task.getProbeType(), task.getProbePort(), task.getIntervalMs(), nextDueMs,
+                registry.circuitState(slot), registry.failures(slot),
+                TimeUnit.NANOSECONDS.toMillis(nowNanos - registry.stateChangedNanos(slot))));
+        }
+        return new StateSnapshot(nowMs, targets, alertStateStore.snapshot());
+    }
+}
\ No newline at end of file
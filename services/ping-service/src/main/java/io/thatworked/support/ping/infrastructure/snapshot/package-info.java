@@ -0,0 +1,11 @@
+/**
+ * Local snapshot of per-device state, so a restarted service resumes where it stopped.
+ * 
+ * <p>Snapshot components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.snapshot.StateSnapshot} - Schedule phase, circuit state and alert counters in a compact binary form</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore} - Snapshot file, read at startup and replaced atomically</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotWriter} - Periodic and shutdown capture of the current state</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.snapshot;
\ No newline at end of file
@@ -0,0 +1,127 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.ResultWriterConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes batches of ping results straight to the ping_results table over JDBC.
+ * Uses COPY on PostgreSQL and multi-row INSERT statements otherwise.
+ */
+@Component
+public class PingResultBatchWriter {
+    
+    static final String COPY_SQL = "COPY ping_results (time, device_id, round_trip_time, status) FROM STDIN";
+    static final String INSERT_SQL = "INSERT INTO ping_results (time, device_id, round_trip_time, status) VALUES ";
+    static final String ON_CONFLICT_SQL = " ON CONFLICT (time, device_id) DO NOTHING";
+    
+    // 4 parameters per row, well below the 32767 bind parameter limit
+    private static final int ROWS_PER_INSERT = 500;
+    
+    private final StructuredLogger logger;
+    private final DataSource dataSource;
+    private final ResultWriterConfig config;
+    
+    public PingResultBatchWriter(StructuredLoggerFactory structuredLoggerFactory,
+                                 DataSource dataSource,
+                                 ResultWriterConfig config) {
+        this.logger = structuredLoggerFactory.getLogger(PingResultBatchWriter.class);
+        this.dataSource = dataSource;
+        this.config = config;
+    }
+    
+    /**
+     * Write a batch in a single transaction
+     * @return The write mode that succeeded, "copy" or "insert"
+     */
+    public String write(List<PingResult> results) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            
+            if (postgres && config.isCopyEnabled()) {
+                try {
+                    copy(connection, results);
+                    return "copy";
+                } catch (SQLException | IOException e) {
+                    // COPY aborts on the first duplicate key, the INSERT below skips them instead
+                    logger.with("rows", results.size())
+                          .with("error", e.getMessage())
+                          .warn("COPY into ping_results failed, retrying batch with INSERT");
+                }
+            }
+            
+            insert(connection, results, postgres);
+            return "insert";
+        }
+    }
+    
+    private void copy(Connection connection, List<PingResult> results) throws SQLException, IOException {
+        StringBuilder rows = new StringBuilder(results.size() * 96);
+        for (PingResult result : results) {
+            rows.append(result.getTime()).append('\t')
+                .append(result.getDeviceId()).append('\t')
+                .append(result.getRoundTripTime() != null ? result.getRoundTripTime().toString() : "\\N").append('\t')
+                .append(result.getStatus().name()).append('\n');
+        }
+        
+        connection.unwrap(PGConnection.class)
+                  .getCopyAPI()
+                  .copyIn(COPY_SQL, new StringReader(rows.toString()));
+    }
+    
+    private void insert(Connection connection, List<PingResult> results, boolean skipDuplicates) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int from = 0; from < results.size(); from += ROWS_PER_INSERT) {
+                List<PingResult> chunk = results.subList(from, Math.min(from + ROWS_PER_INSERT, results.size()));
+                try (PreparedStatement statement = connection.prepareStatement(insertSql(chunk.size(), skipDuplicates))) {
+                    int index = 1;
+                    for (PingResult result : chunk) {
+                        statement.setObject(index++, OffsetDateTime.ofInstant(result.getTime(), ZoneOffset.UTC));
+                        statement.setObject(index++, result.getDeviceId());
+                        if (result.getRoundTripTime() != null) {
+                            statement.setDouble(index++, result.getRoundTripTime());
+                        } else {
+                            statement.setNull(index++, Types.DOUBLE);
+                        }
+                        statement.setString(index++, result.getStatus().name());
+                    }
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    static String insertSql(int rows, boolean skipDuplicates) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows * 16 + ON_CONFLICT_SQL.length());
+        sql.append(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        if (skipDuplicates) {
+            sql.append(ON_CONFLICT_SQL);
+        }
+        return sql.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.thatworked.support.ping.domain.PingResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead log of ping results, made of memory-mapped segment files.
+ *
+ * <p>Producers append under a lock; a record is in the page cache as soon as append returns, so it
+ * survives a process crash, and {@link #force()} makes it durable against a host crash. A single
+ * replaying thread reads records from the checkpoint onward and calls {@link #commit()} once they
+ * are in the database. The checkpoint is persisted by an atomic file replace, after which segments
+ * that lie entirely before it are deleted. Records replayed twice after a crash between a database
+ * write and its checkpoint are absorbed by the batch writer's duplicate handling.
+ *
+ * <p>Disk usage is capped at a number of segments; appends beyond the cap are rejected.
+ */
+public class PingResultWal implements AutoCloseable {
+    
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+    private static final int CHECKPOINT_SIZE = 16;
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Map<Long, WalSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile WalSegment active;
+    
+    // Owned by the replaying thread
+    private long readSegmentId;
+    private int readOffset;
+    
+    // Metrics
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    
+    private PingResultWal(Path directory, int segmentBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+    }
+    
+    /**
+     * Open the log, recovering any segments and the checkpoint left by a previous run
+     * @param segmentBytes Size of each segment file
+     * @param maxBytes Disk budget for all segments
+     */
+    public static PingResultWal open(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes < WalSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        PingResultWal wal = new PingResultWal(directory, segmentBytes, (int) Math.max(2, maxBytes / segmentBytes));
+        wal.recover();
+        return wal;
+    }
+    
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(WalSegment.SUFFIX))
+                           .sorted()
+                           .toList();
+        }
+        
+        for (Path file : files) {
+            WalSegment segment = WalSegment.recover(file, WalSegment.parseId(file));
+            if (active != null) {
+                active.seal();
+            }
+            segments.put(segment.id, segment);
+            active = segment;
+        }
+        if (active == null) {
+            active = WalSegment.create(directory, 0, segmentBytes);
+            segments.put(active.id, active);
+        }
+        
+        readSegmentId = segments.keySet().iterator().next();
+        readOffset = 0;
+        readCheckpoint();
+    }
+    
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (data.remaining() != CHECKPOINT_SIZE) {
+            return;
+        }
+        long segmentId = data.getLong();
+        int offset = data.getInt();
+        int crc = data.getInt();
+        if (crc != checkpointCrc(segmentId, offset)) {
+            // Replay from the oldest segment; the batch writer skips rows that are already stored
+            return;
+        }
+        
+        WalSegment segment = segments.get(segmentId);
+        if (segment != null) {
+            readSegmentId = segmentId;
+            readOffset = Math.min(offset, segment.writePosition());
+        } else if (segmentId > readSegmentId) {
+            // Checkpoint points past the segments on disk, nothing is left to replay from them
+            readSegmentId = active.id;
+            readOffset = active.writePosition();
+        }
+    }
+    
+    /**
+     * Append a result
+     * @return false if the log has reached its disk budget or could not create a new segment
+     */
+    public boolean append(PingResult result) {
+        appendLock.lock();
+        try {
+            if (!active.hasRoom() && !rollover()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            active.append(result);
+            appended.incrementAndGet();
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    private boolean rollover() {
+        if (segments.size() >= maxSegments) {
+            return false;
+        }
+        try {
+            WalSegment next = WalSegment.create(directory, active.id + 1, segmentBytes);
+            active.force();
+            segments.put(next.id, next);
+            WalSegment previous = active;
+            active = next;
+            previous.seal();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Read up to {@code max} records after the last read position. Only the replaying thread calls this.
+     */
+    public List<PingResult> read(int max) {
+        List<PingResult> results = new ArrayList<>(Math.min(max, 1024));
+        while (results.size() < max) {
+            WalSegment segment = segments.get(readSegmentId);
+            if (segment == null) {
+                break;
+            }
+            
+            // Check sealed before reading the write position, which is final once sealed
+            boolean sealed = segment.isSealed();
+            int limit = segment.writePosition();
+            if (readOffset < limit) {
+                results.add(segment.read(readOffset));
+                readOffset += WalSegment.RECORD_SIZE;
+            } else if (sealed) {
+                readSegmentId = segment.id + 1;
+                readOffset = 0;
+            } else {
+                break;
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Record everything read so far as stored, then delete segments that are no longer needed
+     */
+    public void commit() throws IOException {
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        
+        ByteBuffer data = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        data.putLong(segmentId).putInt(offset).putInt(checkpointCrc(segmentId, offset));
+        Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+        Files.write(temp, data.array(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        
+        for (WalSegment segment : segments.values()) {
+            if (segment.id >= segmentId) {
+                break;
+            }
+            segments.remove(segment.id);
+            segment.delete();
+        }
+    }
+    
+    /**
+     * Flush the active segment to disk
+     */
+    public void force() {
+        active.force();
+    }
+    
+    /**
+     * Records appended but not yet read by the replayer
+     */
+    public long pendingRecords() {
+        long pending = 0;
+        for (WalSegment segment : segments.values()) {
+            if (segment.id > readSegmentId) {
+                pending += segment.writePosition() / WalSegment.RECORD_SIZE;
+            } else if (segment.id == readSegmentId) {
+                pending += Math.max(0, segment.writePosition() - readOffset) / WalSegment.RECORD_SIZE;
+            }
+        }
+        return pending;
+    }
+    
+    public int segmentCount() {
+        return segments.size();
+    }
+    
+    public int maxSegments() {
+        return maxSegments;
+    }
+    
+    public long appended() {
+        return appended.get();
+    }
+    
+    public long rejected() {
+        return rejected.get();
+    }
+    
+    public Path directory() {
+        return directory;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            active.force();
+            for (WalSegment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    private static int checkpointCrc(long segmentId, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12).putLong(segmentId).putInt(offset).flip());
+        return (int) crc.getValue();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,347 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.ResultWriterConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.infrastructure.jfr.ResultPersistedEvent;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind stage between the ping executor and the ping_results table.
+ *
+ * <p>Executor threads offer results to a bounded lock-free queue and return immediately. A single
+ * flusher thread drains the queue every flush interval, or as soon as a full batch is waiting, and
+ * writes each batch with {@link PingResultBatchWriter}. A failed batch is retried on the next
+ * cycle and dropped after the configured number of attempts; while it is retried, new results keep
+ * queueing until the queue is full, after which they are rejected. Shutdown drains the queue
+ * synchronously.
+ *
+ * <p>With the write-ahead log enabled, results are appended to a {@link PingResultWal} instead of
+ * the in-memory queue and the flusher replays the log. Failed batches are then retried until the
+ * database accepts them rather than dropped, and anything not yet stored at shutdown is replayed
+ * on the next start.
+ */
+@Component
+public class PingResultWriteBehind {
+    
+    private final StructuredLogger logger;
+    private final PingResultBatchWriter batchWriter;
+    private final ResultWriterConfig config;
+    private final PingMeters meters;
+    
+    private final Queue<PingResult> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private volatile boolean running;
+    private Thread flusher;
+    private PingResultWal wal;
+    
+    // Owned by the flusher thread
+    private List<PingResult> pendingBatch = new ArrayList<>();
+    private int pendingAttempts;
+    
+    // Metrics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    private volatile int lastFlushRows;
+    private volatile long lastFlushMs;
+    private volatile long maxFlushMs;
+    private volatile String lastWriteMode = "none";
+    
+    public PingResultWriteBehind(StructuredLoggerFactory structuredLoggerFactory,
+                                 PingResultBatchWriter batchWriter,
+                                 ResultWriterConfig config,
+                                 PingMeters meters) {
+        this.logger = structuredLoggerFactory.getLogger(PingResultWriteBehind.class);
+        this.batchWriter = batchWriter;
+        this.config = config;
+        this.meters = meters;
+        meters.queueDepth("result-writer", depth, AtomicInteger::get);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!config.isWriteBehindEnabled()) {
+            logger.with("writeBehindEnabled", false).info("Ping result write-behind disabled, results are saved individually");
+            return;
+        }
+        
+        if (config.isWalEnabled()) {
+            openWal();
+        }
+        
+        running = true;
+        flusher = Thread.ofPlatform().name("ping-result-flusher").daemon(true).start(this::flushLoop);
+        
+        logger.with("queueCapacity", config.getQueueCapacity())
+              .with("batchSize", config.getBatchSize())
+              .with("flushIntervalMs", config.getFlushIntervalMs())
+              .with("copyEnabled", config.isCopyEnabled())
+              .with("walEnabled", wal != null)
+              .info("Ping result write-behind started");
+    }
+    
+    private void openWal() {
+        try {
+            wal = PingResultWal.open(Path.of(config.getWalDirectory()), config.getWalSegmentBytes(), config.getWalMaxBytes());
+            long pending = wal.pendingRecords();
+            depth.set((int) Math.min(pending, Integer.MAX_VALUE));
+            logger.with("walDirectory", config.getWalDirectory())
+                  .with("segments", wal.segmentCount())
+                  .with("pendingRecords", pending)
+                  .info("Ping result write-ahead log opened");
+        } catch (IOException | RuntimeException e) {
+            wal = null;
+            logger.with("walDirectory", config.getWalDirectory())
+                  .with("error", e.getMessage())
+                  .error("Failed to open ping result write-ahead log, buffering results in memory only", e);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            // The flusher drains the queue before exiting, bounded by the drain timeout
+            flusher.join(config.getShutdownDrainTimeoutMs() + config.getFlushIntervalMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (wal != null) {
+            try {
+                wal.close();
+            } catch (IOException e) {
+                logger.with("error", e.getMessage()).error("Error closing ping result write-ahead log", e);
+            }
+        }
+        
+        logger.with("rowsWritten", rowsWritten.get())
+              .with("droppedRows", droppedRows.get())
+              .info("Ping result write-behind stopped");
+    }
+    
+    /**
+     * Whether results should be submitted here rather than saved directly
+     */
+    public boolean isEnabled() {
+        return running;
+    }
+    
+    /**
+     * Queue a result for the next flush
+     * @return false if the queue is full or the stage is stopped, in which case the result is dropped
+     */
+    public boolean submit(PingResult result) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        
+        int queued;
+        if (wal != null) {
+            // The log is bounded by its disk budget rather than the queue capacity
+            if (!wal.append(result)) {
+                rejected.increment();
+                return false;
+            }
+            queued = depth.incrementAndGet();
+        } else {
+            queued = depth.incrementAndGet();
+            if (queued > config.getQueueCapacity()) {
+                depth.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            queue.offer(result);
+        }
+        
+        submitted.increment();
+        if (queued == config.getBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+    
+    private void flushLoop() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        long nextFlush = System.nanoTime() + intervalNanos;
+        
+        while (running) {
+            long waitNanos = nextFlush - System.nanoTime();
+            if (waitNanos > 0 && depth.get() < config.getBatchSize()) {
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+            
+            flushOnce();
+            nextFlush = System.nanoTime() + intervalNanos;
+        }
+        
+        drain();
+    }
+    
+    /**
+     * Flush everything still queued, called once the stage stops accepting results
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getShutdownDrainTimeoutMs());
+        while ((!pendingBatch.isEmpty() || depth.get() > 0) && System.nanoTime() < deadline) {
+            if (!flushOnce() && wal != null) {
+                break;
+            }
+        }
+        
+        int remaining = depth.get() + pendingBatch.size();
+        if (remaining > 0 && wal != null) {
+            logger.with("remaining", remaining).info("Unwritten ping results kept in the write-ahead log for the next start");
+        } else if (remaining > 0) {
+            droppedRows.addAndGet(remaining);
+            logger.with("remaining", remaining).warn("Ping result write-behind stopped with unwritten results");
+        }
+    }
+    
+    /**
+     * Write one batch, retrying the previous batch first if it failed
+     * @return false if the batch failed and is still pending
+     */
+    private boolean flushOnce() {
+        if (pendingBatch.isEmpty()) {
+            if (wal != null) {
+                wal.force();
+                pendingBatch = wal.read(config.getBatchSize());
+                depth.addAndGet(-pendingBatch.size());
+            } else {
+                PingResult result;
+                while (pendingBatch.size() < config.getBatchSize() && (result = queue.poll()) != null) {
+                    depth.decrementAndGet();
+                    pendingBatch.add(result);
+                }
+            }
+            pendingAttempts = 0;
+        }
+        if (pendingBatch.isEmpty()) {
+            return true;
+        }
+        
+        ResultPersistedEvent persisted = new ResultPersistedEvent();
+        persisted.begin();
+        long startTime = System.nanoTime();
+        try {
+            lastWriteMode = batchWriter.write(pendingBatch);
+            
+            long elapsedNanos = System.nanoTime() - startTime;
+            meters.recordResultWrite(lastWriteMode, elapsedNanos);
+            commitPersisted(persisted, pendingBatch.size(), lastWriteMode, true);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            lastFlushMs = elapsedMs;
+            if (elapsedMs > maxFlushMs) {
+                maxFlushMs = elapsedMs;
+            }
+            lastFlushRows = pendingBatch.size();
+            rowsWritten.addAndGet(pendingBatch.size());
+            flushes.incrementAndGet();
+            pendingBatch = new ArrayList<>(config.getBatchSize());
+            commitWal();
+            return true;
+        } catch (Exception e) {
+            meters.recordResultWrite("failed", System.nanoTime() - startTime);
+            commitPersisted(persisted, pendingBatch.size(), "failed", false);
+            failedFlushes.incrementAndGet();
+            pendingAttempts++;
+            
+            // Batches read from the log are never dropped, they stay on disk until stored
+            if (wal == null && pendingAttempts >= config.getMaxFlushAttempts()) {
+                droppedRows.addAndGet(pendingBatch.size());
+                logger.with("rows", pendingBatch.size())
+                      .with("attempts", pendingAttempts)
+                      .error("Dropping ping result batch after repeated flush failures", e);
+                pendingBatch = new ArrayList<>(config.getBatchSize());
+            } else {
+                logger.with("rows", pendingBatch.size())
+                      .with("attempts", pendingAttempts)
+                      .with("error", e.getMessage())
+                      .warn("Ping result flush failed, will retry");
+                // Back off for one interval instead of hammering an unavailable database, except while draining
+                if (running) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs()));
+                }
+            }
+            return false;
+        }
+    }
+    
+    private static void commitPersisted(ResultPersistedEvent event, int rows, String mode, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.mode = mode;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+    
+    private void commitWal() {
+        if (wal == null) {
+            return;
+        }
+        try {
+            wal.commit();
+        } catch (IOException e) {
+            // The rows are stored; a stale checkpoint only means they are replayed and skipped after a restart
+            logger.with("error", e.getMessage()).warn("Failed to checkpoint ping result write-ahead log");
+        }
+    }
+    
+    /**
+     * Get write-behind metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", running);
+        metrics.put("queueDepth", depth.get());
+        metrics.put("queueCapacity", config.getQueueCapacity());
+        metrics.put("submitted", submitted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("flushes", flushes.get());
+        metrics.put("rowsWritten", rowsWritten.get());
+        metrics.put("failedFlushes", failedFlushes.get());
+        metrics.put("droppedRows", droppedRows.get());
+        metrics.put("lastFlushRows", lastFlushRows);
+        metrics.put("lastFlushMs", lastFlushMs);
+        metrics.put("maxFlushMs", maxFlushMs);
+        metrics.put("lastWriteMode", lastWriteMode);
+        metrics.put("walEnabled", wal != null);
+        if (wal != null) {
+            metrics.put("walSegments", wal.segmentCount());
+            metrics.put("walMaxSegments", wal.maxSegments());
+            metrics.put("walPendingRecords", wal.pendingRecords());
+        }
+        return metrics;
+    }
+}
\ No newline at end of file
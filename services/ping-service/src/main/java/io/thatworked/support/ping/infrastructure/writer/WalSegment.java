@@ -0,0 +1,164 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped file of fixed-size ping result records.
+ *
+ * <p>Record layout, little endian: CRC32C of the remaining bytes (4), epoch seconds (8), nanos (4),
+ * device id (16), round trip time with NaN for none (8), status ordinal (1), padding to 48 bytes.
+ * A new file is zero-filled, so the first record whose checksum does not match marks the end of
+ * the data, including a record torn by a crash.
+ */
+final class WalSegment {
+    
+    static final int RECORD_SIZE = 48;
+    static final String SUFFIX = ".wal";
+    
+    private static final int PAYLOAD_OFFSET = 4;
+    private static final PingStatus[] STATUSES = PingStatus.values();
+    
+    final long id;
+    final Path path;
+    final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C writeCrc = new CRC32C();
+    private final CRC32C readCrc = new CRC32C();
+    
+    // Published after each record is fully written, so readers never see a partial record
+    private volatile int writePosition;
+    private volatile boolean sealed;
+    
+    private WalSegment(long id, Path path, FileChannel channel, int capacity) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * Create an empty segment
+     * @param capacity Size in bytes, rounded down to a whole number of records
+     */
+    static WalSegment create(Path directory, long id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new WalSegment(id, path, channel, capacity - capacity % RECORD_SIZE);
+    }
+    
+    /**
+     * Map an existing segment and find the end of its valid records
+     */
+    static WalSegment recover(Path path, long id) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        WalSegment segment = new WalSegment(id, path, channel, (int) (size - size % RECORD_SIZE));
+        
+        int position = 0;
+        while (position + RECORD_SIZE <= segment.capacity && segment.isValid(position)) {
+            position += RECORD_SIZE;
+        }
+        segment.writePosition = position;
+        return segment;
+    }
+    
+    static String fileName(long id) {
+        return String.format("%020d%s", id, SUFFIX);
+    }
+    
+    static long parseId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+    
+    boolean hasRoom() {
+        return writePosition + RECORD_SIZE <= capacity;
+    }
+    
+    int writePosition() {
+        return writePosition;
+    }
+    
+    boolean isSealed() {
+        return sealed;
+    }
+    
+    /**
+     * Mark the segment complete; its write position will not change again
+     */
+    void seal() {
+        sealed = true;
+    }
+    
+    /**
+     * Append a record. Callers serialize appends and check {@link #hasRoom()} first.
+     */
+    void append(PingResult result) {
+        int offset = writePosition;
+        Instant time = result.getTime();
+        UUID deviceId = result.getDeviceId();
+        Double roundTripTime = result.getRoundTripTime();
+        
+        buffer.putLong(offset + 4, time.getEpochSecond());
+        buffer.putInt(offset + 12, time.getNano());
+        buffer.putLong(offset + 16, deviceId.getMostSignificantBits());
+        buffer.putLong(offset + 24, deviceId.getLeastSignificantBits());
+        buffer.putDouble(offset + 32, roundTripTime != null ? roundTripTime : Double.NaN);
+        buffer.put(offset + 40, (byte) result.getStatus().ordinal());
+        
+        writeCrc.reset();
+        writeCrc.update(buffer.slice(offset + PAYLOAD_OFFSET, RECORD_SIZE - PAYLOAD_OFFSET));
+        buffer.putInt(offset, (int) writeCrc.getValue());
+        
+        writePosition = offset + RECORD_SIZE;
+    }
+    
+    /**
+     * Decode the record at an offset below the write position. Called from a single reader thread.
+     */
+    PingResult read(int offset) {
+        double roundTripTime = buffer.getDouble(offset + 32);
+        return PingResult.builder()
+                .time(Instant.ofEpochSecond(buffer.getLong(offset + 4), buffer.getInt(offset + 12)))
+                .deviceId(new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24)))
+                .roundTripTime(Double.isNaN(roundTripTime) ? null : roundTripTime)
+                .status(STATUSES[buffer.get(offset + 40)])
+                .build();
+    }
+    
+    void force() {
+        buffer.force();
+    }
+    
+    void close() throws IOException {
+        channel.close();
+    }
+    
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+    
+    private boolean isValid(int offset) {
+        readCrc.reset();
+        readCrc.update(buffer.slice(offset + PAYLOAD_OFFSET, RECORD_SIZE - PAYLOAD_OFFSET));
+        int status = buffer.get(offset + 40);
+        return buffer.getInt(offset) == (int) readCrc.getValue() && status >= 0 && status < STATUSES.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+/**
+ * Write-behind persistence for ping results.
+ * Results are queued by the executor and flushed to the ping_results hypertable in batches.
+ * 
+ * <p>Writer components:
+ * <ul>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.writer.PingResultWriteBehind} - Bounded queue and flusher thread</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.writer.PingResultBatchWriter} - COPY and multi-row INSERT batch writer</li>
+ *   <li>{@link io.thatworked.support.ping.infrastructure.writer.PingResultWal} - Optional memory-mapped write-ahead log replayed into the database</li>
+ * </ul>
+ */
+package io.thatworked.support.ping.infrastructure.writer;
\ No newline at end of file
@@ -0,0 +1,251 @@
+package io.thatworked.support.ping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.application.service.VirtualThreadPingService;
+import io.thatworked.support.ping.domain.PingTarget;
+import io.thatworked.support.ping.domain.ProbeType;
+import io.thatworked.support.ping.infrastructure.config.KafkaConfig;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.probe.ProbeEngine;
+import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
+import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs the whole ping pipeline against the simulated network at fleet scale.
+ *
+ * <p>Boots the service with the test profile, an in-memory H2 database and an embedded Kafka
+ * broker, with the simulated probe engine in place of the network. It then monitors N virtual
+ * targets through the normal scheduling, circuit breaker, alerting, write-behind and publishing
+ * path, waits two intervals for the start-up burst to pass, and measures for a window: achieved
+ * probes per second, schedule lag percentiles, latency from probe start until the result event
+ * is consumed from Kafka, and GC activity and live heap. Results and alert states are written to
+ * H2 through the same non-PostgreSQL paths the service falls back to; pass
+ * {@code --spring.datasource.url=...} to measure the COPY and upsert paths against PostgreSQL.
+ *
+ * <p>Run with {@code ./gradlew loadHarness}, optionally passing target count, interval seconds,
+ * window seconds and seed as arguments, followed by any Spring {@code --property=value} overrides.
+ */
+public class PingLoadHarness {
+
+    private static final int MAX_LATENCY_MS = 60_000;
+    // RFC 2544 benchmarking range, 131072 addresses that never belong to a real device
+    private static final int BENCHMARK_NETWORK = (198 << 24) | (18 << 16);
+    private static final int SAVE_BATCH = 1_000;
+
+    private static final StructuredLogger logger = new StructuredLoggerFactory().getLogger(PingLoadHarness.class);
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        List<String> overrides = new ArrayList<>();
+        for (String arg : args) {
+            (arg.startsWith("--") ? overrides : positional).add(arg);
+        }
+        int targets = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : 100_000;
+        int intervalSeconds = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 10;
+        Duration window = Duration.ofSeconds(positional.size() > 2 ? Long.parseLong(positional.get(2)) : 60);
+        long seed = positional.size() > 3 ? Long.parseLong(positional.get(3)) : 42;
+
+        EmbeddedKafkaBroker kafka = new EmbeddedKafkaKraftBroker(1, 1, KafkaConfig.PING_RESULTS_TOPIC);
+        kafka.afterPropertiesSet();
+
+        List<String> properties = new ArrayList<>(List.of(
+            "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+            "--ping.executor.probe-engine=simulated",
+            "--ping.executor.scheduling-engine=timing-wheel",
+            "--ping.simulator.seed=" + seed,
+            "--ping-service.database.initialization.enabled=false",
+            "--spring.cloud.consul.enabled=false",
+            "--logging.level.io.thatworked.support.ping=ERROR"));
+        properties.addAll(overrides);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PingServiceApplication.class)
+            .profiles("test")
+            .run(properties.toArray(String[]::new));
+        try {
+            run(context, kafka, targets, intervalSeconds, window);
+        } finally {
+            context.close();
+            kafka.destroy();
+        }
+    }
+
+    private static void run(ConfigurableApplicationContext context, EmbeddedKafkaBroker kafka,
+                            int targets, int intervalSeconds, Duration window) throws Exception {
+        MeterRegistry meters = context.getBean(MeterRegistry.class);
+        VirtualThreadPingService service = context.getBean(VirtualThreadPingService.class);
+        PingTargetRepository targetRepository = context.getBean(PingTargetRepository.class);
+        long heapBefore = usedHeap();
+
+        // Consume published results for the end-to-end latency, counted only inside the window
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        Thread consumer = Thread.ofPlatform().name("load-harness-consumer").daemon(true)
+            .start(() -> consumeResults(kafka, measuring, latencyHistogram));
+
+        List<PingTarget> fleet = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            int address = BENCHMARK_NETWORK + i;
+            fleet.add(PingTarget.builder()
+                .deviceId(UUID.randomUUID())
+                .ipAddress((address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF))
+                .isMonitored(true)
+                .pingIntervalSeconds(intervalSeconds)
+                .probeType(ProbeType.ICMP)
+                .build());
+        }
+        for (int i = 0; i < targets; i += SAVE_BATCH) {
+            targetRepository.saveAll(fleet.subList(i, Math.min(targets, i + SAVE_BATCH)));
+        }
+
+        long startNanos = System.nanoTime();
+        fleet.forEach(service::startMonitoring);
+        long startMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        // Only the service's own state should count towards the heap per target
+        fleet.clear();
+
+        // Every target fires at once when monitoring starts; let that burst settle before measuring
+        Thread.sleep(TimeUnit.SECONDS.toMillis(intervalSeconds) * 2);
+
+        Timer scheduleLag = meters.get(PingMeters.SCHEDULE_LAG).timer();
+        CountAtBucket[] lagBefore = scheduleLag.takeSnapshot().histogramCounts();
+        long probesBefore = probeCount(meters);
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMs();
+        measuring.set(true);
+
+        Thread.sleep(window.toMillis());
+
+        measuring.set(false);
+        CountAtBucket[] lagAfter = scheduleLag.takeSnapshot().histogramCounts();
+        long probes = probeCount(meters) - probesBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTimeMs = gcTimeMs() - gcTimeBefore;
+        long rows = context.getBean(PingResultRepository.class).count();
+        long heapPerTarget = (usedHeap() - heapBefore) / targets;
+        consumer.interrupt();
+
+        long published = 0;
+        for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+            published += latencyHistogram.get(i);
+        }
+        double windowSeconds = window.toMillis() / 1000.0;
+
+        System.out.printf("%nTargets %d at %ds, started in %dms, measured for %.0fs%n",
+            targets, intervalSeconds, startMs, windowSeconds);
+        System.out.printf("%-28s %12.0f (target %.0f)%n", "probes/s", probes / windowSeconds, (double) targets / intervalSeconds);
+        System.out.printf("%-28s %10dms %10dms %10dms%n", "schedule lag p50/p99/p99.9",
+            lagPercentileMs(lagBefore, lagAfter, 0.50),
+            lagPercentileMs(lagBefore, lagAfter, 0.99),
+            lagPercentileMs(lagBefore, lagAfter, 0.999));
+        System.out.printf("%-28s %10dms %10dms %10dms  (%d results)%n", "result latency p50/p99/max",
+            percentile(latencyHistogram, published, 0.50),
+            percentile(latencyHistogram, published, 0.99),
+            percentile(latencyHistogram, published, 1.0),
+            published);
+        System.out.printf("%-28s %12.0f (%d rows stored in total)%n", "results published/s", published / windowSeconds, rows);
+        System.out.printf("%-28s %10d collections, %dms paused%n", "gc", gcCount, gcTimeMs);
+        System.out.printf("%-28s %11dB%n", "live heap per target", heapPerTarget);
+        System.out.printf("%-28s %s%n", "simulator", context.getBean(ProbeEngine.class).getMetrics());
+    }
+
+    private static void consumeResults(EmbeddedKafkaBroker kafka, AtomicBoolean measuring, AtomicLongArray histogram) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> props = KafkaTestUtils.consumerProps("load-harness", "true", kafka);
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(KafkaConfig.PING_RESULTS_TOPIC));
+            while (!Thread.currentThread().isInterrupted()) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                    if (!measuring.get()) {
+                        continue;
+                    }
+                    JsonNode timestamp = objectMapper.readTree(record.value()).get("timestamp");
+                    Instant probeStart = timestamp.isNumber()
+                        ? Instant.ofEpochMilli(Math.round(timestamp.asDouble() * 1000))
+                        : Instant.parse(timestamp.asText());
+                    long latencyMs = Math.max(0, Duration.between(probeStart, Instant.now()).toMillis());
+                    histogram.incrementAndGet((int) Math.min(latencyMs, MAX_LATENCY_MS));
+                }
+            }
+        } catch (org.apache.kafka.common.errors.InterruptException e) {
+            // Measurement finished
+        } catch (Exception e) {
+            logger.with("topic", KafkaConfig.PING_RESULTS_TOPIC)
+                  .error("Result consumer stopped, result latency only covers the results consumed so far", e);
+        }
+    }
+
+    private static long probeCount(MeterRegistry meters) {
+        return meters.find(PingMeters.PROBE_DURATION).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    /**
+     * Percentile of the pings recorded between two snapshots of the cumulative lag histogram,
+     * as the upper bound of the bucket it falls in
+     */
+    private static long lagPercentileMs(CountAtBucket[] before, CountAtBucket[] after, double quantile) {
+        double total = after[after.length - 1].count() - before[before.length - 1].count();
+        for (int i = 0; i < after.length; i++) {
+            if (after[i].count() - before[i].count() >= total * quantile) {
+                return Math.round(after[i].bucket(TimeUnit.MILLISECONDS));
+            }
+        }
+        return Math.round(after[after.length - 1].bucket(TimeUnit.MILLISECONDS));
+    }
+
+    private static long percentile(AtomicLongArray histogram, long count, double quantile) {
+        long rank = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTimeMs() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
\ No newline at end of file
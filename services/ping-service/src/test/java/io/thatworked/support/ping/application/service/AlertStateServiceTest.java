@@ -3,17 +3,21 @@ package io.thatworked.support.ping.application.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
-import io.thatworked.support.ping.api.dto.PingResultDTO;
 import io.thatworked.support.ping.domain.AlertState;
 import io.thatworked.support.ping.domain.MonitoredDevice;
 import io.thatworked.support.ping.domain.PingResult;
 import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.config.AlertingConfig;
+import io.thatworked.support.ping.config.SnapshotConfig;
+import io.thatworked.support.ping.infrastructure.cache.AlertStateStore;
 import io.thatworked.support.ping.infrastructure.config.KafkaConfig;
 import io.thatworked.support.ping.infrastructure.event.PingResultEvent;
 import io.thatworked.support.ping.infrastructure.event.alert.DeviceDownEvent;
 import io.thatworked.support.ping.infrastructure.event.alert.DeviceRecoveredEvent;
+import io.thatworked.support.ping.infrastructure.publisher.PingResultPublisher;
 import io.thatworked.support.ping.infrastructure.repository.jpa.AlertStateRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,6 +28,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -52,6 +57,9 @@ class AlertStateServiceTest {
     @Mock
     private AlertStateRepository alertStateRepository;
     
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
     @Mock
     private PingTargetRepository pingTargetRepository;
     
@@ -62,10 +70,10 @@ class AlertStateServiceTest {
     private KafkaTemplate<String, Object> kafkaTemplate;
     
     @Mock
-    private ObjectMapper objectMapper;
+    private PingResultPublisher pingResultPublisher;
     
-    @Captor
-    private ArgumentCaptor<AlertState> alertStateCaptor;
+    @Mock
+    private ObjectMapper objectMapper;
     
     @Captor
     private ArgumentCaptor<Object> kafkaEventCaptor;
@@ -73,6 +81,7 @@ class AlertStateServiceTest {
     @Captor
     private ArgumentCaptor<String> kafkaTopicCaptor;
     
+    private AlertStateStore alertStateStore;
     private AlertStateService service;
     
     private static final int FAILURE_THRESHOLD = 3;
@@ -88,12 +97,15 @@ class AlertStateServiceTest {
         doNothing().when(contextBuilder).warn(anyString());
         doNothing().when(contextBuilder).error(anyString(), any(Throwable.class));
         
+        alertStateStore = new AlertStateStore(structuredLoggerFactory, alertStateRepository, jdbcTemplate, new AlertingConfig(),
+            new StateSnapshotStore(structuredLoggerFactory, new SnapshotConfig()));
         service = new AlertStateService(
             structuredLoggerFactory,
-            alertStateRepository,
+            alertStateStore,
             pingTargetRepository,
             monitoredDeviceService,
             kafkaTemplate,
+            pingResultPublisher,
             objectMapper
         );
         
@@ -114,7 +126,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveFailures(2); // Already had 2 failures
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         when(monitoredDeviceService.findById(deviceId)).thenReturn(Optional.of(device));
         
         PingResult failedPing = PingResult.builder()
@@ -129,8 +141,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(3);
         assertThat(savedState.isAlerting()).isTrue();
         
@@ -155,7 +166,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveFailures(1); // Only 1 failure so far
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         
         PingResult failedPing = PingResult.builder()
             .deviceId(deviceId)
@@ -169,8 +180,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(2);
         assertThat(savedState.isAlerting()).isFalse(); // Still not alerting
         
@@ -190,7 +200,7 @@ class AlertStateServiceTest {
         alertState.setAlerting(true); // Currently in alert state
         alertState.setLastFailureTime(Instant.now().minusSeconds(300));
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         when(monitoredDeviceService.findById(deviceId)).thenReturn(Optional.of(device));
         
         PingResult successPing = PingResult.builder()
@@ -206,8 +216,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(2);
         assertThat(savedState.isAlerting()).isFalse(); // No longer alerting
         
@@ -231,7 +240,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveSuccesses(0); // No successes yet
         alertState.setAlerting(true); // Currently alerting
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         
         PingResult successPing = PingResult.builder()
             .deviceId(deviceId)
@@ -246,8 +255,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(1);
         assertThat(savedState.isAlerting()).isTrue(); // Still alerting
         
@@ -266,7 +274,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveFailures(0);
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         
         PingResult failedPing = PingResult.builder()
             .deviceId(deviceId)
@@ -280,8 +288,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(0); // Reset to 0
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(1);
     }
@@ -297,7 +304,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveSuccesses(0);
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         
         PingResult successPing = PingResult.builder()
             .deviceId(deviceId)
@@ -312,8 +319,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(0); // Reset to 0
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(1);
     }
@@ -323,8 +329,6 @@ class AlertStateServiceTest {
     void testCreateNewAlertStateForNewDevice() {
         // Given
         UUID deviceId = UUID.randomUUID();
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.empty());
-        
         PingResult successPing = PingResult.builder()
             .deviceId(deviceId)
             .time(Instant.now())
@@ -338,8 +342,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getDeviceId()).isEqualTo(deviceId);
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(1);
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(0);
@@ -357,7 +360,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveSuccesses(0);
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         when(monitoredDeviceService.findById(deviceId)).thenReturn(Optional.of(device));
         
         PingResult successPing = PingResult.builder()
@@ -373,8 +376,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveSuccesses()).isEqualTo(1);
         
         // Should publish baseline healthy event
@@ -401,10 +403,9 @@ class AlertStateServiceTest {
         
         // Then
         // Should still publish ping result event
-        verify(kafkaTemplate, atLeastOnce()).send(anyString(), anyString(), any());
+        verify(pingResultPublisher).publish(eq(deviceId), any());
         // But should not process alert state
-        verify(alertStateRepository, never()).findById(any());
-        verify(alertStateRepository, never()).save(any());
+        assertThat(alertStateStore.find(deviceId)).isEmpty();
     }
     
     @Test
@@ -417,70 +418,40 @@ class AlertStateServiceTest {
         
         // Simulate flapping: fail, fail, fail (alert), success, fail, success, success (recovery)
         
-        // Start with no alert state
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.empty());
-        
         // First failure
-        PingResult fail1 = createPingResult(deviceId, PingStatus.FAILURE);
-        service.handlePingResult(new PingResultEvent(fail1));
-        verify(alertStateRepository, times(1)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveFailures()).isEqualTo(1);
-        
-        // Update mock to return saved state
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.FAILURE)));
+        assertThat(alertStateStore.find(deviceId).orElseThrow().getConsecutiveFailures()).isEqualTo(1);
         
         // Second failure
-        PingResult fail2 = createPingResult(deviceId, PingStatus.FAILURE);
-        service.handlePingResult(new PingResultEvent(fail2));
-        verify(alertStateRepository, times(2)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveFailures()).isEqualTo(2);
-        
-        // Update mock
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.FAILURE)));
+        assertThat(alertStateStore.find(deviceId).orElseThrow().getConsecutiveFailures()).isEqualTo(2);
         
         // Third failure - should trigger alert
-        PingResult fail3 = createPingResult(deviceId, PingStatus.FAILURE);
-        service.handlePingResult(new PingResultEvent(fail3));
-        verify(alertStateRepository, times(3)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveFailures()).isEqualTo(3);
-        assertThat(alertStateCaptor.getValue().isAlerting()).isTrue();
-        
-        // Update mock
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.FAILURE)));
+        AlertState state = alertStateStore.find(deviceId).orElseThrow();
+        assertThat(state.getConsecutiveFailures()).isEqualTo(3);
+        assertThat(state.isAlerting()).isTrue();
         
         // One success - not enough for recovery
-        PingResult success1 = createPingResult(deviceId, PingStatus.SUCCESS);
-        service.handlePingResult(new PingResultEvent(success1));
-        verify(alertStateRepository, times(4)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveSuccesses()).isEqualTo(1);
-        assertThat(alertStateCaptor.getValue().isAlerting()).isTrue(); // Still alerting
-        
-        // Update mock
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.SUCCESS)));
+        state = alertStateStore.find(deviceId).orElseThrow();
+        assertThat(state.getConsecutiveSuccesses()).isEqualTo(1);
+        assertThat(state.isAlerting()).isTrue(); // Still alerting
         
         // Another failure - resets success counter
-        PingResult fail4 = createPingResult(deviceId, PingStatus.FAILURE);
-        service.handlePingResult(new PingResultEvent(fail4));
-        verify(alertStateRepository, times(5)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveSuccesses()).isEqualTo(0);
-        assertThat(alertStateCaptor.getValue().getConsecutiveFailures()).isEqualTo(1);
-        assertThat(alertStateCaptor.getValue().isAlerting()).isTrue(); // Still alerting
-        
-        // Update mock
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.FAILURE)));
+        state = alertStateStore.find(deviceId).orElseThrow();
+        assertThat(state.getConsecutiveSuccesses()).isEqualTo(0);
+        assertThat(state.getConsecutiveFailures()).isEqualTo(1);
+        assertThat(state.isAlerting()).isTrue(); // Still alerting
         
         // Two successes for recovery
-        PingResult success2 = createPingResult(deviceId, PingStatus.SUCCESS);
-        service.handlePingResult(new PingResultEvent(success2));
-        
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertStateCaptor.getValue()));
-        
-        PingResult success3 = createPingResult(deviceId, PingStatus.SUCCESS);
-        service.handlePingResult(new PingResultEvent(success3));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.SUCCESS)));
+        service.handlePingResult(new PingResultEvent(createPingResult(deviceId, PingStatus.SUCCESS)));
         
-        verify(alertStateRepository, times(7)).save(alertStateCaptor.capture());
-        assertThat(alertStateCaptor.getValue().getConsecutiveSuccesses()).isEqualTo(2);
-        assertThat(alertStateCaptor.getValue().isAlerting()).isFalse(); // Recovered!
+        state = alertStateStore.find(deviceId).orElseThrow();
+        assertThat(state.getConsecutiveSuccesses()).isEqualTo(2);
+        assertThat(state.isAlerting()).isFalse(); // Recovered!
     }
     
     @Test
@@ -493,7 +464,7 @@ class AlertStateServiceTest {
         alertState.setConsecutiveFailures(2);
         alertState.setAlerting(false);
         
-        when(alertStateRepository.findById(deviceId)).thenReturn(Optional.of(alertState));
+        alertStateStore.save(alertState);
         when(monitoredDeviceService.findById(deviceId)).thenReturn(Optional.empty()); // No device found
         
         PingResult failedPing = PingResult.builder()
@@ -508,8 +479,7 @@ class AlertStateServiceTest {
         service.handlePingResult(event);
         
         // Then
-        verify(alertStateRepository).save(alertStateCaptor.capture());
-        AlertState savedState = alertStateCaptor.getValue();
+        AlertState savedState = alertStateStore.find(deviceId).orElseThrow();
         assertThat(savedState.getConsecutiveFailures()).isEqualTo(3);
         assertThat(savedState.isAlerting()).isTrue();
         
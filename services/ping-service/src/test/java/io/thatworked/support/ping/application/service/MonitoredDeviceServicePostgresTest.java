@@ -0,0 +1,137 @@
+package io.thatworked.support.ping.application.service;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.DeviceCacheConfig;
+import io.thatworked.support.ping.domain.MonitoredDevice;
+import io.thatworked.support.ping.infrastructure.repository.jpa.MonitoredDeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Batch upserts and deletes against PostgreSQL, as they rely on its array and ON CONFLICT support.
+ * Skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("MonitoredDeviceService Tests - PostgreSQL Batches")
+class MonitoredDeviceServicePostgresTest {
+    
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+        DockerImageName.parse("timescale/timescaledb:latest-pg15").asCompatibleSubstituteFor("postgres"));
+    
+    private final MonitoredDeviceRepository repository = mock(MonitoredDeviceRepository.class);
+    private JdbcTemplate jdbcTemplate;
+    private MonitoredDeviceService service;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS monitored_devices");
+        jdbcTemplate.execute("CREATE TABLE monitored_devices (device_id uuid PRIMARY KEY, " +
+            "device_name varchar(255) NOT NULL, ip_address varchar(255), os varchar(255), os_type varchar(255), " +
+            "site uuid, created_at timestamp with time zone, updated_at timestamp with time zone)");
+        service = new MonitoredDeviceService(mock(StructuredLoggerFactory.class, RETURNS_DEEP_STUBS), repository,
+            jdbcTemplate, new DeviceCacheConfig());
+    }
+    
+    @Test
+    @DisplayName("Should insert new devices and update existing ones in one statement")
+    void testSaveAllUpserts() {
+        // Given
+        UUID site = UUID.randomUUID();
+        MonitoredDevice existing = device(UUID.randomUUID(), "Switch-1", "10.0.0.1");
+        service.saveAll(List.of(existing));
+        Timestamp createdAt = jdbcTemplate.queryForObject(
+            "SELECT created_at FROM monitored_devices WHERE device_id = ?", Timestamp.class, existing.getDeviceId());
+        
+        MonitoredDevice renamed = device(existing.getDeviceId(), "Core-Switch-1", "10.0.0.10");
+        renamed.setSite(site);
+        MonitoredDevice added = device(UUID.randomUUID(), "Printer", null);
+        added.setOs("Embedded");
+        
+        // When
+        List<MonitoredDevice> saved = service.saveAll(List.of(renamed, added));
+        
+        // Then every row comes back with its stored values
+        assertThat(saved).extracting(MonitoredDevice::getDeviceId)
+            .containsExactlyInAnyOrder(renamed.getDeviceId(), added.getDeviceId());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM monitored_devices", Integer.class)).isEqualTo(2);
+        
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT device_name, ip_address, site, created_at FROM monitored_devices WHERE device_id = ?",
+            renamed.getDeviceId());
+        assertThat(row.get("device_name")).isEqualTo("Core-Switch-1");
+        assertThat(row.get("ip_address")).isEqualTo("10.0.0.10");
+        assertThat(row.get("site")).isEqualTo(site);
+        assertThat(row.get("created_at")).isEqualTo(createdAt);
+        
+        // And the saved devices are served from the cache
+        MonitoredDevice cached = service.findById(added.getDeviceId()).orElseThrow();
+        assertThat(cached.getOs()).isEqualTo("Embedded");
+        assertThat(cached.getIpAddress()).isNull();
+        assertThat(cached.getCreatedAt()).isNotNull();
+        verifyNoInteractions(repository);
+    }
+    
+    @Test
+    @DisplayName("Should reject a batch that lists a device twice and write none of it")
+    void testSaveAllRejectsDuplicateIds() {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        List<MonitoredDevice> devices = List.of(
+            device(UUID.randomUUID(), "Router", "10.0.0.2"),
+            device(deviceId, "Switch-1", "10.0.0.1"),
+            device(deviceId, "Switch-1", "10.0.0.10"));
+        
+        // When / Then
+        assertThatThrownBy(() -> service.saveAll(devices))
+            .isInstanceOf(DataAccessException.class)
+            .hasMessageContaining("cannot affect row a second time");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM monitored_devices", Integer.class)).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should delete only the listed devices and cache them as missing")
+    void testDeleteAll() {
+        // Given
+        MonitoredDevice kept = device(UUID.randomUUID(), "Switch-1", "10.0.0.1");
+        MonitoredDevice first = device(UUID.randomUUID(), "Router", "10.0.0.2");
+        MonitoredDevice second = device(UUID.randomUUID(), "Printer", "10.0.0.3");
+        service.saveAll(List.of(kept, first, second));
+        
+        // When
+        service.deleteAll(List.of(first.getDeviceId(), second.getDeviceId(), UUID.randomUUID()));
+        
+        // Then
+        assertThat(jdbcTemplate.queryForList("SELECT device_id FROM monitored_devices", UUID.class))
+            .containsExactly(kept.getDeviceId());
+        assertThat(service.existsById(first.getDeviceId())).isFalse();
+        assertThat(service.existsById(second.getDeviceId())).isFalse();
+        assertThat(service.existsById(kept.getDeviceId())).isTrue();
+        verifyNoInteractions(repository);
+    }
+    
+    private static MonitoredDevice device(UUID deviceId, String deviceName, String ipAddress) {
+        return new MonitoredDevice(deviceId, deviceName, ipAddress);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package io.thatworked.support.ping.application.service;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.DeviceCacheConfig;
+import io.thatworked.support.ping.domain.MonitoredDevice;
+import io.thatworked.support.ping.infrastructure.repository.jpa.MonitoredDeviceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("MonitoredDeviceService Tests - Device Cache")
+class MonitoredDeviceServiceTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    @Mock
+    private MonitoredDeviceRepository repository;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    private MonitoredDeviceService service;
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        when(repository.save(any(MonitoredDevice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        service = new MonitoredDeviceService(structuredLoggerFactory, repository, jdbcTemplate, new DeviceCacheConfig());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should load a device once and serve later lookups from the cache")
+    void testLookupIsServedFromCache() {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        MonitoredDevice device = new MonitoredDevice(deviceId, "Switch-1", "10.0.0.1");
+        when(repository.findById(deviceId)).thenReturn(Optional.of(device));
+        
+        // When
+        Optional<MonitoredDevice> first = service.findById(deviceId);
+        Optional<MonitoredDevice> second = service.findById(deviceId);
+        
+        // Then
+        assertThat(first).contains(device);
+        assertThat(second).contains(device);
+        verify(repository, times(1)).findById(deviceId);
+        assertThat(service.getCacheMetrics())
+            .containsEntry("hits", 1L)
+            .containsEntry("misses", 1L);
+    }
+    
+    @Test
+    @DisplayName("Should remember a missing device until it is saved")
+    void testMissingDeviceIsCachedUntilSaved() {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        when(repository.findById(deviceId)).thenReturn(Optional.empty());
+        
+        // When
+        boolean existedBefore = service.existsById(deviceId);
+        boolean stillMissing = service.findById(deviceId).isEmpty();
+        service.save(new MonitoredDevice(deviceId, "Switch-2", "10.0.0.2"));
+        
+        // Then
+        assertThat(existedBefore).isFalse();
+        assertThat(stillMissing).isTrue();
+        verify(repository, times(1)).findById(deviceId);
+        assertThat(service.findById(deviceId)).map(MonitoredDevice::getIpAddress).contains("10.0.0.2");
+        verify(repository, times(1)).findById(deviceId);
+    }
+    
+    @Test
+    @DisplayName("Should update the cache only when the saving transaction commits")
+    void testCacheIsUpdatedAfterCommit() {
+        // Given
+        UUID committed = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        service.findById(committed);
+        service.findById(rolledBack);
+        
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        service.save(new MonitoredDevice(committed, "Router-1", "10.0.0.3"));
+        boolean visibleBeforeCommit = service.findById(committed).isPresent();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        
+        TransactionSynchronizationManager.initSynchronization();
+        service.save(new MonitoredDevice(rolledBack, "Router-2", "10.0.0.4"));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        
+        // Then
+        assertThat(visibleBeforeCommit).isFalse();
+        assertThat(service.findById(committed)).isPresent();
+        assertThat(service.findById(rolledBack)).isEmpty();
+    }
+}
\ No newline at end of file
@@ -1,16 +1,32 @@
 package io.thatworked.support.ping.application.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.thatworked.support.common.logging.StructuredLogger;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AdaptiveIntervalConfig;
+import io.thatworked.support.ping.config.BusinessRulesConfig;
+import io.thatworked.support.ping.config.DnsCacheConfig;
 import io.thatworked.support.ping.config.PingExecutorConfig;
+import io.thatworked.support.ping.config.ShardingConfig;
 import io.thatworked.support.ping.domain.PingResult;
 import io.thatworked.support.ping.domain.PingStatus;
 import io.thatworked.support.ping.domain.PingTarget;
+import io.thatworked.support.ping.infrastructure.cache.HostnameResolver;
+import io.thatworked.support.ping.infrastructure.executor.AdaptiveIntervalController;
 import io.thatworked.support.ping.infrastructure.executor.PingCircuitBreaker;
 import io.thatworked.support.ping.infrastructure.executor.VirtualThreadPingExecutor;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import io.thatworked.support.ping.infrastructure.probe.ReachabilityProbeEngine;
+import io.thatworked.support.ping.infrastructure.probe.TcpConnectProbeEngine;
 import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingResultRepository;
 import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import io.thatworked.support.ping.infrastructure.shard.ProbeOwnership;
+import io.thatworked.support.ping.infrastructure.shard.StaticShardMembership;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshot;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotStore;
+import io.thatworked.support.ping.infrastructure.snapshot.StateSnapshotWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -29,6 +45,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -68,12 +85,23 @@ class VirtualThreadPingServiceTest {
     @Mock
     private PingExecutorConfig config;
     
+    @Mock
+    private TcpConnectProbeEngine tcpProbeEngine;
+    
+    @Mock
+    private StateSnapshotStore snapshotStore;
+    
+    @Mock
+    private StateSnapshotWriter snapshotWriter;
+    
     @Captor
     private ArgumentCaptor<PingTask> pingTaskCaptor;
     
     @Captor
     private ArgumentCaptor<Duration> durationCaptor;
     
+    private DeviceSlotRegistry registry;
+    
     private VirtualThreadPingService service;
     
     @BeforeEach
@@ -92,7 +120,9 @@ class VirtualThreadPingServiceTest {
         when(config.getRetryAttempts()).thenReturn(3);
         when(config.getRetryDelayMs()).thenReturn(1000);
         when(config.isCircuitBreakerEnabled()).thenReturn(true);
+        when(snapshotStore.restored()).thenReturn(Optional.empty());
         
+        registry = new DeviceSlotRegistry();
         service = new VirtualThreadPingService(
             structuredLoggerFactory,
             pingTargetRepository,
@@ -100,7 +130,16 @@ class VirtualThreadPingServiceTest {
             eventPublisher,
             executor,
             circuitBreaker,
-            config
+            config,
+            new ReachabilityProbeEngine(),
+            tcpProbeEngine,
+            new AdaptiveIntervalController(structuredLoggerFactory, new AdaptiveIntervalConfig(), new BusinessRulesConfig(), executor, new PingMeters(new SimpleMeterRegistry())),
+            new HostnameResolver(structuredLoggerFactory, new DnsCacheConfig()),
+            registry,
+            new PingMeters(new SimpleMeterRegistry()),
+            new ProbeOwnership(structuredLoggerFactory, new ShardingConfig(), new StaticShardMembership("local", List.of())),
+            snapshotStore,
+            snapshotWriter
         );
     }
     
@@ -121,7 +160,7 @@ class VirtualThreadPingServiceTest {
         
         // Then
         verify(pingTargetRepository).findAllActiveTargets();
-        verify(executor, times(2)).schedulePing(any(PingTask.class), any(Duration.class));
+        verify(executor, times(2)).schedulePing(any(PingTask.class), any(Duration.class), any(Duration.class));
         verify(contextBuilder).info("Virtual Thread Ping Service initialized with active monitors");
     }
     
@@ -139,6 +178,34 @@ class VirtualThreadPingServiceTest {
         verify(contextBuilder).error(eq("Failed to initialize Virtual Thread Ping Service"), any(Exception.class));
     }
     
+    @Test
+    @DisplayName("Should resume snapshot targets at their phase with their circuit state")
+    void testInitializeFromSnapshot() {
+        // Given a device due in 7 of its 30 seconds with an open circuit, snapshotted a minute ago
+        UUID deviceId = UUID.randomUUID();
+        long nowMs = System.currentTimeMillis();
+        StateSnapshot.TargetState state = new StateSnapshot.TargetState(deviceId, "192.168.1.100", null, null, null,
+            30000, nowMs - 60000 + 7000, DeviceSlotRegistry.CIRCUIT_OPEN, 5, 120000);
+        when(snapshotStore.restored()).thenReturn(Optional.of(new StateSnapshot(nowMs - 60000, List.of(state), List.of())));
+        when(pingTargetRepository.findAllActiveTargets()).thenReturn(List.of(createPingTarget(deviceId, "192.168.1.100", null, true, 30)));
+        
+        // When
+        service.initialize();
+        
+        // Then the first ping keeps the phase and the database is only read in the background
+        ArgumentCaptor<Duration> delayCaptor = ArgumentCaptor.forClass(Duration.class);
+        verify(executor).schedulePing(pingTaskCaptor.capture(), delayCaptor.capture(), eq(Duration.ofSeconds(30)));
+        assertThat(pingTaskCaptor.getValue().getDeviceId()).isEqualTo(deviceId);
+        assertThat(delayCaptor.getValue().toMillis()).isBetween(6000L, 7000L);
+        
+        int slot = registry.slotOf(deviceId);
+        assertThat(registry.circuitState(slot)).isEqualTo(DeviceSlotRegistry.CIRCUIT_OPEN);
+        assertThat(registry.failures(slot)).isEqualTo(5);
+        verify(snapshotStore).release();
+        verify(pingTargetRepository, timeout(1000)).findAllActiveTargets();
+        verify(executor, never()).cancelPing(deviceId);
+    }
+    
     @Test
     @DisplayName("Should start monitoring for a valid ping target")
     void testStartMonitoring() {
@@ -150,7 +217,7 @@ class VirtualThreadPingServiceTest {
         service.startMonitoring(target);
         
         // Then
-        verify(executor).schedulePing(pingTaskCaptor.capture(), durationCaptor.capture());
+        verify(executor).schedulePing(pingTaskCaptor.capture(), eq(Duration.ZERO), durationCaptor.capture());
         
         PingTask capturedTask = pingTaskCaptor.getValue();
         assertThat(capturedTask.getDeviceId()).isEqualTo(deviceId);
@@ -174,7 +241,7 @@ class VirtualThreadPingServiceTest {
         service.startMonitoring(target);
         
         // Then
-        verify(executor, never()).schedulePing(any(), any());
+        verify(executor, never()).schedulePing(any(), any(), any());
         verify(contextBuilder).debug("Skipping monitoring for null or unmonitored target");
     }
     
@@ -319,7 +386,7 @@ class VirtualThreadPingServiceTest {
         
         // Then
         verify(executor).cancelPing(deviceId); // Stop old monitoring
-        verify(executor, times(2)).schedulePing(any(PingTask.class), any(Duration.class)); // Start new
+        verify(executor, times(2)).schedulePing(any(PingTask.class), any(Duration.class), any(Duration.class)); // Start new
         verify(circuitBreaker).reset(deviceId);
     }
     
@@ -341,7 +408,7 @@ class VirtualThreadPingServiceTest {
         verify(executor).cancelPing(deviceId);
         verify(circuitBreaker).reset(deviceId);
         // Should only be called once (for initial start)
-        verify(executor, times(1)).schedulePing(any(PingTask.class), any(Duration.class));
+        verify(executor, times(1)).schedulePing(any(PingTask.class), any(Duration.class), any(Duration.class));
     }
     
     @Test
@@ -373,7 +440,7 @@ class VirtualThreadPingServiceTest {
         service.startMonitoring(null);
         
         // Then
-        verify(executor, never()).schedulePing(any(), any());
+        verify(executor, never()).schedulePing(any(), any(), any());
         verify(contextBuilder).debug("Skipping monitoring for null or unmonitored target");
     }
     
@@ -408,6 +475,7 @@ class VirtualThreadPingServiceTest {
         // Then
         verify(executor, times(2)).cancelPing(any(UUID.class));
         verify(circuitBreaker, times(2)).reset(any(UUID.class));
+        verify(snapshotWriter).writeFinal();
         verify(contextBuilder).info("Virtual Thread Ping Service shutdown complete");
     }
     
@@ -0,0 +1,67 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AlertingConfig;
+import io.thatworked.support.ping.domain.AlertState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("AlertStateStore Tests - Flush")
+class AlertStateStoreTest {
+    
+    private JdbcTemplate jdbcTemplate;
+    private AlertStateStore store;
+    
+    @BeforeEach
+    void setUp() {
+        // Same H2 settings as the test profile, which the load harness also runs on
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE alert_states (device_id uuid PRIMARY KEY, " +
+            "consecutive_failures integer NOT NULL, consecutive_successes integer NOT NULL, is_alerting boolean NOT NULL, " +
+            "last_alert_sent timestamp with time zone, last_recovery_sent timestamp with time zone, " +
+            "last_failure_time timestamp with time zone, last_success_time timestamp with time zone, " +
+            "created_at timestamp with time zone, updated_at timestamp with time zone)");
+        store = new AlertStateStore(mock(StructuredLoggerFactory.class, RETURNS_DEEP_STUBS), null, jdbcTemplate,
+            new AlertingConfig(), null);
+    }
+    
+    @Test
+    @DisplayName("Should insert new states and update flushed ones on a database without ON CONFLICT")
+    void testFlushUpsertsOnH2() {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        store.update(deviceId, AlertStateStoreTest::fail);
+        
+        // When
+        store.flush();
+        store.update(deviceId, AlertStateStoreTest::fail);
+        store.flush();
+        
+        // Then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT consecutive_failures, created_at FROM alert_states WHERE device_id = ?", deviceId);
+        assertThat(row.get("consecutive_failures")).isEqualTo(2);
+        assertThat(row.get("created_at")).isNotNull();
+        assertThat(store.getMetrics())
+            .containsEntry("flushes", 2L)
+            .containsEntry("rowsFlushed", 2L)
+            .containsEntry("failedFlushes", 0L)
+            .containsEntry("dirty", 0);
+    }
+    
+    private static Void fail(AlertState state) {
+        state.recordFailure();
+        return null;
+    }
+}
\ No newline at end of file
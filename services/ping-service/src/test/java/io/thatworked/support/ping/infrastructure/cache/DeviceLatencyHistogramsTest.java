@@ -0,0 +1,114 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.ping.config.ResultCacheConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("DeviceLatencyHistograms Tests")
+class DeviceLatencyHistogramsTest {
+    
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+    
+    private DeviceLatencyHistograms histograms;
+    private final UUID deviceId = UUID.randomUUID();
+    
+    @BeforeEach
+    void setUp() {
+        ResultCacheConfig config = new ResultCacheConfig();
+        config.setLatencyBucketSeconds(60);
+        config.setLatencyRetentionHours(1);
+        histograms = new DeviceLatencyHistograms(config);
+    }
+    
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void testPercentileAccuracy() {
+        // Given a long-tailed sample spread over several buckets
+        Random random = new Random(42);
+        double[] samples = new double[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.exp(random.nextGaussian() + 2);
+            histograms.record(result(START.plusMillis(i * 10L), samples[i], PingStatus.SUCCESS));
+        }
+        Arrays.sort(samples);
+        
+        // When
+        LatencyHistogram merged = histograms.merge(deviceId, START, START.plusSeconds(200));
+        
+        // Then
+        assertThat(merged.getTotalCount()).isEqualTo(samples.length);
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            double exact = samples[(int) Math.ceil(quantile * samples.length) - 1];
+            assertThat(merged.percentileMillis(quantile)).isCloseTo(exact, within(exact * 0.035));
+        }
+        assertThat(merged.getMaxMillis()).isCloseTo(samples[samples.length - 1], within(0.001));
+    }
+    
+    @Test
+    @DisplayName("Should merge only the buckets overlapping the window and skip failures")
+    void testWindowMerge() {
+        // Given one sample per minute, rising by one millisecond each minute
+        for (int minute = 0; minute < 10; minute++) {
+            histograms.record(result(START.plusSeconds(minute * 60L + 5), minute + 1.0, PingStatus.SUCCESS));
+            histograms.record(result(START.plusSeconds(minute * 60L + 10), null, PingStatus.TIMEOUT));
+        }
+        
+        // When
+        LatencyHistogram window = histograms.merge(deviceId, START.plusSeconds(120), START.plusSeconds(300));
+        
+        // Then minutes 2, 3 and 4 are included
+        assertThat(window.getTotalCount()).isEqualTo(3);
+        assertThat(window.getMinMillis()).isEqualTo(3.0);
+        assertThat(window.getMaxMillis()).isEqualTo(5.0);
+        assertThat(histograms.merge(deviceId, START.minusSeconds(60), START.plusSeconds(60))).isNull();
+        assertThat(histograms.merge(UUID.randomUUID(), START, START.plusSeconds(60))).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should drop buckets older than the retention")
+    void testRetention() {
+        // Given
+        histograms.record(result(START, 1.0, PingStatus.SUCCESS));
+        
+        // When
+        histograms.record(result(START.plusSeconds(2 * 3600), 2.0, PingStatus.SUCCESS));
+        
+        // Then
+        assertThat(histograms.merge(deviceId, START, START.plusSeconds(60))).isNull();
+        assertThat(histograms.merge(deviceId, START.plusSeconds(2 * 3600), START.plusSeconds(2 * 3600 + 60)).getTotalCount())
+            .isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should map every value to a bucket that contains it")
+    void testBucketBounds() {
+        for (long micros = 0; micros < 5_000_000; micros += 7) {
+            int index = LatencyHistogram.indexOf(micros);
+            assertThat(LatencyHistogram.lowerBoundMicros(index)).isLessThanOrEqualTo(micros);
+            if (index + 1 < LatencyHistogram.BUCKET_COUNT) {
+                assertThat(LatencyHistogram.lowerBoundMicros(index + 1)).isGreaterThan(micros);
+            }
+        }
+        assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    }
+    
+    private PingResult result(Instant time, Double roundTripTime, PingStatus status) {
+        return PingResult.builder()
+                .time(time)
+                .deviceId(deviceId)
+                .roundTripTime(roundTripTime)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
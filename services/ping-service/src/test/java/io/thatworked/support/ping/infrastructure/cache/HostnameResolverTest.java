@@ -0,0 +1,174 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.DnsCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("HostnameResolver Tests")
+class HostnameResolverTest {
+    
+    private static final String HOST = "printer.example.com";
+    
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<String, InetAddress> records = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final Queue<Runnable> refreshes = new ConcurrentLinkedQueue<>();
+    private HostnameResolver resolver;
+    
+    @BeforeEach
+    void setUp() {
+        DnsCacheConfig config = new DnsCacheConfig();
+        config.setTtlSeconds(300);
+        config.setRefreshAfterSeconds(240);
+        config.setNegativeTtlSeconds(30);
+        // Refreshes are queued and run when the test says so
+        resolver = new HostnameResolver(mock(StructuredLoggerFactory.class, RETURNS_DEEP_STUBS), config,
+            this::lookup, nanos::get, refreshes::add);
+    }
+    
+    @Test
+    @DisplayName("Should resolve a name once while its address is fresh")
+    void testCachedLookup() throws Exception {
+        // Given
+        records.put(HOST, address(10));
+        
+        // When
+        InetAddress first = resolver.resolve(HOST);
+        advanceSeconds(100);
+        InetAddress second = resolver.resolve(HOST);
+        
+        // Then
+        assertThat(first).isEqualTo(address(10));
+        assertThat(second).isEqualTo(address(10));
+        assertThat(lookups.get()).isEqualTo(1);
+        assertThat(resolver.getMetrics()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+    
+    @Test
+    @DisplayName("Should serve the cached address while refreshing it past the refresh age")
+    void testRefreshAhead() throws Exception {
+        // Given
+        records.put(HOST, address(10));
+        resolver.resolve(HOST);
+        records.put(HOST, address(20));
+        
+        // When
+        advanceSeconds(250);
+        InetAddress duringRefresh = resolver.resolve(HOST);
+        runRefreshes();
+        InetAddress afterRefresh = resolver.resolve(HOST);
+        
+        // Then
+        assertThat(duringRefresh).isEqualTo(address(10));
+        assertThat(afterRefresh).isEqualTo(address(20));
+        assertThat(lookups.get()).isEqualTo(2);
+        assertThat(resolver.getMetrics()).containsEntry("refreshes", 1L).containsEntry("misses", 1L);
+    }
+    
+    @Test
+    @DisplayName("Should re-resolve a name once its address expires")
+    void testExpiry() throws Exception {
+        // Given
+        records.put(HOST, address(10));
+        resolver.resolve(HOST);
+        records.put(HOST, address(20));
+        
+        // When
+        advanceSeconds(301);
+        InetAddress resolved = resolver.resolve(HOST);
+        
+        // Then
+        assertThat(resolved).isEqualTo(address(20));
+        assertThat(resolver.getMetrics()).containsEntry("refreshes", 0L).containsEntry("misses", 2L);
+    }
+    
+    @Test
+    @DisplayName("Should keep the last good address when a refresh fails, until it expires")
+    void testFailedRefreshKeepsAddress() throws Exception {
+        // Given
+        records.put(HOST, address(10));
+        resolver.resolve(HOST);
+        records.remove(HOST);
+        
+        // When the refresh fails
+        advanceSeconds(250);
+        resolver.resolve(HOST);
+        runRefreshes();
+        InetAddress kept = resolver.resolve(HOST);
+        
+        // Then
+        assertThat(kept).isEqualTo(address(10));
+        assertThat(resolver.getMetrics()).containsEntry("staleKept", 1L).containsEntry("failures", 1L);
+        
+        // When the kept address reaches the TTL of its original lookup
+        advanceSeconds(51);
+        
+        // Then
+        assertThatThrownBy(() -> resolver.resolve(HOST))
+            .isInstanceOf(UnknownHostException.class)
+            .hasMessageContaining(HOST);
+    }
+    
+    @Test
+    @DisplayName("Should cache a failed lookup for the negative TTL")
+    void testNegativeCaching() throws Exception {
+        // Given a name that does not resolve yet
+        assertThatThrownBy(() -> resolver.resolve(HOST)).isInstanceOf(UnknownHostException.class);
+        records.put(HOST, address(10));
+        
+        // When
+        advanceSeconds(20);
+        
+        // Then the failure is served from the cache
+        assertThatThrownBy(() -> resolver.resolve(HOST)).isInstanceOf(UnknownHostException.class);
+        assertThat(lookups.get()).isEqualTo(1);
+        
+        // When the negative TTL has passed
+        advanceSeconds(11);
+        
+        // Then
+        assertThat(resolver.resolve(HOST)).isEqualTo(address(10));
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+    
+    private InetAddress lookup(String host) throws UnknownHostException {
+        lookups.incrementAndGet();
+        InetAddress address = records.get(host);
+        if (address == null) {
+            throw new UnknownHostException(host);
+        }
+        return address;
+    }
+    
+    private void runRefreshes() {
+        Runnable refresh;
+        while ((refresh = refreshes.poll()) != null) {
+            refresh.run();
+        }
+    }
+    
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+    
+    private static InetAddress address(int lastOctet) throws UnknownHostException {
+        return InetAddress.getByAddress(HOST, new byte[] {10, 0, 0, (byte) lastOctet});
+    }
+}
\ No newline at end of file
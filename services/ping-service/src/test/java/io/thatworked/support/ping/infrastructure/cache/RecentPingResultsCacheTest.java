@@ -0,0 +1,110 @@
+package io.thatworked.support.ping.infrastructure.cache;
+
+import io.thatworked.support.ping.config.ResultCacheConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RecentPingResultsCache Tests")
+class RecentPingResultsCacheTest {
+    
+    private static final int CAPACITY = 8;
+    
+    private RecentPingResultsCache cache;
+    private final UUID deviceId = UUID.randomUUID();
+    
+    @BeforeEach
+    void setUp() {
+        ResultCacheConfig config = new ResultCacheConfig();
+        config.setCapacityPerDevice(CAPACITY);
+        cache = new RecentPingResultsCache(config);
+    }
+    
+    @Test
+    @DisplayName("Should return the newest results first after the ring wraps")
+    void testLatestAfterWrap() {
+        // Given
+        for (int i = 1; i <= 20; i++) {
+            cache.record(result(i, i % 5 == 0 ? null : (double) i, i % 5 == 0 ? PingStatus.TIMEOUT : PingStatus.SUCCESS));
+        }
+        
+        // When
+        List<String> latest = cache.latest(deviceId, 3, (id, time, rtt, status) -> time + ":" + rtt + ":" + status);
+        
+        // Then
+        assertThat(latest).containsExactly("20000:NaN:TIMEOUT", "19000:19.0:SUCCESS", "18000:18.0:SUCCESS");
+        assertThat(cache.latest(deviceId, CAPACITY, (id, time, rtt, status) -> time)).hasSize(CAPACITY).first().isEqualTo(20000L);
+    }
+    
+    @Test
+    @DisplayName("Should miss when the device has fewer results than requested")
+    void testMiss() {
+        // Given
+        cache.record(result(1, 1.0, PingStatus.SUCCESS));
+        
+        // When / Then
+        assertThat(cache.latest(deviceId, 1, (id, time, rtt, status) -> time)).containsExactly(1000L);
+        assertThat(cache.latest(deviceId, 2, (id, time, rtt, status) -> time)).isNull();
+        assertThat(cache.latest(deviceId, CAPACITY + 1, (id, time, rtt, status) -> time)).isNull();
+        assertThat(cache.latest(UUID.randomUUID(), 1, (id, time, rtt, status) -> time)).isNull();
+        
+        cache.evict(deviceId);
+        assertThat(cache.latest(deviceId, 1, (id, time, rtt, status) -> time)).isNull();
+        assertThat(cache.getMetrics()).containsEntry("hits", 1L).containsEntry("misses", 4L);
+    }
+    
+    @Test
+    @DisplayName("Should never return a torn snapshot while results are being recorded")
+    void testConcurrentReads() throws Exception {
+        // Given a writer whose round trip time is derived from its time
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = Thread.ofPlatform().start(() -> {
+            long i = 1;
+            while (running.get()) {
+                cache.record(result(i, (double) (i % 1000), PingStatus.SUCCESS));
+                i++;
+            }
+        });
+        AtomicReference<String> failure = new AtomicReference<>();
+        
+        // When
+        long deadline = System.nanoTime() + 300_000_000L;
+        while (System.nanoTime() < deadline && failure.get() == null) {
+            List<long[]> latest = cache.latest(deviceId, CAPACITY, (id, time, rtt, status) -> new long[]{time, (long) rtt});
+            if (latest == null) {
+                continue;
+            }
+            for (int i = 0; i < latest.size(); i++) {
+                long[] entry = latest.get(i);
+                long expectedTime = latest.get(0)[0] - i * 1000L;
+                if (entry[0] != expectedTime || entry[1] != (entry[0] / 1000) % 1000) {
+                    failure.set("Inconsistent snapshot at " + i + ": " + entry[0] + "/" + entry[1]);
+                }
+            }
+        }
+        running.set(false);
+        writer.join();
+        
+        // Then
+        assertThat(failure.get()).isNull();
+    }
+    
+    private PingResult result(long second, Double roundTripTime, PingStatus status) {
+        return PingResult.builder()
+                .time(Instant.ofEpochSecond(second))
+                .deviceId(deviceId)
+                .roundTripTime(roundTripTime)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package io.thatworked.support.ping.infrastructure.config;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("DatabaseInitializer Tests - Schema Upgrades")
+class DatabaseInitializerTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DatabaseInitializer initializer;
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        
+        // Same H2 settings as the test profile
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        initializer = new DatabaseInitializer(structuredLoggerFactory);
+    }
+    
+    @Test
+    @DisplayName("Should add the probe columns to a ping_target table created before they existed")
+    void testAddsProbeColumnsToExistingTable() {
+        // Given a table as created before probe types, with a target in it
+        jdbcTemplate.execute("CREATE TABLE ping_target (device_id uuid PRIMARY KEY, ip_address varchar(255), " +
+            "is_monitored boolean NOT NULL, ping_interval_seconds integer)");
+        UUID deviceId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO ping_target VALUES (?, '10.0.0.1', true, 30)", deviceId);
+        
+        // When upgraded on two starts
+        initializer.upgradeSchema(dataSource);
+        initializer.upgradeSchema(dataSource);
+        
+        // Then
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT column_name FROM information_schema.columns WHERE table_name = 'ping_target'", String.class))
+            .contains("probe_type", "probe_port");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT probe_type FROM ping_target WHERE device_id = ?", String.class, deviceId)).isNull();
+        verify(contextBuilder, times(2)).info("Database schema upgraded");
+        verify(contextBuilder, never()).error(anyString(), any(Throwable.class));
+    }
+    
+    @Test
+    @DisplayName("Should leave a database without the ping_target table to JPA")
+    void testSkipsMissingTable() {
+        // When
+        initializer.upgradeSchema(dataSource);
+        
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM information_schema.tables WHERE table_name = 'ping_target'", Integer.class)).isZero();
+        verify(contextBuilder).info("Database schema upgraded");
+        verify(contextBuilder, never()).error(anyString(), any(Throwable.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package io.thatworked.support.ping.infrastructure.config;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.BusinessRulesConfig;
+import io.thatworked.support.ping.config.TimescaleConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("TimescaleSchemaInitializer Tests")
+class TimescaleSchemaInitializerTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    private TimescaleConfig config;
+    private BusinessRulesConfig businessRulesConfig;
+    private TimescaleSchemaInitializer initializer;
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        
+        // TimescaleDB installed, aggregates already created, compression not yet enabled on the table
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("continuous_aggregates"), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("compression_enabled"), eq(Boolean.class), any())).thenReturn(false);
+        
+        config = new TimescaleConfig();
+        businessRulesConfig = new BusinessRulesConfig();
+        initializer = new TimescaleSchemaInitializer(structuredLoggerFactory, jdbcTemplate, config, businessRulesConfig);
+    }
+    
+    @Test
+    @DisplayName("Should replace the compression and retention policies on every start")
+    void testPoliciesAreRecreatedOnEveryStart() {
+        // When
+        initializer.initialize();
+        when(jdbcTemplate.queryForObject(contains("compression_enabled"), eq(Boolean.class), any())).thenReturn(true);
+        initializer.initialize();
+        
+        // Then
+        List<String> statements = executedStatements();
+        assertThat(statements).filteredOn(sql -> sql.contains("compression_policy")).containsExactly(
+            "SELECT remove_compression_policy('ping_results', if_exists => TRUE)",
+            "SELECT add_compression_policy('ping_results', compress_after => INTERVAL '7 days')",
+            "SELECT remove_compression_policy('ping_results', if_exists => TRUE)",
+            "SELECT add_compression_policy('ping_results', compress_after => INTERVAL '7 days')");
+        assertThat(statements).filteredOn(sql -> sql.contains("retention_policy")).containsExactly(
+            "SELECT remove_retention_policy('ping_results', if_exists => TRUE)",
+            "SELECT add_retention_policy('ping_results', drop_after => INTERVAL '30 days')",
+            "SELECT remove_retention_policy('ping_results', if_exists => TRUE)",
+            "SELECT add_retention_policy('ping_results', drop_after => INTERVAL '30 days')");
+        // Compression settings are set once, while no chunk is compressed yet
+        assertThat(statements).filteredOn(sql -> sql.contains("timescaledb.compress,")).hasSize(1);
+        assertThat(statements).filteredOn(sql -> sql.contains("CREATE MATERIALIZED VIEW")).isEmpty();
+        assertThat(initializer.isCompressionPolicyActive()).isTrue();
+        assertThat(initializer.isRetentionPolicyActive()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should only remove the policies when compression and retention are disabled")
+    void testDisabledPoliciesAreRemoved() {
+        // Given
+        config.setCompressionEnabled(false);
+        config.setRetentionEnabled(false);
+        
+        // When
+        initializer.initialize();
+        
+        // Then
+        List<String> statements = executedStatements();
+        assertThat(statements).contains(
+            "SELECT remove_compression_policy('ping_results', if_exists => TRUE)",
+            "SELECT remove_retention_policy('ping_results', if_exists => TRUE)");
+        assertThat(statements).noneMatch(sql -> sql.startsWith("SELECT add_compression_policy")
+            || sql.startsWith("SELECT add_retention_policy"));
+        assertThat(initializer.isCompressionPolicyActive()).isFalse();
+        assertThat(initializer.isRetentionPolicyActive()).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should keep raw rows at least as long as the aggregate refresh window")
+    void testRetentionIsRaisedToTheRefreshWindow() {
+        // Given
+        businessRulesConfig.setCleanupRetentionDays(3);
+        
+        // When
+        initializer.initialize();
+        
+        // Then
+        assertThat(executedStatements())
+            .contains("SELECT add_retention_policy('ping_results', drop_after => INTERVAL '8 days')");
+    }
+    
+    @Test
+    @DisplayName("Should issue no TimescaleDB statements without the extension")
+    void testNothingIsIssuedWithoutTimescale() {
+        // Given
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(0);
+        
+        // When
+        initializer.initialize();
+        
+        // Then
+        verify(jdbcTemplate, never()).execute(anyString());
+        assertThat(initializer.isTimescaleAvailable()).isFalse();
+    }
+    
+    private List<String> executedStatements() {
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        return statements.getAllValues();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package io.thatworked.support.ping.infrastructure.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.application.PingApplicationService;
+import io.thatworked.support.ping.application.service.MonitoredDeviceService;
+import io.thatworked.support.ping.application.usecase.UpdatePingTargetAddressUseCase.UpdatePingTargetAddressCommand;
+import io.thatworked.support.ping.domain.MonitoredDevice;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("DeviceEventConsumer Tests")
+class DeviceEventConsumerTest {
+
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+
+    @Mock
+    private StructuredLogger logger;
+
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+
+    @Mock
+    private PingApplicationService pingApplicationService;
+
+    @Mock
+    private MonitoredDeviceService monitoredDeviceService;
+
+    @Captor
+    private ArgumentCaptor<Collection<MonitoredDevice>> devicesCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<UpdatePingTargetAddressCommand>> commandsCaptor;
+
+    private DeviceEventConsumer consumer;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        when(pingApplicationService.updatePingTargetAddresses(anyList())).thenReturn(List.of());
+
+        consumer = new DeviceEventConsumer(pingApplicationService, monitoredDeviceService, new ObjectMapper(), structuredLoggerFactory);
+    }
+
+    @Test
+    @DisplayName("Should upsert only the latest event of each device in one call")
+    void testCollapsesBatchToLatestEventPerDevice() {
+        // Given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<ConsumerRecord<String, String>> batch = List.of(
+            record(first, created(first, "Switch-1", "10.0.0.1")),
+            record(second, created(second, "Switch-2", "10.0.0.2")),
+            record(first, updated(first, "Switch-1", "10.0.0.10")));
+
+        // When
+        consumer.handleDeviceEvents(batch);
+
+        // Then
+        verify(monitoredDeviceService, times(1)).saveAll(devicesCaptor.capture());
+        assertThat(devicesCaptor.getValue())
+            .extracting(MonitoredDevice::getDeviceId, MonitoredDevice::getIpAddress)
+            .containsExactly(
+                tuple(second, "10.0.0.2"),
+                tuple(first, "10.0.0.10"));
+
+        verify(pingApplicationService, times(1)).updatePingTargetAddresses(commandsCaptor.capture());
+        assertThat(commandsCaptor.getValue())
+            .extracting(UpdatePingTargetAddressCommand::deviceId)
+            .containsExactly(second, first);
+        assertThat(consumer.getMetrics()).containsEntry("collapsed", 1L);
+    }
+
+    @Test
+    @DisplayName("Should delete devices together and skip messages that cannot be decoded")
+    void testDeletesDevicesAndSkipsUndecodableMessages() {
+        // Given
+        UUID deleted = UUID.randomUUID();
+        List<ConsumerRecord<String, String>> batch = List.of(
+            record(deleted, created(deleted, "Router", "10.0.0.3")),
+            record(deleted, "{\"eventType\":\"device.deleted\",\"payload\":{\"deviceId\":\"" + deleted + "\"}}"),
+            record(UUID.randomUUID(), "not json"));
+
+        // When
+        consumer.handleDeviceEvents(batch);
+
+        // Then
+        verify(monitoredDeviceService, never()).saveAll(any());
+        verify(monitoredDeviceService).deleteAll(List.of(deleted));
+        verify(pingApplicationService).cleanupDeviceData(deleted);
+        assertThat(consumer.getMetrics()).containsEntry("decodeFailures", 1L);
+    }
+
+    @Test
+    @DisplayName("Should fail the batch when ping target addresses cannot be updated, so it is redelivered")
+    void testAddressUpdateFailureFailsBatch() {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        when(pingApplicationService.updatePingTargetAddresses(anyList()))
+            .thenThrow(new IllegalStateException("Connection refused"));
+        List<ConsumerRecord<String, String>> batch = List.of(
+            record(deviceId, created(deviceId, "Switch-1", "10.0.0.1")),
+            record(deleted, "{\"eventType\":\"device.deleted\",\"payload\":{\"deviceId\":\"" + deleted + "\"}}"));
+
+        // When / Then
+        assertThatThrownBy(() -> consumer.handleDeviceEvents(batch))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Connection refused");
+        verify(monitoredDeviceService, never()).deleteAll(any());
+    }
+
+    @Test
+    @DisplayName("Should decode changed fields and treat empty values as missing")
+    void testDecodesChangedFieldsAndEmptyValues() throws Exception {
+        // Given
+        UUID deviceId = UUID.randomUUID();
+        String message = "{\"eventType\":\"device.updated\",\"payload\":{\"deviceId\":\"" + deviceId + "\"," +
+            "\"deviceName\":\"Printer\",\"ipAddress\":{\"old\":\"10.0.0.4\",\"new\":\"10.0.0.5\"}," +
+            "\"hostname\":\"\",\"site\":\"\"}}";
+
+        // When
+        DeviceEvent event = DeviceEvent.parse(new ObjectMapper(), message);
+
+        // Then
+        assertThat(event.isUpsert()).isTrue();
+        assertThat(event.ipAddress()).isEqualTo("10.0.0.5");
+        assertThat(event.hostname()).isNull();
+        assertThat(event.site()).isNull();
+    }
+
+    private ConsumerRecord<String, String> record(UUID deviceId, String message) {
+        return new ConsumerRecord<>("device-events", 0, offset++, deviceId.toString(), message);
+    }
+
+    private static String created(UUID deviceId, String deviceName, String ipAddress) {
+        return event("device.created", deviceId, deviceName, ipAddress);
+    }
+
+    private static String updated(UUID deviceId, String deviceName, String ipAddress) {
+        return event("device.updated", deviceId, deviceName, ipAddress);
+    }
+
+    private static String event(String eventType, UUID deviceId, String deviceName, String ipAddress) {
+        return "{\"eventType\":\"" + eventType + "\",\"payload\":{\"deviceId\":\"" + deviceId + "\"," +
+            "\"deviceName\":\"" + deviceName + "\",\"ipAddress\":\"" + ipAddress + "\",\"hostname\":\"\"}}";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.AdaptiveIntervalConfig;
+import io.thatworked.support.ping.config.BusinessRulesConfig;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AdaptiveIntervalController Tests")
+class AdaptiveIntervalControllerTest {
+    
+    private AdaptiveIntervalConfig config;
+    private VirtualThreadPingExecutor executor;
+    private SimpleMeterRegistry registry;
+    private AdaptiveIntervalController controller;
+    private final UUID deviceId = UUID.randomUUID();
+    
+    @BeforeEach
+    void setUp() {
+        config = new AdaptiveIntervalConfig();
+        config.setEnabled(true);
+        config.setStableSamples(5);
+        executor = mock(VirtualThreadPingExecutor.class);
+        registry = new SimpleMeterRegistry();
+        controller = new AdaptiveIntervalController(mock(StructuredLoggerFactory.class, RETURNS_DEEP_STUBS),
+            config, new BusinessRulesConfig(), executor, new PingMeters(registry));
+    }
+    
+    @Test
+    @DisplayName("Should stretch the interval of a stable device up to its maximum")
+    void testStretchWhenStable() {
+        // Given
+        controller.register(deviceId, Duration.ofSeconds(5));
+        
+        // When
+        Duration last = null;
+        for (int i = 0; i < 500; i++) {
+            Duration next = controller.onResult(deviceId, PingStatus.SUCCESS, 2.0);
+            if (next != null) {
+                assertThat(last == null || next.compareTo(last) > 0).isTrue();
+                last = next;
+            }
+        }
+        
+        // Then 12 times the configured interval
+        assertThat(last).isEqualTo(Duration.ofSeconds(60));
+    }
+    
+    @Test
+    @DisplayName("Should drop to the minimum interval on the first failure")
+    void testTightenOnFailure() {
+        // Given
+        controller.register(deviceId, Duration.ofSeconds(5));
+        
+        // When
+        Duration next = controller.onResult(deviceId, PingStatus.TIMEOUT, null);
+        
+        // Then a fifth of the configured interval
+        assertThat(next).isEqualTo(Duration.ofSeconds(1));
+        assertThat(controller.onResult(deviceId, PingStatus.TIMEOUT, null)).isNull();
+        assertThat(controller.onResult(deviceId, PingStatus.SKIPPED, null)).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should halve the interval on a round trip time anomaly")
+    void testTightenOnAnomaly() {
+        // Given a device with a steady round trip time
+        config.setStableSamples(1000);
+        controller.register(deviceId, Duration.ofSeconds(10));
+        for (int i = 0; i < 50; i++) {
+            controller.onResult(deviceId, PingStatus.SUCCESS, 2.0 + (i % 3) * 0.1);
+        }
+        
+        // When
+        Duration next = controller.onResult(deviceId, PingStatus.SUCCESS, 80.0);
+        
+        // Then
+        assertThat(next).isEqualTo(Duration.ofSeconds(5));
+    }
+    
+    @Test
+    @DisplayName("Should stretch every device in proportion when demand exceeds the probe budget")
+    void testProbeBudget() {
+        // Given 20 devices at 1 second, 20 probes per second against a budget of 10
+        config.setProbeBudgetPps(10);
+        UUID[] devices = new UUID[20];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = UUID.randomUUID();
+            controller.register(devices[i], Duration.ofSeconds(1));
+        }
+        
+        // When
+        controller.rebalance();
+        
+        // Then each device moves to 2 seconds on its next result
+        for (UUID device : devices) {
+            assertThat(controller.onResult(device, PingStatus.SUCCESS, 1.0)).isEqualTo(Duration.ofSeconds(2));
+        }
+        assertThat(controller.getMetrics())
+            .containsEntry("budgetScale", 2.0)
+            .containsEntry("unmetBudgetPps", 0.0);
+    }
+    
+    @Test
+    @DisplayName("Should report the probe rate left over the budget when devices reach their maximum interval")
+    void testUnmetProbeBudget() {
+        // Given 20 devices at 1 second that may only stretch to 1.5 seconds, against a budget of 10
+        config.setProbeBudgetPps(10);
+        config.setMaxFactor(1.5);
+        UUID[] devices = new UUID[20];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = UUID.randomUUID();
+            controller.register(devices[i], Duration.ofSeconds(1));
+        }
+        
+        // When
+        controller.rebalance();
+        
+        // Then each device stops at 1.5 seconds, about 13.3 probes per second
+        for (UUID device : devices) {
+            assertThat(controller.onResult(device, PingStatus.SUCCESS, 1.0)).isEqualTo(Duration.ofMillis(1500));
+        }
+        double unmet = (double) controller.getMetrics().get("unmetBudgetPps");
+        assertThat(unmet).isCloseTo(20 / 1.5 - 10, within(0.01));
+        assertThat(registry.get("ping.probe.budget.unmet").gauge().value()).isEqualTo(unmet);
+    }
+    
+    @Test
+    @DisplayName("Should back off while the executor drops pings and recover once it stops")
+    void testOverloadBackoff() {
+        // Given
+        controller.register(deviceId, Duration.ofSeconds(4));
+        
+        // When pings are dropped between two rebalances
+        when(executor.getDroppedPings()).thenReturn(0L, 100L, 100L);
+        controller.rebalance();
+        controller.rebalance();
+        
+        // Then
+        assertThat(controller.getMetrics()).containsEntry("overloadScale", 1.25);
+        assertThat(controller.onResult(deviceId, PingStatus.SUCCESS, 1.0)).isEqualTo(Duration.ofSeconds(5));
+        
+        // When the drops stop
+        controller.rebalance();
+        
+        // Then
+        assertThat(controller.getMetrics()).containsEntry("overloadScale", 1.0);
+    }
+}
\ No newline at end of file
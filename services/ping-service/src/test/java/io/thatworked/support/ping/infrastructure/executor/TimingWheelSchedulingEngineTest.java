@@ -0,0 +1,152 @@
+package io.thatworked.support.ping.infrastructure.executor;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.infrastructure.queue.PingTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TimingWheelSchedulingEngine Tests")
+class TimingWheelSchedulingEngineTest {
+    
+    private static final Duration TICK = Duration.ofMillis(10);
+    
+    private final StructuredLoggerFactory structuredLoggerFactory = mock(StructuredLoggerFactory.class);
+    private final StructuredLogger logger = mock(StructuredLogger.class);
+    private final StructuredLogger.ContextBuilder contextBuilder = mock(StructuredLogger.ContextBuilder.class);
+    private TimingWheelSchedulingEngine engine;
+    private final Map<UUID, AtomicInteger> firings = new ConcurrentHashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        
+        engine = new TimingWheelSchedulingEngine(structuredLoggerFactory, TICK);
+        engine.start(due -> due.forEach(task ->
+            firings.computeIfAbsent(task.getDeviceId(), id -> new AtomicInteger()).incrementAndGet()));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+    
+    @Test
+    @DisplayName("Should fire recurring tasks at a fixed rate")
+    void testRecurringFiring() throws Exception {
+        // Given
+        PingTask task = task();
+        
+        // When
+        engine.schedule(task, Duration.ZERO, Duration.ofMillis(50));
+        Thread.sleep(520);
+        
+        // Then
+        assertThat(firings.get(task.getDeviceId()).get()).isBetween(8, 12);
+        assertThat(engine.size()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should stop firing after cancel")
+    void testCancel() throws Exception {
+        // Given
+        PingTask task = task();
+        engine.schedule(task, Duration.ZERO, Duration.ofMillis(20));
+        Thread.sleep(100);
+        
+        // When
+        boolean cancelled = engine.cancel(task.getDeviceId());
+        Thread.sleep(2 * TICK.toMillis());
+        int firedAtCancel = firings.get(task.getDeviceId()).get();
+        Thread.sleep(100);
+        
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(engine.cancel(task.getDeviceId())).isFalse();
+        assertThat(firings.get(task.getDeviceId()).get()).isEqualTo(firedAtCancel);
+        assertThat(engine.size()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should replace the previous schedule when a device is rescheduled")
+    void testReschedule() throws Exception {
+        // Given
+        PingTask task = task();
+        engine.schedule(task, Duration.ZERO, Duration.ofMillis(20));
+        
+        // When
+        engine.schedule(task, Duration.ofMillis(200), Duration.ofSeconds(10));
+        Thread.sleep(100);
+        
+        // Then
+        assertThat(firings.get(task.getDeviceId())).isNull();
+        assertThat(engine.size()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should log a batch the dispatcher fails on and fire its tasks again at their next firing")
+    void testDispatcherError() throws Exception {
+        // Given a dispatcher that fails on its first batch
+        engine.close();
+        AtomicInteger batches = new AtomicInteger();
+        engine = new TimingWheelSchedulingEngine(structuredLoggerFactory, TICK);
+        engine.start(due -> {
+            if (batches.incrementAndGet() == 1) {
+                throw new IllegalStateException("Executor shut down");
+            }
+            due.forEach(task -> firings.computeIfAbsent(task.getDeviceId(), id -> new AtomicInteger()).incrementAndGet());
+        });
+        PingTask task = task();
+        
+        // When
+        engine.schedule(task, Duration.ZERO, Duration.ofMillis(50));
+        Thread.sleep(120);
+        
+        // Then
+        verify(logger).with("batchSize", 1);
+        verify(contextBuilder).error(anyString(), any(IllegalStateException.class));
+        assertThat(engine.getMetrics()).containsEntry("dispatcherErrors", 1L);
+        assertThat(firings.get(task.getDeviceId()).get()).isPositive();
+    }
+    
+    @Test
+    @DisplayName("Should cascade long delays down to the fine-grained level")
+    void testCascade() throws Exception {
+        // Given - 300 ticks is past the first level's 256 slots
+        PingTask task = task();
+        
+        // When
+        engine.schedule(task, Duration.ofMillis(3000), Duration.ofSeconds(60));
+        Thread.sleep(2800);
+        boolean firedEarly = firings.containsKey(task.getDeviceId());
+        Thread.sleep(400);
+        
+        // Then
+        assertThat(firedEarly).isFalse();
+        assertThat(firings.get(task.getDeviceId()).get()).isEqualTo(1);
+        assertThat((long) engine.getMetrics().get("cascaded")).isPositive();
+    }
+    
+    private PingTask task() {
+        return PingTask.builder()
+                .deviceId(UUID.randomUUID())
+                .ipAddress("127.0.0.1")
+                .intervalMs(0)
+                .recurring(true)
+                .build();
+    }
+}
\ No newline at end of file
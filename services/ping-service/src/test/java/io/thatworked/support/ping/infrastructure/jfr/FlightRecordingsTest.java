@@ -0,0 +1,98 @@
+package io.thatworked.support.ping.infrastructure.jfr;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.FlightRecorderConfig;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("FlightRecordings Tests")
+class FlightRecordingsTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    @TempDir
+    Path recordingDirectory;
+    
+    private FlightRecordings flightRecordings;
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        
+        FlightRecorderConfig config = new FlightRecorderConfig();
+        config.setDirectory(recordingDirectory.toString());
+        flightRecordings = new FlightRecordings(structuredLoggerFactory, config);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        flightRecordings.stop();
+    }
+    
+    @Test
+    @DisplayName("Should dump ping service events committed while recording")
+    void testDumpContainsPingEvents() throws Exception {
+        // Given
+        flightRecordings.start();
+        
+        // When
+        CircuitTransitionEvent transition = new CircuitTransitionEvent();
+        transition.slot = 7;
+        transition.deviceId = "device-7";
+        transition.fromState = "CLOSED";
+        transition.toState = "OPEN";
+        transition.failures = 5;
+        transition.commit();
+        Map<String, Object> dump = flightRecordings.dump();
+        
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of((String) dump.get("file")));
+        assertThat(events)
+            .filteredOn(event -> event.getEventType().getName().equals("io.thatworked.ping.CircuitTransition"))
+            .singleElement()
+            .satisfies(event -> {
+                assertThat(event.getInt("slot")).isEqualTo(7);
+                assertThat(event.getString("toState")).isEqualTo("OPEN");
+                assertThat(event.getInt("failures")).isEqualTo(5);
+            });
+    }
+    
+    @Test
+    @DisplayName("Should refuse to dump when no recording is running")
+    void testDumpWithoutRecording() {
+        assertThatThrownBy(() -> flightRecordings.dump())
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(flightRecordings.getStatus()).containsEntry("state", "CLOSED");
+    }
+}
\ No newline at end of file
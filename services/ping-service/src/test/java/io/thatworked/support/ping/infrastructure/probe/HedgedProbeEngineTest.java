@@ -0,0 +1,115 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HedgedProbeEngine Tests")
+class HedgedProbeEngineTest {
+
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+
+    @Test
+    @DisplayName("Should answer from a hedge when the first echo is lost")
+    void testHedgeRescuesLostEcho() throws Exception {
+        // Given the first echo is never answered and later ones are
+        AtomicInteger sent = new AtomicInteger();
+        HedgedProbeEngine engine = new HedgedProbeEngine(engine((timeoutMs) ->
+            sent.getAndIncrement() == 0 ? lost(timeoutMs) : answered(5)), 20, 2);
+
+        // When
+        ProbeOutcome outcome = engine.probe(address, 1000).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(outcome.reachable()).isTrue();
+        assertThat(engine.getMetrics())
+            .containsEntry("echoesSent", 2L)
+            .containsEntry("rescuedByHedge", 1L)
+            .containsEntry("wonByAttempt", List.of(0L, 1L, 0L));
+    }
+
+    @Test
+    @DisplayName("Should not send hedges once the first echo answers")
+    void testSkipHedgesAfterReply() throws Exception {
+        // Given
+        HedgedProbeEngine engine = new HedgedProbeEngine(engine((timeoutMs) -> answered(1)), 50, 2);
+
+        // When
+        ProbeOutcome outcome = engine.probe(address, 1000).get(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+
+        // Then
+        assertThat(outcome.reachable()).isTrue();
+        assertThat(engine.getMetrics())
+            .containsEntry("echoesSent", 1L)
+            .containsEntry("hedgesSkipped", 2L)
+            .containsEntry("rescuedByHedge", 0L);
+    }
+
+    @Test
+    @DisplayName("Should time out a dead host once for the whole set of echoes")
+    void testSharedTimeout() throws Exception {
+        // Given no echo is ever answered
+        HedgedProbeEngine engine = new HedgedProbeEngine(engine(this::lost), 50, 2);
+
+        // When
+        long start = System.nanoTime();
+        ProbeOutcome outcome = engine.probe(address, 300).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(outcome.reachable()).isFalse();
+        assertThat(elapsedMs).isLessThan(600L);
+        assertThat(engine.getMetrics()).containsEntry("echoesSent", 3L);
+    }
+
+    @Test
+    @DisplayName("Should stop its send threads on close")
+    void testCloseStopsSends() throws Exception {
+        // Given
+        HedgedProbeEngine engine = new HedgedProbeEngine(engine((timeoutMs) -> answered(1)), 50, 2);
+        engine.probe(address, 1000).get(5, TimeUnit.SECONDS);
+
+        // When
+        engine.close();
+
+        // Then
+        assertThatThrownBy(() -> engine.probe(address, 1000)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private interface Echo {
+        CompletableFuture<ProbeOutcome> send(int timeoutMs);
+    }
+
+    private ProbeEngine engine(Echo echo) {
+        return new ProbeEngine() {
+            @Override
+            public CompletableFuture<ProbeOutcome> probe(InetAddress address, int timeoutMs) {
+                return echo.send(timeoutMs);
+            }
+
+            @Override
+            public String name() {
+                return "stub";
+            }
+        };
+    }
+
+    private CompletableFuture<ProbeOutcome> answered(long rttMs) {
+        return CompletableFuture.completedFuture(ProbeOutcome.reachable(TimeUnit.MILLISECONDS.toNanos(rttMs)));
+    }
+
+    private CompletableFuture<ProbeOutcome> lost(int timeoutMs) {
+        return new CompletableFuture<ProbeOutcome>()
+            .completeOnTimeout(ProbeOutcome.unreachable(), timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
\ No newline at end of file
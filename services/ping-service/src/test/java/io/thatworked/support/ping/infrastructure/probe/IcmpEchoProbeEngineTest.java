@@ -0,0 +1,102 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Exercises the ICMP engine against 127.0.0.0/8, which the kernel answers without any network.
+ * Skipped when the host does not allow unprivileged ICMP sockets (net.ipv4.ping_group_range).
+ */
+@DisplayName("IcmpEchoProbeEngine Tests")
+class IcmpEchoProbeEngineTest {
+    
+    private IcmpEchoProbeEngine engine;
+    
+    @BeforeEach
+    void setUp() {
+        try {
+            engine = IcmpEchoProbeEngine.open(65536, 4 * 1024 * 1024, new ReachabilityProbeEngine());
+        } catch (IOException e) {
+            assumeTrue(false, "Unprivileged ICMP sockets not available: " + e.getMessage());
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should receive echo reply from loopback with a round trip time")
+    void testLoopbackEcho() throws Exception {
+        // When
+        ProbeOutcome outcome = engine.probe(InetAddress.getByName("127.0.0.1"), 1000).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(outcome.reachable()).isTrue();
+        assertThat(outcome.rttNanos()).isGreaterThanOrEqualTo(0L);
+        assertThat(outcome.rttMillis()).isLessThan(1000.0);
+    }
+    
+    @Test
+    @DisplayName("Should match thousands of concurrent echoes across 127.0.0.0/8")
+    void testManyConcurrentEchoes() throws Exception {
+        // Given
+        int probes = 5000;
+        List<CompletableFuture<ProbeOutcome>> futures = new ArrayList<>(probes);
+        
+        // When
+        for (int i = 0; i < probes; i++) {
+            InetAddress address = InetAddress.getByAddress(new byte[] {127, 0, (byte) (i >> 8), (byte) ((i & 0xFF) | 1)});
+            futures.add(engine.probe(address, 3000));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(futures).allSatisfy(future -> assertThat(future.join().reachable()).isTrue());
+        assertThat(engine.getMetrics())
+            .containsEntry("inFlight", 0)
+            .containsEntry("replies", (long) probes)
+            .containsEntry("strayReplies", 0L);
+    }
+    
+    @Test
+    @DisplayName("Should fail pending and new probes once closed")
+    void testClosedEngineRejectsProbes() throws Exception {
+        // When
+        engine.close();
+        CompletableFuture<ProbeOutcome> future = engine.probe(InetAddress.getByName("127.0.0.1"), 1000);
+        
+        // Then
+        assertThatThrownBy(future::get)
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(IOException.class);
+    }
+    
+    @Test
+    @DisplayName("Should hand IPv6 addresses to the fallback engine")
+    void testIpv6UsesFallback() throws Exception {
+        // When
+        ProbeOutcome outcome = engine.probe(InetAddress.getByName("::1"), 1000).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(outcome).isNotNull();
+        assertThat(engine.getMetrics()).containsEntry("sent", 0L);
+    }
+}
\ No newline at end of file
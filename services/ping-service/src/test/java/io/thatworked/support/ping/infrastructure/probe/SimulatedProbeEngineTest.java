@@ -0,0 +1,88 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import io.thatworked.support.ping.config.SimulatorConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SimulatedProbeEngine Tests")
+class SimulatedProbeEngineTest {
+
+    private static final int TIMEOUT_MS = 200;
+
+    @Test
+    @DisplayName("Should reproduce the same replies from the same seed")
+    void testDeterministicFromSeed() throws Exception {
+        // Given two engines with the same seed
+        SimulatorConfig config = config();
+        config.setRttMedianMs(2.0);
+        config.setLossRate(0.2);
+
+        // When both probe the same targets
+        List<ProbeOutcome> first = probeAll(new SimulatedProbeEngine(config), 50, 4);
+        List<ProbeOutcome> second = probeAll(new SimulatedProbeEngine(config), 50, 4);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(first).anyMatch(ProbeOutcome::reachable).anyMatch(outcome -> !outcome.reachable());
+    }
+
+    @Test
+    @DisplayName("Should never answer from a blackholed target and alternate flapping ones")
+    void testBlackholesAndFlapping() throws Exception {
+        // Given every target blackholed
+        SimulatorConfig blackholes = config();
+        blackholes.setBlackholeFraction(1.0);
+        SimulatedProbeEngine blackholed = new SimulatedProbeEngine(blackholes);
+
+        // And every target flapping with no loss
+        SimulatorConfig flapping = config();
+        flapping.setFlappingFraction(1.0);
+        flapping.setFlapPeriodProbes(4);
+        flapping.setRttMedianMs(1.0);
+        SimulatedProbeEngine flapper = new SimulatedProbeEngine(flapping);
+
+        // When
+        List<ProbeOutcome> dead = probeAll(blackholed, 10, 2);
+        List<ProbeOutcome> flaps = probeAll(flapper, 1, 8);
+
+        // Then
+        assertThat(dead).noneMatch(ProbeOutcome::reachable);
+        assertThat(blackholed.getMetrics()).containsEntry("blackholed", 20L);
+        assertThat(flaps).filteredOn(ProbeOutcome::reachable).hasSize(4);
+        assertThat(flapper.getMetrics()).containsEntry("flappedDown", 4L);
+    }
+
+    private static SimulatorConfig config() {
+        SimulatorConfig config = new SimulatorConfig();
+        config.setSeed(7);
+        config.setLossRate(0.0);
+        config.setBlackholeFraction(0.0);
+        config.setFlappingFraction(0.0);
+        config.setRttJitter(0.1);
+        config.setRttTargetSpread(0.1);
+        return config;
+    }
+
+    private static List<ProbeOutcome> probeAll(SimulatedProbeEngine engine, int targets, int probesEach) throws Exception {
+        List<CompletableFuture<ProbeOutcome>> futures = new ArrayList<>();
+        for (int probe = 0; probe < probesEach; probe++) {
+            for (int target = 0; target < targets; target++) {
+                InetAddress address = InetAddress.getByAddress(new byte[] {(byte) 198, 18, 0, (byte) target});
+                futures.add(engine.probe(address, TIMEOUT_MS));
+            }
+        }
+        List<ProbeOutcome> outcomes = new ArrayList<>();
+        for (CompletableFuture<ProbeOutcome> future : futures) {
+            outcomes.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package io.thatworked.support.ping.infrastructure.probe;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TcpConnectProbeEngine Tests")
+class TcpConnectProbeEngineTest {
+
+    private final InetAddress loopback = InetAddress.getLoopbackAddress();
+    private TcpConnectProbeEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = TcpConnectProbeEngine.open(80, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("Should report a listening port as reachable with the connect time")
+    void testOpenPort() throws Exception {
+        // Given
+        try (ServerSocket listener = new ServerSocket(0, 50, loopback)) {
+            // When
+            ProbeOutcome outcome = engine.probe(new InetSocketAddress(loopback, listener.getLocalPort()), 1000)
+                .get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(outcome.reachable()).isTrue();
+            assertThat(outcome.rttNanos()).isGreaterThanOrEqualTo(0L);
+            assertThat(engine.getMetrics())
+                .containsEntry("connected", 1L)
+                .containsEntry("inFlight", 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a refused connection as host up with the port closed")
+    void testClosedPort() throws Exception {
+        // Given a port nothing listens on
+        int closedPort;
+        try (ServerSocket listener = new ServerSocket(0, 50, loopback)) {
+            closedPort = listener.getLocalPort();
+        }
+
+        // When
+        ProbeOutcome outcome = engine.probe(new InetSocketAddress(loopback, closedPort), 1000)
+            .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(outcome.reachable()).isTrue();
+        assertThat(engine.getMetrics())
+            .containsEntry("refused", 1L)
+            .containsEntry("connected", 0L)
+            .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    @DisplayName("Should keep many connects outstanding on one selector")
+    void testManyConcurrentConnects() throws Exception {
+        // Given a listener whose backlog holds every connect
+        int connects = 1000;
+        try (ServerSocket listener = new ServerSocket(0, connects, loopback)) {
+            InetSocketAddress endpoint = new InetSocketAddress(loopback, listener.getLocalPort());
+
+            // When
+            List<CompletableFuture<ProbeOutcome>> probes = new ArrayList<>(connects);
+            for (int i = 0; i < connects; i++) {
+                probes.add(engine.probe(endpoint, 5000));
+            }
+            CompletableFuture.allOf(probes.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(probes).allMatch(probe -> probe.join().reachable());
+            assertThat(engine.getMetrics())
+                .containsEntry("started", (long) connects)
+                .containsEntry("inFlight", 0);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package io.thatworked.support.ping.infrastructure.publisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.api.dto.PingResultEvent;
+import io.thatworked.support.ping.config.ResultPublisherConfig;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PingResultPublisher Tests")
+class PingResultPublisherTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    @Mock
+    private ProducerFactory<String, Object> producerFactory;
+    
+    @Mock
+    private Producer<String, Object> producer;
+    
+    private final List<Callback> pendingCallbacks = new ArrayList<>();
+    
+    private PingResultPublisher publisher;
+    
+    @BeforeEach
+    void setUp() {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        when(producerFactory.copyWithConfigurationOverride(anyMap())).thenReturn(producerFactory);
+        when(producerFactory.createProducer()).thenReturn(producer);
+        // Sends stay unacknowledged until the test completes their callbacks
+        when(producer.send(any(), any())).thenAnswer(invocation -> {
+            pendingCallbacks.add(invocation.getArgument(1));
+            return new CompletableFuture<RecordMetadata>();
+        });
+        
+        ResultPublisherConfig config = new ResultPublisherConfig();
+        config.setMaxInFlight(2);
+        config.setAcquireTimeoutMs(0);
+        publisher = new PingResultPublisher(structuredLoggerFactory, producerFactory, config,
+                new PingMeters(new SimpleMeterRegistry()));
+    }
+    
+    @Test
+    @DisplayName("Should drop events while the in-flight limit is reached and accept them again once a send is acknowledged")
+    void testInFlightLimit() {
+        // When
+        boolean first = publisher.publish(UUID.randomUUID(), event());
+        boolean second = publisher.publish(UUID.randomUUID(), event());
+        boolean third = publisher.publish(UUID.randomUUID(), event());
+        
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(publisher.getMetrics())
+            .containsEntry("submitted", 2L)
+            .containsEntry("rejected", 1L)
+            .containsEntry("inFlight", 2);
+        
+        // When
+        pendingCallbacks.get(0).onCompletion(metadata(), null);
+        
+        // Then
+        assertThat(publisher.publish(UUID.randomUUID(), event())).isTrue();
+        assertThat(publisher.getMetrics())
+            .containsEntry("acknowledged", 1L)
+            .containsEntry("inFlight", 2);
+    }
+    
+    @Test
+    @DisplayName("Should count an asynchronous send failure and release its slot")
+    void testAsyncFailure() {
+        // Given
+        assertThat(publisher.publish(UUID.randomUUID(), event())).isTrue();
+        
+        // When
+        pendingCallbacks.get(0).onCompletion(null, new TimeoutException("Expiring 1 record(s)"));
+        
+        // Then
+        assertThat(publisher.getMetrics())
+            .containsEntry("failed", 1L)
+            .containsEntry("acknowledged", 0L)
+            .containsEntry("inFlight", 0);
+    }
+    
+    @Test
+    @DisplayName("Should report a send the producer rejects synchronously as dropped")
+    void testSynchronousSendFailure() {
+        // Given
+        when(producer.send(any(), any())).thenThrow(new TimeoutException("Topic not present in metadata"));
+        
+        // When
+        boolean published = publisher.publish(UUID.randomUUID(), event());
+        
+        // Then
+        assertThat(published).isFalse();
+        assertThat(publisher.getMetrics())
+            .containsEntry("submitted", 1L)
+            .containsEntry("failed", 1L)
+            .containsEntry("inFlight", 0)
+            .containsEntry("lastError", "Topic not present in metadata");
+    }
+    
+    private static PingResultEvent event() {
+        return PingResultEvent.builder().build();
+    }
+    
+    private static RecordMetadata metadata() {
+        return new RecordMetadata(new TopicPartition("ping-results", 0), 0, 0, 0, 0, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package io.thatworked.support.ping.infrastructure.queue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PingAdmissionQueue Tests")
+class PingAdmissionQueueTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    @DisplayName("Should admit the ping with the earliest deadline first")
+    void testEarliestDeadlineFirst() throws Exception {
+        // Given
+        PingAdmissionQueue queue = new PingAdmissionQueue(10);
+        PingTask late = task(UUID.randomUUID());
+        PingTask early = task(UUID.randomUUID());
+        long now = System.nanoTime();
+        queue.offer(late, now + 5 * SECOND);
+        queue.offer(early, now + SECOND);
+        Semaphore permits = new Semaphore(2);
+        
+        // When / Then
+        assertThat(queue.take(permits)).isSameAs(early);
+        assertThat(queue.take(permits)).isSameAs(late);
+        assertThat(permits.availablePermits()).isZero();
+        assertThat(queue.isEmpty()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should shed a ping that waits past its deadline")
+    void testShedAtDeadline() throws Exception {
+        // Given no free permit
+        PingAdmissionQueue queue = new PingAdmissionQueue(10);
+        Semaphore permits = new Semaphore(0);
+        queue.offer(task(UUID.randomUUID()), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+        PingTask next = task(UUID.randomUUID());
+        queue.offer(next, System.nanoTime() + 10 * SECOND);
+        
+        // When a permit frees up after the first deadline
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            permits.release();
+        });
+        PingTask admitted = queue.take(permits);
+        
+        // Then
+        assertThat(admitted).isSameAs(next);
+        assertThat(queue.getMetrics())
+            .containsEntry("shed", 1L)
+            .containsEntry("admitted", 1L);
+        assertThat(queue.droppedCount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should keep only the newest ping of a device and reject pings once full")
+    void testSupersedeAndReject() throws Exception {
+        // Given
+        PingAdmissionQueue queue = new PingAdmissionQueue(2);
+        UUID deviceId = UUID.randomUUID();
+        PingTask first = task(deviceId);
+        PingTask second = task(deviceId);
+        PingTask other = task(UUID.randomUUID());
+        long deadline = System.nanoTime() + 10 * SECOND;
+        
+        // When
+        queue.offer(first, deadline);
+        queue.offer(second, deadline + 1);
+        queue.offer(other, deadline + 2);
+        boolean accepted = queue.offer(task(UUID.randomUUID()), deadline);
+        
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.saturation()).isEqualTo(1.0);
+        assertThat(queue.getMetrics())
+            .containsEntry("superseded", 1L)
+            .containsEntry("rejected", 1L);
+        
+        Semaphore permits = new Semaphore(2);
+        assertThat(queue.take(permits)).isSameAs(second);
+        assertThat(queue.take(permits)).isSameAs(other);
+    }
+    
+    private PingTask task(UUID deviceId) {
+        return PingTask.builder().deviceId(deviceId).intervalMs(1000).build();
+    }
+}
\ No newline at end of file
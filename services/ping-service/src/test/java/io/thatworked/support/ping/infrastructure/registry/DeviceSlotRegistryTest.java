@@ -0,0 +1,113 @@
+package io.thatworked.support.ping.infrastructure.registry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DeviceSlotRegistry Tests")
+class DeviceSlotRegistryTest {
+
+    @Test
+    @DisplayName("Should give each device a stable slot and reuse freed slots")
+    void testAcquireAndReuse() {
+        // Given
+        DeviceSlotRegistry registry = new DeviceSlotRegistry();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        // When
+        int firstSlot = registry.acquire(first);
+        int secondSlot = registry.acquire(second);
+        registry.release(first);
+        int thirdSlot = registry.acquire(third);
+
+        // Then
+        assertThat(firstSlot).isZero();
+        assertThat(secondSlot).isEqualTo(1);
+        assertThat(registry.acquire(second)).isEqualTo(secondSlot);
+        assertThat(thirdSlot).isEqualTo(firstSlot);
+        assertThat(registry.slotOf(first)).isEqualTo(DeviceSlotRegistry.NO_SLOT);
+        assertThat(registry.deviceId(thirdSlot)).isEqualTo(third);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should start a reused slot from clean state")
+    void testReleaseClearsState() {
+        // Given a device with an open circuit and a recorded ping
+        DeviceSlotRegistry registry = new DeviceSlotRegistry();
+        UUID device = UUID.randomUUID();
+        int slot = registry.acquire(device);
+        registry.setIntervalMs(slot, 1000);
+        registry.incrementFailures(slot);
+        registry.compareAndSetCircuitState(slot, DeviceSlotRegistry.CIRCUIT_CLOSED, DeviceSlotRegistry.CIRCUIT_OPEN, System.nanoTime());
+        registry.markStarted(slot, System.nanoTime());
+        registry.recordRtt(slot, 12.5f);
+
+        // When
+        registry.release(device);
+        int reused = registry.acquire(UUID.randomUUID());
+
+        // Then
+        assertThat(reused).isEqualTo(slot);
+        assertThat(registry.circuitState(reused)).isEqualTo(DeviceSlotRegistry.CIRCUIT_CLOSED);
+        assertThat(registry.incrementFailures(reused)).isEqualTo(1);
+        assertThat(registry.lastRttMillis(reused)).isNaN();
+        assertThat(registry.task(reused)).isNull();
+        assertThat(registry.markStarted(reused, System.nanoTime())).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("Should measure how late a ping starts against the previous ping's due time")
+    void testScheduleLag() {
+        // Given a device pinged every second
+        DeviceSlotRegistry registry = new DeviceSlotRegistry();
+        int slot = registry.acquire(UUID.randomUUID());
+        registry.setIntervalMs(slot, 1000);
+        long first = 1_000_000_000L;
+        
+        // When
+        long firstLag = registry.markStarted(slot, first);
+        long lateLag = registry.markStarted(slot, first + 1_250_000_000L);
+        long earlyLag = registry.markStarted(slot, first + 2_000_000_000L);
+        
+        // Then
+        assertThat(firstLag).isEqualTo(-1L);
+        assertThat(lateLag).isEqualTo(250_000_000L);
+        assertThat(earlyLag).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep state across page growth")
+    void testGrowthAcrossPages() {
+        // Given more devices than several pages hold
+        DeviceSlotRegistry registry = new DeviceSlotRegistry();
+        int devices = DeviceSlotRegistry.PAGE_SIZE * 20 + 1;
+        List<UUID> ids = new ArrayList<>(devices);
+        for (int i = 0; i < devices; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            int slot = registry.acquire(id);
+            registry.setIntervalMs(slot, 1000);
+            registry.markStarted(slot, System.nanoTime());
+            registry.recordRtt(slot, i);
+        }
+
+        // When / Then
+        for (int i = 0; i < devices; i += 997) {
+            int slot = registry.slotOf(ids.get(i));
+            assertThat(slot).isEqualTo(i);
+            assertThat(registry.lastRttMillis(slot)).isEqualTo((float) i);
+        }
+        assertThat(registry.getMetrics())
+            .containsEntry("devices", devices)
+            .containsEntry("pages", 21)
+            .containsEntry("overdueDevices", 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package io.thatworked.support.ping.infrastructure.repository;
+
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner.Segment;
+import io.thatworked.support.ping.infrastructure.repository.PingStatisticsQueryPlanner.Source;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PingStatisticsQueryPlanner Tests")
+class PingStatisticsQueryPlannerTest {
+    
+    @Test
+    @DisplayName("Should cover the aligned middle with the coarsest aggregate and the edges with finer sources")
+    void testMixedPlan() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T10:15:30Z");
+        Instant end = Instant.parse("2025-01-04T08:20:10Z");
+        
+        // When
+        List<Segment> plan = PingStatisticsQueryPlanner.plan(start, end);
+        
+        // Then
+        assertThat(plan).containsExactly(
+            new Segment(Source.RAW, start, Instant.parse("2025-01-01T10:16:00Z")),
+            new Segment(Source.MINUTE, Instant.parse("2025-01-01T10:16:00Z"), Instant.parse("2025-01-01T11:00:00Z")),
+            new Segment(Source.HOUR, Instant.parse("2025-01-01T11:00:00Z"), Instant.parse("2025-01-02T00:00:00Z")),
+            new Segment(Source.DAY, Instant.parse("2025-01-02T00:00:00Z"), Instant.parse("2025-01-04T00:00:00Z")),
+            new Segment(Source.HOUR, Instant.parse("2025-01-04T00:00:00Z"), Instant.parse("2025-01-04T08:00:00Z")),
+            new Segment(Source.MINUTE, Instant.parse("2025-01-04T08:00:00Z"), Instant.parse("2025-01-04T08:20:00Z")),
+            new Segment(Source.RAW, Instant.parse("2025-01-04T08:20:00Z"), end));
+    }
+    
+    @Test
+    @DisplayName("Should read ranges shorter than a minute bucket from raw rows")
+    void testShortRange() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T10:15:30Z");
+        Instant end = start.plusSeconds(20);
+        
+        // When
+        List<Segment> plan = PingStatisticsQueryPlanner.plan(start, end);
+        
+        // Then
+        assertThat(plan).containsExactly(new Segment(Source.RAW, start, end));
+    }
+    
+    @Test
+    @DisplayName("Should name the sources a plan reads")
+    void testDescribe() {
+        // Given
+        Instant start = Instant.parse("2025-01-01T10:00:00Z");
+        
+        // When / Then
+        assertThat(PingStatisticsQueryPlanner.describe(PingStatisticsQueryPlanner.plan(start, start.plusSeconds(3600))))
+            .isEqualTo("aggregates");
+        assertThat(PingStatisticsQueryPlanner.describe(PingStatisticsQueryPlanner.plan(start, start.plusSeconds(3630))))
+            .isEqualTo("aggregates+raw");
+        assertThat(PingStatisticsQueryPlanner.describe(PingStatisticsQueryPlanner.plan(start, start.plusSeconds(20))))
+            .isEqualTo("raw");
+        assertThat(PingStatisticsQueryPlanner.describe(PingStatisticsQueryPlanner.planRaw(start, start.plusSeconds(3600))))
+            .isEqualTo("raw");
+    }
+    
+    @Test
+    @DisplayName("Should estimate percentiles from histogram counts within a bucket width")
+    void testHistogramPercentile() {
+        // Given 900 samples near 10 ms and 100 near 200 ms
+        long[] counts = new long[RttHistogram.BUCKETS + 2];
+        counts[bucketOf(10.0)] = 900;
+        counts[bucketOf(200.0)] = 100;
+        PingStatisticsSummary summary = new PingStatisticsSummary(
+            null, 1000, 1000, 1000, 900 * 10.0 + 100 * 200.0, 9.5, 210.0, null, null, 0, 0, counts, "aggregates");
+        
+        // When
+        Double p50 = summary.rttPercentile(0.50);
+        Double p99 = summary.rttPercentile(0.99);
+        
+        // Then
+        assertThat(p50).isBetween(9.0, 11.5);
+        assertThat(p99).isBetween(180.0, 210.0);
+        assertThat(summary.rttPercentileBucketWidth()).isBetween(0.12, 0.14);
+        assertThat(PingStatisticsSummary.empty(null, "raw").rttPercentile(0.5)).isNull();
+        assertThat(PingStatisticsSummary.empty(null, "raw").rttPercentileBucketWidth()).isNull();
+    }
+    
+    private static int bucketOf(double rttMs) {
+        double width = (Math.log(RttHistogram.UPPER_MS) - Math.log(RttHistogram.LOWER_MS)) / RttHistogram.BUCKETS;
+        return 1 + (int) ((Math.log(rttMs) - Math.log(RttHistogram.LOWER_MS)) / width);
+    }
+}
\ No newline at end of file
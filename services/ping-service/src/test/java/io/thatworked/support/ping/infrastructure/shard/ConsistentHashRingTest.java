@@ -0,0 +1,69 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("ConsistentHashRing Tests")
+class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 512;
+    private static final int DEVICES = 20_000;
+
+    @Test
+    @DisplayName("Should agree on owners whatever the member order and spread devices evenly")
+    void testStableAndBalanced() {
+        // Given the same members listed in different orders
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("ping-a", "ping-b", "ping-c"), VIRTUAL_NODES);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("ping-c", "ping-a", "ping-b"), VIRTUAL_NODES);
+
+        // When
+        Map<String, Double> shares = ring.shares();
+
+        // Then
+        for (UUID deviceId : devices()) {
+            assertThat(reordered.owner(deviceId)).isEqualTo(ring.owner(deviceId));
+        }
+        assertThat(shares.values().stream().mapToDouble(Double::doubleValue).sum()).isCloseTo(1.0, within(1e-9));
+        assertThat(shares.values()).allSatisfy(share -> assertThat(share).isCloseTo(1.0 / 3, within(0.05)));
+    }
+
+    @Test
+    @DisplayName("Should only move devices to a member that joins")
+    void testMinimalMovementOnJoin() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("ping-a", "ping-b", "ping-c"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("ping-a", "ping-b", "ping-c", "ping-d"), VIRTUAL_NODES);
+
+        // When
+        int moved = 0;
+        for (UUID deviceId : devices()) {
+            String owner = after.owner(deviceId);
+            if (!owner.equals(before.owner(deviceId))) {
+                moved++;
+                // Then every device that moves goes to the new member
+                assertThat(owner).isEqualTo("ping-d");
+            }
+        }
+
+        // And about a quarter of the devices move
+        assertThat((double) moved / DEVICES).isCloseTo(0.25, within(0.05));
+    }
+
+    private static List<UUID> devices() {
+        Random random = new Random(11);
+        List<UUID> devices = new ArrayList<>(DEVICES);
+        for (int i = 0; i < DEVICES; i++) {
+            devices.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return devices;
+    }
+}
\ No newline at end of file
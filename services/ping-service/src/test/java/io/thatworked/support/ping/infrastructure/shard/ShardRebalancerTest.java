@@ -0,0 +1,217 @@
+package io.thatworked.support.ping.infrastructure.shard;
+
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.application.service.VirtualThreadPingService;
+import io.thatworked.support.ping.config.ShardingConfig;
+import io.thatworked.support.ping.domain.PingTarget;
+import io.thatworked.support.ping.infrastructure.registry.DeviceSlotRegistry;
+import io.thatworked.support.ping.infrastructure.repository.jpa.PingTargetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ShardRebalancer Tests")
+class ShardRebalancerTest {
+
+    private static final String LOCAL = "ping-a";
+    private static final String OTHER = "ping-b";
+    private static final int TARGETS = 200;
+    private static final long HANDOFF_GRACE_MS = 200;
+
+    private final StructuredLoggerFactory structuredLoggerFactory = mock(StructuredLoggerFactory.class, RETURNS_DEEP_STUBS);
+    private final DeviceSlotRegistry registry = new DeviceSlotRegistry();
+    private final VirtualThreadPingService pingService = mock(VirtualThreadPingService.class);
+    private final PingTargetRepository pingTargetRepository = mock(PingTargetRepository.class);
+    private final List<PingTarget> activeTargets = new ArrayList<>();
+    private ShardingConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new ShardingConfig();
+        config.setEnabled(true);
+        config.setMembership(StaticShardMembership.NAME);
+        config.setVirtualNodes(64);
+        config.setStableRefreshes(2);
+        config.setHandoffGraceMs(HANDOFF_GRACE_MS);
+        config.setReconcileIntervalMs(Long.MAX_VALUE);
+
+        // The ping service schedules a device by giving it a slot and unschedules it by freeing the slot
+        doAnswer(invocation -> registry.acquire(invocation.<PingTarget>getArgument(0).getDeviceId()))
+            .when(pingService).startMonitoring(any(PingTarget.class));
+        doAnswer(invocation -> registry.release(invocation.getArgument(0)))
+            .when(pingService).stopMonitoring(any(UUID.class));
+        when(pingService.monitorsAsConfigured(any())).thenReturn(true);
+
+        Random random = new Random(7);
+        for (int i = 0; i < TARGETS; i++) {
+            activeTargets.add(target(new UUID(random.nextLong(), random.nextLong())));
+        }
+        when(pingTargetRepository.findAllActiveTargets()).thenAnswer(invocation -> List.copyOf(activeTargets));
+    }
+
+    @Test
+    @DisplayName("Should hand off the devices of a joining member once it is stable and the grace period has passed")
+    void testHandoffOnJoin() {
+        // Given this instance alone, probing every target
+        StaticShardMembership membership = new StaticShardMembership(LOCAL, List.of(LOCAL));
+        ProbeOwnership ownership = new ProbeOwnership(structuredLoggerFactory, config, membership);
+        ShardRebalancer rebalancer = rebalancer(membership, ownership);
+        rebalancer.rebalance("startup");
+        assertThat(registry.size()).isEqualTo(TARGETS);
+
+        // When another member joins and is seen on one refresh
+        membership.setMembers(List.of(LOCAL, OTHER));
+        rebalancer.refresh();
+
+        // Then nothing moves yet
+        assertThat(ownership.members()).containsExactly(LOCAL);
+        assertThat(registry.size()).isEqualTo(TARGETS);
+
+        // When it is seen again
+        rebalancer.refresh();
+
+        // Then the lost devices keep being probed through the grace period
+        Set<UUID> kept = ownedBy(ownership, LOCAL);
+        Set<UUID> lost = ownedBy(ownership, OTHER);
+        assertThat(kept).isNotEmpty();
+        assertThat(lost).isNotEmpty();
+        assertThat(registry.size()).isEqualTo(TARGETS);
+        assertThat(rebalancer.getMetrics()).containsEntry("rebalances", 1L).containsEntry("releasing", lost.size());
+
+        // And are stopped after it, leaving only the devices still owned here
+        for (UUID deviceId : lost) {
+            verify(pingService, timeout(5000)).stopMonitoring(deviceId);
+        }
+        for (UUID deviceId : kept) {
+            verify(pingService, never()).stopMonitoring(deviceId);
+        }
+        assertThat(Set.copyOf(registry.deviceIds())).isEqualTo(kept);
+        assertThat(rebalancer.getMetrics()).containsEntry("released", (long) lost.size()).containsEntry("releasing", 0);
+    }
+
+    @Test
+    @DisplayName("Should keep probing handed off devices that membership moves back during the grace period")
+    void testHandoffCancelledOnReturn() throws InterruptedException {
+        // Given another member joined and the lost devices are in their grace period
+        StaticShardMembership membership = new StaticShardMembership(LOCAL, List.of(LOCAL));
+        ProbeOwnership ownership = new ProbeOwnership(structuredLoggerFactory, config, membership);
+        ShardRebalancer rebalancer = rebalancer(membership, ownership);
+        rebalancer.rebalance("startup");
+        membership.setMembers(List.of(LOCAL, OTHER));
+        rebalancer.refresh();
+        rebalancer.refresh();
+
+        // When it leaves again before the grace period ends
+        membership.setMembers(List.of(LOCAL));
+        rebalancer.refresh();
+        rebalancer.refresh();
+        Thread.sleep(HANDOFF_GRACE_MS * 3);
+
+        // Then every target is still probed here
+        verify(pingService, never()).stopMonitoring(any(UUID.class));
+        assertThat(registry.size()).isEqualTo(TARGETS);
+        assertThat(rebalancer.getMetrics()).containsEntry("rebalances", 2L).containsEntry("released", 0L);
+    }
+
+    @Test
+    @DisplayName("Should start the devices of a member that leaves straight away")
+    void testTakeOverOnLeave() {
+        // Given two members, this one probing its share
+        StaticShardMembership membership = new StaticShardMembership(LOCAL, List.of(LOCAL, OTHER));
+        ProbeOwnership ownership = new ProbeOwnership(structuredLoggerFactory, config, membership);
+        ShardRebalancer rebalancer = rebalancer(membership, ownership);
+        rebalancer.rebalance("startup");
+        Set<UUID> owned = ownedBy(ownership, LOCAL);
+        assertThat(Set.copyOf(registry.deviceIds())).isEqualTo(owned);
+
+        // When the other member leaves and stays gone
+        membership.setMembers(List.of(LOCAL));
+        rebalancer.refresh();
+        rebalancer.refresh();
+
+        // Then its devices are probed here as well
+        assertThat(registry.size()).isEqualTo(TARGETS);
+        assertThat(rebalancer.getMetrics()).containsEntry("started", (long) TARGETS);
+        verify(pingService, never()).stopMonitoring(any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("Should reconcile owned targets started, changed or stopped through another instance")
+    void testReconcile() {
+        // Given two members, this one probing its share
+        config.setReconcileIntervalMs(0);
+        StaticShardMembership membership = new StaticShardMembership(LOCAL, List.of(LOCAL, OTHER));
+        ProbeOwnership ownership = new ProbeOwnership(structuredLoggerFactory, config, membership);
+        ShardRebalancer rebalancer = rebalancer(membership, ownership);
+        rebalancer.rebalance("startup");
+
+        // And since then a target owned here was added, one was changed and one was deactivated
+        PingTarget added = target(ownedDevice(ownership));
+        activeTargets.add(added);
+        List<PingTarget> owned = activeTargets.stream()
+            .filter(target -> ownership.owns(target.getDeviceId()))
+            .toList();
+        PingTarget changed = owned.get(0);
+        PingTarget deactivated = owned.get(1);
+        activeTargets.remove(deactivated);
+        when(pingService.monitorsAsConfigured(changed)).thenReturn(false);
+
+        // When membership is unchanged at the next refresh
+        rebalancer.refresh();
+
+        // Then
+        verify(pingService).startMonitoring(added);
+        verify(pingService).updateMonitoring(changed);
+        verify(pingService).stopMonitoring(deactivated.getDeviceId());
+        assertThat(Set.copyOf(registry.deviceIds())).isEqualTo(ownedBy(ownership, LOCAL));
+        assertThat(registry.slotOf(added.getDeviceId())).isNotEqualTo(DeviceSlotRegistry.NO_SLOT);
+        assertThat(registry.slotOf(deactivated.getDeviceId())).isEqualTo(DeviceSlotRegistry.NO_SLOT);
+        assertThat(rebalancer.getMetrics()).containsEntry("rebalances", 0L).containsEntry("stoppedInactive", 1L);
+    }
+
+    private ShardRebalancer rebalancer(ShardMembership membership, ProbeOwnership ownership) {
+        return new ShardRebalancer(structuredLoggerFactory, config, membership, ownership, pingService,
+            pingTargetRepository, registry);
+    }
+
+    private Set<UUID> ownedBy(ProbeOwnership ownership, String member) {
+        return activeTargets.stream()
+            .map(PingTarget::getDeviceId)
+            .filter(deviceId -> ownership.owner(deviceId).equals(member))
+            .collect(Collectors.toSet());
+    }
+
+    private static UUID ownedDevice(ProbeOwnership ownership) {
+        UUID deviceId;
+        do {
+            deviceId = UUID.randomUUID();
+        } while (!ownership.owns(deviceId));
+        return deviceId;
+    }
+
+    private static PingTarget target(UUID deviceId) {
+        return PingTarget.builder()
+            .deviceId(deviceId)
+            .ipAddress("10.0.0.1")
+            .isMonitored(true)
+            .pingIntervalSeconds(30)
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package io.thatworked.support.ping.infrastructure.snapshot;
+
+import io.thatworked.support.ping.domain.AlertState;
+import io.thatworked.support.ping.domain.ProbeType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("StateSnapshot Tests")
+class StateSnapshotTest {
+
+    @Test
+    @DisplayName("Should read back the targets and alert states it wrote")
+    void testRoundTrip() throws IOException {
+        // Given
+        Instant alertSent = Instant.ofEpochMilli(1_700_000_000_000L);
+        StateSnapshot snapshot = new StateSnapshot(1_700_000_060_000L,
+            List.of(
+                new StateSnapshot.TargetState(UUID.randomUUID(), "192.168.1.100", "host1.local", null, null,
+                    30000, 1_700_000_065_000L, 0, 0, 5000),
+                new StateSnapshot.TargetState(UUID.randomUUID(), "10.0.0.1", null, ProbeType.TCP, 443,
+                    60000, StateSnapshot.NONE, 1, 5, 120000)),
+            List.of(new AlertState(UUID.randomUUID(), 4, 0, true, alertSent, null, alertSent, null, alertSent, alertSent)));
+
+        // When
+        StateSnapshot read = StateSnapshot.readFrom(new ByteArrayInputStream(write(snapshot)));
+
+        // Then
+        assertThat(read).isEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Should refuse a truncated or corrupted snapshot")
+    void testDetectsDamage() throws IOException {
+        // Given
+        StateSnapshot snapshot = new StateSnapshot(1_700_000_060_000L,
+            List.of(new StateSnapshot.TargetState(UUID.randomUUID(), "192.168.1.100", null, null, null,
+                30000, 1_700_000_065_000L, 0, 0, 5000)),
+            List.of());
+        byte[] bytes = write(snapshot);
+        byte[] corrupted = bytes.clone();
+        corrupted[40] ^= 1;
+
+        // When / Then
+        assertThatThrownBy(() -> StateSnapshot.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3))))
+            .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> StateSnapshot.readFrom(new ByteArrayInputStream(corrupted)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("checksum");
+    }
+
+    private static byte[] write(StateSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.writeTo(out);
+        return out.toByteArray();
+    }
+}
\ No newline at end of file
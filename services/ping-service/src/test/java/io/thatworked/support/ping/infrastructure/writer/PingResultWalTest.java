@@ -0,0 +1,151 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PingResultWal Tests")
+class PingResultWalTest {
+    
+    private static final int SEGMENT_BYTES = 100 * WalSegment.RECORD_SIZE;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should read back appended results with all fields intact")
+    void testAppendAndRead() throws Exception {
+        // Given
+        PingResult success = result(PingStatus.SUCCESS, 12.5);
+        PingResult timeout = result(PingStatus.TIMEOUT, null);
+        
+        try (PingResultWal wal = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            // When
+            wal.append(success);
+            wal.append(timeout);
+            List<PingResult> read = wal.read(10);
+            
+            // Then
+            assertThat(read).containsExactly(success, timeout);
+            assertThat(wal.read(10)).isEmpty();
+            assertThat(wal.pendingRecords()).isZero();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should replay uncommitted results after reopening")
+    void testReplayAfterRestart() throws Exception {
+        // Given
+        try (PingResultWal wal = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            for (int i = 0; i < 30; i++) {
+                wal.append(result(PingStatus.SUCCESS, (double) i));
+            }
+            assertThat(wal.read(20)).hasSize(20);
+            wal.commit();
+            
+            // Read but never stored, must come back
+            assertThat(wal.read(5)).hasSize(5);
+        }
+        
+        // When
+        try (PingResultWal reopened = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            List<PingResult> replayed = reopened.read(100);
+            
+            // Then
+            assertThat(replayed).hasSize(10);
+            assertThat(replayed.get(0).getRoundTripTime()).isEqualTo(20.0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should roll over segments and delete them once committed")
+    void testRolloverAndDeletion() throws Exception {
+        try (PingResultWal wal = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            // Given
+            for (int i = 0; i < 250; i++) {
+                wal.append(result(PingStatus.SUCCESS, (double) i));
+            }
+            assertThat(wal.segmentCount()).isEqualTo(3);
+            
+            // When
+            assertThat(wal.read(1000)).hasSize(250);
+            wal.commit();
+            
+            // Then
+            assertThat(wal.segmentCount()).isEqualTo(1);
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should reject appends once the disk budget is used")
+    void testDiskBudget() throws Exception {
+        try (PingResultWal wal = PingResultWal.open(directory, SEGMENT_BYTES, 2L * SEGMENT_BYTES)) {
+            // When
+            int accepted = 0;
+            for (int i = 0; i < 250; i++) {
+                if (wal.append(result(PingStatus.SUCCESS, 1.0))) {
+                    accepted++;
+                }
+            }
+            
+            // Then
+            assertThat(accepted).isEqualTo(200);
+            assertThat(wal.rejected()).isEqualTo(50);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should stop recovery at a torn record")
+    void testTornRecord() throws Exception {
+        // Given
+        try (PingResultWal wal = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            for (int i = 0; i < 3; i++) {
+                wal.append(result(PingStatus.SUCCESS, (double) i));
+            }
+        }
+        
+        // When - corrupt the round trip time of the third record
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}), 2L * WalSegment.RECORD_SIZE + 32);
+        }
+        
+        // Then
+        try (PingResultWal reopened = PingResultWal.open(directory, SEGMENT_BYTES, 10L * SEGMENT_BYTES)) {
+            assertThat(reopened.read(10)).hasSize(2);
+            
+            reopened.append(result(PingStatus.FAILURE, null));
+            assertThat(reopened.read(10)).extracting(PingResult::getStatus).containsExactly(PingStatus.FAILURE);
+        }
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(WalSegment.SUFFIX)).sorted().toList();
+        }
+    }
+    
+    private PingResult result(PingStatus status, Double roundTripTime) {
+        return PingResult.builder()
+                .time(Instant.now())
+                .deviceId(UUID.randomUUID())
+                .roundTripTime(roundTripTime)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
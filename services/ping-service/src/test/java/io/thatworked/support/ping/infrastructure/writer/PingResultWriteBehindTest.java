@@ -0,0 +1,225 @@
+package io.thatworked.support.ping.infrastructure.writer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.ping.config.ResultWriterConfig;
+import io.thatworked.support.ping.domain.PingResult;
+import io.thatworked.support.ping.domain.PingStatus;
+import io.thatworked.support.ping.infrastructure.metrics.PingMeters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PingResultWriteBehind Tests")
+class PingResultWriteBehindTest {
+    
+    @Mock
+    private StructuredLoggerFactory structuredLoggerFactory;
+    
+    @Mock
+    private StructuredLogger logger;
+    
+    @Mock
+    private StructuredLogger.ContextBuilder contextBuilder;
+    
+    @Mock
+    private PingResultBatchWriter batchWriter;
+    
+    @TempDir
+    Path walDirectory;
+    
+    private ResultWriterConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private PingResultWriteBehind writeBehind;
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        when(structuredLoggerFactory.getLogger(any())).thenReturn(logger);
+        when(logger.with(anyString(), any())).thenReturn(contextBuilder);
+        when(contextBuilder.with(anyString(), any())).thenReturn(contextBuilder);
+        
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            rowsWritten.addAndGet(batch.size());
+            return "copy";
+        });
+        
+        config = new ResultWriterConfig();
+        config.setBatchSize(100);
+        config.setFlushIntervalMs(60000);
+        config.setQueueCapacity(1000);
+        config.setMaxFlushAttempts(3);
+        
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new PingResultWriteBehind(structuredLoggerFactory, batchWriter, config, new PingMeters(meterRegistry));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+    }
+    
+    @Test
+    @DisplayName("Should flush a full batch without waiting for the flush interval")
+    void testFlushOnFullBatch() throws Exception {
+        // Given
+        writeBehind.start();
+        
+        // When
+        for (int i = 0; i < 100; i++) {
+            writeBehind.submit(result());
+        }
+        
+        // Then
+        verify(batchWriter, timeout(2000)).write(argThat(batch -> batch.size() == 100));
+        assertThat(writeBehind.getMetrics()).containsEntry("lastWriteMode", "copy");
+    }
+    
+    @Test
+    @DisplayName("Should drain queued results synchronously on stop")
+    void testDrainOnStop() {
+        // Given
+        writeBehind.start();
+        for (int i = 0; i < 250; i++) {
+            writeBehind.submit(result());
+        }
+        
+        // When
+        writeBehind.stop();
+        
+        // Then
+        assertThat(rowsWritten.get()).isEqualTo(250);
+        assertThat(writeBehind.getMetrics())
+            .containsEntry("queueDepth", 0)
+            .containsEntry("droppedRows", 0L);
+    }
+    
+    @Test
+    @DisplayName("Should reject results once the queue is full")
+    void testRejectWhenFull() throws Exception {
+        // Given - a batch size above capacity so nothing flushes before the interval
+        config.setBatchSize(5000);
+        config.setQueueCapacity(10);
+        writeBehind.start();
+        
+        // When
+        int accepted = 0;
+        for (int i = 0; i < 15; i++) {
+            if (writeBehind.submit(result())) {
+                accepted++;
+            }
+        }
+        
+        // Then
+        assertThat(accepted).isEqualTo(10);
+        assertThat(writeBehind.getMetrics()).containsEntry("rejected", 5L);
+    }
+    
+    @Test
+    @DisplayName("Should retry a failed batch before taking new results")
+    void testRetryFailedBatch() throws Exception {
+        // Given
+        when(batchWriter.write(anyList()))
+            .thenThrow(new SQLException("connection refused"))
+            .thenAnswer(invocation -> {
+                List<?> batch = invocation.getArgument(0);
+                rowsWritten.addAndGet(batch.size());
+                return "insert";
+            });
+        writeBehind.start();
+        
+        // When
+        for (int i = 0; i < 100; i++) {
+            writeBehind.submit(result());
+        }
+        writeBehind.stop();
+        
+        // Then
+        verify(batchWriter, times(2)).write(anyList());
+        assertThat(rowsWritten.get()).isEqualTo(100);
+        assertThat(writeBehind.getMetrics())
+            .containsEntry("failedFlushes", 1L)
+            .containsEntry("droppedRows", 0L);
+        assertThat(meterRegistry.get(PingMeters.RESULT_WRITE).tag("mode", "failed").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PingMeters.RESULT_WRITE).tag("mode", "insert").timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should keep results in the write-ahead log until the database accepts them")
+    void testWalReplayAfterRestart() throws Exception {
+        // Given - the database is down for the whole first run
+        config.setWalEnabled(true);
+        config.setWalDirectory(walDirectory.toString());
+        config.setFlushIntervalMs(50);
+        when(batchWriter.write(anyList())).thenThrow(new SQLException("connection refused"));
+        writeBehind.start();
+        for (int i = 0; i < 250; i++) {
+            writeBehind.submit(result());
+        }
+        writeBehind.stop();
+        
+        // When - restart with the database back
+        reset(batchWriter);
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            rowsWritten.addAndGet(batch.size());
+            return "copy";
+        });
+        writeBehind = new PingResultWriteBehind(structuredLoggerFactory, batchWriter, config, new PingMeters(new SimpleMeterRegistry()));
+        writeBehind.start();
+        writeBehind.stop();
+        
+        // Then
+        assertThat(rowsWritten.get()).isEqualTo(250);
+        assertThat(writeBehind.getMetrics())
+            .containsEntry("droppedRows", 0L)
+            .containsEntry("walPendingRecords", 0L);
+    }
+    
+    @Test
+    @DisplayName("Should not accept results when write-behind is disabled")
+    void testDisabled() {
+        // Given
+        config.setWriteBehindEnabled(false);
+        writeBehind.start();
+        
+        // When
+        boolean accepted = writeBehind.submit(result());
+        
+        // Then
+        assertThat(writeBehind.isEnabled()).isFalse();
+        assertThat(accepted).isFalse();
+        verifyNoInteractions(batchWriter);
+    }
+    
+    private PingResult result() {
+        return PingResult.builder()
+                .time(Instant.now())
+                .deviceId(UUID.randomUUID())
+                .roundTripTime(1.5)
+                .status(PingStatus.SUCCESS)
+                .build();
+    }
+}
\ No newline at end of file